@@ -138,6 +138,21 @@ public interface ConfigurationKeys {
      */
     String STORE_FILE_DIR = STORE_FILE_PREFIX + "dir";
 
+    /**
+     * The constant STORE_FILE_LOCK_TABLE
+     */
+    String STORE_FILE_LOCK_TABLE = STORE_FILE_PREFIX + "lockTable";
+
+    /**
+     * The constant STORE_FILE_SEGMENT_SIZE
+     */
+    String STORE_FILE_SEGMENT_SIZE = STORE_FILE_PREFIX + "segmentSize";
+
+    /**
+     * The constant STORE_FILE_CHECKPOINT_PERIOD
+     */
+    String STORE_FILE_CHECKPOINT_PERIOD = STORE_FILE_PREFIX + "checkpointPeriod";
+
     /**
      * The constant SERVICE_GROUP_MAPPING_PREFIX.
      */
@@ -192,6 +207,15 @@ public interface ConfigurationKeys {
      * The constant CLIENT_LOCK_RETRY_POLICY_BRANCH_ROLLBACK_ON_CONFLICT.
      */
     String CLIENT_LOCK_RETRY_POLICY_BRANCH_ROLLBACK_ON_CONFLICT = CLIENT_RM_LOCK_PREFIX + "retryPolicyBranchRollbackOnConflict";
+    /**
+     * The constant CLIENT_LOCK_WAIT_TIMEOUT.
+     */
+    String CLIENT_LOCK_WAIT_TIMEOUT = CLIENT_RM_LOCK_PREFIX + "waitTimeout";
+
+    /**
+     * The constant CLIENT_LOCK_BINARY_LOCK_KEY, send the lock keys in binary form when all the servers decode it.
+     */
+    String CLIENT_LOCK_BINARY_LOCK_KEY = CLIENT_RM_LOCK_PREFIX + "binaryLockKey";
 
     /**
      * The constant SERVICE_SESSION_RELOAD_READ_SIZE
@@ -274,6 +298,26 @@ public interface ConfigurationKeys {
      */
     String COMPRESSOR_FOR_RPC = TRANSPORT_PREFIX + "compressor";
 
+    /**
+     * The constant COMPRESSOR_MIN_BYTES, the bodies smaller than it are not compressed.
+     */
+    String COMPRESSOR_MIN_BYTES = TRANSPORT_PREFIX + "compressorMinBytes";
+
+    /**
+     * The constant COMPRESSOR_MESSAGE_TYPES, the compressors of message types, e.g. 11:zstd,1:none
+     */
+    String COMPRESSOR_MESSAGE_TYPES = TRANSPORT_PREFIX + "compressorMessageTypes";
+
+    /**
+     * The constant COMPRESSOR_ZSTD_DICTIONARY, the path of a trained zstd dictionary.
+     */
+    String COMPRESSOR_ZSTD_DICTIONARY = TRANSPORT_PREFIX + "compressorZstdDictionary";
+
+    /**
+     * The constant COMPRESSOR_ZSTD_LEVEL, the compression level of zstd.
+     */
+    String COMPRESSOR_ZSTD_LEVEL = TRANSPORT_PREFIX + "compressorZstdLevel";
+
     /**
      * The constant STORE_DB_PREFIX.
      */
@@ -354,6 +398,26 @@ public interface ConfigurationKeys {
      */
     String LOCK_DB_TABLE = STORE_DB_PREFIX + "lockTable";
 
+    /**
+     * The constant STORE_DB_LOCK_BATCH_WINDOW.
+     */
+    String STORE_DB_LOCK_BATCH_WINDOW = STORE_DB_PREFIX + "lockBatchWindow";
+
+    /**
+     * The constant STORE_DB_LOCK_BATCH_SIZE.
+     */
+    String STORE_DB_LOCK_BATCH_SIZE = STORE_DB_PREFIX + "lockBatchSize";
+
+    /**
+     * The constant STORE_DB_LOCK_CACHE_ENABLED.
+     */
+    String STORE_DB_LOCK_CACHE_ENABLED = STORE_DB_PREFIX + "lockCacheEnabled";
+
+    /**
+     * The constant STORE_DB_LOCK_CACHE_TTL.
+     */
+    String STORE_DB_LOCK_CACHE_TTL = STORE_DB_PREFIX + "lockCacheTtl";
+
     /**
      * The constant SERVER_RPC_PORT.
      */
@@ -399,6 +463,16 @@ public interface ConfigurationKeys {
      */
     String TIMEOUT_RETRY_PERIOD = RECOVERY_PREFIX + "timeoutRetryPeriod";
 
+    /**
+     * The constant RECOVERY_TIMING_WHEEL_ENABLE.
+     */
+    String RECOVERY_TIMING_WHEEL_ENABLE = RECOVERY_PREFIX + "timingWheelEnable";
+
+    /**
+     * The constant RECOVERY_TIMING_WHEEL_TICK_DURATION.
+     */
+    String RECOVERY_TIMING_WHEEL_TICK_DURATION = RECOVERY_PREFIX + "timingWheelTickDuration";
+
     /**
      * The constant CLIENT_UNDO_PREFIX.
      */
@@ -419,6 +493,12 @@ public interface ConfigurationKeys {
      */
     String TRANSACTION_UNDO_ONLY_CARE_UPDATE_COLUMNS = CLIENT_UNDO_PREFIX + "onlyCareUpdateColumns";
 
+    /**
+     * The constant TRANSACTION_UNDO_DERIVE_AFTER_IMAGE, derive the after image of the update from the before image
+     * without querying it again when it is provably the same.
+     */
+    String TRANSACTION_UNDO_DERIVE_AFTER_IMAGE = CLIENT_UNDO_PREFIX + "deriveAfterImage";
+
     /**
      * the constant CLIENT_UNDO_COMPRESS_PREFIX
      */
@@ -648,11 +728,21 @@ public interface ConfigurationKeys {
      */
     String ENABLE_RM_CLIENT_BATCH_SEND_REQUEST = TRANSPORT_PREFIX + "enableRmClientBatchSendRequest";
 
+    /**
+     * The constant CLIENT_CONNECTIONS_PER_SERVER
+     */
+    String CLIENT_CONNECTIONS_PER_SERVER = TRANSPORT_PREFIX + "connectionsPerServer";
+
     /**
      * The constant ENABLE_TC_SERVER_BATCH_SEND_RESPONSE
      */
     String ENABLE_TC_SERVER_BATCH_SEND_RESPONSE = TRANSPORT_PREFIX + "enableTcServerBatchSendResponse";
 
+    /**
+     * The constant ENABLE_HEAD_MAP_DICTIONARY, send the repeated headers by id once the peer supports it.
+     */
+    String ENABLE_HEAD_MAP_DICTIONARY = TRANSPORT_PREFIX + "enableHeadMapDictionary";
+
     /**
      * The constant DISABLE_GLOBAL_TRANSACTION.
      */
@@ -663,6 +753,11 @@ public interface ConfigurationKeys {
      */
     String SQL_PARSER_TYPE = CLIENT_RM_PREFIX + "sqlParserType";
 
+    /**
+     * The constant SQL_RECOGNIZER_CACHE_SIZE, the total length of the sql of the cached recognizers, 0 to disable.
+     */
+    String SQL_RECOGNIZER_CACHE_SIZE = CLIENT_RM_PREFIX + "sqlRecognizerCacheSize";
+
     /**
      * The constant STORE_REDIS_MODE.
      */
@@ -987,11 +1082,36 @@ public interface ConfigurationKeys {
      */
     String ENABLE_PARALLEL_REQUEST_HANDLE_KEY = SERVER_PREFIX + "enableParallelRequestHandle";
 
+    /**
+     * The constant PARALLEL_REQUEST_HANDLE_THREADS_KEY
+     */
+    String PARALLEL_REQUEST_HANDLE_THREADS_KEY = SERVER_PREFIX + "parallelRequestHandleThreads";
+
+    /**
+     * The constant PARALLEL_REQUEST_HANDLE_QUEUE_SIZE_KEY
+     */
+    String PARALLEL_REQUEST_HANDLE_QUEUE_SIZE_KEY = SERVER_PREFIX + "parallelRequestHandleQueueSize";
+
     /**
      * The constant ENABLE_PARALLEL_HANDLE_BRANCH_KEY
      */
     String ENABLE_PARALLEL_HANDLE_BRANCH_KEY = SERVER_PREFIX + "enableParallelHandleBranch";
 
+    /**
+     * The constant PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT_KEY
+     */
+    String PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT_KEY = SERVER_PREFIX + "parallelHandleBranchMaxInFlight";
+
+    /**
+     * The constant ENABLE_BATCH_PHASE_TWO_KEY
+     */
+    String ENABLE_BATCH_PHASE_TWO_KEY = SERVER_PREFIX + "enableBatchPhaseTwo";
+
+    /**
+     * The constant BATCH_PHASE_TWO_MAX_SIZE_KEY
+     */
+    String BATCH_PHASE_TWO_MAX_SIZE_KEY = SERVER_PREFIX + "batchPhaseTwoMaxSize";
+
     /**
      * The constant RM_APPLICATION_DATA_SIZE_ERROR
      */
@@ -1012,6 +1132,26 @@ public interface ConfigurationKeys {
      */
     String SERVER_APPLICATION_DATA_SIZE_CHECK = SERVER_PREFIX + "applicationDataLimitCheck";
 
+    /**
+     * The constant SERVER_ENABLE_LOCK_WAIT
+     */
+    String SERVER_ENABLE_LOCK_WAIT = SERVER_PREFIX + "enableLockWait";
+
+    /**
+     * The constant SERVER_MAX_LOCK_WAIT_TIMEOUT
+     */
+    String SERVER_MAX_LOCK_WAIT_TIMEOUT = SERVER_PREFIX + "maxLockWaitTimeout";
+
+    /**
+     * The constant SERVER_ENABLE_VIRTUAL_THREADS
+     */
+    String SERVER_ENABLE_VIRTUAL_THREADS = SERVER_PREFIX + "enableVirtualThreads";
+
+    /**
+     * The constant SERVER_MAX_VIRTUAL_THREADS
+     */
+    String SERVER_MAX_VIRTUAL_THREADS = SERVER_PREFIX + "maxVirtualThreads";
+
     /**
      * The constant ROCKET_MQ_MSG_TIMEOUT
      */
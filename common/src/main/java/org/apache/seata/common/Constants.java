@@ -190,6 +190,11 @@ public interface Constants {
      */
     String SKIP_CHECK_LOCK = "skipCheckLock";
 
+    /**
+     * The constant LOCK_WAIT_TIMEOUT
+     */
+    String LOCK_WAIT_TIMEOUT = "lockWaitTimeout";
+
     /**
      * The constant REGISTRY_TYPE_SPLIT_CHAR.
      */
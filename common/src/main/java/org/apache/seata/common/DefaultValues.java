@@ -23,6 +23,8 @@ public interface DefaultValues {
     int DEFAULT_TM_DEGRADE_CHECK_ALLOW_TIMES = 10;
     int DEFAULT_CLIENT_LOCK_RETRY_TIMES = 30;
     boolean DEFAULT_CLIENT_LOCK_RETRY_POLICY_BRANCH_ROLLBACK_ON_CONFLICT = true;
+    int DEFAULT_CLIENT_LOCK_WAIT_TIMEOUT = 0;
+    boolean DEFAULT_CLIENT_LOCK_BINARY_LOCK_KEY = false;
     int DEFAULT_LOG_EXCEPTION_RATE = 100;
     int DEFAULT_CLIENT_ASYNC_COMMIT_BUFFER_LIMIT = 10000;
     int DEFAULT_TM_DEGRADE_CHECK_PERIOD = 2000;
@@ -30,6 +32,7 @@ public interface DefaultValues {
     boolean DEFAULT_CLIENT_REPORT_SUCCESS_ENABLE = false;
     boolean DEFAULT_CLIENT_TABLE_META_CHECK_ENABLE = true;
     long DEFAULT_TABLE_META_CHECKER_INTERVAL = 60000L;
+    long DEFAULT_SQL_RECOGNIZER_CACHE_SIZE = 262144L;
     boolean DEFAULT_TM_DEGRADE_CHECK = false;
     boolean DEFAULT_CLIENT_SAGA_BRANCH_REGISTER_ENABLE = false;
 
@@ -37,6 +40,21 @@ public interface DefaultValues {
      * The default session store dir
      */
     String DEFAULT_SESSION_STORE_FILE_DIR = "sessionStore";
+
+    /**
+     * The default lock table of file and raft lock mode, map or compact
+     */
+    String DEFAULT_STORE_FILE_LOCK_TABLE = "map";
+
+    /**
+     * The default size of a session log segment of file session mode, 64mb
+     */
+    int DEFAULT_STORE_FILE_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The default period of the session log checkpoint of file session mode, in millis
+     */
+    long DEFAULT_STORE_FILE_CHECKPOINT_PERIOD = 60 * 1000L;
     boolean DEFAULT_CLIENT_SAGA_RETRY_PERSIST_MODE_UPDATE = false;
     boolean DEFAULT_CLIENT_SAGA_COMPENSATE_PERSIST_MODE_UPDATE = false;
     String DEFAULT_RAFT_SERIALIZATION = "jackson";
@@ -57,6 +75,10 @@ public interface DefaultValues {
     boolean DEFAULT_ENABLE_TM_CLIENT_BATCH_SEND_REQUEST = false;
     boolean DEFAULT_ENABLE_RM_CLIENT_BATCH_SEND_REQUEST = true;
     boolean DEFAULT_ENABLE_TC_SERVER_BATCH_SEND_RESPONSE = false;
+    boolean DEFAULT_ENABLE_HEAD_MAP_DICTIONARY = true;
+    int DEFAULT_CLIENT_CONNECTIONS_PER_SERVER = 1;
+    int DEFAULT_COMPRESSOR_MIN_BYTES = 0;
+    int DEFAULT_COMPRESSOR_ZSTD_LEVEL = 3;
 
     boolean DEFAULT_CLIENT_CHANNEL_CHECK_FAIL_FAST = true;
 
@@ -68,6 +90,7 @@ public interface DefaultValues {
     boolean DEFAULT_TRANSACTION_UNDO_DATA_VALIDATION = true;
     String DEFAULT_TRANSACTION_UNDO_LOG_SERIALIZATION = "jackson";
     boolean DEFAULT_ONLY_CARE_UPDATE_COLUMNS = true;
+    boolean DEFAULT_DERIVE_AFTER_IMAGE = false;
     /**
      * The constant  DEFAULT_TRANSACTION_UNDO_LOG_TABLE.
      */
@@ -92,6 +115,26 @@ public interface DefaultValues {
      */
     String DEFAULT_DISTRIBUTED_LOCK_DB_TABLE = "distributed_lock";
 
+    /**
+     * The default window in millis in which the lock writes of db lock mode are batched, 0 disables the batching
+     */
+    int DEFAULT_STORE_DB_LOCK_BATCH_WINDOW = 0;
+
+    /**
+     * The default max number of lock writes in a batch of db lock mode
+     */
+    int DEFAULT_STORE_DB_LOCK_BATCH_SIZE = 128;
+
+    /**
+     * Whether the row locks of db lock mode are cached in memory by default
+     */
+    boolean DEFAULT_STORE_DB_LOCK_CACHE_ENABLED = false;
+
+    /**
+     * The default time in millis a cached row lock of db lock mode is trusted
+     */
+    long DEFAULT_STORE_DB_LOCK_CACHE_TTL = 1000L;
+
     int DEFAULT_TM_COMMIT_RETRY_COUNT = 5;
     int DEFAULT_TM_ROLLBACK_RETRY_COUNT = 5;
     int DEFAULT_GLOBAL_TRANSACTION_TIMEOUT = 60000;
@@ -202,6 +245,51 @@ public interface DefaultValues {
      */
     int DEFAULT_APPLICATION_DATA_SIZE_LIMIT = 64000;
 
+    /**
+     * the constant DEFAULT_PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT
+     */
+    int DEFAULT_PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT = 16;
+
+    /**
+     * the constant DEFAULT_ENABLE_BATCH_PHASE_TWO
+     */
+    boolean DEFAULT_ENABLE_BATCH_PHASE_TWO = false;
+
+    /**
+     * the constant DEFAULT_BATCH_PHASE_TWO_MAX_SIZE
+     */
+    int DEFAULT_BATCH_PHASE_TWO_MAX_SIZE = 200;
+
+    /**
+     * the constant DEFAULT_PARALLEL_REQUEST_HANDLE_THREADS
+     */
+    int DEFAULT_PARALLEL_REQUEST_HANDLE_THREADS = 16;
+
+    /**
+     * the constant DEFAULT_PARALLEL_REQUEST_HANDLE_QUEUE_SIZE, per thread
+     */
+    int DEFAULT_PARALLEL_REQUEST_HANDLE_QUEUE_SIZE = 1024;
+
+    /**
+     * the constant DEFAULT_SERVER_ENABLE_LOCK_WAIT
+     */
+    boolean DEFAULT_SERVER_ENABLE_LOCK_WAIT = false;
+
+    /**
+     * the constant DEFAULT_SERVER_MAX_LOCK_WAIT_TIMEOUT
+     */
+    long DEFAULT_SERVER_MAX_LOCK_WAIT_TIMEOUT = 5000L;
+
+    /**
+     * the constant DEFAULT_SERVER_ENABLE_VIRTUAL_THREADS
+     */
+    boolean DEFAULT_SERVER_ENABLE_VIRTUAL_THREADS = false;
+
+    /**
+     * the constant DEFAULT_SERVER_MAX_VIRTUAL_THREADS
+     */
+    int DEFAULT_SERVER_MAX_VIRTUAL_THREADS = 10000;
+
     /**
      * the constant DEFAULT_XAER_NOTA_RETRY_TIMEOUT
      */
@@ -241,6 +329,16 @@ public interface DefaultValues {
      */
     int DEFAULT_TIMEOUT_RETRY_PERIOD = 1000;
 
+    /**
+     * the constant DEFAULT_RECOVERY_TIMING_WHEEL_ENABLE
+     */
+    boolean DEFAULT_RECOVERY_TIMING_WHEEL_ENABLE = false;
+
+    /**
+     * the constant DEFAULT_RECOVERY_TIMING_WHEEL_TICK_DURATION
+     */
+    long DEFAULT_RECOVERY_TIMING_WHEEL_TICK_DURATION = 100L;
+
     /**
      * the constant DEFAULT_UNDO_LOG_DELETE_PERIOD
      */
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.common.thread;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each task on a thread of its own, with at most maxThreads tasks running at once.
+ * <p>
+ * A task submitted while all of them run is run by the submitting thread, as the caller runs policy of a thread pool
+ * does, so a saturated executor still pushes back on its callers.
+ */
+public class BoundedThreadPerTaskExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    private final Semaphore permits;
+
+    private final int maxThreads;
+
+    /**
+     * Instantiates a new Bounded thread per task executor.
+     *
+     * @param delegate   the executor starting a thread per task
+     * @param maxThreads the max number of tasks running at once
+     */
+    public BoundedThreadPerTaskExecutor(ExecutorService delegate, int maxThreads) {
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("maxThreads must be positive: " + maxThreads);
+        }
+        this.delegate = delegate;
+        this.maxThreads = maxThreads;
+        this.permits = new Semaphore(maxThreads);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (delegate.isShutdown()) {
+            throw new RejectedExecutionException("executor has been shut down");
+        }
+        if (!permits.tryAcquire()) {
+            command.run();
+            return;
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of tasks running on threads of this executor.
+     *
+     * @return the active count
+     */
+    public int getActiveCount() {
+        return maxThreads - permits.availablePermits();
+    }
+
+    /**
+     * Gets the max number of tasks running at once.
+     *
+     * @return the max threads
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.common.thread;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An executor of the tasks partitioned by key over a shared pool, with bounded queues.
+ * <p>
+ * The tasks of the same key run one after another, in the order they were submitted, on any thread of the pool. The
+ * tasks of different keys and the tasks without a key run in parallel, so a long task only holds back the later tasks
+ * of its own key. A task is rejected when its key already has the max number of tasks waiting, or the executor has as
+ * many tasks waiting as its threads could queue, instead of growing the queue or running on the submitting thread.
+ */
+public class PartitionedExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+
+    private final Map<Object, SerialQueue> serialQueues = new ConcurrentHashMap<>();
+
+    private final int queueCapacity;
+
+    private final int maxWaiting;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Instantiates a new Partitioned executor.
+     *
+     * @param name          the thread name prefix
+     * @param threads       the number of threads
+     * @param queueCapacity the max number of tasks waiting for each thread, and for each key
+     */
+    public PartitionedExecutor(String name, int threads, int queueCapacity) {
+        this(new NamedThreadFactory(name, threads), threads, queueCapacity);
+    }
+
+    /**
+     * Instantiates a new Partitioned executor.
+     *
+     * @param threadFactory the factory of the threads
+     * @param threads       the number of threads
+     * @param queueCapacity the max number of tasks waiting for each thread, and for each key
+     */
+    public PartitionedExecutor(ThreadFactory threadFactory, int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException(
+                "threads and queueCapacity must be positive: " + threads + ", " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        this.maxWaiting = threads * queueCapacity;
+        // the waiting tasks are bounded before they are queued
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Run a task after the tasks of the same key submitted before.
+     *
+     * @param key  the key, null to run the task without order
+     * @param task the task
+     * @throws RejectedExecutionException if the executor or the key is saturated, or the executor is shut down
+     */
+    public void execute(Object key, Runnable task) {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            reject();
+        }
+        if (key == null) {
+            try {
+                pool.execute(() -> {
+                    waiting.decrementAndGet();
+                    task.run();
+                });
+            } catch (RejectedExecutionException e) {
+                reject();
+            }
+            return;
+        }
+        SerialQueue[] created = new SerialQueue[1];
+        boolean[] full = new boolean[1];
+        serialQueues.compute(key, (k, queue) -> {
+            if (queue == null) {
+                queue = new SerialQueue(k);
+                created[0] = queue;
+            } else if (queue.tasks.size() > queueCapacity) {
+                // the head of the queue is running
+                full[0] = true;
+                return queue;
+            }
+            queue.tasks.add(task);
+            return queue;
+        });
+        if (full[0]) {
+            reject();
+        }
+        if (created[0] != null) {
+            try {
+                pool.execute(created[0]);
+            } catch (RejectedExecutionException e) {
+                // only once shut down, the tasks queued for the key meanwhile are dropped as well
+                serialQueues.remove(key, created[0]);
+                int dropped = created[0].tasks.size();
+                waiting.addAndGet(-dropped);
+                rejectedCount.add(dropped);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tasks waiting to run.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    /**
+     * Gets the number of threads running a task.
+     *
+     * @return the active count
+     */
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * Gets the number of rejected tasks.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Stop accepting tasks, the queued tasks still run.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void reject() {
+        waiting.decrementAndGet();
+        rejectedCount.increment();
+        throw new RejectedExecutionException("the partitioned executor is saturated or shut down");
+    }
+
+    /**
+     * The tasks of a key, run one after another on the pool. The running task stays at the head of the queue, and the
+     * queue leaves the map with its last task, so the next task of the key creates and schedules a new one.
+     */
+    private class SerialQueue implements Runnable {
+
+        private final Object key;
+
+        /**
+         * guarded by the map entry of the key
+         */
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        SerialQueue(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            Runnable task = nextTask(false);
+            while (task != null) {
+                waiting.decrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    LOGGER.error("run the task of {} error: {}", key, t.getMessage(), t);
+                }
+                task = nextTask(true);
+            }
+        }
+
+        private Runnable nextTask(boolean done) {
+            Runnable[] next = new Runnable[1];
+            serialQueues.computeIfPresent(key, (k, queue) -> {
+                if (done) {
+                    queue.tasks.poll();
+                }
+                next[0] = queue.tasks.peek();
+                return next[0] == null ? null : queue;
+            });
+            return next[0];
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.common.thread;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates virtual threads on the JDKs which have them, through reflection since the code is built for Java 8.
+ */
+public final class VirtualThreads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method BUILDER_NAME;
+
+    private static final Method BUILDER_FACTORY;
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // fails when virtual threads are a preview feature which is not enabled
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            ofVirtual = null;
+            LOGGER.debug("virtual threads are not supported: {}", t.toString());
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether the JDK can create virtual threads.
+     *
+     * @return the boolean
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create a factory of virtual threads named prefix_0, prefix_1 and so on.
+     *
+     * @param prefix the thread name prefix
+     * @return the thread factory, or null if virtual threads are not supported
+     */
+    public static ThreadFactory newThreadFactory(String prefix) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "_", 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("create virtual thread factory error: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Create a factory of virtual threads when they are enabled and supported, of platform threads otherwise.
+     *
+     * @param prefix    the thread name prefix
+     * @param totalSize the max number of platform threads
+     * @param enabled   whether virtual threads are enabled
+     * @return the thread factory
+     */
+    public static ThreadFactory newThreadFactory(String prefix, int totalSize, boolean enabled) {
+        if (enabled) {
+            ThreadFactory threadFactory = newThreadFactory(prefix);
+            if (threadFactory != null) {
+                return threadFactory;
+            }
+            LOGGER.warn("virtual threads are enabled but not supported by this JDK, use platform threads for {}", prefix);
+        }
+        return new NamedThreadFactory(prefix, totalSize);
+    }
+
+    /**
+     * Create an executor starting a virtual thread per task, with at most maxThreads of them running at once.
+     *
+     * @param prefix     the thread name prefix
+     * @param maxThreads the max number of tasks running at once
+     * @return the executor, or null if virtual threads are not supported
+     */
+    public static BoundedThreadPerTaskExecutor newThreadPerTaskExecutor(String prefix, int maxThreads) {
+        ThreadFactory threadFactory = newThreadFactory(prefix);
+        if (threadFactory == null) {
+            return null;
+        }
+        try {
+            ExecutorService executor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+            return new BoundedThreadPerTaskExecutor(executor, maxThreads);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("create virtual thread per task executor error: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+}
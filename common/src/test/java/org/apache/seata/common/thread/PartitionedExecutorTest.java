@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.common.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Partitioned executor test.
+ */
+public class PartitionedExecutorTest {
+
+    private PartitionedExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new PartitionedExecutor("partitionedExecutorTest", 4, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSameKeyInOrder() throws InterruptedException {
+        PartitionedExecutor ordered = new PartitionedExecutor("partitionedExecutorOrder", 4, 128);
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            ordered.execute("127.0.0.1:8091:1", () -> {
+                results.add(value);
+                latch.countDown();
+            });
+        }
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i, results.get(i));
+        }
+        ordered.shutdown();
+    }
+
+    @Test
+    public void testRejectWhenSaturated() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String key = "127.0.0.1:8091:2";
+        executor.execute(key, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.execute(key, () -> { });
+        executor.execute(key, () -> { });
+        Assertions.assertEquals(2, executor.getQueueDepth());
+        Assertions.assertEquals(1, executor.getActiveCount());
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(key, () -> { }));
+        Assertions.assertEquals(1, executor.getRejectedCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testOtherKeysNotHeldBack() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("127.0.0.1:8091:3", () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        // a long task only holds back the later tasks of its own key
+        CountDownLatch others = new CountDownLatch(6);
+        for (int i = 0; i < 3; i++) {
+            executor.execute("127.0.0.1:8091:" + (4 + i), others::countDown);
+            executor.execute(null, others::countDown);
+        }
+        Assertions.assertTrue(others.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PartitionedExecutor("invalid", 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PartitionedExecutor("invalid", 1, 0));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.common.thread;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Virtual threads test.
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void testNewThreadFactory() throws Exception {
+        ThreadFactory threadFactory = VirtualThreads.newThreadFactory("virtualThreadsTest");
+        if (!VirtualThreads.isSupported()) {
+            Assertions.assertNull(threadFactory);
+            return;
+        }
+        Assertions.assertNotNull(threadFactory);
+        Thread thread = threadFactory.newThread(() -> { });
+        Assertions.assertEquals("virtualThreadsTest_0", thread.getName());
+        Assertions.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        Assertions.assertEquals("virtualThreadsTest_1", threadFactory.newThread(() -> { }).getName());
+    }
+
+    @Test
+    public void testPartitionedExecutorOnVirtualThreads() throws InterruptedException {
+        ThreadFactory threadFactory = VirtualThreads.newThreadFactory("virtualThreadsPartition");
+        if (threadFactory == null) {
+            return;
+        }
+        PartitionedExecutor executor = new PartitionedExecutor(threadFactory, 2, 16);
+        CountDownLatch latch = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(i, latch::countDown);
+        }
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFallbackToPlatformThreads() {
+        Assertions.assertTrue(VirtualThreads.newThreadFactory("platformThreads", 1, false) instanceof NamedThreadFactory);
+    }
+
+    @Test
+    public void testThreadPerTaskExecutorRunsOnCallerWhenSaturated() throws InterruptedException {
+        BoundedThreadPerTaskExecutor executor = VirtualThreads.newThreadPerTaskExecutor("virtualThreadsPerTask", 1);
+        if (executor == null) {
+            return;
+        }
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, executor.getActiveCount());
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+        executor.execute(() -> ranOn[0] = Thread.currentThread());
+        Assertions.assertSame(caller, ranOn[0]);
+        release.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, executor.getActiveCount());
+    }
+}
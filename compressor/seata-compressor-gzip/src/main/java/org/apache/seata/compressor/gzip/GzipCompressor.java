@@ -16,6 +16,8 @@
  */
 package org.apache.seata.compressor.gzip;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import org.apache.seata.common.loader.LoadLevel;
 import org.apache.seata.core.compressor.Compressor;
 
@@ -33,4 +35,14 @@ public class GzipCompressor implements Compressor {
         return GzipUtil.decompress(bytes);
     }
 
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        GzipUtil.compress(in, out);
+    }
+
+    @Override
+    public ByteBuf decompress(ByteBuf in, ByteBufAllocator alloc) {
+        return GzipUtil.decompress(in, alloc);
+    }
+
 }
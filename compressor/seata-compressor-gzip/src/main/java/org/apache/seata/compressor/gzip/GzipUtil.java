@@ -16,6 +16,11 @@
  */
 package org.apache.seata.compressor.gzip;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -64,4 +69,27 @@ public class GzipUtil {
         }
     }
 
+    public static void compress(ByteBuf in, ByteBuf out) {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(new ByteBufOutputStream(out))) {
+            in.readBytes(gzip, in.readableBytes());
+            gzip.finish();
+        } catch (IOException e) {
+            throw new RuntimeException("gzip compress error", e);
+        }
+    }
+
+    public static ByteBuf decompress(ByteBuf in, ByteBufAllocator alloc) {
+        ByteBuf out = alloc.buffer(in.readableBytes() * 2);
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteBufInputStream(in))) {
+            while (out.writeBytes(gunzip, BUFFER_SIZE) > -1) {
+                // read to the end of the stream
+            }
+            in.skipBytes(in.readableBytes());
+            return out;
+        } catch (IOException e) {
+            out.release();
+            throw new RuntimeException("gzip decompress error", e);
+        }
+    }
+
 }
@@ -16,9 +16,14 @@
  */
 package org.apache.seata.compressor.gzip;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+
 
 public class GzipCompressorTest {
 
@@ -30,4 +35,35 @@ public class GzipCompressorTest {
         bytes = compressor.decompress(bytes);
         Assertions.assertEquals(new String(bytes), "aa");
     }
+
+    @Test
+    public void testCompressAndDecompressByteBuf() {
+        GzipCompressor compressor = new GzipCompressor();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i);
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuf compressed = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            compressor.compress(Unpooled.wrappedBuffer(bytes), compressed);
+            Assertions.assertArrayEquals(bytes, compressor.decompress(toBytes(compressed.duplicate())));
+
+            ByteBuf decompressed = compressor.decompress(compressed, PooledByteBufAllocator.DEFAULT);
+            try {
+                Assertions.assertEquals(0, compressed.readableBytes());
+                Assertions.assertArrayEquals(bytes, toBytes(decompressed));
+            } finally {
+                decompressed.release();
+            }
+        } finally {
+            compressed.release();
+        }
+    }
+
+    private static byte[] toBytes(ByteBuf buf) {
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
 }
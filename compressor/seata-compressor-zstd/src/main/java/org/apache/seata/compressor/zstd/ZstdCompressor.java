@@ -16,24 +16,56 @@
  */
 package org.apache.seata.compressor.zstd;
 
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
 import org.apache.seata.common.loader.LoadLevel;
 import org.apache.seata.core.compressor.Compressor;
 
 /**
  * the Zstd Compressor
- *
+ * <p>
+ * The messages are compressed with a trained dictionary if one is given. The peers must have the same dictionary to
+ * decompress them, while the messages compressed without a dictionary are always decompressed. The dictionary and the
+ * level of the transport are passed in by {@link org.apache.seata.core.compressor.CompressionPolicy}.
  */
 @LoadLevel(name = "ZSTD")
 public class ZstdCompressor implements Compressor {
 
+    private final int level;
+
+    private final ZstdDictCompress dictCompress;
+
+    private final ZstdDictDecompress dictDecompress;
+
+    public ZstdCompressor() {
+        this(null, ZstdUtil.DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Instantiates a new Zstd compressor.
+     *
+     * @param dictionary the trained dictionary, null to compress without dictionary
+     * @param level      the compression level
+     */
+    public ZstdCompressor(byte[] dictionary, int level) {
+        this.level = level;
+        if (dictionary == null || dictionary.length == 0) {
+            dictCompress = null;
+            dictDecompress = null;
+        } else {
+            dictCompress = new ZstdDictCompress(dictionary, level);
+            dictDecompress = new ZstdDictDecompress(dictionary);
+        }
+    }
+
     @Override
     public byte[] compress(byte[] bytes) {
-        return ZstdUtil.compress(bytes);
+        return dictCompress == null ? ZstdUtil.compress(bytes, level) : ZstdUtil.compress(bytes, dictCompress);
     }
 
     @Override
     public byte[] decompress(byte[] bytes) {
-        return ZstdUtil.decompress(bytes);
+        return ZstdUtil.decompress(bytes, dictDecompress);
     }
 
 }
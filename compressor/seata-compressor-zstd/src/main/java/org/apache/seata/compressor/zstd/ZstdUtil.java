@@ -16,7 +16,12 @@
  */
 package org.apache.seata.compressor.zstd;
 
+import java.util.List;
+
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
 
 /**
  * the Zstd Util
@@ -24,6 +29,11 @@ import com.github.luben.zstd.Zstd;
  */
 public class ZstdUtil {
 
+    /**
+     * The default compression level of zstd.
+     */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
     public static byte[] compress(byte[] bytes) {
         if (bytes == null) {
             throw new NullPointerException("bytes is null");
@@ -32,6 +42,21 @@ public class ZstdUtil {
         return Zstd.compress(bytes);
     }
 
+    /**
+     * Compress with a compression level.
+     *
+     * @param bytes the bytes
+     * @param level the compression level
+     * @return the compressed bytes
+     */
+    public static byte[] compress(byte[] bytes, int level) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+
+        return Zstd.compress(bytes, level);
+    }
+
     public static byte[] decompress(byte[] bytes) {
         if (bytes == null) {
             throw new NullPointerException("bytes is null");
@@ -42,4 +67,52 @@ public class ZstdUtil {
         Zstd.decompress(decompressBytes, bytes);
         return decompressBytes;
     }
+
+    public static byte[] compress(byte[] bytes, ZstdDictCompress dictionary) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+
+        return Zstd.compress(bytes, dictionary);
+    }
+
+    /**
+     * Decompress a frame, with the dictionary if the frame was compressed with one.
+     *
+     * @param bytes      the frame
+     * @param dictionary the dictionary, may be null
+     * @return the decompressed bytes
+     */
+    public static byte[] decompress(byte[] bytes, ZstdDictDecompress dictionary) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        if (Zstd.getDictIdFromFrame(bytes) == 0) {
+            return decompress(bytes);
+        }
+        if (dictionary == null) {
+            throw new IllegalArgumentException("the frame is compressed with a dictionary, but none is configured");
+        }
+
+        return Zstd.decompress(bytes, dictionary, (int) Zstd.decompressedSize(bytes));
+    }
+
+    /**
+     * Train a dictionary with samples of serialized messages.
+     *
+     * @param samples        the samples
+     * @param dictionarySize the max size of the dictionary
+     * @return the dictionary
+     */
+    public static byte[] trainDictionary(List<byte[]> samples, int dictionarySize) {
+        int samplesSize = 0;
+        for (byte[] sample : samples) {
+            samplesSize += sample.length;
+        }
+        ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, dictionarySize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return trainer.trainSamples();
+    }
 }
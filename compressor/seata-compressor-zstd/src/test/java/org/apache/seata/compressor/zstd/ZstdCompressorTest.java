@@ -16,9 +16,12 @@
  */
 package org.apache.seata.compressor.zstd;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -50,4 +53,34 @@ public class ZstdCompressorTest {
         bytes = compressor.compress(bytes);
         System.out.println("compressed size=" + bytes.length);
     }
+
+    @Test
+    public void testCompressWithDictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(branchRegister(i));
+        }
+        byte[] dictionary = ZstdUtil.trainDictionary(samples, 4096);
+        Assertions.assertTrue(dictionary.length > 0);
+
+        ZstdCompressor dictCompressor = new ZstdCompressor(dictionary, ZstdUtil.DEFAULT_COMPRESSION_LEVEL);
+        ZstdCompressor plainCompressor = new ZstdCompressor(null, ZstdUtil.DEFAULT_COMPRESSION_LEVEL);
+        byte[] message = branchRegister(1000);
+        byte[] dictCompressed = dictCompressor.compress(message);
+        byte[] plainCompressed = plainCompressor.compress(message);
+        Assertions.assertTrue(dictCompressed.length < plainCompressed.length,
+            dictCompressed.length + " >= " + plainCompressed.length);
+        Assertions.assertArrayEquals(message, dictCompressor.decompress(dictCompressed));
+
+        // the frames without dictionary are still decompressed
+        Assertions.assertArrayEquals(message, dictCompressor.decompress(plainCompressed));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> plainCompressor.decompress(dictCompressed));
+    }
+
+    private static byte[] branchRegister(int i) {
+        return ("{\"xid\":\"192.168.0.1:8091:" + (2000042948L + i) + "\",\"branchType\":\"AT\","
+            + "\"resourceId\":\"jdbc:mysql://192.168.0.1:3306/seata_order\",\"lockKey\":\"order_tbl:"
+            + i + "," + (i + 1) + ";stock_tbl:" + (i * 7) + "\",\"applicationData\":null}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
 }
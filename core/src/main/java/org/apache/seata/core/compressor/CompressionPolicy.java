@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.compressor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.seata.common.loader.EnhancedServiceLoader;
+import org.apache.seata.common.util.CollectionUtils;
+import org.apache.seata.common.util.StringUtils;
+import org.apache.seata.config.Configuration;
+import org.apache.seata.config.ConfigurationFactory;
+import org.apache.seata.core.protocol.MessageTypeAware;
+import org.apache.seata.core.protocol.ProtocolConstants;
+
+import static org.apache.seata.common.ConfigurationKeys.COMPRESSOR_FOR_RPC;
+import static org.apache.seata.common.ConfigurationKeys.COMPRESSOR_MESSAGE_TYPES;
+import static org.apache.seata.common.ConfigurationKeys.COMPRESSOR_MIN_BYTES;
+import static org.apache.seata.common.ConfigurationKeys.COMPRESSOR_ZSTD_DICTIONARY;
+import static org.apache.seata.common.ConfigurationKeys.COMPRESSOR_ZSTD_LEVEL;
+import static org.apache.seata.common.DefaultValues.DEFAULT_COMPRESSOR_MIN_BYTES;
+import static org.apache.seata.common.DefaultValues.DEFAULT_COMPRESSOR_ZSTD_LEVEL;
+
+/**
+ * Decides whether and how the body of a message is compressed, and keeps the compression statistics of each message
+ * type.
+ * <p>
+ * The compressor configured for a message type overrides the one of the message, and a body smaller than the minimum
+ * size is sent uncompressed, so heartbeats and small control messages do not pay for the compression. A message type
+ * can only use the configured compressor or none, which the peers are deployed with. The compressor actually used is
+ * written into the head of each message, the peers need no extra configuration to decode it.
+ * <p>
+ * The policy also creates the compressors, passing the zstd dictionary and level of the transport to the zstd one.
+ */
+public class CompressionPolicy {
+
+    /**
+     * The type code of the bodies which are not {@link MessageTypeAware}.
+     */
+    public static final short UNKNOWN_TYPE = -1;
+
+    private static volatile CompressionPolicy instance;
+
+    private final int minBytes;
+
+    private final Map<Short, Byte> typeCompressors;
+
+    private final byte[] zstdDictionary;
+
+    private final int zstdLevel;
+
+    private final Map<Short, CompressionStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Compression policy.
+     *
+     * @param minBytes        the size from which the bodies are compressed
+     * @param typeCompressors the compressor codes by message type
+     */
+    public CompressionPolicy(int minBytes, Map<Short, Byte> typeCompressors) {
+        this(minBytes, typeCompressors, null, DEFAULT_COMPRESSOR_ZSTD_LEVEL);
+    }
+
+    /**
+     * Instantiates a new Compression policy.
+     *
+     * @param minBytes        the size from which the bodies are compressed
+     * @param typeCompressors the compressor codes by message type
+     * @param zstdDictionary  the trained zstd dictionary, null if none
+     * @param zstdLevel       the compression level of zstd
+     */
+    public CompressionPolicy(int minBytes, Map<Short, Byte> typeCompressors, byte[] zstdDictionary, int zstdLevel) {
+        this.minBytes = Math.max(0, minBytes);
+        this.typeCompressors = new HashMap<>(typeCompressors);
+        this.zstdDictionary = zstdDictionary;
+        this.zstdLevel = zstdLevel;
+    }
+
+    /**
+     * Gets the policy of the configuration.
+     *
+     * @return the instance
+     */
+    public static CompressionPolicy getInstance() {
+        if (instance == null) {
+            synchronized (CompressionPolicy.class) {
+                if (instance == null) {
+                    Configuration configuration = ConfigurationFactory.getInstance();
+                    instance = new CompressionPolicy(
+                        configuration.getInt(COMPRESSOR_MIN_BYTES, DEFAULT_COMPRESSOR_MIN_BYTES),
+                        parseTypeCompressors(configuration.getConfig(COMPRESSOR_MESSAGE_TYPES),
+                            ProtocolConstants.CONFIGURED_COMPRESSOR),
+                        loadDictionary(configuration.getConfig(COMPRESSOR_ZSTD_DICTIONARY)),
+                        configuration.getInt(COMPRESSOR_ZSTD_LEVEL, DEFAULT_COMPRESSOR_ZSTD_LEVEL));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Parse the compressors of message types, such as 11:zstd,1:none.
+     *
+     * @param config     the config
+     * @param configured the compressor code of the transport, the only one a message type can use besides none
+     * @return the compressor codes by message type
+     * @throws IllegalArgumentException if an entry is not a message type code and a compressor name, or names another
+     *                                  compressor than the configured one or none
+     */
+    static Map<Short, Byte> parseTypeCompressors(String config, byte configured) {
+        if (StringUtils.isBlank(config)) {
+            return Collections.emptyMap();
+        }
+        Map<Short, Byte> typeCompressors = new HashMap<>();
+        for (String entry : config.split(",")) {
+            if (StringUtils.isBlank(entry)) {
+                continue;
+            }
+            String[] pair = entry.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("invalid message type compressor: " + entry);
+            }
+            byte compressor;
+            try {
+                short type = Short.parseShort(pair[0].trim());
+                compressor = CompressorType.getByName(pair[1].trim()).getCode();
+                typeCompressors.put(type, compressor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid message type compressor: " + entry, e);
+            }
+            if (compressor != configured && compressor != CompressorType.NONE.getCode()) {
+                throw new IllegalArgumentException("the compressor of a message type must be none or the one of "
+                    + COMPRESSOR_FOR_RPC + ": " + entry);
+            }
+        }
+        return typeCompressors;
+    }
+
+    /**
+     * Create a compressor, the zstd one with the dictionary and the level of the policy.
+     *
+     * @param type the compressor type
+     * @return the compressor
+     */
+    public Compressor newCompressor(CompressorType type) {
+        if (type == CompressorType.ZSTD) {
+            return EnhancedServiceLoader.load(Compressor.class, type.name(), new Class[] {byte[].class, int.class},
+                new Object[] {zstdDictionary, zstdLevel});
+        }
+        return EnhancedServiceLoader.load(Compressor.class, type.name());
+    }
+
+    /**
+     * Resolve the compressor of a body before it is serialized.
+     *
+     * @param body       the body
+     * @param compressor the compressor code of the message
+     * @return the compressor code of the message type if configured, otherwise the one of the message
+     */
+    public byte resolve(Object body, byte compressor) {
+        Byte typeCompressor = typeCompressors.get(typeOf(body));
+        return typeCompressor != null ? typeCompressor : compressor;
+    }
+
+    /**
+     * Select the compressor of a serialized body.
+     *
+     * @param body       the body
+     * @param compressor the resolved compressor code
+     * @param length     the length of the serialized body
+     * @return the compressor code to use, NONE if the body is too small
+     * @see #resolve(Object, byte)
+     */
+    public byte select(Object body, byte compressor, int length) {
+        if (compressor != CompressorType.NONE.getCode() && length < minBytes) {
+            getStats(body).recordSkipped();
+            return CompressorType.NONE.getCode();
+        }
+        return compressor;
+    }
+
+    /**
+     * Record the compression of a body.
+     *
+     * @param body             the body
+     * @param rawLength        the length before compression
+     * @param compressedLength the length after compression
+     * @param nanos            the time spent
+     */
+    public void recordCompress(Object body, int rawLength, int compressedLength, long nanos) {
+        getStats(body).recordCompress(rawLength, compressedLength, nanos);
+    }
+
+    /**
+     * Record the decompression of a body.
+     *
+     * @param body  the body
+     * @param nanos the time spent
+     */
+    public void recordDecompress(Object body, long nanos) {
+        getStats(body).recordDecompress(nanos);
+    }
+
+    /**
+     * Gets the statistics by message type.
+     *
+     * @return the statistics
+     */
+    public Map<Short, CompressionStats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Gets the size from which the bodies are compressed.
+     *
+     * @return the min bytes
+     */
+    public int getMinBytes() {
+        return minBytes;
+    }
+
+    private static byte[] loadDictionary(String path) {
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(Paths.get(path));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("read zstd dictionary error: " + path, e);
+        }
+    }
+
+    private CompressionStats getStats(Object body) {
+        return CollectionUtils.computeIfAbsent(stats, typeOf(body), key -> new CompressionStats());
+    }
+
+    private static short typeOf(Object body) {
+        return body instanceof MessageTypeAware ? ((MessageTypeAware) body).getTypeCode() : UNKNOWN_TYPE;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.compressor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The compression statistics of a message type.
+ */
+public class CompressionStats {
+
+    private final LongAdder compressCount = new LongAdder();
+
+    private final LongAdder skippedCount = new LongAdder();
+
+    private final LongAdder rawBytes = new LongAdder();
+
+    private final LongAdder compressedBytes = new LongAdder();
+
+    private final LongAdder compressNanos = new LongAdder();
+
+    private final LongAdder decompressCount = new LongAdder();
+
+    private final LongAdder decompressNanos = new LongAdder();
+
+    void recordCompress(int rawLength, int compressedLength, long nanos) {
+        compressCount.increment();
+        rawBytes.add(rawLength);
+        compressedBytes.add(compressedLength);
+        compressNanos.add(nanos);
+    }
+
+    void recordSkipped() {
+        skippedCount.increment();
+    }
+
+    void recordDecompress(long nanos) {
+        decompressCount.increment();
+        decompressNanos.add(nanos);
+    }
+
+    /**
+     * Gets the number of compressed bodies.
+     *
+     * @return the compress count
+     */
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    /**
+     * Gets the number of bodies left uncompressed for being smaller than the minimum size.
+     *
+     * @return the skipped count
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    /**
+     * Gets the compressed size divided by the raw size, 1 if nothing was compressed.
+     *
+     * @return the ratio
+     */
+    public double getRatio() {
+        long raw = rawBytes.sum();
+        return raw == 0 ? 1D : (double) compressedBytes.sum() / raw;
+    }
+
+    /**
+     * Gets the average time spent compressing a body.
+     *
+     * @return the average compress micros
+     */
+    public double getAvgCompressMicros() {
+        return average(compressNanos.sum(), compressCount.sum());
+    }
+
+    /**
+     * Gets the number of decompressed bodies.
+     *
+     * @return the decompress count
+     */
+    public long getDecompressCount() {
+        return decompressCount.sum();
+    }
+
+    /**
+     * Gets the average time spent decompressing a body.
+     *
+     * @return the average decompress micros
+     */
+    public double getAvgDecompressMicros() {
+        return average(decompressNanos.sum(), decompressCount.sum());
+    }
+
+    private static double average(long nanos, long count) {
+        return count == 0 ? 0D : (double) nanos / count / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{compressCount=" + getCompressCount() + ", skippedCount=" + getSkippedCount()
+            + ", ratio=" + getRatio() + ", avgCompressMicros=" + getAvgCompressMicros() + ", decompressCount="
+            + getDecompressCount() + ", avgDecompressMicros=" + getAvgDecompressMicros() + '}';
+    }
+}
@@ -16,6 +16,9 @@
  */
 package org.apache.seata.core.compressor;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 
 public interface Compressor {
 
@@ -33,4 +36,27 @@ public interface Compressor {
      */
     byte[] decompress(byte[] bytes);
 
+    /**
+     * compress the readable bytes of a buffer to another buffer.
+     * @param in the buffer read from, its readable bytes are all consumed
+     * @param out the buffer written to
+     */
+    default void compress(ByteBuf in, ByteBuf out) {
+        byte[] bytes = new byte[in.readableBytes()];
+        in.readBytes(bytes);
+        out.writeBytes(compress(bytes));
+    }
+
+    /**
+     * decompress the readable bytes of a buffer.
+     * @param in the buffer read from, its readable bytes are all consumed
+     * @param alloc the allocator of the returned buffer
+     * @return the decompressed buffer, released by the caller
+     */
+    default ByteBuf decompress(ByteBuf in, ByteBufAllocator alloc) {
+        byte[] bytes = new byte[in.readableBytes()];
+        in.readBytes(bytes);
+        return Unpooled.wrappedBuffer(decompress(bytes));
+    }
+
 }
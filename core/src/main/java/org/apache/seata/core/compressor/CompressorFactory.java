@@ -16,7 +16,8 @@
  */
 package org.apache.seata.core.compressor;
 
-import org.apache.seata.common.loader.EnhancedServiceLoader;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import org.apache.seata.common.loader.LoadLevel;
 import org.apache.seata.common.util.CollectionUtils;
 
@@ -46,7 +47,7 @@ public class CompressorFactory {
     public static Compressor getCompressor(byte code) {
         CompressorType type = CompressorType.getByCode(code);
         return CollectionUtils.computeIfAbsent(COMPRESSOR_MAP, type,
-            key -> EnhancedServiceLoader.load(Compressor.class, type.name()));
+            key -> CompressionPolicy.getInstance().newCompressor(type));
     }
 
     /**
@@ -63,6 +64,16 @@ public class CompressorFactory {
         public byte[] decompress(byte[] bytes) {
             return bytes;
         }
+
+        @Override
+        public void compress(ByteBuf in, ByteBuf out) {
+            out.writeBytes(in);
+        }
+
+        @Override
+        public ByteBuf decompress(ByteBuf in, ByteBufAllocator alloc) {
+            return in.readRetainedSlice(in.readableBytes());
+        }
     }
 
 }
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.lock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.apache.seata.common.util.StringUtils;
+
+/**
+ * The row lock keys of a branch grouped by table, and their binary form.
+ * <p>
+ * The lock key string {@code table1:pk1,pk2;table2:pk3} lists the pks of the locked rows after the name of their
+ * table, the values of a composite pk being joined by '_'. The binary form writes each table name once followed by
+ * its rows, and each pk value as a zigzag varint if it is a plain long, or as its UTF-8 bytes otherwise, all the
+ * lengths and counts being varints. Both forms give the same row locks.
+ */
+public class RowLockKeys {
+
+    private static final byte PK_LONG = 1;
+
+    private static final byte PK_STRING = 2;
+
+    private static final long NOT_LONG = Long.MIN_VALUE;
+
+    private static final char TABLE_SEPARATOR = ';';
+
+    private static final char TABLE_PKS_SEPARATOR = ':';
+
+    private static final char PK_SEPARATOR = ',';
+
+    private static final char PK_VALUE_SEPARATOR = '_';
+
+    private final Map<String, List<String>> pksByTable = new LinkedHashMap<>();
+
+    private int rowCount;
+
+    /**
+     * Add the lock of a row.
+     *
+     * @param tableName the table name
+     * @param pk        the pk, the values of a composite pk joined by '_'
+     */
+    public void add(String tableName, String pk) {
+        pksByTable.computeIfAbsent(tableName, key -> new ArrayList<>()).add(pk);
+        rowCount++;
+    }
+
+    /**
+     * Gets the pks by table.
+     *
+     * @return the pks by table
+     */
+    public Map<String, List<String>> getPksByTable() {
+        return Collections.unmodifiableMap(pksByTable);
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Parse a lock key string, the same way the server collects its row locks.
+     *
+     * @param lockKey the lock key
+     * @return the row lock keys, null if the lock key is blank
+     */
+    public static RowLockKeys parse(String lockKey) {
+        if (StringUtils.isBlank(lockKey)) {
+            return null;
+        }
+        RowLockKeys rowLockKeys = new RowLockKeys();
+        for (String tableGroupedLockKey : lockKey.split(String.valueOf(TABLE_SEPARATOR))) {
+            int idx = tableGroupedLockKey.indexOf(TABLE_PKS_SEPARATOR);
+            if (idx < 0) {
+                break;
+            }
+            String tableName = tableGroupedLockKey.substring(0, idx);
+            String mergedPKs = tableGroupedLockKey.substring(idx + 1);
+            if (StringUtils.isBlank(mergedPKs)) {
+                break;
+            }
+            for (String pk : mergedPKs.split(String.valueOf(PK_SEPARATOR))) {
+                if (StringUtils.isNotBlank(pk)) {
+                    rowLockKeys.add(tableName, pk);
+                }
+            }
+        }
+        return rowLockKeys;
+    }
+
+    /**
+     * Build the lock key string.
+     *
+     * @return the lock key
+     */
+    public String toLockKey() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, List<String>> entry : pksByTable.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(TABLE_SEPARATOR);
+            }
+            sb.append(entry.getKey()).append(TABLE_PKS_SEPARATOR);
+            List<String> pks = entry.getValue();
+            for (int i = 0; i < pks.size(); i++) {
+                if (i > 0) {
+                    sb.append(PK_SEPARATOR);
+                }
+                sb.append(pks.get(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Build the row locks.
+     *
+     * @param xid           the xid
+     * @param transactionId the transaction id
+     * @param branchId      the branch id
+     * @param resourceId    the resource id
+     * @return the row locks
+     */
+    public List<RowLock> toRowLocks(String xid, Long transactionId, Long branchId, String resourceId) {
+        List<RowLock> locks = new ArrayList<>(rowCount);
+        for (Map.Entry<String, List<String>> entry : pksByTable.entrySet()) {
+            for (String pk : entry.getValue()) {
+                RowLock rowLock = new RowLock();
+                rowLock.setXid(xid);
+                rowLock.setTransactionId(transactionId);
+                rowLock.setBranchId(branchId);
+                rowLock.setTableName(entry.getKey());
+                rowLock.setPk(pk);
+                rowLock.setResourceId(resourceId);
+                locks.add(rowLock);
+            }
+        }
+        return locks;
+    }
+
+    /**
+     * Write the binary form.
+     *
+     * @param out the buffer written to
+     */
+    public void encode(ByteBuf out) {
+        writeVarInt(out, pksByTable.size());
+        for (Map.Entry<String, List<String>> entry : pksByTable.entrySet()) {
+            writeString(out, entry.getKey());
+            List<String> pks = entry.getValue();
+            writeVarInt(out, pks.size());
+            for (String pk : pks) {
+                encodePk(out, pk);
+            }
+        }
+    }
+
+    /**
+     * Read the binary form.
+     *
+     * @param in the buffer read from
+     * @return the row lock keys
+     * @throws IllegalArgumentException if the binary form is malformed
+     */
+    public static RowLockKeys decode(ByteBuffer in) {
+        RowLockKeys rowLockKeys = new RowLockKeys();
+        int tableCount = readCount(in);
+        for (int i = 0; i < tableCount; i++) {
+            String tableName = readString(in);
+            int pkCount = readCount(in);
+            List<String> pks = new ArrayList<>(pkCount);
+            for (int j = 0; j < pkCount; j++) {
+                pks.add(decodePk(in));
+            }
+            List<String> existing = rowLockKeys.pksByTable.putIfAbsent(tableName, pks);
+            if (existing != null) {
+                existing.addAll(pks);
+            }
+            rowLockKeys.rowCount += pkCount;
+        }
+        return rowLockKeys;
+    }
+
+    private static void encodePk(ByteBuf out, String pk) {
+        int valueCount = 1;
+        for (int i = 0; i < pk.length(); i++) {
+            if (pk.charAt(i) == PK_VALUE_SEPARATOR) {
+                valueCount++;
+            }
+        }
+        writeVarInt(out, valueCount);
+        int start = 0;
+        for (int i = 0; i < valueCount; i++) {
+            int end = pk.indexOf(PK_VALUE_SEPARATOR, start);
+            if (end < 0) {
+                end = pk.length();
+            }
+            long value = parseLong(pk, start, end);
+            if (value != NOT_LONG) {
+                out.writeByte(PK_LONG);
+                writeVarLong(out, (value << 1) ^ (value >> 63));
+            } else {
+                out.writeByte(PK_STRING);
+                writeString(out, pk.substring(start, end));
+            }
+            start = end + 1;
+        }
+    }
+
+    private static String decodePk(ByteBuffer in) {
+        int valueCount = readCount(in);
+        if (valueCount == 1) {
+            return decodePkValue(in);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < valueCount; i++) {
+            if (i > 0) {
+                sb.append(PK_VALUE_SEPARATOR);
+            }
+            sb.append(decodePkValue(in));
+        }
+        return sb.toString();
+    }
+
+    private static String decodePkValue(ByteBuffer in) {
+        byte type = in.get();
+        if (type == PK_LONG) {
+            long zigzag = readVarLong(in);
+            return Long.toString((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+        if (type == PK_STRING) {
+            return readString(in);
+        }
+        throw new IllegalArgumentException("unknown pk value type: " + type);
+    }
+
+    /**
+     * Parse the long of the chars from start to end if they are its canonical form, the form Long.toString gives back.
+     *
+     * @return the long, NOT_LONG if they are not a canonical long, Long.MIN_VALUE itself being kept as a string
+     */
+    private static long parseLong(String s, int start, int end) {
+        boolean negative = start < end && s.charAt(start) == '-';
+        int digitsStart = negative ? start + 1 : start;
+        int digits = end - digitsStart;
+        if (digits <= 0 || digits > 19 || (s.charAt(digitsStart) == '0' && (digits > 1 || negative))) {
+            return NOT_LONG;
+        }
+        long value = 0;
+        for (int i = digitsStart; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_LONG;
+            }
+            // accumulate negatively to reach Long.MIN_VALUE without overflow
+            long next = value * 10 - (c - '0');
+            if (value < Long.MIN_VALUE / 10 || next > value) {
+                return NOT_LONG;
+            }
+            value = next;
+        }
+        if (negative) {
+            return value;
+        }
+        return value == Long.MIN_VALUE ? NOT_LONG : -value;
+    }
+
+    private static void writeString(ByteBuf out, String s) {
+        writeVarInt(out, ByteBufUtil.utf8Bytes(s));
+        ByteBufUtil.writeUtf8(out, s);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readCount(in);
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+
+    private static int readCount(ByteBuffer in) {
+        int count = (int) readVarLong(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("invalid row lock keys length: " + count);
+        }
+        return count;
+    }
+
+    private static void writeVarInt(ByteBuf out, int value) {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndRequest;
+
+/**
+ * The branch commit and rollback requests the TC sends to one RM channel in one frame, answered with one
+ * {@link BatchResultMessage} in which each result carries the msgId of its request.
+ *
+ * @see BatchResultMessage
+ */
+public class BatchPhaseTwoMessage extends AbstractMessage {
+
+    /**
+     * the branch commit and rollback requests
+     */
+    private List<AbstractBranchEndRequest> branchRequests = new ArrayList<>();
+
+    /**
+     * the message Ids, one for each request
+     */
+    private List<Integer> msgIds = new ArrayList<>();
+
+    @Override
+    public short getTypeCode() {
+        return MessageType.TYPE_BATCH_PHASE_TWO_MSG;
+    }
+
+    public List<AbstractBranchEndRequest> getBranchRequests() {
+        return branchRequests;
+    }
+
+    public void setBranchRequests(List<AbstractBranchEndRequest> branchRequests) {
+        this.branchRequests = branchRequests;
+    }
+
+    public List<Integer> getMsgIds() {
+        return msgIds;
+    }
+
+    public void setMsgIds(List<Integer> msgIds) {
+        this.msgIds = msgIds;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchPhaseTwoMessage{size=" + branchRequests.size() + ", msgIds=" + msgIds + "}";
+    }
+}
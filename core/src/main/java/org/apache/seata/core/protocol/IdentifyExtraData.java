@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.protocol;
+
+import org.apache.seata.common.ConfigurationKeys;
+import org.apache.seata.common.util.StringUtils;
+
+/**
+ * The key-value pairs carried by the extra data of a register request or response, one "key=value" per line, as the
+ * TM puts its authentication data.
+ */
+public final class IdentifyExtraData {
+
+    private IdentifyExtraData() {
+    }
+
+    /**
+     * Append a key-value pair.
+     *
+     * @param extraData the extra data, may be null
+     * @param key       the key
+     * @param value     the value
+     * @return the extra data with the pair
+     */
+    public static String put(String extraData, String key, String value) {
+        StringBuilder sb = new StringBuilder();
+        if (StringUtils.isNotEmpty(extraData)) {
+            sb.append(extraData);
+            if (!extraData.endsWith(ConfigurationKeys.EXTRA_DATA_SPLIT_CHAR)) {
+                sb.append(ConfigurationKeys.EXTRA_DATA_SPLIT_CHAR);
+            }
+        }
+        sb.append(key).append(ConfigurationKeys.EXTRA_DATA_KV_CHAR).append(value)
+            .append(ConfigurationKeys.EXTRA_DATA_SPLIT_CHAR);
+        return sb.toString();
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param extraData the extra data, may be null
+     * @param key       the key
+     * @return the value, null if the key is absent
+     */
+    public static String get(String extraData, String key) {
+        if (StringUtils.isEmpty(extraData)) {
+            return null;
+        }
+        for (String pair : extraData.split(ConfigurationKeys.EXTRA_DATA_SPLIT_CHAR)) {
+            int idx = pair.indexOf(ConfigurationKeys.EXTRA_DATA_KV_CHAR);
+            if (idx > 0 && key.equals(pair.substring(0, idx))) {
+                return pair.substring(idx + 1);
+            }
+        }
+        return null;
+    }
+}
@@ -16,8 +16,12 @@
  */
 package org.apache.seata.core.protocol;
 
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
 import org.apache.seata.common.exception.ShouldNeverHappenException;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -25,13 +29,18 @@ import java.util.concurrent.TimeoutException;
 
 /**
  * The type Message future.
- *
+ * <p>
+ * A future registered with {@link #scheduleTimeout(Timer, Map)} is its own timer task: it is removed from the pending
+ * futures and completed with a {@link TimeoutException} once it expires, and its timeout is cancelled when a result is
+ * set.
  */
-public class MessageFuture {
+public class MessageFuture implements TimerTask {
     private RpcMessage requestMessage;
     private long timeout;
     private long start = System.currentTimeMillis();
     private transient CompletableFuture<Object> origin = new CompletableFuture<>();
+    private transient volatile Timeout timeoutHandle;
+    private transient volatile Map<Integer, MessageFuture> pendingFutures;
 
     /**
      * Is timeout boolean.
@@ -81,6 +90,41 @@ public class MessageFuture {
      */
     public void setResultMessage(Object obj) {
         origin.complete(obj);
+        Timeout handle = timeoutHandle;
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+
+    /**
+     * Schedule the timeout of the request.
+     *
+     * @param timer          the timer
+     * @param pendingFutures the pending futures by message id, the future is removed from them once it expires
+     */
+    public void scheduleTimeout(Timer timer, Map<Integer, MessageFuture> pendingFutures) {
+        this.pendingFutures = pendingFutures;
+        Timeout handle = timer.newTimeout(this, timeout, TimeUnit.MILLISECONDS);
+        timeoutHandle = handle;
+        // the result may have been set before the handle was
+        if (origin.isDone()) {
+            handle.cancel();
+        }
+    }
+
+    @Override
+    public void run(Timeout handle) {
+        if (origin.isDone()) {
+            return;
+        }
+        RpcMessage rpcMessage = requestMessage;
+        Map<Integer, MessageFuture> futures = pendingFutures;
+        if (futures != null && rpcMessage != null) {
+            futures.remove(rpcMessage.getId(), this);
+        }
+        origin.complete(new TimeoutException(rpcMessage == null ? "request timeout"
+            : String.format("msgId: %s ,msgType: %s ,msg: %s ,request timeout", rpcMessage.getId(),
+                rpcMessage.getMessageType(), rpcMessage.getBody())));
     }
 
     /**
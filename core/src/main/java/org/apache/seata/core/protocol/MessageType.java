@@ -144,4 +144,9 @@ public interface MessageType {
      */
     short TYPE_BATCH_RESULT_MSG = 121;
 
+    /**
+     * the constant TYPE_BATCH_PHASE_TWO_MSG
+     */
+    short TYPE_BATCH_PHASE_TWO_MSG = 122;
+
 }
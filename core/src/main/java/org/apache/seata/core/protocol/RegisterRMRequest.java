@@ -24,6 +24,11 @@ import java.io.Serializable;
  */
 public class RegisterRMRequest extends AbstractIdentifyRequest implements Serializable {
 
+    /**
+     * The extra data key telling that the RM handles {@link BatchPhaseTwoMessage}.
+     */
+    public static final String UDATA_BATCH_PHASE_TWO = "batchPhaseTwo";
+
     /**
      * Instantiates a new Register rm request.
      */
@@ -61,6 +66,25 @@ public class RegisterRMRequest extends AbstractIdentifyRequest implements Serial
         this.resourceIds = resourceIds;
     }
 
+    /**
+     * Whether the RM handles {@link BatchPhaseTwoMessage}.
+     *
+     * @return the boolean
+     */
+    public boolean isBatchPhaseTwoSupported() {
+        return Boolean.parseBoolean(IdentifyExtraData.get(extraData, UDATA_BATCH_PHASE_TWO));
+    }
+
+    /**
+     * Sets whether the RM handles {@link BatchPhaseTwoMessage}.
+     *
+     * @param batchPhaseTwoSupported the batch phase two supported
+     */
+    public void setBatchPhaseTwoSupported(boolean batchPhaseTwoSupported) {
+        this.extraData = IdentifyExtraData.put(extraData, UDATA_BATCH_PHASE_TWO,
+            String.valueOf(batchPhaseTwoSupported));
+    }
+
     @Override
     public short getTypeCode() {
         return MessageType.TYPE_REG_RM;
@@ -24,6 +24,11 @@ import java.io.Serializable;
  */
 public class RegisterRMResponse extends AbstractIdentifyResponse implements Serializable {
 
+    /**
+     * The extra data key telling that the server decodes the binary row lock keys of a branch register request.
+     */
+    public static final String UDATA_BINARY_LOCK_KEY = "binaryLockKey";
+
     /**
      * Instantiates a new Register rm response.
      */
@@ -41,6 +46,25 @@ public class RegisterRMResponse extends AbstractIdentifyResponse implements Seri
         setIdentified(result);
     }
 
+    /**
+     * Whether the server decodes the binary row lock keys of a branch register request.
+     *
+     * @return the boolean
+     */
+    public boolean isBinaryLockKeySupported() {
+        return Boolean.parseBoolean(IdentifyExtraData.get(getExtraData(), UDATA_BINARY_LOCK_KEY));
+    }
+
+    /**
+     * Sets whether the server decodes the binary row lock keys of a branch register request.
+     *
+     * @param binaryLockKeySupported the binary lock key supported
+     */
+    public void setBinaryLockKeySupported(boolean binaryLockKeySupported) {
+        setExtraData(IdentifyExtraData.put(getExtraData(), UDATA_BINARY_LOCK_KEY,
+            String.valueOf(binaryLockKeySupported)));
+    }
+
     @Override
     public short getTypeCode() {
         return MessageType.TYPE_REG_RM_RESULT;
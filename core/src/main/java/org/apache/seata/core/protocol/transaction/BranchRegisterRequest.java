@@ -16,6 +16,7 @@
  */
 package org.apache.seata.core.protocol.transaction;
 
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.protocol.MessageType;
 import org.apache.seata.core.rpc.RpcContext;
@@ -34,6 +35,11 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
 
     private String lockKey;
 
+    /**
+     * The lock keys in binary form on the wire, only by the seata codec.
+     */
+    private transient RowLockKeys rowLockKeys;
+
     private String applicationData;
 
     /**
@@ -73,11 +79,14 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
     }
 
     /**
-     * Gets lock key.
+     * Gets lock key, built from the row lock keys if it was received in binary form.
      *
      * @return the lock key
      */
     public String getLockKey() {
+        if (lockKey == null && rowLockKeys != null) {
+            lockKey = rowLockKeys.toLockKey();
+        }
         return lockKey;
     }
 
@@ -90,6 +99,24 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
         this.lockKey = lockKey;
     }
 
+    /**
+     * Gets row lock keys.
+     *
+     * @return the row lock keys, null if the lock key is not sent in binary form
+     */
+    public RowLockKeys getRowLockKeys() {
+        return rowLockKeys;
+    }
+
+    /**
+     * Sets row lock keys, to send the lock key in binary form.
+     *
+     * @param rowLockKeys the row lock keys
+     */
+    public void setRowLockKeys(RowLockKeys rowLockKeys) {
+        this.rowLockKeys = rowLockKeys;
+    }
+
     /**
      * Gets resource id.
      *
@@ -143,7 +170,7 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
         sb.append("xid='").append(xid).append('\'');
         sb.append(", branchType=").append(branchType);
         sb.append(", resourceId='").append(resourceId).append('\'');
-        sb.append(", lockKey='").append(lockKey).append('\'');
+        sb.append(", lockKey='").append(getLockKey()).append('\'');
         sb.append(", applicationData='").append(applicationData).append('\'');
         sb.append('}');
         return sb.toString();
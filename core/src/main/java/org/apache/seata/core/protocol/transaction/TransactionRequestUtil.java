@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.protocol.transaction;
+
+import org.apache.seata.common.util.StringUtils;
+
+/**
+ * The type Transaction request util.
+ */
+public class TransactionRequestUtil {
+
+    private TransactionRequestUtil() {
+    }
+
+    /**
+     * Get the xid of a request which must be handled in order with the other requests of its global transaction, the
+     * client sends them on the same connection and the server handles them one after another.
+     *
+     * @param msg the request
+     * @return the xid, or null if the request is not ordered by its global transaction
+     */
+    public static String getOrderedXid(Object msg) {
+        String xid = null;
+        if (msg instanceof AbstractGlobalEndRequest) {
+            xid = ((AbstractGlobalEndRequest)msg).getXid();
+        } else if (msg instanceof BranchRegisterRequest) {
+            xid = ((BranchRegisterRequest)msg).getXid();
+        } else if (msg instanceof BranchReportRequest) {
+            xid = ((BranchReportRequest)msg).getXid();
+        }
+        return StringUtils.isBlank(xid) ? null : xid;
+    }
+}
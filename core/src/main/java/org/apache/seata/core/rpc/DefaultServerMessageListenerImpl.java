@@ -126,6 +126,7 @@ public class DefaultServerMessageListenerImpl implements ServerMessageListener {
             LOGGER.error("RM register fail, error message:{}", errorInfo);
         }
         RegisterRMResponse response = new RegisterRMResponse(isSuccess);
+        response.setBinaryLockKeySupported(true);
         if (StringUtils.isNotEmpty(errorInfo)) {
             response.setMsg(errorInfo);
         }
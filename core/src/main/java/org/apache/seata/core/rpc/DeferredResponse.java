@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc;
+
+import java.util.function.Consumer;
+
+import org.apache.seata.core.protocol.AbstractResultMessage;
+
+/**
+ * A response channel bound to the thread handling one request.
+ * <p>
+ * A handler that cannot answer right away (e.g. a branch registration waiting for a row lock) calls
+ * {@link #defer()}, the request processor then skips sending the result, and the handler answers later through
+ * {@link #respond(AbstractResultMessage)} from whatever thread completes the request.
+ */
+public class DeferredResponse {
+
+    private static final ThreadLocal<DeferredResponse> CURRENT = new ThreadLocal<>();
+
+    private final Consumer<AbstractResultMessage> responder;
+
+    private volatile long deadline;
+
+    private volatile long waitSequence;
+
+    private boolean deferred;
+
+    /**
+     * Instantiates a new deferred response.
+     *
+     * @param responder sends the result back to the client
+     */
+    public DeferredResponse(Consumer<AbstractResultMessage> responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Bind a deferred response to the current thread.
+     *
+     * @param deferredResponse the deferred response
+     */
+    public static void bind(DeferredResponse deferredResponse) {
+        CURRENT.set(deferredResponse);
+    }
+
+    /**
+     * Unbind the deferred response of the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Gets the deferred response bound to the current thread.
+     *
+     * @return the deferred response, or null if the request can not be answered asynchronously
+     */
+    public static DeferredResponse current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Mark the request as answered later, the processor will not send the returned result.
+     */
+    public void defer() {
+        this.deferred = true;
+    }
+
+    /**
+     * Is deferred.
+     *
+     * @return true if the result is sent later through {@link #respond(AbstractResultMessage)}
+     */
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    /**
+     * Send the result of a deferred request.
+     *
+     * @param resultMessage the result message
+     */
+    public void respond(AbstractResultMessage resultMessage) {
+        responder.accept(resultMessage);
+    }
+
+    /**
+     * Gets the responder.
+     *
+     * @return the responder
+     */
+    public Consumer<AbstractResultMessage> getResponder() {
+        return responder;
+    }
+
+    /**
+     * Gets the deadline in epoch millis, 0 if no deadline was set yet.
+     *
+     * @return the deadline
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the deadline in epoch millis.
+     *
+     * @param deadline the deadline
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Gets the sequence the request got when it waited first, 0 if it never waited.
+     *
+     * @return the wait sequence
+     */
+    public long getWaitSequence() {
+        return waitSequence;
+    }
+
+    /**
+     * Sets the sequence the request got when it waited first.
+     *
+     * @param waitSequence the wait sequence
+     */
+    public void setWaitSequence(long waitSequence) {
+        this.waitSequence = waitSequence;
+    }
+}
@@ -53,6 +53,8 @@ public class RpcContext {
 
     private Set<String> resourceSets;
 
+    private boolean batchPhaseTwoSupported;
+
     /**
      * id
      */
@@ -321,6 +323,24 @@ public class RpcContext {
         this.clientId = clientId;
     }
 
+    /**
+     * Whether the RM handles batch phase two messages.
+     *
+     * @return the boolean
+     */
+    public boolean isBatchPhaseTwoSupported() {
+        return batchPhaseTwoSupported;
+    }
+
+    /**
+     * Sets whether the RM handles batch phase two messages.
+     *
+     * @param batchPhaseTwoSupported the batch phase two supported
+     */
+    public void setBatchPhaseTwoSupported(boolean batchPhaseTwoSupported) {
+        this.batchPhaseTwoSupported = batchPhaseTwoSupported;
+    }
+
     @Override
     public String toString() {
         return "RpcContext{" +
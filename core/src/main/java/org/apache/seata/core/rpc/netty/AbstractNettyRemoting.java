@@ -21,7 +21,6 @@ import java.lang.management.ManagementFactory;
 import java.net.SocketAddress;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -33,9 +32,11 @@ import java.util.concurrent.TimeoutException;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.HashedWheelTimer;
 import org.apache.seata.common.exception.FrameworkErrorCode;
 import org.apache.seata.common.exception.FrameworkException;
 import org.apache.seata.common.loader.EnhancedServiceLoader;
+import org.apache.seata.common.thread.BoundedThreadPerTaskExecutor;
 import org.apache.seata.common.thread.NamedThreadFactory;
 import org.apache.seata.common.thread.PositiveAtomicCounter;
 import org.apache.seata.core.protocol.MessageFuture;
@@ -67,7 +68,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
     /**
      * The Message executor.
      */
-    protected final ThreadPoolExecutor messageExecutor;
+    protected final ExecutorService messageExecutor;
 
     /**
      * Id generator of this remoting
@@ -81,13 +82,20 @@ public abstract class AbstractNettyRemoting implements Disposable {
      */
     protected final ConcurrentHashMap<Integer, MessageFuture> futures = new ConcurrentHashMap<>();
 
-    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
+    private static final long FUTURE_TIMEOUT_TICK_MILLS = 10L;
+    private static final int FUTURE_TIMEOUT_TICKS_PER_WHEEL = 512;
 
     /**
-     * The Now mills.
+     * Expires the futures, each one is removed from {@link #futures} on its own deadline.
+     *
+     * @see #registerFuture
      */
-    protected volatile long nowMills = 0;
-    private static final int TIMEOUT_CHECK_INTERVAL = 3000;
+    private final HashedWheelTimer futureTimeoutTimer = new HashedWheelTimer(
+        new NamedThreadFactory("rpcFutureTimeout", 1, true), FUTURE_TIMEOUT_TICK_MILLS, TimeUnit.MILLISECONDS,
+        FUTURE_TIMEOUT_TICKS_PER_WHEEL);
+
+    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
+
     protected final Object lock = new Object();
     /**
      * The Is sending.
@@ -104,28 +112,10 @@ public abstract class AbstractNettyRemoting implements Disposable {
     protected final List<RpcHook> rpcHooks = EnhancedServiceLoader.loadAll(RpcHook.class);
 
     public void init() {
-        timerExecutor.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                for (Map.Entry<Integer, MessageFuture> entry : futures.entrySet()) {
-                    MessageFuture future = entry.getValue();
-                    if (future.isTimeout()) {
-                        futures.remove(entry.getKey());
-                        RpcMessage rpcMessage = future.getRequestMessage();
-                        future.setResultMessage(new TimeoutException(String
-                            .format("msgId: %s ,msgType: %s ,msg: %s ,request timeout", rpcMessage.getId(), String.valueOf(rpcMessage.getMessageType()), rpcMessage.getBody().toString())));
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug("timeout clear future: {}", entry.getValue().getRequestMessage().getBody());
-                        }
-                    }
-                }
-
-                nowMills = System.currentTimeMillis();
-            }
-        }, TIMEOUT_CHECK_INTERVAL, TIMEOUT_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        futureTimeoutTimer.start();
     }
 
-    public AbstractNettyRemoting(ThreadPoolExecutor messageExecutor) {
+    public AbstractNettyRemoting(ExecutorService messageExecutor) {
         this.messageExecutor = messageExecutor;
     }
 
@@ -152,6 +142,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
     @Override
     public void destroy() {
         timerExecutor.shutdown();
+        futureTimeoutTimer.stop();
         messageExecutor.shutdown();
     }
 
@@ -177,7 +168,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
         MessageFuture messageFuture = new MessageFuture();
         messageFuture.setRequestMessage(rpcMessage);
         messageFuture.setTimeout(timeoutMillis);
-        futures.put(rpcMessage.getId(), messageFuture);
+        registerFuture(rpcMessage, messageFuture);
 
         channelWritableCheck(channel, rpcMessage.getBody());
 
@@ -209,6 +200,18 @@ public abstract class AbstractNettyRemoting implements Disposable {
         }
     }
 
+    /**
+     * Put the future of a sync request into {@link #futures} until its response arrives, or it expires after its
+     * timeout.
+     *
+     * @param rpcMessage    the request
+     * @param messageFuture the future of the response
+     */
+    protected void registerFuture(RpcMessage rpcMessage, MessageFuture messageFuture) {
+        futures.put(rpcMessage.getId(), messageFuture);
+        messageFuture.scheduleTimeout(futureTimeoutTimer, futures);
+    }
+
     /**
      * rpc async request.
      *
@@ -286,7 +289,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
                         });
                     } catch (RejectedExecutionException e) {
                         LOGGER.error(FrameworkErrorCode.ThreadPoolFull.getErrCode(),
-                            "thread pool is full, current max pool size is " + messageExecutor.getActiveCount());
+                            "thread pool is full, current max pool size is " + getActiveCount(messageExecutor));
                         if (allowDumpStack) {
                             String name = ManagementFactory.getRuntimeMXBean().getName();
                             String pid = name.split("@")[0];
@@ -341,6 +344,16 @@ public abstract class AbstractNettyRemoting implements Disposable {
         return address;
     }
 
+    private static int getActiveCount(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getActiveCount();
+        }
+        if (executor instanceof BoundedThreadPerTaskExecutor) {
+            return ((BoundedThreadPerTaskExecutor) executor).getActiveCount();
+        }
+        return -1;
+    }
+
     private void channelWritableCheck(Channel channel, Object msg) {
         int tryTimes = 0;
         synchronized (lock) {
@@ -18,9 +18,9 @@ package org.apache.seata.core.rpc.netty;
 
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -54,6 +54,7 @@ import org.apache.seata.core.protocol.transaction.AbstractGlobalEndRequest;
 import org.apache.seata.core.protocol.transaction.BranchRegisterRequest;
 import org.apache.seata.core.protocol.transaction.BranchReportRequest;
 import org.apache.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.apache.seata.core.protocol.transaction.TransactionRequestUtil;
 import org.apache.seata.core.rpc.RemotingClient;
 import org.apache.seata.core.rpc.TransactionMessageHandler;
 import org.apache.seata.core.rpc.processor.Pair;
@@ -94,7 +95,7 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
      * Send via asynchronous thread {@link AbstractNettyRemotingClient.MergedSendRunnable}
      * {@link AbstractNettyRemotingClient#isEnableClientBatchSendRequest()}
      */
-    protected final ConcurrentHashMap<String/*serverAddress*/, BlockingQueue<RpcMessage>> basketMap = new ConcurrentHashMap<>();
+    protected final ConcurrentHashMap<String/*serverAddress*/, MergeBasket> basketMap = new ConcurrentHashMap<>();
     private final NettyClientBootstrap clientBootstrap;
     private final NettyClientChannelManager clientChannelManager;
     private final NettyPoolKey.TransactionRole transactionRole;
@@ -138,7 +139,12 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
         String serverAddress = loadBalance(getTransactionServiceGroup(), msg);
         long timeoutMillis = this.getRpcRequestTimeout();
         RpcMessage rpcMessage = buildRequestMessage(msg, ProtocolConstants.MSGTYPE_RESQUEST_SYNC);
+        int stripe = clientChannelManager.selectStripe(TransactionRequestUtil.getOrderedXid(msg), rpcMessage.getId());
+        return sendSyncRequest(serverAddress, stripe, rpcMessage, timeoutMillis);
+    }
 
+    private Object sendSyncRequest(String serverAddress, int stripe, RpcMessage rpcMessage, long timeoutMillis)
+        throws TimeoutException {
         // send batch message
         // put message into basketMap, @see MergedSendRunnable
         if (this.isEnableClientBatchSendRequest()) {
@@ -147,12 +153,12 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
             MessageFuture messageFuture = new MessageFuture();
             messageFuture.setRequestMessage(rpcMessage);
             messageFuture.setTimeout(timeoutMillis);
-            futures.put(rpcMessage.getId(), messageFuture);
+            registerFuture(rpcMessage, messageFuture);
 
             // put message into basketMap
-            BlockingQueue<RpcMessage> basket = CollectionUtils.computeIfAbsent(basketMap, serverAddress,
-                key -> new LinkedBlockingQueue<>());
-            if (!basket.offer(rpcMessage)) {
+            MergeBasket basket = CollectionUtils.computeIfAbsent(basketMap, serverAddress, key -> new MergeBasket());
+            MergeBasket.Item item = basket.offer(rpcMessage);
+            if (item == null) {
                 LOGGER.error("put message into basketMap offer failed, serverAddress:{},rpcMessage:{}",
                     serverAddress, rpcMessage);
                 return null;
@@ -161,9 +167,7 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
                 LOGGER.debug("offer message: {}", rpcMessage.getBody());
             }
             if (!isSending) {
-                synchronized (mergeLock) {
-                    mergeLock.notifyAll();
-                }
+                notifyMergeSend();
             }
 
             try {
@@ -176,9 +180,14 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
                 } else {
                     throw new RuntimeException(exx);
                 }
+            } finally {
+                // the queued requests are flushed at once when nothing is in flight anymore
+                if (basket.complete(item)) {
+                    notifyMergeSend();
+                }
             }
         } else {
-            Channel channel = clientChannelManager.acquireChannel(serverAddress);
+            Channel channel = clientChannelManager.acquireChannel(serverAddress, stripe);
             return super.sendSync(channel, rpcMessage, timeoutMillis);
         }
 
@@ -248,6 +257,21 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
         return clientChannelManager;
     }
 
+    /**
+     * Get the baskets of the batch sender by server address, to read their gauges.
+     *
+     * @return the baskets
+     */
+    public Map<String, MergeBasket> getMergeBaskets() {
+        return Collections.unmodifiableMap(basketMap);
+    }
+
+    private void notifyMergeSend() {
+        synchronized (mergeLock) {
+            mergeLock.notifyAll();
+        }
+    }
+
     protected String loadBalance(String transactionServiceGroup, Object msg) {
         InetSocketAddress address = null;
         try {
@@ -342,46 +366,70 @@ public abstract class AbstractNettyRemotingClient extends AbstractNettyRemoting
                     }
                 }
                 isSending = true;
+                long now = System.nanoTime();
                 basketMap.forEach((address, basket) -> {
-                    if (basket.isEmpty()) {
+                    MergeBasket.FlushReason reason = basket.shouldFlush(now);
+                    if (reason == null) {
                         return;
                     }
-
-                    MergedWarpMessage mergeMessage = new MergedWarpMessage();
-                    while (!basket.isEmpty()) {
-                        RpcMessage msg = basket.poll();
-                        mergeMessage.msgs.add((AbstractMessage) msg.getBody());
-                        mergeMessage.msgIds.add(msg.getId());
+                    List<RpcMessage> messages = basket.drain(reason, now);
+                    if (messages.isEmpty()) {
+                        return;
                     }
-                    if (mergeMessage.msgIds.size() > 1) {
-                        printMergeMessageLog(mergeMessage);
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("flush {} messages to {} for {}, target batch size:{}", messages.size(), address,
+                            reason, basket.getTargetBatchSize());
                     }
-                    Channel sendChannel = null;
-                    try {
-                        // send batch message is sync request, but there is no need to get the return value.
-                        // Since the messageFuture has been created before the message is placed in basketMap,
-                        // the return value will be obtained in ClientOnResponseProcessor.
-                        sendChannel = clientChannelManager.acquireChannel(address);
-                        AbstractNettyRemotingClient.this.sendAsyncRequest(sendChannel, mergeMessage);
-                    } catch (FrameworkException e) {
-                        if (e.getErrcode() == FrameworkErrorCode.ChannelIsNotWritable && sendChannel != null) {
-                            destroyChannel(address, sendChannel);
+
+                    // one merged message per stripe, the requests of a global transaction stay in order
+                    int stripeCount = clientChannelManager.getStripeCount();
+                    MergedWarpMessage[] mergeMessages = new MergedWarpMessage[stripeCount];
+                    for (RpcMessage msg : messages) {
+                        int stripe = clientChannelManager.selectStripe(
+                            TransactionRequestUtil.getOrderedXid(msg.getBody()), msg.getId());
+                        if (mergeMessages[stripe] == null) {
+                            mergeMessages[stripe] = new MergedWarpMessage();
                         }
-                        // fast fail
-                        for (Integer msgId : mergeMessage.msgIds) {
-                            MessageFuture messageFuture = futures.remove(msgId);
-                            if (messageFuture != null) {
-                                messageFuture.setResultMessage(
-                                    new RuntimeException(String.format("%s is unreachable", address), e));
-                            }
+                        mergeMessages[stripe].msgs.add((AbstractMessage) msg.getBody());
+                        mergeMessages[stripe].msgIds.add(msg.getId());
+                    }
+                    for (int stripe = 0; stripe < stripeCount; stripe++) {
+                        if (mergeMessages[stripe] != null) {
+                            sendMergeMessage(address, stripe, mergeMessages[stripe]);
                         }
-                        LOGGER.error("client merge call failed: {}", e.getMessage(), e);
                     }
                 });
                 isSending = false;
             }
         }
 
+        private void sendMergeMessage(String address, int stripe, MergedWarpMessage mergeMessage) {
+            if (mergeMessage.msgIds.size() > 1) {
+                printMergeMessageLog(mergeMessage);
+            }
+            Channel sendChannel = null;
+            try {
+                // send batch message is sync request, but there is no need to get the return value.
+                // Since the messageFuture has been created before the message is placed in basketMap,
+                // the return value will be obtained in ClientOnResponseProcessor.
+                sendChannel = clientChannelManager.acquireChannel(address, stripe);
+                AbstractNettyRemotingClient.this.sendAsyncRequest(sendChannel, mergeMessage);
+            } catch (FrameworkException e) {
+                if (e.getErrcode() == FrameworkErrorCode.ChannelIsNotWritable && sendChannel != null) {
+                    destroyChannel(address, sendChannel);
+                }
+                // fast fail
+                for (Integer msgId : mergeMessage.msgIds) {
+                    MessageFuture messageFuture = futures.remove(msgId);
+                    if (messageFuture != null) {
+                        messageFuture.setResultMessage(
+                            new RuntimeException(String.format("%s is unreachable", address), e));
+                    }
+                }
+                LOGGER.error("client merge call failed: {}", e.getMessage(), e);
+            }
+        }
+
         private void printMergeMessageLog(MergedWarpMessage mergeMessage) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("merge msg size:{}", mergeMessage.msgIds.size());
@@ -17,7 +17,6 @@
 package org.apache.seata.core.rpc.netty;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeoutException;
 
 import io.netty.channel.Channel;
@@ -56,7 +55,7 @@ public abstract class AbstractNettyRemotingServer extends AbstractNettyRemoting
         serverBootstrap.start();
     }
 
-    public AbstractNettyRemotingServer(ThreadPoolExecutor messageExecutor, NettyServerConfig nettyServerConfig) {
+    public AbstractNettyRemotingServer(ExecutorService messageExecutor, NettyServerConfig nettyServerConfig) {
         super(messageExecutor);
         serverBootstrap = new NettyServerBootstrap(nettyServerConfig);
         serverBootstrap.setChannelHandlers(new ServerHandler());
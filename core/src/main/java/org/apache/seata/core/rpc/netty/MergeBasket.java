@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.seata.core.protocol.RpcMessage;
+
+/**
+ * The requests of a client waiting to be merged and sent to one server, see
+ * {@link AbstractNettyRemotingClient#isEnableClientBatchSendRequest()}.
+ * <p>
+ * The basket is flushed as soon as none of its sent requests is waiting for a response. Otherwise the requests are
+ * coalesced until as many are queued as are expected to arrive during a round trip, or until the oldest one has waited
+ * half a round trip, at most {@link #MAX_COALESCE_NANOS}. The round trip and the arrival rate are moving averages of
+ * what the basket observed. The gauges are updated without locking, they are approximate.
+ */
+public class MergeBasket {
+
+    /**
+     * The longest a request is held while a batch is in flight, the fixed wait of the sender before.
+     */
+    static final long MAX_COALESCE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The largest batch size a flush is waited for.
+     */
+    static final int MAX_TARGET_BATCH_SIZE = 1024;
+
+    private static final double EWMA_WEIGHT = 0.2;
+
+    /**
+     * The reason of a flush.
+     */
+    public enum FlushReason {
+        /**
+         * no sent request was waiting for a response
+         */
+        IDLE,
+        /**
+         * the target batch size was queued
+         */
+        FULL,
+        /**
+         * the oldest request waited long enough
+         */
+        WAIT
+    }
+
+    private final BlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger sentInFlight = new AtomicInteger();
+
+    private final AtomicLongArray flushCounts = new AtomicLongArray(FlushReason.values().length);
+
+    private volatile double rttNanos;
+
+    private volatile double arrivalsPerNano;
+
+    private volatile double queueWaitNanos;
+
+    private volatile int lastBatchSize;
+
+    private volatile long lastFlushNanos;
+
+    /**
+     * Queue a request.
+     *
+     * @param rpcMessage the request
+     * @return the queued item, to {@link #complete(Item)} once the request is answered or given up, null if the
+     * request could not be queued
+     */
+    Item offer(RpcMessage rpcMessage) {
+        Item item = new Item(rpcMessage, System.nanoTime());
+        return queue.offer(item) ? item : null;
+    }
+
+    /**
+     * Decide whether the basket is flushed now.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the reason, or null if the requests are held for now
+     */
+    FlushReason shouldFlush(long now) {
+        Item head = queue.peek();
+        if (head == null) {
+            return null;
+        }
+        if (sentInFlight.get() <= 0) {
+            return FlushReason.IDLE;
+        }
+        if (queue.size() >= getTargetBatchSize()) {
+            return FlushReason.FULL;
+        }
+        return now - head.enqueueNanos >= getMaxCoalesceNanos() ? FlushReason.WAIT : null;
+    }
+
+    /**
+     * Take the queued requests to send them, the requests already given up are dropped.
+     *
+     * @param reason the reason of the flush
+     * @param now    the current {@link System#nanoTime()}
+     * @return the requests
+     */
+    List<RpcMessage> drain(FlushReason reason, long now) {
+        List<RpcMessage> messages = new ArrayList<>(queue.size());
+        long waitNanos = 0;
+        Item item;
+        while ((item = queue.poll()) != null) {
+            if (item.markSent(now)) {
+                messages.add(item.rpcMessage);
+                waitNanos += Math.max(0, now - item.enqueueNanos);
+            }
+        }
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        sentInFlight.addAndGet(messages.size());
+        flushCounts.incrementAndGet(reason.ordinal());
+        lastBatchSize = messages.size();
+        queueWaitNanos = ewma(queueWaitNanos, (double) waitNanos / messages.size());
+        long lastFlush = lastFlushNanos;
+        if (lastFlush != 0 && now > lastFlush) {
+            arrivalsPerNano = ewma(arrivalsPerNano, (double) messages.size() / (now - lastFlush));
+        }
+        lastFlushNanos = now;
+        return messages;
+    }
+
+    /**
+     * Complete a request once it is answered or given up.
+     *
+     * @param item the item of the request
+     * @return true if no sent request is waiting for a response anymore while requests are queued
+     */
+    boolean complete(Item item) {
+        if (!item.markDone()) {
+            return false;
+        }
+        rttNanos = ewma(rttNanos, System.nanoTime() - item.sentNanos);
+        return sentInFlight.decrementAndGet() <= 0 && !queue.isEmpty();
+    }
+
+    /**
+     * Gets the number of requests a flush is waited for while a batch is in flight.
+     *
+     * @return the target batch size
+     */
+    public int getTargetBatchSize() {
+        long target = Math.round(arrivalsPerNano * rttNanos);
+        return (int) Math.max(1, Math.min(MAX_TARGET_BATCH_SIZE, target));
+    }
+
+    /**
+     * Gets the size of the last batch.
+     *
+     * @return the batch size
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * Gets the average time a request waited in the basket.
+     *
+     * @return the queue wait in microseconds
+     */
+    public long getQueueWaitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros((long) queueWaitNanos);
+    }
+
+    /**
+     * Gets the average time from sending a request to its response.
+     *
+     * @return the round trip time in microseconds
+     */
+    public long getRttMicros() {
+        return TimeUnit.NANOSECONDS.toMicros((long) rttNanos);
+    }
+
+    /**
+     * Gets the number of flushes for a reason.
+     *
+     * @param reason the reason
+     * @return the flush count
+     */
+    public long getFlushCount(FlushReason reason) {
+        return flushCounts.get(reason.ordinal());
+    }
+
+    /**
+     * Gets the number of sent requests waiting for a response.
+     *
+     * @return the in flight requests
+     */
+    public int getInFlight() {
+        return sentInFlight.get();
+    }
+
+    /**
+     * Gets the number of queued requests.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private long getMaxCoalesceNanos() {
+        return Math.min(MAX_COALESCE_NANOS, (long) (rttNanos / 2));
+    }
+
+    private static double ewma(double average, double sample) {
+        return average == 0 ? sample : average + EWMA_WEIGHT * (sample - average);
+    }
+
+    /**
+     * A queued request.
+     */
+    static final class Item {
+
+        private static final int QUEUED = 0;
+
+        private static final int SENT = 1;
+
+        private static final int DONE = 2;
+
+        private final RpcMessage rpcMessage;
+
+        private final long enqueueNanos;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private volatile long sentNanos;
+
+        private Item(RpcMessage rpcMessage, long enqueueNanos) {
+            this.rpcMessage = rpcMessage;
+            this.enqueueNanos = enqueueNanos;
+        }
+
+        private boolean markSent(long now) {
+            sentNanos = now;
+            return state.compareAndSet(QUEUED, SENT);
+        }
+
+        private boolean markDone() {
+            if (state.compareAndSet(SENT, DONE)) {
+                return true;
+            }
+            state.compareAndSet(QUEUED, DONE);
+            return false;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.seata.core.exception.DecodeException;
 import org.apache.seata.core.protocol.ProtocolConstants;
 import org.apache.seata.core.rpc.netty.v0.ProtocolDecoderV0;
 import org.apache.seata.core.rpc.netty.v0.ProtocolEncoderV0;
+import org.apache.seata.core.rpc.netty.v1.HeadMapDictionary;
 import org.apache.seata.core.rpc.netty.v1.ProtocolDecoderV1;
 import org.apache.seata.core.rpc.netty.v1.ProtocolEncoderV1;
 import org.slf4j.Logger;
@@ -83,12 +84,13 @@ public class MultiProtocolDecoder extends LengthFieldBasedFrameDecoder {
         int initialBytesToStrip we will check magic code and version self, so do not strip any bytes. so values is 0
         */
         super(maxFrameLength, 3, 4, -7, 0);
+        HeadMapDictionary headMapDictionary = HeadMapDictionary.newIfEnabled();
         this.protocolDecoderMap =
             ImmutableMap.<Byte, ProtocolDecoder>builder().put(ProtocolConstants.VERSION_0, new ProtocolDecoderV0())
-                .put(ProtocolConstants.VERSION_1, new ProtocolDecoderV1()).build();
+                .put(ProtocolConstants.VERSION_1, new ProtocolDecoderV1(headMapDictionary)).build();
         this.protocolEncoderMap =
             ImmutableMap.<Byte, ProtocolEncoder>builder().put(ProtocolConstants.VERSION_0, new ProtocolEncoderV0())
-                .put(ProtocolConstants.VERSION_1, new ProtocolEncoderV1()).build();
+                .put(ProtocolConstants.VERSION_1, new ProtocolEncoderV1(headMapDictionary)).build();
         this.channelHandlers = channelHandlers;
     }
 
@@ -35,6 +35,7 @@ import io.netty.util.internal.PlatformDependent;
 import org.apache.seata.common.exception.FrameworkException;
 import org.apache.seata.common.thread.NamedThreadFactory;
 import org.apache.seata.core.rpc.RemotingBootstrap;
+import org.apache.seata.core.rpc.netty.v1.HeadMapDictionary;
 import org.apache.seata.core.rpc.netty.v1.ProtocolDecoderV1;
 import org.apache.seata.core.rpc.netty.v1.ProtocolEncoderV1;
 import org.slf4j.Logger;
@@ -130,12 +131,13 @@ public class NettyClientBootstrap implements RemotingBootstrap {
                 @Override
                 public void initChannel(SocketChannel ch) {
                     ChannelPipeline pipeline = ch.pipeline();
+                    HeadMapDictionary headMapDictionary = HeadMapDictionary.newIfEnabled();
                     pipeline
                         .addLast(new IdleStateHandler(nettyClientConfig.getChannelMaxReadIdleSeconds(),
                             nettyClientConfig.getChannelMaxWriteIdleSeconds(),
                             nettyClientConfig.getChannelMaxAllIdleSeconds()))
-                        .addLast(new ProtocolDecoderV1())
-                        .addLast(new ProtocolEncoderV1());
+                        .addLast(new ProtocolDecoderV1(headMapDictionary))
+                        .addLast(new ProtocolEncoderV1(headMapDictionary));
                     if (channelHandlers != null) {
                         addChannelPipelineLast(ch, channelHandlers);
                     }
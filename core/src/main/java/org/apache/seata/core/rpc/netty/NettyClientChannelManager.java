@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -45,20 +46,40 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Netty client pool manager.
- *
+ * <p>
+ * Several connections, called stripes, can be kept to each server. The first stripe is the channel of
+ * {@link #getChannels()}, which registration and reconnection are driven by, the other stripes are borrowed from the same
+ * pool and registered the same way. Requests of a global transaction are always sent on the same stripe, so they keep
+ * their order.
+ * <p>
+ * A stripe which cannot be connected falls back to the first stripe, and moves back to a connection of its own once
+ * one can be connected again. The requests of a global transaction sent around that switch travel on two connections,
+ * which keeps their order since striped requests are synchronous: a caller sends its next request of the transaction
+ * once the former one is answered.
  */
 class NettyClientChannelManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NettyClientChannelManager.class);
 
+    /**
+     * the min interval between the warnings of the stripes failing to connect to a server
+     */
+    private static final long STRIPE_WARN_INTERVAL_MILLS = 60000L;
+
     private final ConcurrentMap<String, Object> channelLocks = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<String, NettyPoolKey> poolKeyMap = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<String, AtomicReferenceArray<Channel>> stripeChannels = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Long> stripeWarnTimes = new ConcurrentHashMap<>();
+
     private final GenericKeyedObjectPool<NettyPoolKey, Channel> nettyClientKeyPool;
 
+    private final int stripeCount;
+
     private Function<String, NettyPoolKey> poolKeyFunction;
 
     NettyClientChannelManager(final NettyPoolableFactory keyPoolableFactory, final Function<String, NettyPoolKey> poolKeyFunction,
@@ -66,6 +87,7 @@ class NettyClientChannelManager {
         nettyClientKeyPool = new GenericKeyedObjectPool<>(keyPoolableFactory);
         nettyClientKeyPool.setConfig(getNettyPoolConfig(clientConfig));
         this.poolKeyFunction = poolKeyFunction;
+        this.stripeCount = clientConfig.getConnectionsPerServer();
     }
 
     private GenericKeyedObjectPool.Config getNettyPoolConfig(final NettyClientConfig clientConfig) {
@@ -111,6 +133,102 @@ class NettyClientChannelManager {
         }
     }
 
+    /**
+     * Acquire a stripe of the connections to a server, the first stripe is used if the stripe cannot be connected,
+     * and the stripe is connected again on the next acquire.
+     *
+     * @param serverAddress server address
+     * @param stripe the stripe, see {@link #selectStripe(String, int)}
+     * @return netty channel
+     */
+    Channel acquireChannel(String serverAddress, int stripe) {
+        if (stripe <= 0 || stripe >= stripeCount) {
+            return acquireChannel(serverAddress);
+        }
+        AtomicReferenceArray<Channel> stripes = CollectionUtils.computeIfAbsent(stripeChannels, serverAddress,
+            key -> new AtomicReferenceArray<>(stripeCount));
+        Channel channelToServer = stripes.get(stripe);
+        if (channelToServer != null && channelToServer.isActive()) {
+            return channelToServer;
+        }
+        Object lockObj = CollectionUtils.computeIfAbsent(channelLocks, serverAddress, key -> new Object());
+        synchronized (lockObj) {
+            channelToServer = stripes.get(stripe);
+            if (channelToServer != null && channelToServer.isActive()) {
+                return channelToServer;
+            }
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("will connect stripe {} to {}", stripe, serverAddress);
+            }
+            try {
+                NettyPoolKey currentPoolKey = poolKeyFunction.apply(serverAddress);
+                poolKeyMap.put(serverAddress, currentPoolKey);
+                channelToServer = nettyClientKeyPool.borrowObject(currentPoolKey);
+            } catch (Exception exx) {
+                long now = System.currentTimeMillis();
+                Long lastWarnTime = stripeWarnTimes.get(serverAddress);
+                if (lastWarnTime == null || now - lastWarnTime >= STRIPE_WARN_INTERVAL_MILLS) {
+                    stripeWarnTimes.put(serverAddress, now);
+                    LOGGER.warn("can not connect stripe {} to {}, use the first connection. {}", stripe, serverAddress,
+                        exx.getMessage());
+                } else if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("can not connect stripe {} to {}, use the first connection. {}", stripe,
+                        serverAddress, exx.getMessage());
+                }
+                return acquireChannel(serverAddress);
+            }
+            stripes.set(stripe, channelToServer);
+            return channelToServer;
+        }
+    }
+
+    /**
+     * Gets the number of connections kept to each server.
+     *
+     * @return the stripe count
+     */
+    int getStripeCount() {
+        return stripeCount;
+    }
+
+    /**
+     * Select the stripe a request is sent on. A request of a global transaction is striped by its xid, other requests
+     * by their message id.
+     *
+     * @param xid the xid of the request, null if it does not belong to a global transaction
+     * @param messageId the message id of the request
+     * @return the stripe
+     */
+    int selectStripe(String xid, int messageId) {
+        if (stripeCount == 1) {
+            return 0;
+        }
+        int hash = xid != null ? xid.hashCode() : messageId;
+        return (hash & Integer.MAX_VALUE) % stripeCount;
+    }
+
+    /**
+     * Get the active channels of the stripes to a server other than the first one.
+     *
+     * @param serverAddress server address
+     * @return the channels
+     */
+    List<Channel> getStripeChannels(String serverAddress) {
+        AtomicReferenceArray<Channel> stripes = stripeChannels.get(serverAddress);
+        if (stripes == null) {
+            return Collections.emptyList();
+        }
+        Channel firstChannel = channels.get(serverAddress);
+        List<Channel> stripeList = new ArrayList<>(stripeCount - 1);
+        for (int i = 1; i < stripes.length(); i++) {
+            Channel channel = stripes.get(i);
+            if (channel != null && channel.isActive() && channel != firstChannel && !stripeList.contains(channel)) {
+                stripeList.add(channel);
+            }
+        }
+        return stripeList;
+    }
+
     /**
      * Release channel to pool if necessary.
      *
@@ -121,6 +239,7 @@ class NettyClientChannelManager {
         if (channel == null || serverAddress == null) { return; }
         try {
             synchronized (channelLocks.get(serverAddress)) {
+                removeStripeChannel(serverAddress, channel);
                 Channel ch = channels.get(serverAddress);
                 if (ch == null) {
                     nettyClientKeyPool.returnObject(poolKeyMap.get(serverAddress), channel);
@@ -152,6 +271,7 @@ class NettyClientChannelManager {
             if (channel.equals(channels.get(serverAddress))) {
                 channels.remove(serverAddress);
             }
+            removeStripeChannel(serverAddress, channel);
             nettyClientKeyPool.returnObject(poolKeyMap.get(serverAddress), channel);
         } catch (Exception exx) {
             LOGGER.error("return channel to rmPool error:{}", exx.getMessage());
@@ -232,6 +352,10 @@ class NettyClientChannelManager {
                 try {
                     acquireChannel(serverAddress);
                     channelAddress.add(serverAddress);
+                    // the other stripes fall back to the first one if they cannot be connected
+                    for (int stripe = 1; stripe < stripeCount; stripe++) {
+                        acquireChannel(serverAddress, stripe);
+                    }
                 } catch (Exception e) {
                     failedMap.put(serverAddress, e);
                 }
@@ -294,6 +418,15 @@ class NettyClientChannelManager {
         return channelFromPool;
     }
 
+    private void removeStripeChannel(String serverAddress, Channel channel) {
+        AtomicReferenceArray<Channel> stripes = stripeChannels.get(serverAddress);
+        if (stripes != null) {
+            for (int i = 1; i < stripes.length(); i++) {
+                stripes.compareAndSet(i, channel, null);
+            }
+        }
+    }
+
     private List<String> getAvailServerList(String transactionServiceGroup) throws Exception {
         List<InetSocketAddress> availInetSocketAddressList = RegistryFactory.getInstance()
                 .lookup(transactionServiceGroup);
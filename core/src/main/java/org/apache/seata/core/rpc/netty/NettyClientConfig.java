@@ -20,6 +20,7 @@ import io.netty.channel.Channel;
 import org.apache.seata.core.constants.ConfigurationKeys;
 import org.apache.seata.core.rpc.TransportServerType;
 
+import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_CONNECTIONS_PER_SERVER;
 import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST;
 import static org.apache.seata.common.DefaultValues.DEFAULT_RPC_RM_REQUEST_TIMEOUT;
 import static org.apache.seata.common.DefaultValues.DEFAULT_RPC_TM_REQUEST_TIMEOUT;
@@ -41,6 +42,7 @@ public class NettyClientConfig extends NettyBaseConfig {
     private int perHostMaxConn = 2;
     private static final int PER_HOST_MIN_CONN = 2;
     private int pendingConnSize = Integer.MAX_VALUE;
+    private int connectionsPerServer = CONFIG.getInt(ConfigurationKeys.CLIENT_CONNECTIONS_PER_SERVER, DEFAULT_CLIENT_CONNECTIONS_PER_SERVER);
     private static final long RPC_RM_REQUEST_TIMEOUT = CONFIG.getLong(ConfigurationKeys.RPC_RM_REQUEST_TIMEOUT, DEFAULT_RPC_RM_REQUEST_TIMEOUT);
     private static final long RPC_TM_REQUEST_TIMEOUT = CONFIG.getLong(ConfigurationKeys.RPC_TM_REQUEST_TIMEOUT, DEFAULT_RPC_TM_REQUEST_TIMEOUT);
     private static String vgroup;
@@ -394,7 +396,25 @@ public class NettyClientConfig extends NettyBaseConfig {
      * @return the max pool active
      */
     public int getMaxPoolActive() {
-        return DEFAULT_MAX_POOL_ACTIVE;
+        return Math.max(DEFAULT_MAX_POOL_ACTIVE, getConnectionsPerServer());
+    }
+
+    /**
+     * Gets the number of connections kept to each server.
+     *
+     * @return the connections per server
+     */
+    public int getConnectionsPerServer() {
+        return Math.max(1, connectionsPerServer);
+    }
+
+    /**
+     * Sets the number of connections kept to each server.
+     *
+     * @param connectionsPerServer the connections per server
+     */
+    public void setConnectionsPerServer(int connectionsPerServer) {
+        this.connectionsPerServer = connectionsPerServer;
     }
 
     /**
@@ -16,12 +16,10 @@
  */
 package org.apache.seata.core.rpc.netty;
 
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import io.netty.channel.Channel;
-import org.apache.seata.common.thread.NamedThreadFactory;
+import org.apache.seata.common.thread.PartitionedExecutor;
 import org.apache.seata.core.protocol.MessageType;
 import org.apache.seata.core.rpc.ShutdownHook;
 import org.apache.seata.core.rpc.TransactionMessageHandler;
@@ -45,10 +43,11 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
 
     private final AtomicBoolean initialized = new AtomicBoolean(false);
 
-    private ThreadPoolExecutor branchResultMessageExecutor = new ThreadPoolExecutor(NettyServerConfig.getMinBranchResultPoolSize(),
-            NettyServerConfig.getMaxBranchResultPoolSize(), NettyServerConfig.getKeepAliveTime(), TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(NettyServerConfig.getMaxTaskQueueSize()),
-            new NamedThreadFactory("BranchResultHandlerThread", NettyServerConfig.getMaxBranchResultPoolSize()), new ThreadPoolExecutor.CallerRunsPolicy());
+    private volatile ServerOnRequestProcessor onRequestProcessor;
+
+    private ExecutorService branchResultMessageExecutor = NettyServerConfig.newRequestExecutor(
+            "BranchResultHandlerThread", NettyServerConfig.getMinBranchResultPoolSize(),
+            NettyServerConfig.getMaxBranchResultPoolSize());
 
     @Override
     public void init() {
@@ -64,11 +63,11 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
      *
      * @param messageExecutor   the message executor
      */
-    public NettyRemotingServer(ThreadPoolExecutor messageExecutor) {
+    public NettyRemotingServer(ExecutorService messageExecutor) {
         super(messageExecutor, new NettyServerConfig());
     }
 
-    public NettyRemotingServer(ThreadPoolExecutor messageExecutor, NettyServerConfig nettyServerConfig) {
+    public NettyRemotingServer(ExecutorService messageExecutor, NettyServerConfig nettyServerConfig) {
         super(messageExecutor, nettyServerConfig);
     }
 
@@ -85,6 +84,16 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
         return transactionMessageHandler;
     }
 
+    /**
+     * Gets the executor of the sub requests of merged messages.
+     *
+     * @return the executor, or null if the server is not initialized or parallel request handle is disabled
+     */
+    public PartitionedExecutor getParallelRequestExecutor() {
+        ServerOnRequestProcessor processor = onRequestProcessor;
+        return processor != null ? processor.getParallelRequestExecutor() : null;
+    }
+
     @Override
     public void destroyChannel(String serverAddress, Channel channel) {
         if (LOGGER.isInfoEnabled()) {
@@ -96,8 +105,7 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
 
     private void registerProcessor() {
         // 1. registry on request message processor
-        ServerOnRequestProcessor onRequestProcessor =
-            new ServerOnRequestProcessor(this, getHandler());
+        onRequestProcessor = new ServerOnRequestProcessor(this, getHandler());
         ShutdownHook.getInstance().addDisposable(onRequestProcessor);
         super.registerProcessor(MessageType.TYPE_BRANCH_REGISTER, onRequestProcessor, messageExecutor);
         super.registerProcessor(MessageType.TYPE_BRANCH_STATUS_REPORT, onRequestProcessor, messageExecutor);
@@ -113,6 +121,7 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
             new ServerOnResponseProcessor(getHandler(), getFutures());
         super.registerProcessor(MessageType.TYPE_BRANCH_COMMIT_RESULT, onResponseProcessor, branchResultMessageExecutor);
         super.registerProcessor(MessageType.TYPE_BRANCH_ROLLBACK_RESULT, onResponseProcessor, branchResultMessageExecutor);
+        super.registerProcessor(MessageType.TYPE_BATCH_RESULT_MSG, onResponseProcessor, branchResultMessageExecutor);
         // 3. registry rm message processor
         RegRmProcessor regRmProcessor = new RegRmProcessor(this);
         super.registerProcessor(MessageType.TYPE_REG_RM, regRmProcessor, messageExecutor);
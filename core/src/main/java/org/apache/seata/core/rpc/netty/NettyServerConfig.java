@@ -16,11 +16,20 @@
  */
 package org.apache.seata.core.rpc.netty;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import io.netty.channel.ServerChannel;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import org.apache.seata.common.DefaultValues;
+import org.apache.seata.common.thread.NamedThreadFactory;
+import org.apache.seata.common.thread.VirtualThreads;
 import org.apache.seata.core.constants.ConfigurationKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static org.apache.seata.common.DefaultValues.DEFAULT_BOSS_THREAD_PREFIX;
 import static org.apache.seata.common.DefaultValues.DEFAULT_BOSS_THREAD_SIZE;
@@ -35,6 +44,8 @@ import static org.apache.seata.common.DefaultValues.DEFAULT_SHUTDOWN_TIMEOUT_SEC
  */
 public class NettyServerConfig extends NettyBaseConfig {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(NettyServerConfig.class);
+
     private int serverSelectorThreads = Integer.parseInt(System.getProperty(
             ConfigurationKeys.TRANSPORT_PREFIX + "serverSelectorThreads", String.valueOf(WORKER_THREAD_SIZE)));
     private int serverSocketSendBufSize = Integer.parseInt(System.getProperty(
@@ -68,6 +79,10 @@ public class NettyServerConfig extends NettyBaseConfig {
             ConfigurationKeys.MAX_BRANCH_RESULT_POOL_SIZE, String.valueOf(WorkThreadMode.Pin.getValue())));
     private static boolean ENABLE_TC_SERVER_BATCH_SEND_RESPONSE = CONFIG.getBoolean(ConfigurationKeys.ENABLE_TC_SERVER_BATCH_SEND_RESPONSE,
         DefaultValues.DEFAULT_ENABLE_TC_SERVER_BATCH_SEND_RESPONSE);
+    private static final boolean ENABLE_VIRTUAL_THREADS = CONFIG.getBoolean(ConfigurationKeys.SERVER_ENABLE_VIRTUAL_THREADS,
+        DefaultValues.DEFAULT_SERVER_ENABLE_VIRTUAL_THREADS);
+    private static final int MAX_VIRTUAL_THREADS = CONFIG.getInt(ConfigurationKeys.SERVER_MAX_VIRTUAL_THREADS,
+        DefaultValues.DEFAULT_SERVER_MAX_VIRTUAL_THREADS);
 
     /**
      * The Server channel clazz.
@@ -340,4 +355,39 @@ public class NettyServerConfig extends NettyBaseConfig {
     public static boolean isEnableTcServerBatchSendResponse() {
         return ENABLE_TC_SERVER_BATCH_SEND_RESPONSE;
     }
+
+    /**
+     * Get the max number of virtual threads of a request thread pool
+     *
+     * @return the int
+     */
+    public static int getMaxVirtualThreads() {
+        return MAX_VIRTUAL_THREADS;
+    }
+
+    /**
+     * Create an executor handling requests.
+     * <p>
+     * On virtual threads, each request runs on a thread of its own and at most {@link #getMaxVirtualThreads()} of them
+     * run at once: a request blocked on the store does not hold a platform thread, so many more can wait at once. Once
+     * saturated, the caller runs the request, so it still pushes back as the thread pool does.
+     *
+     * @param prefix      the thread name prefix
+     * @param minPoolSize the min pool size of platform threads
+     * @param maxPoolSize the max pool size of platform threads
+     * @return the executor
+     */
+    public static ExecutorService newRequestExecutor(String prefix, int minPoolSize, int maxPoolSize) {
+        if (ENABLE_VIRTUAL_THREADS) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(prefix, MAX_VIRTUAL_THREADS);
+            if (executor != null) {
+                return executor;
+            }
+            LOGGER.warn("{} is enabled but virtual threads are not supported by this JDK, use platform threads for {}",
+                ConfigurationKeys.SERVER_ENABLE_VIRTUAL_THREADS, prefix);
+        }
+        return new ThreadPoolExecutor(minPoolSize, maxPoolSize, keepAliveTime, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(maxTaskQueueSize), new NamedThreadFactory(prefix, maxPoolSize),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
 }
@@ -18,6 +18,7 @@ package org.apache.seata.core.rpc.netty;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +46,7 @@ import org.apache.seata.core.protocol.RegisterRMResponse;
 import org.apache.seata.core.rpc.netty.NettyPoolKey.TransactionRole;
 import org.apache.seata.core.rpc.processor.client.ClientHeartbeatProcessor;
 import org.apache.seata.core.rpc.processor.client.ClientOnResponseProcessor;
+import org.apache.seata.core.rpc.processor.client.RmBatchPhaseTwoProcessor;
 import org.apache.seata.core.rpc.processor.client.RmBranchCommitProcessor;
 import org.apache.seata.core.rpc.processor.client.RmBranchRollbackProcessor;
 import org.apache.seata.core.rpc.processor.client.RmUndoLogProcessor;
@@ -64,6 +66,7 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
     private ResourceManager resourceManager;
     private static volatile RmNettyRemotingClient instance;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final Set<String> binaryLockKeyServers = ConcurrentHashMap.newKeySet();
     private static final long KEEP_ALIVE_TIME = Integer.MAX_VALUE;
     private static final int MAX_QUEUE_SIZE = 20000;
     private String applicationId;
@@ -178,6 +181,11 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
         if (LOGGER.isInfoEnabled()) {
             LOGGER.info("register RM success. client version:{}, server version:{},channel:{}", registerRMRequest.getVersion(), registerRMResponse.getVersion(), channel);
         }
+        if (registerRMResponse.isBinaryLockKeySupported()) {
+            binaryLockKeyServers.add(serverAddress);
+        } else {
+            binaryLockKeyServers.remove(serverAddress);
+        }
         getClientChannelManager().registerChannel(serverAddress, channel);
         String dbKey = getMergedResourceKeys();
         if (registerRMRequest.getResourceIds() != null) {
@@ -188,6 +196,20 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
 
     }
 
+    /**
+     * Whether the servers decode the binary row lock keys of a branch register request, only when all the servers
+     * registered to said so in their register response, since the request may be sent to any of them.
+     *
+     * @return true or false
+     */
+    public boolean isBinaryLockKeySupported() {
+        Set<String> serverAddresses = getClientChannelManager().getChannels().keySet();
+        if (serverAddresses.isEmpty()) {
+            return false;
+        }
+        return binaryLockKeyServers.containsAll(serverAddresses);
+    }
+
     @Override
     public void onRegisterMsgFail(String serverAddress, Channel channel, Object response,
                                   AbstractMessage requestMessage) {
@@ -232,6 +254,10 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
                     LOGGER.info("will register resourceId:{}", resourceId);
                 }
                 sendRegisterMessage(serverAddress, rmChannel, resourceId);
+                // the other connections to the server must know the resource as well
+                for (Channel stripeChannel : getClientChannelManager().getStripeChannels(serverAddress)) {
+                    sendRegisterMessage(serverAddress, stripeChannel, resourceId);
+                }
             }
         }
     }
@@ -239,6 +265,7 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
     public void sendRegisterMessage(String serverAddress, Channel channel, String resourceId) {
         RegisterRMRequest message = new RegisterRMRequest(applicationId, transactionServiceGroup);
         message.setResourceIds(resourceId);
+        message.setBatchPhaseTwoSupported(true);
         try {
             super.sendAsyncRequest(channel, message);
         } catch (FrameworkException e) {
@@ -292,6 +319,7 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
             }
             RegisterRMRequest message = new RegisterRMRequest(applicationId, transactionServiceGroup);
             message.setResourceIds(resourceIds);
+            message.setBatchPhaseTwoSupported(true);
             return new NettyPoolKey(NettyPoolKey.TransactionRole.RMROLE, serverAddress, message);
         };
     }
@@ -321,7 +349,10 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
         // 3.registry rm handler undo log processor
         RmUndoLogProcessor rmUndoLogProcessor = new RmUndoLogProcessor(getTransactionMessageHandler());
         super.registerProcessor(MessageType.TYPE_RM_DELETE_UNDOLOG, rmUndoLogProcessor, messageExecutor);
-        // 4.registry TC response processor
+        // 4.registry rm client handle batched branch commit and rollback processor
+        RmBatchPhaseTwoProcessor rmBatchPhaseTwoProcessor = new RmBatchPhaseTwoProcessor(getTransactionMessageHandler(), this);
+        super.registerProcessor(MessageType.TYPE_BATCH_PHASE_TWO_MSG, rmBatchPhaseTwoProcessor, messageExecutor);
+        // 5.registry TC response processor
         ClientOnResponseProcessor onResponseProcessor =
             new ClientOnResponseProcessor(mergeMsgMap, super.getFutures(), getTransactionMessageHandler());
         super.registerProcessor(MessageType.TYPE_SEATA_MERGE_RESULT, onResponseProcessor, null);
@@ -330,7 +361,7 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
         super.registerProcessor(MessageType.TYPE_GLOBAL_LOCK_QUERY_RESULT, onResponseProcessor, null);
         super.registerProcessor(MessageType.TYPE_REG_RM_RESULT, onResponseProcessor, null);
         super.registerProcessor(MessageType.TYPE_BATCH_RESULT_MSG, onResponseProcessor, null);
-        // 5.registry heartbeat message processor
+        // 6.registry heartbeat message processor
         ClientHeartbeatProcessor clientHeartbeatProcessor = new ClientHeartbeatProcessor();
         super.registerProcessor(MessageType.TYPE_HEARTBEAT_MSG, clientHeartbeatProcessor, null);
     }
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc.netty.v1;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.seata.config.ConfigurationFactory;
+
+import static org.apache.seata.common.ConfigurationKeys.ENABLE_HEAD_MAP_DICTIONARY;
+import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_HEAD_MAP_DICTIONARY;
+
+/**
+ * The head map dictionary of a channel, shared by the v1 encoder and decoder of the channel.
+ * <p>
+ * The head maps repeat the same few entries on a channel, so once both peers know the dictionary, an entry seen
+ * again is defined once with a small id and then sent as that id only:
+ * <pre>
+ * dictionary head map: marker(2B, -2) entry*
+ * entry:               id(1B, 0~127)                       reference to a defined entry
+ *                    | 0x80 id(1B) key value               define the entry and use it
+ *                    | 0x81 key value                      entry not in the dictionary
+ * </pre>
+ * The keys and values are written as in {@link HeadMapSerializer}. The legacy head maps start with the length of
+ * a key, which is never negative, so both forms are told apart by the first short.
+ * <p>
+ * Old peers do not know the dictionary form, so the head maps are sent in the legacy form until the peer is known
+ * to support it. The first message sent also carries a {@link #HANDSHAKE_KEY} entry holding a random nonce of this
+ * side, which old peers just keep as a header. A nonce of this side coming back, echoed by an old peer, is ignored.
+ * The first message sent after learning the peer supports the dictionary is in the dictionary form even without
+ * headers, so that the peer learns it as well.
+ * <p>
+ * The encoder and decoder of a channel run on the event loop of the channel, so the state is not synchronized.
+ */
+public class HeadMapDictionary {
+
+    /**
+     * The header announcing the dictionary support, the value is the nonce of the sender.
+     */
+    static final String HANDSHAKE_KEY = "seata.headMapDict";
+
+    static final short MARKER = -2;
+
+    static final int MAX_ENTRIES = 128;
+
+    static final int OP_DEFINE = 0x80;
+
+    static final int OP_LITERAL = 0x81;
+
+    /**
+     * The entries are defined the second time they are seen, so that per message values such as trace ids do
+     * not fill the dictionary.
+     */
+    private static final int MAX_CANDIDATES = 1024;
+
+    private final String nonce = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final Map<String, Map<String, Integer>> encodeIds = new HashMap<>();
+
+    private final Map<String, Map<String, Boolean>> candidates = new HashMap<>();
+
+    private int candidateCount;
+
+    private int nextEncodeId;
+
+    private int pendingFrom = -1;
+
+    private final String[][] pendingEntries = new String[MAX_ENTRIES][];
+
+    private final String[] decodeKeys = new String[MAX_ENTRIES];
+
+    private final String[] decodeValues = new String[MAX_ENTRIES];
+
+    private boolean peerSupported;
+
+    private boolean announced;
+
+    private boolean announcing;
+
+    private boolean handshakeSent;
+
+    private boolean handshaking;
+
+    /**
+     * Whether the dictionary is enabled by the configuration.
+     *
+     * @return the boolean
+     */
+    public static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().getBoolean(ENABLE_HEAD_MAP_DICTIONARY,
+            DEFAULT_ENABLE_HEAD_MAP_DICTIONARY);
+    }
+
+    /**
+     * Create the dictionary of a new channel if it is enabled.
+     *
+     * @return the dictionary, or null to send the legacy head maps only
+     */
+    public static HeadMapDictionary newIfEnabled() {
+        return isEnabled() ? new HeadMapDictionary() : null;
+    }
+
+    /**
+     * Whether the peer is known to support the dictionary.
+     *
+     * @return the boolean
+     */
+    public boolean isPeerSupported() {
+        return peerSupported;
+    }
+
+    /**
+     * Encode the head map of a message, {@link #commit()} or {@link #rollback()} must follow once the message is
+     * encoded or failed.
+     *
+     * @param map the head map
+     * @param out the buffer
+     * @return length of head map bytes
+     */
+    public int encode(Map<String, String> map, ByteBuf out) {
+        if (!peerSupported) {
+            int length = HeadMapSerializer.getInstance().encode(map, out);
+            if (handshakeSent) {
+                return length;
+            }
+            int start = out.writerIndex();
+            HeadMapSerializer.getInstance().writeString(out, HANDSHAKE_KEY);
+            HeadMapSerializer.getInstance().writeString(out, nonce);
+            handshaking = true;
+            return length + out.writerIndex() - start;
+        }
+        boolean empty = map == null || map.isEmpty();
+        if (empty && announced) {
+            return 0;
+        }
+        int start = out.writerIndex();
+        out.writeShort(MARKER);
+        announcing = true;
+        if (!empty) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                if (entry.getKey() != null) {
+                    encodeEntry(entry.getKey(), entry.getValue(), out);
+                }
+            }
+        }
+        return out.writerIndex() - start;
+    }
+
+    /**
+     * Keep the entries defined by the message encoded.
+     */
+    public void commit() {
+        pendingFrom = -1;
+        announced |= announcing;
+        handshakeSent |= handshaking;
+        announcing = false;
+        handshaking = false;
+    }
+
+    /**
+     * Forget the entries defined by the message which failed to be encoded, the peer never gets them.
+     */
+    public void rollback() {
+        if (pendingFrom >= 0) {
+            for (int id = pendingFrom; id < nextEncodeId; id++) {
+                String[] entry = pendingEntries[id];
+                Map<String, Integer> ids = encodeIds.get(entry[0]);
+                ids.remove(entry[1]);
+                if (ids.isEmpty()) {
+                    encodeIds.remove(entry[0]);
+                }
+                pendingEntries[id] = null;
+            }
+            nextEncodeId = pendingFrom;
+            pendingFrom = -1;
+        }
+        announcing = false;
+        handshaking = false;
+    }
+
+    /**
+     * Decode the head map of a message, in the legacy or the dictionary form.
+     *
+     * @param dictionary the dictionary of the channel, null if the dictionary is disabled
+     * @param in         the buffer
+     * @param length     of head map bytes
+     * @return the head map
+     * @throws IllegalArgumentException if the head map is in the dictionary form but the dictionary is disabled
+     */
+    static Map<String, String> decode(HeadMapDictionary dictionary, ByteBuf in, int length) {
+        HeadMapSerializer serializer = HeadMapSerializer.getInstance();
+        int end = in.readerIndex() + length;
+        LazyHeadMap map = new LazyHeadMap(4);
+        if (in.getShort(in.readerIndex()) != MARKER) {
+            String handshake = null;
+            boolean hasHandshake = false;
+            while (in.readerIndex() < end) {
+                String key = serializer.readString(in);
+                String value = serializer.readString(in);
+                if (HANDSHAKE_KEY.equals(key)) {
+                    hasHandshake = true;
+                    handshake = value;
+                } else {
+                    map.add(key, value);
+                }
+            }
+            if (hasHandshake && dictionary != null && !dictionary.nonce.equals(handshake)) {
+                dictionary.peerSupported = true;
+            }
+            return map;
+        }
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Head map dictionary is not enabled");
+        }
+        dictionary.peerSupported = true;
+        in.skipBytes(2);
+        while (in.readerIndex() < end) {
+            int op = in.readUnsignedByte();
+            if (op < MAX_ENTRIES) {
+                String key = dictionary.decodeKeys[op];
+                if (key == null) {
+                    throw new IllegalArgumentException("Undefined head map entry: " + op);
+                }
+                map.add(key, dictionary.decodeValues[op]);
+            } else if (op == OP_DEFINE) {
+                int id = in.readUnsignedByte();
+                if (id >= MAX_ENTRIES) {
+                    throw new IllegalArgumentException("Head map entry id out of range: " + id);
+                }
+                String key = serializer.readString(in);
+                String value = serializer.readString(in);
+                dictionary.decodeKeys[id] = key;
+                dictionary.decodeValues[id] = value;
+                map.add(key, value);
+            } else if (op == OP_LITERAL) {
+                map.add(serializer.readString(in), serializer.readString(in));
+            } else {
+                throw new IllegalArgumentException("Unknown head map entry: " + op);
+            }
+        }
+        return map;
+    }
+
+    private void encodeEntry(String key, String value, ByteBuf out) {
+        HeadMapSerializer serializer = HeadMapSerializer.getInstance();
+        Map<String, Integer> ids = encodeIds.get(key);
+        Integer id = ids != null ? ids.get(value) : null;
+        if (id != null) {
+            out.writeByte(id);
+        } else if (nextEncodeId < MAX_ENTRIES && !markCandidate(key, value)) {
+            id = nextEncodeId++;
+            if (pendingFrom < 0) {
+                pendingFrom = id;
+            }
+            pendingEntries[id] = new String[] {key, value};
+            encodeIds.computeIfAbsent(key, k -> new HashMap<>(4)).put(value, id);
+            out.writeByte(OP_DEFINE);
+            out.writeByte(id);
+            serializer.writeString(out, key);
+            serializer.writeString(out, value);
+        } else {
+            out.writeByte(OP_LITERAL);
+            serializer.writeString(out, key);
+            serializer.writeString(out, value);
+        }
+    }
+
+    /**
+     * Remember an entry seen for the first time.
+     *
+     * @return true if the entry was not seen before
+     */
+    private boolean markCandidate(String key, String value) {
+        Map<String, Boolean> values = candidates.get(key);
+        if (values != null && values.remove(value) != null) {
+            candidateCount--;
+            return false;
+        }
+        if (candidateCount >= MAX_CANDIDATES) {
+            candidates.clear();
+            candidateCount = 0;
+        }
+        candidates.computeIfAbsent(key, k -> new HashMap<>(4)).put(value, Boolean.TRUE);
+        candidateCount++;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "HeadMapDictionary{peerSupported=" + peerSupported + ", entries=" + nextEncodeId + "}";
+    }
+}
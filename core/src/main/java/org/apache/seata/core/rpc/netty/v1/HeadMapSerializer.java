@@ -17,6 +17,7 @@
 package org.apache.seata.core.rpc.netty.v1;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.apache.seata.common.Constants;
 import org.apache.seata.common.util.StringUtils;
 
@@ -97,9 +98,9 @@ public class HeadMapSerializer {
         } else if (str.isEmpty()) {
             out.writeShort(0);
         } else {
-            byte[] bs = str.getBytes(Constants.DEFAULT_CHARSET);
-            out.writeShort(bs.length);
-            out.writeBytes(bs);
+            // write the utf-8 bytes straight to the buffer, without an intermediate array
+            out.writeShort(ByteBufUtil.utf8Bytes(str));
+            ByteBufUtil.writeUtf8(out, str);
         }
     }
     /**
@@ -115,9 +116,9 @@ public class HeadMapSerializer {
         } else if (length == 0) {
             return StringUtils.EMPTY;
         } else {
-            byte[] value = new byte[length];
-            in.readBytes(value);
-            return new String(value, Constants.DEFAULT_CHARSET);
+            String value = in.toString(in.readerIndex(), length, Constants.DEFAULT_CHARSET);
+            in.skipBytes(length);
+            return value;
         }
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc.netty.v1;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The decoded head map of a message, backed by the decoded key and value arrays.
+ * <p>
+ * Lookups scan the arrays, since a message has a few headers at most. The entries are only copied to a
+ * {@link HashMap} when the map is iterated or changed.
+ */
+final class LazyHeadMap extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = 5428711624389346203L;
+
+    private String[] keys;
+
+    private String[] values;
+
+    private int size;
+
+    private Map<String, String> map;
+
+    /**
+     * Instantiates a new Lazy head map.
+     *
+     * @param capacity the expected number of entries
+     */
+    LazyHeadMap(int capacity) {
+        this.keys = new String[Math.max(capacity, 1)];
+        this.values = new String[keys.length];
+    }
+
+    /**
+     * Add a decoded entry, replacing the entry of the same key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    void add(String key, String value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        if (size == keys.length) {
+            int capacity = keys.length << 1;
+            String[] newKeys = new String[capacity];
+            String[] newValues = new String[capacity];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            keys = newKeys;
+            values = newValues;
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map != null ? map.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(keys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Map<String, String> materialize() {
+        if (map == null) {
+            Map<String, String> entries = new HashMap<>(Math.max(size * 4 / 3 + 1, 16));
+            for (int i = 0; i < size; i++) {
+                entries.put(keys[i], values[i]);
+            }
+            map = entries;
+            keys = null;
+            values = null;
+            size = 0;
+        }
+        return map;
+    }
+}
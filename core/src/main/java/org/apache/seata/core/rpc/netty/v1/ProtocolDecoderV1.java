@@ -22,8 +22,10 @@ import java.util.Map;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.apache.seata.core.compressor.CompressionPolicy;
 import org.apache.seata.core.compressor.Compressor;
 import org.apache.seata.core.compressor.CompressorFactory;
+import org.apache.seata.core.compressor.CompressorType;
 import org.apache.seata.core.exception.DecodeException;
 import org.apache.seata.core.protocol.HeartbeatMessage;
 import org.apache.seata.core.protocol.ProtocolConstants;
@@ -69,7 +71,19 @@ public class ProtocolDecoderV1 extends LengthFieldBasedFrameDecoder implements P
     private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolDecoderV1.class);
     private final List<SerializerType> supportDeSerializerTypes;
 
+    private final HeadMapDictionary headMapDictionary;
+
     public ProtocolDecoderV1() {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new Protocol decoder v1.
+     *
+     * @param headMapDictionary the head map dictionary shared with the encoder of the channel, null if the peer
+     *                          must send the legacy head maps only
+     */
+    public ProtocolDecoderV1(HeadMapDictionary headMapDictionary) {
         /*
         int maxFrameLength,
         int lengthFieldOffset,  magic code is 2B, and version is 1B, and then FullLength. so value is 3
@@ -82,6 +96,7 @@ public class ProtocolDecoderV1 extends LengthFieldBasedFrameDecoder implements P
         if (supportDeSerializerTypes.isEmpty()) {
             throw new IllegalArgumentException("No serializer found");
         }
+        this.headMapDictionary = headMapDictionary;
     }
 
     @Override
@@ -111,8 +126,10 @@ public class ProtocolDecoderV1 extends LengthFieldBasedFrameDecoder implements P
         // direct read head with zero-copy
         int headMapLength = headLength - ProtocolConstants.V1_HEAD_LENGTH;
         if (headMapLength > 0) {
-            Map<String, String> map = HeadMapSerializer.getInstance().decode(frame, headMapLength);
-            rpcMessage.getHeadMap().putAll(map);
+            Map<String, String> map = HeadMapDictionary.decode(headMapDictionary, frame, headMapLength);
+            if (!map.isEmpty()) {
+                rpcMessage.setHeadMap(map);
+            }
         }
 
         // read body
@@ -123,17 +140,33 @@ public class ProtocolDecoderV1 extends LengthFieldBasedFrameDecoder implements P
         } else {
             int bodyLength = fullLength - headLength;
             if (bodyLength > 0) {
-                byte[] bs = new byte[bodyLength];
-                frame.readBytes(bs);
-                Compressor compressor = CompressorFactory.getCompressor(compressorType);
-                bs = compressor.decompress(bs);
                 SerializerType protocolType = SerializerType.getByCode(rpcMessage.getCodec());
-                if (this.supportDeSerializerTypes.contains(protocolType)) {
-                    Serializer serializer = SerializerServiceLoader.load(protocolType, ProtocolConstants.VERSION_1);
-                    rpcMessage.setBody(serializer.deserialize(bs));
-                } else {
+                if (!this.supportDeSerializerTypes.contains(protocolType)) {
                     throw new IllegalArgumentException("SerializerType not match");
                 }
+                Serializer serializer = SerializerServiceLoader.load(protocolType, ProtocolConstants.VERSION_1);
+                Compressor compressor = CompressorFactory.getCompressor(compressorType);
+                long start = System.nanoTime();
+                long decompressNanos;
+                if (serializer.isByteBufSupported()) {
+                    // decode from the frame, or from the decompressed buffer, without copying it to an array
+                    ByteBuf body = compressor.decompress(frame.readSlice(bodyLength), frame.alloc());
+                    decompressNanos = System.nanoTime() - start;
+                    try {
+                        rpcMessage.setBody(serializer.deserialize(body));
+                    } finally {
+                        body.release();
+                    }
+                } else {
+                    byte[] bs = new byte[bodyLength];
+                    frame.readBytes(bs);
+                    bs = compressor.decompress(bs);
+                    decompressNanos = System.nanoTime() - start;
+                    rpcMessage.setBody(serializer.deserialize(bs));
+                }
+                if (compressorType != CompressorType.NONE.getCode()) {
+                    CompressionPolicy.getInstance().recordDecompress(rpcMessage.getBody(), decompressNanos);
+                }
             }
         }
 
@@ -21,8 +21,9 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import org.apache.seata.core.rpc.netty.ProtocolEncoder;
 import org.apache.seata.core.serializer.Serializer;
-import org.apache.seata.core.compressor.Compressor;
+import org.apache.seata.core.compressor.CompressionPolicy;
 import org.apache.seata.core.compressor.CompressorFactory;
+import org.apache.seata.core.compressor.CompressorType;
 import org.apache.seata.core.protocol.ProtocolConstants;
 import org.apache.seata.core.protocol.RpcMessage;
 import org.apache.seata.core.serializer.SerializerServiceLoader;
@@ -63,6 +64,24 @@ public class ProtocolEncoderV1 extends MessageToByteEncoder implements ProtocolE
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolEncoderV1.class);
 
+    private final HeadMapDictionary headMapDictionary;
+
+    /**
+     * Instantiates a new Protocol encoder v1 sending the legacy head maps only.
+     */
+    public ProtocolEncoderV1() {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new Protocol encoder v1.
+     *
+     * @param headMapDictionary the head map dictionary shared with the decoder of the channel, null to send the
+     *                          legacy head maps only
+     */
+    public ProtocolEncoderV1(HeadMapDictionary headMapDictionary) {
+        this.headMapDictionary = headMapDictionary;
+    }
 
     public void encode(RpcMessage message, ByteBuf out) {
         try {
@@ -80,30 +99,42 @@ public class ProtocolEncoderV1 extends MessageToByteEncoder implements ProtocolE
             out.writerIndex(out.writerIndex() + 6);
             out.writeByte(messageType);
             out.writeByte(rpcMessage.getCodec());
+            // the compressor may be changed by the compression policy once the body size is known
+            int compressorIndex = out.writerIndex();
             out.writeByte(rpcMessage.getCompressor());
             out.writeInt(rpcMessage.getId());
 
             // direct write head with zero-copy
             Map<String, String> headMap = rpcMessage.getHeadMap();
-            if (headMap != null && !headMap.isEmpty()) {
-                int headMapBytesLength = HeadMapSerializer.getInstance().encode(headMap, out);
-                headLength += headMapBytesLength;
-                fullLength += headMapBytesLength;
-            }
+            int headMapBytesLength = headMapDictionary != null ? headMapDictionary.encode(headMap, out)
+                : HeadMapSerializer.getInstance().encode(headMap, out);
+            headLength += headMapBytesLength;
+            fullLength += headMapBytesLength;
 
-            byte[] bodyBytes = null;
             if (messageType != ProtocolConstants.MSGTYPE_HEARTBEAT_REQUEST
                 && messageType != ProtocolConstants.MSGTYPE_HEARTBEAT_RESPONSE) {
                 // heartbeat has no body
                 Serializer serializer = SerializerServiceLoader.load(SerializerType.getByCode(rpcMessage.getCodec()), ProtocolConstants.VERSION_1);
-                bodyBytes = serializer.serialize(rpcMessage.getBody());
-                Compressor compressor = CompressorFactory.getCompressor(rpcMessage.getCompressor());
-                bodyBytes = compressor.compress(bodyBytes);
-                fullLength += bodyBytes.length;
-            }
-
-            if (bodyBytes != null) {
-                out.writeBytes(bodyBytes);
+                CompressionPolicy policy = CompressionPolicy.getInstance();
+                Object body = rpcMessage.getBody();
+                byte compressor = policy.resolve(body, rpcMessage.getCompressor());
+                if (serializer.isByteBufSupported()) {
+                    int bodyIndex = out.writerIndex();
+                    compressor = encodeBody(serializer, policy, compressor, body, out);
+                    fullLength += out.writerIndex() - bodyIndex;
+                } else {
+                    byte[] bodyBytes = serializer.serialize(body);
+                    compressor = policy.select(body, compressor, bodyBytes.length);
+                    if (compressor != CompressorType.NONE.getCode()) {
+                        int rawLength = bodyBytes.length;
+                        long start = System.nanoTime();
+                        bodyBytes = CompressorFactory.getCompressor(compressor).compress(bodyBytes);
+                        policy.recordCompress(body, rawLength, bodyBytes.length, System.nanoTime() - start);
+                    }
+                    fullLength += bodyBytes.length;
+                    out.writeBytes(bodyBytes);
+                }
+                out.setByte(compressorIndex, compressor);
             }
 
             // fix fullLength and headLength
@@ -113,15 +144,49 @@ public class ProtocolEncoderV1 extends MessageToByteEncoder implements ProtocolE
             out.writeInt(fullLength);
             out.writeShort(headLength);
             out.writerIndex(writeIndex);
-
-
+            if (headMapDictionary != null) {
+                headMapDictionary.commit();
+            }
         } catch (Throwable e) {
             LOGGER.error("Encode request error!", e);
-            // todo
+            if (headMapDictionary != null) {
+                headMapDictionary.rollback();
+            }
             throw e;
         }
     }
 
+    /**
+     * Write the body straight to the out buffer, through a buffer of the allocator of the out buffer if it may be
+     * compressed.
+     *
+     * @return the code of the compressor used
+     */
+    private byte encodeBody(Serializer serializer, CompressionPolicy policy, byte compressor, Object body,
+                           ByteBuf out) {
+        int bodyIndex = out.writerIndex();
+        if (compressor == CompressorType.NONE.getCode()) {
+            serializer.serialize(body, out);
+        } else {
+            ByteBuf raw = out.alloc().buffer();
+            try {
+                serializer.serialize(body, raw);
+                int rawLength = raw.readableBytes();
+                compressor = policy.select(body, compressor, rawLength);
+                if (compressor == CompressorType.NONE.getCode()) {
+                    out.writeBytes(raw);
+                } else {
+                    long start = System.nanoTime();
+                    CompressorFactory.getCompressor(compressor).compress(raw, out);
+                    policy.recordCompress(body, rawLength, out.writerIndex() - bodyIndex, System.nanoTime() - start);
+                }
+            } finally {
+                raw.release();
+            }
+        }
+        return compressor;
+    }
+
     @Override
     protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
         try {
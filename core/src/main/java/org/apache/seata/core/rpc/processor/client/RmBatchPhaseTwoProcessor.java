@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc.processor.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.channel.ChannelHandlerContext;
+import org.apache.seata.common.util.NetUtil;
+import org.apache.seata.core.model.BranchStatus;
+import org.apache.seata.core.protocol.AbstractResultMessage;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
+import org.apache.seata.core.protocol.BatchResultMessage;
+import org.apache.seata.core.protocol.ResultCode;
+import org.apache.seata.core.protocol.RpcMessage;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndRequest;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndResponse;
+import org.apache.seata.core.protocol.transaction.BranchCommitRequest;
+import org.apache.seata.core.protocol.transaction.BranchCommitResponse;
+import org.apache.seata.core.protocol.transaction.BranchRollbackResponse;
+import org.apache.seata.core.rpc.RemotingClient;
+import org.apache.seata.core.rpc.TransactionMessageHandler;
+import org.apache.seata.core.rpc.processor.RemotingProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * process the TC batched branch commit and rollback commands.
+ * <p>
+ * process message type:
+ * {@link BatchPhaseTwoMessage}
+ * <p>
+ * The requests are handled one after the other in the order the TC sent them, and all the results are answered in
+ * one {@link BatchResultMessage}.
+ *
+ * @since 2.3.0
+ */
+public class RmBatchPhaseTwoProcessor implements RemotingProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RmBatchPhaseTwoProcessor.class);
+
+    private final TransactionMessageHandler handler;
+
+    private final RemotingClient remotingClient;
+
+    public RmBatchPhaseTwoProcessor(TransactionMessageHandler handler, RemotingClient remotingClient) {
+        this.handler = handler;
+        this.remotingClient = remotingClient;
+    }
+
+    @Override
+    public void process(ChannelHandlerContext ctx, RpcMessage rpcMessage) throws Exception {
+        String remoteAddress = NetUtil.toStringAddress(ctx.channel().remoteAddress());
+        BatchPhaseTwoMessage batchMessage = (BatchPhaseTwoMessage) rpcMessage.getBody();
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("rm client handle batch phase two process: {}", batchMessage);
+        }
+        BatchResultMessage resultMessage = handleBatch(batchMessage);
+        try {
+            this.remotingClient.sendAsyncResponse(remoteAddress, rpcMessage, resultMessage);
+        } catch (Throwable throwable) {
+            LOGGER.error("batch phase two error: {}", throwable.getMessage(), throwable);
+        }
+    }
+
+    BatchResultMessage handleBatch(BatchPhaseTwoMessage batchMessage) {
+        List<AbstractBranchEndRequest> requests = batchMessage.getBranchRequests();
+        List<AbstractResultMessage> results = new ArrayList<>(requests.size());
+        for (AbstractBranchEndRequest request : requests) {
+            AbstractResultMessage result;
+            try {
+                result = handler.onRequest(request, null);
+            } catch (Throwable t) {
+                LOGGER.error("branch phase two error, xid: {}, branchId: {}, cause: {}", request.getXid(),
+                    request.getBranchId(), t.getMessage(), t);
+                result = buildFailedResult(request, t);
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("branch phase two result:" + result);
+            }
+            results.add(result);
+        }
+        BatchResultMessage resultMessage = new BatchResultMessage();
+        resultMessage.setResultMessages(results);
+        resultMessage.setMsgIds(new ArrayList<>(batchMessage.getMsgIds()));
+        return resultMessage;
+    }
+
+    /**
+     * the result of a request which failed by surprise, so the other results of the batch are still answered
+     */
+    private static AbstractBranchEndResponse buildFailedResult(AbstractBranchEndRequest request, Throwable t) {
+        AbstractBranchEndResponse response;
+        if (request instanceof BranchCommitRequest) {
+            response = new BranchCommitResponse();
+            response.setBranchStatus(BranchStatus.PhaseTwo_CommitFailed_Retryable);
+        } else {
+            response = new BranchRollbackResponse();
+            response.setBranchStatus(BranchStatus.PhaseTwo_RollbackFailed_Retryable);
+        }
+        response.setXid(request.getXid());
+        response.setBranchId(request.getBranchId());
+        response.setResultCode(ResultCode.Failed);
+        response.setMsg(t.getMessage());
+        return response;
+    }
+}
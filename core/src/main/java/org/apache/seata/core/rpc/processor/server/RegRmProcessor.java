@@ -81,6 +81,7 @@ public class RegRmProcessor implements RemotingProcessor {
             LOGGER.error("RM register fail, error message:{}", errorInfo);
         }
         RegisterRMResponse response = new RegisterRMResponse(isSuccess);
+        response.setBinaryLockKeySupported(true);
         if (StringUtils.isNotEmpty(errorInfo)) {
             response.setMsg(errorInfo);
         }
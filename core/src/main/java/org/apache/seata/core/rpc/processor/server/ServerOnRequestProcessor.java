@@ -28,13 +28,18 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import org.apache.seata.common.ConfigurationKeys;
+import org.apache.seata.common.DefaultValues;
 import org.apache.seata.common.thread.NamedThreadFactory;
+import org.apache.seata.common.thread.PartitionedExecutor;
+import org.apache.seata.common.thread.VirtualThreads;
 import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.common.util.NetUtil;
 import org.apache.seata.common.util.StringUtils;
@@ -44,16 +49,28 @@ import org.apache.seata.core.protocol.AbstractResultMessage;
 import org.apache.seata.core.protocol.BatchResultMessage;
 import org.apache.seata.core.protocol.MergeResultMessage;
 import org.apache.seata.core.protocol.MergedWarpMessage;
+import org.apache.seata.core.protocol.ResultCode;
 import org.apache.seata.core.protocol.RpcMessage;
 import org.apache.seata.core.protocol.Version;
+import org.apache.seata.core.protocol.transaction.AbstractTransactionResponse;
 import org.apache.seata.core.protocol.transaction.BranchRegisterRequest;
+import org.apache.seata.core.protocol.transaction.BranchRegisterResponse;
 import org.apache.seata.core.protocol.transaction.BranchReportRequest;
+import org.apache.seata.core.protocol.transaction.BranchReportResponse;
 import org.apache.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.apache.seata.core.protocol.transaction.GlobalBeginResponse;
 import org.apache.seata.core.protocol.transaction.GlobalCommitRequest;
+import org.apache.seata.core.protocol.transaction.GlobalCommitResponse;
 import org.apache.seata.core.protocol.transaction.GlobalLockQueryRequest;
+import org.apache.seata.core.protocol.transaction.GlobalLockQueryResponse;
 import org.apache.seata.core.protocol.transaction.GlobalReportRequest;
+import org.apache.seata.core.protocol.transaction.GlobalReportResponse;
 import org.apache.seata.core.protocol.transaction.GlobalRollbackRequest;
+import org.apache.seata.core.protocol.transaction.GlobalRollbackResponse;
 import org.apache.seata.core.protocol.transaction.GlobalStatusRequest;
+import org.apache.seata.core.protocol.transaction.GlobalStatusResponse;
+import org.apache.seata.core.protocol.transaction.TransactionRequestUtil;
+import org.apache.seata.core.rpc.DeferredResponse;
 import org.apache.seata.core.rpc.Disposable;
 import org.apache.seata.core.rpc.RemotingServer;
 import org.apache.seata.core.rpc.RpcContext;
@@ -93,6 +110,12 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
 
     private ExecutorService batchResponseExecutorService;
 
+    /**
+     * Runs the sub requests of a merged message when parallel request handle is enabled, the requests of the same
+     * global transaction run in order.
+     */
+    private PartitionedExecutor parallelRequestExecutor;
+
     private final ConcurrentMap<Channel, BlockingQueue<QueueItem>> basketMap = new ConcurrentHashMap<>();
     protected final Object batchResponseLock = new Object();
     private volatile boolean isResponding = false;
@@ -100,8 +123,11 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
     private static final int MAX_BATCH_RESPONSE_THREAD = 1;
     private static final long KEEP_ALIVE_TIME = Integer.MAX_VALUE;
     private static final String BATCH_RESPONSE_THREAD_PREFIX = "rpcBatchResponse";
+    private static final String PARALLEL_REQUEST_THREAD_PREFIX = "rpcParallelRequest";
     private static final boolean PARALLEL_REQUEST_HANDLE =
         ConfigurationFactory.getInstance().getBoolean(ConfigurationKeys.ENABLE_PARALLEL_REQUEST_HANDLE_KEY, true);
+    private static final boolean ENABLE_LOCK_WAIT = ConfigurationFactory.getInstance()
+        .getBoolean(ConfigurationKeys.SERVER_ENABLE_LOCK_WAIT, DefaultValues.DEFAULT_SERVER_ENABLE_LOCK_WAIT);
 
     public ServerOnRequestProcessor(RemotingServer remotingServer, TransactionMessageHandler transactionMessageHandler) {
         this.remotingServer = remotingServer;
@@ -114,6 +140,16 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
                 new NamedThreadFactory(BATCH_RESPONSE_THREAD_PREFIX, MAX_BATCH_RESPONSE_THREAD));
             batchResponseExecutorService.submit(new BatchResponseRunnable());
         }
+        if (PARALLEL_REQUEST_HANDLE) {
+            int threads = ConfigurationFactory.getInstance().getInt(
+                ConfigurationKeys.PARALLEL_REQUEST_HANDLE_THREADS_KEY, DefaultValues.DEFAULT_PARALLEL_REQUEST_HANDLE_THREADS);
+            parallelRequestExecutor = new PartitionedExecutor(
+                VirtualThreads.newThreadFactory(PARALLEL_REQUEST_THREAD_PREFIX, threads,
+                    ConfigurationFactory.getInstance().getBoolean(ConfigurationKeys.SERVER_ENABLE_VIRTUAL_THREADS,
+                        DefaultValues.DEFAULT_SERVER_ENABLE_VIRTUAL_THREADS)), threads,
+                ConfigurationFactory.getInstance().getInt(ConfigurationKeys.PARALLEL_REQUEST_HANDLE_QUEUE_SIZE_KEY,
+                    DefaultValues.DEFAULT_PARALLEL_REQUEST_HANDLE_QUEUE_SIZE));
+        }
     }
 
     @Override
@@ -141,6 +177,18 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
         if (batchResponseExecutorService != null) {
             batchResponseExecutorService.shutdown();
         }
+        if (parallelRequestExecutor != null) {
+            parallelRequestExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Gets the executor of the sub requests of merged messages.
+     *
+     * @return the executor, or null if parallel request handle is disabled
+     */
+    public PartitionedExecutor getParallelRequestExecutor() {
+        return parallelRequestExecutor;
     }
 
     private void onRequestMessage(ChannelHandlerContext ctx, RpcMessage rpcMessage) {
@@ -159,9 +207,22 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
                 for (int i = 0; i < msgs.size(); i++) {
                     AbstractMessage msg = msgs.get(i);
                     int msgId = msgIds.get(i);
-                    if (PARALLEL_REQUEST_HANDLE) {
-                        CompletableFuture.runAsync(
-                            () -> handleRequestsByMergedWarpMessageBy150(msg, msgId, rpcMessage, ctx, rpcContext));
+                    if (parallelRequestExecutor != null) {
+                        try {
+                            parallelRequestExecutor.execute(TransactionRequestUtil.getOrderedXid(msg),
+                                () -> handleRequestsByMergedWarpMessageBy150(msg, msgId, rpcMessage, ctx, rpcContext));
+                        } catch (RejectedExecutionException e) {
+                            LOGGER.warn("reject msg[merged]: {}, clientIp: {}, cause: {}", msg,
+                                NetUtil.toIpAddress(ctx.channel().remoteAddress()), e.getMessage());
+                            AbstractResultMessage rejectedResult = buildRejectedResult(msg);
+                            if (rejectedResult != null) {
+                                offerMsg(computeIfAbsentMsgQueue(ctx.channel()), rpcMessage, rejectedResult, msgId,
+                                    ctx.channel());
+                                notifyBatchRespondingThread();
+                            } else {
+                                handleRequestsByMergedWarpMessageBy150(msg, msgId, rpcMessage, ctx, rpcContext);
+                            }
+                        }
                     } else {
                         handleRequestsByMergedWarpMessageBy150(msg, msgId, rpcMessage, ctx, rpcContext);
                     }
@@ -170,13 +231,12 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
                 List<AbstractResultMessage> results = new ArrayList<>();
                 List<CompletableFuture<AbstractResultMessage>> completableFutures = null;
                 for (int i = 0; i < ((MergedWarpMessage)message).msgs.size(); i++) {
-                    if (PARALLEL_REQUEST_HANDLE) {
+                    if (parallelRequestExecutor != null) {
                         if (completableFutures == null) {
                             completableFutures = new ArrayList<>();
                         }
-                        int finalI = i;
-                        completableFutures.add(CompletableFuture.supplyAsync(() -> handleRequestsByMergedWarpMessage(
-                            ((MergedWarpMessage)message).msgs.get(finalI), rpcContext)));
+                        completableFutures.add(
+                            handleAsyncByMergedWarpMessage(((MergedWarpMessage)message).msgs.get(i), rpcContext));
                     } else {
                         results.add(i,
                             handleRequestsByMergedWarpMessage(((MergedWarpMessage)message).msgs.get(i), rpcContext));
@@ -203,7 +263,12 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
                     NetUtil.toIpAddress(ctx.channel().remoteAddress()), rpcContext.getTransactionServiceGroup());
                 BatchLogHandler.INSTANCE.writeLog(receiveMsgLog);
             }
-            AbstractResultMessage result = transactionMessageHandler.onRequest(msg, rpcContext);
+            AbstractResultMessage result = onRequest(msg, rpcContext,
+                resultMessage -> remotingServer.sendAsyncResponse(rpcMessage, ctx.channel(), resultMessage));
+            if (result == null) {
+                // answered later through the deferred response
+                return;
+            }
             remotingServer.sendAsyncResponse(rpcMessage, ctx.channel(), result);
             if (LOGGER.isInfoEnabled()) {
                 String resultMsgLog = String.format("result msg[single]: %s, clientIp: %s, vgroup: %s", result,
@@ -213,6 +278,89 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
         }
     }
 
+    /**
+     * handle a request, branch registrations may be answered later through the responder when lock wait is enabled
+     *
+     * @param msg        msg
+     * @param rpcContext rpcContext
+     * @param responder  sends a deferred result
+     * @return the result, or null if the request was deferred
+     */
+    private AbstractResultMessage onRequest(AbstractMessage msg, RpcContext rpcContext,
+                                            Consumer<AbstractResultMessage> responder) {
+        if (!ENABLE_LOCK_WAIT || !(msg instanceof BranchRegisterRequest)) {
+            return transactionMessageHandler.onRequest(msg, rpcContext);
+        }
+        DeferredResponse deferredResponse = new DeferredResponse(responder);
+        DeferredResponse.bind(deferredResponse);
+        try {
+            AbstractResultMessage resultMessage = transactionMessageHandler.onRequest(msg, rpcContext);
+            return deferredResponse.isDeferred() ? null : resultMessage;
+        } finally {
+            DeferredResponse.unbind();
+        }
+    }
+
+    /**
+     * Handle a sub request on the parallel request executor, a rejected request is answered as failed.
+     *
+     * @param subMessage the sub request
+     * @param rpcContext rpcContext
+     * @return the future of the result
+     */
+    private CompletableFuture<AbstractResultMessage> handleAsyncByMergedWarpMessage(AbstractMessage subMessage,
+                                                                                    RpcContext rpcContext) {
+        CompletableFuture<AbstractResultMessage> future = new CompletableFuture<>();
+        try {
+            parallelRequestExecutor.execute(TransactionRequestUtil.getOrderedXid(subMessage), () -> {
+                try {
+                    future.complete(handleRequestsByMergedWarpMessage(subMessage, rpcContext));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("reject msg[merged]: {}, clientIp: {}, cause: {}", subMessage,
+                NetUtil.toIpAddress(rpcContext.getChannel().remoteAddress()), e.getMessage());
+            AbstractResultMessage rejectedResult = buildRejectedResult(subMessage);
+            future.complete(rejectedResult != null ? rejectedResult
+                : handleRequestsByMergedWarpMessage(subMessage, rpcContext));
+        }
+        return future;
+    }
+
+    /**
+     * build the failed result of a request the parallel request executor had no room for
+     *
+     * @param msg the request
+     * @return the result, or null if the request has no known result type
+     */
+    static AbstractResultMessage buildRejectedResult(AbstractMessage msg) {
+        AbstractTransactionResponse response;
+        if (msg instanceof GlobalBeginRequest) {
+            response = new GlobalBeginResponse();
+        } else if (msg instanceof GlobalCommitRequest) {
+            response = new GlobalCommitResponse();
+        } else if (msg instanceof GlobalRollbackRequest) {
+            response = new GlobalRollbackResponse();
+        } else if (msg instanceof GlobalStatusRequest) {
+            response = new GlobalStatusResponse();
+        } else if (msg instanceof GlobalReportRequest) {
+            response = new GlobalReportResponse();
+        } else if (msg instanceof GlobalLockQueryRequest) {
+            response = new GlobalLockQueryResponse();
+        } else if (msg instanceof BranchRegisterRequest) {
+            response = new BranchRegisterResponse();
+        } else if (msg instanceof BranchReportRequest) {
+            response = new BranchReportResponse();
+        } else {
+            return null;
+        }
+        response.setResultCode(ResultCode.Failed);
+        response.setMsg("the server is busy, the parallel request handle queue is full");
+        return response;
+    }
+
     private void notifyBatchRespondingThread() {
         if (!isResponding) {
             synchronized (batchResponseLock) {
@@ -309,10 +457,17 @@ public class ServerOnRequestProcessor implements RemotingProcessor, Disposable {
                 NetUtil.toIpAddress(ctx.channel().remoteAddress()), rpcContext.getTransactionServiceGroup());
             BatchLogHandler.INSTANCE.writeLog(receiveMsgLog);
         }
-        AbstractResultMessage resultMessage = transactionMessageHandler.onRequest(msg, rpcContext);
-        BlockingQueue<QueueItem> msgQueue = computeIfAbsentMsgQueue(ctx.channel());
-        offerMsg(msgQueue, rpcMessage, resultMessage, msgId, ctx.channel());
-        notifyBatchRespondingThread();
+        Consumer<AbstractResultMessage> responder = result -> {
+            BlockingQueue<QueueItem> msgQueue = computeIfAbsentMsgQueue(ctx.channel());
+            offerMsg(msgQueue, rpcMessage, result, msgId, ctx.channel());
+            notifyBatchRespondingThread();
+        };
+        AbstractResultMessage resultMessage = onRequest(msg, rpcContext, responder);
+        if (resultMessage == null) {
+            // answered later through the deferred response
+            return;
+        }
+        responder.accept(resultMessage);
         if (LOGGER.isInfoEnabled()) {
             String resultMsgLog = String.format("result msg[merged]: %s, clientIp: %s, vgroup: %s", resultMessage,
                 NetUtil.toIpAddress(ctx.channel().remoteAddress()), rpcContext.getTransactionServiceGroup());
@@ -22,6 +22,7 @@ import java.util.concurrent.ConcurrentMap;
 import io.netty.channel.ChannelHandlerContext;
 import org.apache.seata.common.util.NetUtil;
 import org.apache.seata.core.protocol.AbstractResultMessage;
+import org.apache.seata.core.protocol.BatchResultMessage;
 import org.apache.seata.core.protocol.MessageFuture;
 import org.apache.seata.core.protocol.RpcMessage;
 import org.apache.seata.core.protocol.transaction.BranchCommitResponse;
@@ -40,6 +41,7 @@ import org.slf4j.LoggerFactory;
  * RM:
  * 1) {@link BranchCommitResponse}
  * 2) {@link BranchRollbackResponse}
+ * 3) {@link BatchResultMessage}, the answer of a {@link org.apache.seata.core.protocol.BatchPhaseTwoMessage}
  *
  * @since 1.3.0
  */
@@ -16,6 +16,8 @@
  */
 package org.apache.seata.core.serializer;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * The interface Codec.
  *
@@ -39,4 +41,38 @@ public interface Serializer {
      * @return the t
      */
     <T> T deserialize(byte[] bytes);
+
+    /**
+     * Whether the serializer writes to and reads from {@link ByteBuf} directly, a serializer which does not only
+     * implements the byte[] methods and the buffer methods copy through an array.
+     *
+     * @return the boolean
+     */
+    default boolean isByteBufSupported() {
+        return false;
+    }
+
+    /**
+     * Encode object to the buffer.
+     *
+     * @param <T> the type parameter
+     * @param t   the t
+     * @param out the buffer written to
+     */
+    default <T> void serialize(T t, ByteBuf out) {
+        out.writeBytes(serialize(t));
+    }
+
+    /**
+     * Decode t from the readable bytes of the buffer.
+     *
+     * @param <T> the type parameter
+     * @param in  the buffer read from, its readable bytes are all consumed
+     * @return the t
+     */
+    default <T> T deserialize(ByteBuf in) {
+        byte[] bytes = new byte[in.readableBytes()];
+        in.readBytes(bytes);
+        return deserialize(bytes);
+    }
 }
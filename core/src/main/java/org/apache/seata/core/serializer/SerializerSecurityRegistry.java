@@ -43,6 +43,7 @@ import org.apache.seata.core.protocol.RegisterRMResponse;
 import org.apache.seata.core.protocol.RegisterTMRequest;
 import org.apache.seata.core.protocol.RegisterTMResponse;
 import org.apache.seata.core.protocol.ResultCode;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
 import org.apache.seata.core.protocol.BatchResultMessage;
 import org.apache.seata.core.protocol.MergedWarpMessage;
 import org.apache.seata.core.protocol.RpcMessage;
@@ -147,6 +148,7 @@ public class SerializerSecurityRegistry {
 
         if (classNameSet.size() < 30) {
             // package org.apache.seata.core.protocol
+            classNameSet.add(BatchPhaseTwoMessage.class);
             classNameSet.add(BatchResultMessage.class);
             classNameSet.add(HeartbeatMessage.class);
             classNameSet.add(MergedWarpMessage.class);
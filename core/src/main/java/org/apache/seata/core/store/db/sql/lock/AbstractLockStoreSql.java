@@ -62,6 +62,11 @@ public class AbstractLockStoreSql implements LockStoreSql {
      */
     protected static final String LOCK_TABLE_BRANCH_ID_WHERE_CONDITION_PLACE_HOLD = " #lock_table_branch_id_where_condition# ";
 
+    /**
+     * The constant VALUES_PLACE_HOLD.
+     */
+    protected static final String VALUES_PLACE_HOLD = " #values# ";
+
 
     /**
      * The constant ALL_COLUMNS.
@@ -74,6 +79,16 @@ public class AbstractLockStoreSql implements LockStoreSql {
             + ServerTableColumnsName.LOCK_TABLE_ROW_KEY + ", " + ServerTableColumnsName.LOCK_TABLE_GMT_CREATE + ", "
             + ServerTableColumnsName.LOCK_TABLE_GMT_MODIFIED + "," + ServerTableColumnsName.LOCK_TABLE_STATUS;
 
+    /**
+     * The constant LOCK_ROW_COLUMNS, the columns bound for a lock row.
+     * xid, transaction_id, branch_id, resource_id, table_name, pk, row_key, status
+     */
+    protected static final String LOCK_ROW_COLUMNS =
+        ServerTableColumnsName.LOCK_TABLE_XID + ", " + ServerTableColumnsName.LOCK_TABLE_TRANSACTION_ID + ", "
+            + ServerTableColumnsName.LOCK_TABLE_BRANCH_ID + ", " + ServerTableColumnsName.LOCK_TABLE_RESOURCE_ID + ", "
+            + ServerTableColumnsName.LOCK_TABLE_TABLE_NAME + ", " + ServerTableColumnsName.LOCK_TABLE_PK + ", "
+            + ServerTableColumnsName.LOCK_TABLE_ROW_KEY + ", " + ServerTableColumnsName.LOCK_TABLE_STATUS;
+
     /**
      * The constant DELETE_LOCK_SQL.
      */
@@ -175,6 +190,25 @@ public class AbstractLockStoreSql implements LockStoreSql {
         return BATCH_UPDATE_STATUS_LOCK_BY_GLOBAL_SQL.replace(LOCK_TABLE_PLACE_HOLD, lockTable);
     }
 
+    /**
+     * Repeat the values of a row for every row.
+     *
+     * @param rowValues the values of a row
+     * @param rowSize   the number of rows
+     * @param separator the separator of the rows
+     * @return the values of the rows
+     */
+    protected static String repeatRowValues(String rowValues, int rowSize, String separator) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < rowSize; i++) {
+            if (i > 0) {
+                values.append(separator);
+            }
+            values.append(rowValues);
+        }
+        return values.toString();
+    }
+
     /**
      * each pk is a condition.the result will like :" (id,userCode) in ((?,?),(?,?)) or (id,userCode) in ((?,?),(?,?)
      * ) or (id,userCode) in ((?,?))"
@@ -25,4 +25,10 @@ import org.apache.seata.common.loader.LoadLevel;
  */
 @LoadLevel(name = "dm")
 public class DmLockStoreSql extends MysqlLockStoreSql {
+
+    @Override
+    public String getBatchInsertLockSql(String lockTable, int rowSize) {
+        // DaMeng has no insert ignore
+        return null;
+    }
 }
@@ -98,4 +98,16 @@ public interface LockStoreSql {
      */
     String getBatchUpdateStatusLockByGlobalSql(String lockTable) ;
 
+    /**
+     * Get batch insert lock sql string, which inserts the rows in one statement and skips the rows whose row key is
+     * already locked. The update count of the statement is the number of inserted rows.
+     *
+     * @param lockTable the lock table
+     * @param rowSize   the number of rows
+     * @return the string, null if the database has no such statement
+     */
+    default String getBatchInsertLockSql(String lockTable, int rowSize) {
+        return null;
+    }
+
 }
@@ -32,9 +32,23 @@ public class MysqlLockStoreSql extends AbstractLockStoreSql {
     private static final String INSERT_LOCK_SQL_MYSQL = "insert into " + LOCK_TABLE_PLACE_HOLD + "(" + ALL_COLUMNS + ")"
         + " values (?, ?, ?, ?, ?, ?, ?, now(), now(), ?)";
 
+    /**
+     * The constant BATCH_INSERT_LOCK_SQL_MYSQL.
+     */
+    private static final String BATCH_INSERT_LOCK_SQL_MYSQL = "insert ignore into " + LOCK_TABLE_PLACE_HOLD + "("
+        + ALL_COLUMNS + ") values " + VALUES_PLACE_HOLD;
+
+    private static final String LOCK_ROW_VALUES_MYSQL = "(?, ?, ?, ?, ?, ?, ?, now(), now(), ?)";
+
     @Override
     public String getInsertLockSQL(String lockTable) {
         return INSERT_LOCK_SQL_MYSQL.replace(LOCK_TABLE_PLACE_HOLD, lockTable);
     }
 
+    @Override
+    public String getBatchInsertLockSql(String lockTable, int rowSize) {
+        return BATCH_INSERT_LOCK_SQL_MYSQL.replace(LOCK_TABLE_PLACE_HOLD, lockTable)
+            .replace(VALUES_PLACE_HOLD, repeatRowValues(LOCK_ROW_VALUES_MYSQL, rowSize, ", "));
+    }
+
 }
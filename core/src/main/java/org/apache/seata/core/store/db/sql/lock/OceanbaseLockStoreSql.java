@@ -32,8 +32,22 @@ public class OceanbaseLockStoreSql extends AbstractLockStoreSql {
     private static final String INSERT_LOCK_SQL_OCEANBASE = "insert into " + LOCK_TABLE_PLACE_HOLD + "(" + ALL_COLUMNS + ")"
         + " values (?, ?, ?, ?, ?, ?, ?, now(), now(), ?)";
 
+    /**
+     * The constant BATCH_INSERT_LOCK_SQL_OCEANBASE.
+     */
+    private static final String BATCH_INSERT_LOCK_SQL_OCEANBASE = "insert ignore into " + LOCK_TABLE_PLACE_HOLD + "("
+        + ALL_COLUMNS + ") values " + VALUES_PLACE_HOLD;
+
+    private static final String LOCK_ROW_VALUES_OCEANBASE = "(?, ?, ?, ?, ?, ?, ?, now(), now(), ?)";
+
     @Override
     public String getInsertLockSQL(String lockTable) {
         return INSERT_LOCK_SQL_OCEANBASE.replace(LOCK_TABLE_PLACE_HOLD, lockTable);
     }
+
+    @Override
+    public String getBatchInsertLockSql(String lockTable, int rowSize) {
+        return BATCH_INSERT_LOCK_SQL_OCEANBASE.replace(LOCK_TABLE_PLACE_HOLD, lockTable)
+            .replace(VALUES_PLACE_HOLD, repeatRowValues(LOCK_ROW_VALUES_OCEANBASE, rowSize, ", "));
+    }
 }
@@ -32,9 +32,26 @@ public class OracleLockStoreSql extends AbstractLockStoreSql {
     private static final String INSERT_LOCK_SQL_ORACLE = "insert into " + LOCK_TABLE_PLACE_HOLD + "(" + ALL_COLUMNS + ")"
         + " values (?, ?, ?, ?, ?, ?, ?, sysdate, sysdate, ?)";
 
+    /**
+     * The constant BATCH_INSERT_LOCK_SQL_ORACLE.
+     */
+    private static final String BATCH_INSERT_LOCK_SQL_ORACLE = "merge into " + LOCK_TABLE_PLACE_HOLD + " t using ("
+        + VALUES_PLACE_HOLD + ") s on (t.row_key = s.row_key) when not matched then insert (" + ALL_COLUMNS + ")"
+        + " values (s.xid, s.transaction_id, s.branch_id, s.resource_id, s.table_name, s.pk, s.row_key, sysdate,"
+        + " sysdate, s.status)";
+
+    private static final String LOCK_ROW_VALUES_ORACLE = "select ? xid, ? transaction_id, ? branch_id, ? resource_id,"
+        + " ? table_name, ? pk, ? row_key, ? status from dual";
+
     @Override
     public String getInsertLockSQL(String lockTable) {
         return INSERT_LOCK_SQL_ORACLE.replace(LOCK_TABLE_PLACE_HOLD, lockTable);
     }
 
+    @Override
+    public String getBatchInsertLockSql(String lockTable, int rowSize) {
+        return BATCH_INSERT_LOCK_SQL_ORACLE.replace(LOCK_TABLE_PLACE_HOLD, lockTable)
+            .replace(VALUES_PLACE_HOLD, repeatRowValues(LOCK_ROW_VALUES_ORACLE, rowSize, " union all "));
+    }
+
 }
@@ -37,11 +37,27 @@ public class SqlServerLockStoreSql extends AbstractLockStoreSql {
     private static final String QUERY_ALL_LOCK_SQLSERVER = "select " + ALL_COLUMNS + " from " + LOCK_TABLE_PLACE_HOLD
             + WHERE_PLACE_HOLD;
 
+    /**
+     * The constant BATCH_INSERT_LOCK_SQL_SQLSERVER.
+     */
+    private static final String BATCH_INSERT_LOCK_SQL_SQLSERVER = "merge into " + LOCK_TABLE_PLACE_HOLD
+        + " t using (values " + VALUES_PLACE_HOLD + ") s (" + LOCK_ROW_COLUMNS + ") on t.row_key = s.row_key"
+        + " when not matched then insert (" + ALL_COLUMNS + ") values (s.xid, s.transaction_id, s.branch_id,"
+        + " s.resource_id, s.table_name, s.pk, s.row_key, SYSDATETIME(), SYSDATETIME(), s.status);";
+
+    private static final String LOCK_ROW_VALUES_SQLSERVER = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Override
     public String getInsertLockSQL(String lockTable) {
         return INSERT_LOCK_SQL_SQLSERVER.replace(LOCK_TABLE_PLACE_HOLD, lockTable);
     }
 
+    @Override
+    public String getBatchInsertLockSql(String lockTable, int rowSize) {
+        return BATCH_INSERT_LOCK_SQL_SQLSERVER.replace(LOCK_TABLE_PLACE_HOLD, lockTable)
+            .replace(VALUES_PLACE_HOLD, repeatRowValues(LOCK_ROW_VALUES_SQLSERVER, rowSize, ", "));
+    }
+
     @Override
     public String getAllLockSql(String lockTable, String whereCondition) {
         return QUERY_ALL_LOCK_SQLSERVER.replace(LOCK_TABLE_PLACE_HOLD, lockTable).replace(WHERE_PLACE_HOLD, whereCondition);
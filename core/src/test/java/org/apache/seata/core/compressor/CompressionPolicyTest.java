@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.compressor;
+
+import java.util.Map;
+
+import org.apache.seata.core.protocol.MessageType;
+import org.apache.seata.core.protocol.transaction.BranchRegisterRequest;
+import org.apache.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Compression policy test.
+ */
+public class CompressionPolicyTest {
+
+    private static final byte NONE = CompressorType.NONE.getCode();
+
+    private static final byte GZIP = CompressorType.GZIP.getCode();
+
+    private static final byte ZSTD = CompressorType.ZSTD.getCode();
+
+    @Test
+    public void testParseTypeCompressors() {
+        Map<Short, Byte> typeCompressors = CompressionPolicy.parseTypeCompressors(" 11:zstd, 1:NONE,", ZSTD);
+        Assertions.assertEquals(2, typeCompressors.size());
+        Assertions.assertEquals(ZSTD, typeCompressors.get(MessageType.TYPE_BRANCH_REGISTER));
+        Assertions.assertEquals(NONE, typeCompressors.get(MessageType.TYPE_GLOBAL_BEGIN));
+        Assertions.assertTrue(CompressionPolicy.parseTypeCompressors(null, NONE).isEmpty());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> CompressionPolicy.parseTypeCompressors("11", ZSTD));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> CompressionPolicy.parseTypeCompressors("register:zstd", ZSTD));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> CompressionPolicy.parseTypeCompressors("11:xz", ZSTD));
+    }
+
+    @Test
+    public void testOnlyConfiguredCompressor() {
+        Assertions.assertEquals(NONE, CompressionPolicy.parseTypeCompressors("1:none", GZIP)
+            .get(MessageType.TYPE_GLOBAL_BEGIN));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> CompressionPolicy.parseTypeCompressors("11:zstd", GZIP));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> CompressionPolicy.parseTypeCompressors("11:gzip", NONE));
+    }
+
+    @Test
+    public void testSelect() {
+        CompressionPolicy policy = new CompressionPolicy(512,
+            CompressionPolicy.parseTypeCompressors("11:zstd,1:none", ZSTD));
+        BranchRegisterRequest register = new BranchRegisterRequest();
+        GlobalBeginRequest begin = new GlobalBeginRequest();
+
+        Assertions.assertEquals(ZSTD, policy.resolve(register, GZIP));
+        Assertions.assertEquals(ZSTD, policy.select(register, ZSTD, 512));
+        Assertions.assertEquals(NONE, policy.select(register, ZSTD, 511));
+        Assertions.assertEquals(NONE, policy.resolve(begin, GZIP));
+        Assertions.assertEquals(GZIP, policy.resolve("unknown", GZIP));
+        Assertions.assertEquals(NONE, policy.select("unknown", NONE, 4096));
+
+        CompressionStats stats = policy.getStats().get(MessageType.TYPE_BRANCH_REGISTER);
+        Assertions.assertEquals(1, stats.getSkippedCount());
+        Assertions.assertEquals(0, stats.getCompressCount());
+        Assertions.assertNull(policy.getStats().get(CompressionPolicy.UNKNOWN_TYPE));
+    }
+
+    @Test
+    public void testStats() {
+        CompressionPolicy policy = new CompressionPolicy(0, CompressionPolicy.parseTypeCompressors(null, NONE));
+        BranchRegisterRequest register = new BranchRegisterRequest();
+        policy.recordCompress(register, 1000, 250, 3000);
+        policy.recordCompress(register, 1000, 150, 1000);
+        policy.recordDecompress(register, 500);
+
+        CompressionStats stats = policy.getStats().get(MessageType.TYPE_BRANCH_REGISTER);
+        Assertions.assertEquals(2, stats.getCompressCount());
+        Assertions.assertEquals(0.2D, stats.getRatio(), 1e-9);
+        Assertions.assertEquals(2D, stats.getAvgCompressMicros(), 1e-9);
+        Assertions.assertEquals(1, stats.getDecompressCount());
+        Assertions.assertEquals(0.5D, stats.getAvgDecompressMicros(), 1e-9);
+        Assertions.assertEquals(1D, new CompressionStats().getRatio(), 1e-9);
+    }
+}
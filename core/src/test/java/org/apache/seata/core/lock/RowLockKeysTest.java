@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.lock;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Row lock keys test.
+ */
+public class RowLockKeysTest {
+
+    @Test
+    public void testParse() {
+        RowLockKeys rowLockKeys = RowLockKeys.parse("t_order:1,2;t_stock:a_1;t_order:3");
+        Assertions.assertEquals(4, rowLockKeys.getRowCount());
+        Assertions.assertEquals(Arrays.asList("1", "2", "3"), rowLockKeys.getPksByTable().get("t_order"));
+        Assertions.assertEquals("t_order:1,2,3;t_stock:a_1", rowLockKeys.toLockKey());
+        Assertions.assertNull(RowLockKeys.parse(" "));
+        // stops at a malformed table group, as the server does
+        Assertions.assertEquals("t_order:1", RowLockKeys.parse("t_order:1;t_stock;t_user:2").toLockKey());
+    }
+
+    @Test
+    public void testEncodeAndDecode() {
+        String lockKey = "t_order:1,-25,9223372036854775807,-9223372036854775808,007,-0,1e3,"
+            + "12345678901234567890;t_user:1_tom,2_,_3,中文_1";
+        RowLockKeys rowLockKeys = RowLockKeys.parse(lockKey);
+        ByteBuf out = Unpooled.buffer();
+        rowLockKeys.encode(out);
+        byte[] bytes = new byte[out.readableBytes()];
+        out.readBytes(bytes);
+
+        RowLockKeys decoded = RowLockKeys.decode(ByteBuffer.wrap(bytes));
+        Assertions.assertEquals(lockKey, decoded.toLockKey());
+        Assertions.assertEquals(rowLockKeys.getPksByTable(), decoded.getPksByTable());
+        Assertions.assertEquals(rowLockKeys.getRowCount(), decoded.getRowCount());
+    }
+
+    @Test
+    public void testCompact() {
+        StringBuilder sb = new StringBuilder("t_order:");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i == 0 ? "" : ",").append(1000000 + i);
+        }
+        ByteBuf out = Unpooled.buffer();
+        RowLockKeys.parse(sb.toString()).encode(out);
+        // 3 bytes a row for the varint, plus the value count and type
+        Assertions.assertTrue(out.readableBytes() < 5 * 1000 + 16, "size: " + out.readableBytes());
+    }
+
+    @Test
+    public void testDecodeMalformed() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> RowLockKeys.decode(ByteBuffer.wrap(new byte[] {1, 100})));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> RowLockKeys.decode(ByteBuffer.wrap(new byte[] {1, 1, 't', 1, 1, 9, 0})));
+    }
+
+    @Test
+    public void testToRowLocks() {
+        List<RowLock> rowLocks = RowLockKeys.parse("t_order:1,2").toRowLocks("127.0.0.1:8091:1", 1L, 2L, "jdbc");
+        Assertions.assertEquals(2, rowLocks.size());
+        RowLock rowLock = rowLocks.get(1);
+        Assertions.assertEquals("127.0.0.1:8091:1", rowLock.getXid());
+        Assertions.assertEquals(1L, rowLock.getTransactionId());
+        Assertions.assertEquals(2L, rowLock.getBranchId());
+        Assertions.assertEquals("jdbc", rowLock.getResourceId());
+        Assertions.assertEquals("t_order", rowLock.getTableName());
+        Assertions.assertEquals("2", rowLock.getPk());
+    }
+}
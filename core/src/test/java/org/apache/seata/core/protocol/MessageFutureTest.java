@@ -17,10 +17,13 @@
 package org.apache.seata.core.protocol;
 
 import com.alibaba.fastjson.JSON;
+import io.netty.util.HashedWheelTimer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -186,6 +189,55 @@ public class MessageFutureTest {
         }
     }
 
+    /**
+     * Test the scheduled timeout removes the future and completes it.
+     */
+    @Test
+    public void testScheduleTimeoutExpired() {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            Map<Integer, MessageFuture> futures = new ConcurrentHashMap<>();
+            MessageFuture messageFuture = new MessageFuture();
+            messageFuture.setRequestMessage(buildRepcMessage());
+            messageFuture.setTimeout(TIME_OUT_FIELD);
+            futures.put(ID_FIELD, messageFuture);
+            messageFuture.scheduleTimeout(timer, futures);
+            TimeoutException e = Assertions.assertThrows(TimeoutException.class,
+                () -> messageFuture.get(TIME_OUT_FIELD * 10, TimeUnit.MILLISECONDS));
+            assertThat(e.getMessage()).contains("msgId: " + ID_FIELD).contains("request timeout");
+            assertThat(futures).isEmpty();
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Test the scheduled timeout is cancelled by the result.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testScheduleTimeoutCancelledByResult() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            Map<Integer, MessageFuture> futures = new ConcurrentHashMap<>();
+            MessageFuture messageFuture = new MessageFuture();
+            messageFuture.setRequestMessage(buildRepcMessage());
+            messageFuture.setTimeout(TIME_OUT_FIELD);
+            futures.put(ID_FIELD, messageFuture);
+            messageFuture.scheduleTimeout(timer, futures);
+            assertThat(timer.pendingTimeouts()).isEqualTo(1);
+            messageFuture.setResultMessage("has_result");
+            assertThat(messageFuture.get(TIME_OUT_FIELD, TimeUnit.MILLISECONDS)).isEqualTo("has_result");
+            Thread.sleep(TIME_OUT_FIELD * 2);
+            // the response path removes the future, the cancelled timeout must not
+            assertThat(futures).containsKey(ID_FIELD);
+            assertThat(timer.pendingTimeouts()).isZero();
+        } finally {
+            timer.stop();
+        }
+    }
+
     private RpcMessage buildRepcMessage() {
         RpcMessage rpcMessage = new RpcMessage();
         rpcMessage.setId(ID_FIELD);
@@ -41,6 +41,15 @@ public class RegisterRMRequestTest {
         assertThat(MessageType.TYPE_REG_RM).isEqualTo(registerRMRequest.getTypeCode());
     }
 
+    @Test
+    public void getAndSetBatchPhaseTwoSupported() {
+        RegisterRMRequest registerRMRequest = buildRegisterRMRequest();
+        assertThat(registerRMRequest.isBatchPhaseTwoSupported()).isFalse();
+        registerRMRequest.setBatchPhaseTwoSupported(true);
+        assertThat(registerRMRequest.isBatchPhaseTwoSupported()).isTrue();
+        assertThat(registerRMRequest.getExtraData()).isEqualTo("extra\nbatchPhaseTwo=true\n");
+    }
+
     private RegisterRMRequest buildRegisterRMRequest() {
 
         RegisterRMRequest registerRMRequest = new RegisterRMRequest();
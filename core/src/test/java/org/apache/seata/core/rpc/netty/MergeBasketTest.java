@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.seata.core.protocol.RpcMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Merge basket test.
+ */
+public class MergeBasketTest {
+
+    private static final long RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final int BATCH_SIZE = 100;
+
+    @Test
+    public void testFlushWhenIdle() {
+        MergeBasket basket = new MergeBasket();
+        long now = System.nanoTime();
+        Assertions.assertNull(basket.shouldFlush(now));
+
+        MergeBasket.Item item = basket.offer(rpcMessage(1));
+        Assertions.assertEquals(MergeBasket.FlushReason.IDLE, basket.shouldFlush(now));
+        List<RpcMessage> messages = basket.drain(MergeBasket.FlushReason.IDLE, now);
+        Assertions.assertEquals(1, messages.size());
+        Assertions.assertEquals(1, basket.getInFlight());
+        Assertions.assertEquals(0, basket.getQueueDepth());
+
+        Assertions.assertFalse(basket.complete(item));
+        Assertions.assertEquals(0, basket.getInFlight());
+        Assertions.assertEquals(1, basket.getFlushCount(MergeBasket.FlushReason.IDLE));
+    }
+
+    @Test
+    public void testHoldWhileInFlight() {
+        MergeBasket basket = new MergeBasket();
+        List<MergeBasket.Item> sent = warmUp(basket);
+        basket.offer(rpcMessage(BATCH_SIZE + 2));
+        long enqueued = System.nanoTime();
+        Assertions.assertNull(basket.shouldFlush(enqueued));
+
+        // the queued request is flushed as soon as the responses of the sent ones arrive
+        for (int i = 0; i < sent.size() - 1; i++) {
+            Assertions.assertFalse(basket.complete(sent.get(i)));
+        }
+        Assertions.assertTrue(basket.complete(sent.get(sent.size() - 1)));
+        Assertions.assertEquals(MergeBasket.FlushReason.IDLE, basket.shouldFlush(enqueued));
+    }
+
+    @Test
+    public void testFlushAfterWait() {
+        MergeBasket basket = new MergeBasket();
+        warmUp(basket);
+        basket.offer(rpcMessage(BATCH_SIZE + 2));
+        long now = System.nanoTime();
+        Assertions.assertNull(basket.shouldFlush(now));
+        // held at most 1ms although half the round trip is longer
+        Assertions.assertEquals(MergeBasket.FlushReason.WAIT,
+            basket.shouldFlush(now + MergeBasket.MAX_COALESCE_NANOS));
+        Assertions.assertEquals(1, basket.drain(MergeBasket.FlushReason.WAIT, now + MergeBasket.MAX_COALESCE_NANOS)
+            .size());
+        Assertions.assertEquals(1, basket.getFlushCount(MergeBasket.FlushReason.WAIT));
+        Assertions.assertEquals(BATCH_SIZE + 1, basket.getInFlight());
+        Assertions.assertTrue(basket.getQueueWaitMicros() > 0);
+    }
+
+    @Test
+    public void testFlushWhenFull() {
+        MergeBasket basket = new MergeBasket();
+        warmUp(basket);
+        int target = basket.getTargetBatchSize();
+        Assertions.assertTrue(target > 1 && target <= MergeBasket.MAX_TARGET_BATCH_SIZE, "target: " + target);
+        long now = System.nanoTime();
+        for (int i = 0; i < target; i++) {
+            basket.offer(rpcMessage(BATCH_SIZE + 2 + i));
+        }
+        Assertions.assertEquals(MergeBasket.FlushReason.FULL, basket.shouldFlush(now));
+        Assertions.assertEquals(target, basket.drain(MergeBasket.FlushReason.FULL, now).size());
+        Assertions.assertEquals(target, basket.getLastBatchSize());
+        Assertions.assertEquals(1, basket.getFlushCount(MergeBasket.FlushReason.FULL));
+        Assertions.assertEquals(2, basket.getFlushCount(MergeBasket.FlushReason.IDLE));
+    }
+
+    @Test
+    public void testDropAbandoned() {
+        MergeBasket basket = new MergeBasket();
+        MergeBasket.Item abandoned = basket.offer(rpcMessage(1));
+        basket.offer(rpcMessage(2));
+        // the request timed out before it was sent
+        Assertions.assertFalse(basket.complete(abandoned));
+
+        List<RpcMessage> messages = basket.drain(MergeBasket.FlushReason.IDLE, System.nanoTime());
+        Assertions.assertEquals(1, messages.size());
+        Assertions.assertEquals(2, messages.get(0).getId());
+        Assertions.assertEquals(1, basket.getInFlight());
+        Assertions.assertEquals(1, basket.getLastBatchSize());
+    }
+
+    /**
+     * Learn a round trip of at least 10ms and an arrival rate of about 100 requests a round trip, the second batch is
+     * left in flight.
+     */
+    private static List<MergeBasket.Item> warmUp(MergeBasket basket) {
+        Assertions.assertEquals(1, basket.getTargetBatchSize());
+        long now = System.nanoTime();
+        MergeBasket.Item first = basket.offer(rpcMessage(1));
+        basket.drain(MergeBasket.FlushReason.IDLE, now - RTT_NANOS);
+        Assertions.assertFalse(basket.complete(first));
+        Assertions.assertTrue(basket.getRttMicros() >= TimeUnit.NANOSECONDS.toMicros(RTT_NANOS));
+
+        List<MergeBasket.Item> items = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            items.add(basket.offer(rpcMessage(i + 2)));
+        }
+        Assertions.assertEquals(MergeBasket.FlushReason.IDLE, basket.shouldFlush(now));
+        Assertions.assertEquals(BATCH_SIZE, basket.drain(MergeBasket.FlushReason.IDLE, now).size());
+        return items;
+    }
+
+    private static RpcMessage rpcMessage(int id) {
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(id);
+        return rpcMessage;
+    }
+}
@@ -27,6 +27,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
@@ -146,6 +147,41 @@ class NettyClientChannelManagerTest {
         verify(keyedObjectPool).returnObject(nettyPoolKey, channel);
     }
     
+    @Test
+    void assertAcquireStripeChannels() {
+        NettyClientConfig stripedConfig = new NettyClientConfig();
+        stripedConfig.setConnectionsPerServer(2);
+        channelManager = new NettyClientChannelManager(poolableFactory, poolKeyFunction, stripedConfig);
+        when(poolKeyFunction.apply(anyString())).thenReturn(nettyPoolKey);
+        when(poolableFactory.makeObject(nettyPoolKey)).thenReturn(channel, newChannel);
+        when(poolableFactory.validateObject(nettyPoolKey, channel)).thenReturn(true);
+        when(poolableFactory.validateObject(nettyPoolKey, newChannel)).thenReturn(true);
+        when(newChannel.isActive()).thenReturn(true);
+
+        assertEquals(channel, channelManager.acquireChannel("127.0.0.1:8091", 0));
+        assertEquals(newChannel, channelManager.acquireChannel("127.0.0.1:8091", 1));
+        assertEquals(newChannel, channelManager.acquireChannel("127.0.0.1:8091", 1));
+        verify(poolableFactory, times(2)).makeObject(nettyPoolKey);
+        assertEquals(Collections.singletonList(newChannel), channelManager.getStripeChannels("127.0.0.1:8091"));
+
+        channelManager.releaseChannel(newChannel, "127.0.0.1:8091");
+        assertTrue(channelManager.getStripeChannels("127.0.0.1:8091").isEmpty());
+        assertEquals(channel, channelManager.getChannels().get("127.0.0.1:8091"));
+    }
+
+    @Test
+    void assertSelectStripe() {
+        assertEquals(0, channelManager.selectStripe("127.0.0.1:8091:1", 7));
+
+        NettyClientConfig stripedConfig = new NettyClientConfig();
+        stripedConfig.setConnectionsPerServer(4);
+        channelManager = new NettyClientChannelManager(poolableFactory, poolKeyFunction, stripedConfig);
+        int stripe = channelManager.selectStripe("127.0.0.1:8091:1", 1);
+        assertTrue(stripe >= 0 && stripe < 4);
+        assertEquals(stripe, channelManager.selectStripe("127.0.0.1:8091:1", 2));
+        assertEquals(1, channelManager.selectStripe(null, 5));
+    }
+
     @SuppressWarnings("unchecked")
     private void setUpReleaseChannel() {
         ConcurrentMap<String, Object> channelLocks =
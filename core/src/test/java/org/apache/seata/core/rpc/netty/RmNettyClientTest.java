@@ -21,11 +21,14 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import io.netty.channel.Channel;
 import org.apache.seata.common.ConfigurationKeys;
 import org.apache.seata.common.exception.FrameworkException;
 import org.apache.seata.config.ConfigurationCache;
 import org.apache.seata.core.model.Resource;
 import org.apache.seata.core.model.ResourceManager;
+import org.apache.seata.core.protocol.RegisterRMRequest;
+import org.apache.seata.core.protocol.RegisterRMResponse;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -87,6 +90,30 @@ class RmNettyClientTest {
         System.setProperty(ConfigurationKeys.ENABLE_RM_CLIENT_CHANNEL_CHECK_FAIL_FAST, "false");
     }
     
+    @Test
+    public void testIsBinaryLockKeySupported() {
+        RmNettyRemotingClient client = RmNettyRemotingClient.getInstance("binary_lock_key", "default_tx_group");
+        ResourceManager resourceManager = Mockito.mock(ResourceManager.class);
+        Mockito.when(resourceManager.getManagedResources()).thenReturn(new HashMap<>());
+        client.setResourceManager(resourceManager);
+        client.getClientChannelManager().getChannels().clear();
+        assertFalse(client.isBinaryLockKeySupported());
+
+        RegisterRMResponse supported = new RegisterRMResponse();
+        supported.setBinaryLockKeySupported(true);
+        client.onRegisterMsgSuccess("127.0.0.1:8091", Mockito.mock(Channel.class), supported, new RegisterRMRequest());
+        assertTrue(client.isBinaryLockKeySupported());
+
+        // the request may be sent to a server which does not decode them
+        client.onRegisterMsgSuccess("127.0.0.1:8092", Mockito.mock(Channel.class), new RegisterRMResponse(),
+            new RegisterRMRequest());
+        assertFalse(client.isBinaryLockKeySupported());
+
+        client.getClientChannelManager().getChannels().remove("127.0.0.1:8092");
+        assertTrue(client.isBinaryLockKeySupported());
+        client.getClientChannelManager().getChannels().clear();
+    }
+
     private AtomicBoolean getInitializeStatus(final RmNettyRemotingClient rmNettyRemotingClient) {
         try {
             Field field = rmNettyRemotingClient.getClass().getDeclaredField("initialized");
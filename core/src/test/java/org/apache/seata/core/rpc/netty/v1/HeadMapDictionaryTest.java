@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.core.rpc.netty.v1;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Head map dictionary test.
+ */
+class HeadMapDictionaryTest {
+
+    private ByteBuf buf;
+
+    @BeforeEach
+    public void setUp() {
+        buf = ByteBufAllocator.DEFAULT.heapBuffer();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        buf.release();
+    }
+
+    @Test
+    public void testHandshake() {
+        HeadMapDictionary client = new HeadMapDictionary();
+        HeadMapDictionary server = new HeadMapDictionary();
+
+        Map<String, String> headMap = Collections.singletonMap("k", "v");
+        Map<String, String> decoded = roundTrip(client, server, headMap);
+        Assertions.assertEquals(headMap, decoded);
+        Assertions.assertTrue(server.isPeerSupported());
+        Assertions.assertFalse(client.isPeerSupported());
+
+        // the server announces the support with an empty dictionary head map
+        int length = server.encode(null, buf);
+        server.commit();
+        Assertions.assertEquals(2, length);
+        Assertions.assertTrue(HeadMapDictionary.decode(client, buf, length).isEmpty());
+        Assertions.assertTrue(client.isPeerSupported());
+
+        Assertions.assertEquals(0, server.encode(Collections.emptyMap(), buf));
+        server.commit();
+    }
+
+    @Test
+    public void testEchoedHandshake() {
+        HeadMapDictionary client = new HeadMapDictionary();
+        int length = client.encode(Collections.singletonMap("k", "v"), buf);
+        client.commit();
+        // an old server sends the headers of the request back
+        Map<String, String> decoded = HeadMapDictionary.decode(client, buf, length);
+        Assertions.assertEquals(Collections.singletonMap("k", "v"), decoded);
+        Assertions.assertFalse(client.isPeerSupported());
+
+        // the handshake is sent once
+        length = client.encode(Collections.singletonMap("k", "v"), buf);
+        client.commit();
+        Assertions.assertEquals(6, length);
+    }
+
+    @Test
+    public void testReference() {
+        HeadMapDictionary client = new HeadMapDictionary();
+        HeadMapDictionary server = new HeadMapDictionary();
+        handshake(client, server);
+
+        Map<String, String> headMap = new HashMap<>();
+        headMap.put("k", "v");
+        headMap.put("trace", null);
+        int literal = encodedLength(client, server, headMap);
+        int define = encodedLength(client, server, headMap);
+        int reference = encodedLength(client, server, headMap);
+        Assertions.assertEquals(2 + 2, reference);
+        Assertions.assertEquals(literal + 2, define);
+
+        headMap.put("trace", "1");
+        Assertions.assertEquals(headMap, roundTrip(client, server, headMap));
+        headMap.put("trace", "2");
+        Assertions.assertEquals(headMap, roundTrip(client, server, headMap));
+    }
+
+    @Test
+    public void testRollback() {
+        HeadMapDictionary client = new HeadMapDictionary();
+        HeadMapDictionary server = new HeadMapDictionary();
+        handshake(client, server);
+        Map<String, String> headMap = Collections.singletonMap("k", "v");
+        roundTrip(client, server, headMap);
+
+        // the message defining the entry fails to be encoded
+        int start = buf.writerIndex();
+        client.encode(headMap, buf);
+        client.rollback();
+        buf.writerIndex(start);
+
+        Assertions.assertEquals(headMap, roundTrip(client, server, headMap));
+        Assertions.assertEquals(headMap, roundTrip(client, server, headMap));
+        Assertions.assertEquals(3, encodedLength(client, server, headMap));
+    }
+
+    @Test
+    public void testDictionaryDisabled() {
+        HeadMapDictionary client = new HeadMapDictionary();
+        HeadMapDictionary server = new HeadMapDictionary();
+        handshake(client, server);
+        int length = client.encode(Collections.singletonMap("k", "v"), buf);
+        client.commit();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HeadMapDictionary.decode(null, buf, length));
+    }
+
+    @Test
+    public void testLazyHeadMap() {
+        HeadMapDictionary client = new HeadMapDictionary();
+        Map<String, String> headMap = new HashMap<>();
+        headMap.put("a", "1");
+        headMap.put("b", null);
+        int length = HeadMapSerializer.getInstance().encode(headMap, buf);
+        Map<String, String> decoded = HeadMapDictionary.decode(client, buf, length);
+        Assertions.assertTrue(decoded instanceof LazyHeadMap);
+        Assertions.assertEquals(2, decoded.size());
+        Assertions.assertEquals("1", decoded.get("a"));
+        Assertions.assertTrue(decoded.containsKey("b"));
+        Assertions.assertEquals(headMap, decoded);
+
+        decoded.put("c", "3");
+        decoded.remove("a");
+        Assertions.assertEquals(2, decoded.size());
+        Assertions.assertEquals("3", decoded.get("c"));
+        Assertions.assertNull(decoded.get("a"));
+    }
+
+    private void handshake(HeadMapDictionary client, HeadMapDictionary server) {
+        roundTrip(client, server, null);
+        roundTrip(server, client, null);
+        Assertions.assertTrue(client.isPeerSupported());
+        Assertions.assertTrue(server.isPeerSupported());
+    }
+
+    private Map<String, String> roundTrip(HeadMapDictionary sender, HeadMapDictionary receiver,
+                                          Map<String, String> headMap) {
+        int length = sender.encode(headMap, buf);
+        sender.commit();
+        if (length == 0) {
+            return Collections.emptyMap();
+        }
+        return HeadMapDictionary.decode(receiver, buf, length);
+    }
+
+    private int encodedLength(HeadMapDictionary sender, HeadMapDictionary receiver, Map<String, String> headMap) {
+        int length = sender.encode(headMap, buf);
+        sender.commit();
+        Assertions.assertEquals(headMap, HeadMapDictionary.decode(receiver, buf, length));
+        return length;
+    }
+}
@@ -379,4 +379,24 @@ public class LockStoreSqlFactoryTest {
         sql = DM_LOCK_STORE.getCheckLockableSql(BRANCH_TABLE, 3);
         Assertions.assertEquals(EXPECT_CHECK_BRANCH_LOCKABLE_SQL,sql);
     }
+
+    @Test
+    public void batchInsertLockSqlTest() {
+        String values = "(?, ?, ?, ?, ?, ?, ?, now(), now(), ?), (?, ?, ?, ?, ?, ?, ?, now(), now(), ?)";
+        Assertions.assertEquals("insert ignore into " + GLOBAL_TABLE + "(xid, transaction_id, branch_id, resource_id, "
+            + "table_name, pk, row_key, gmt_create, gmt_modified,status) values " + values,
+            MYSQL_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2));
+        Assertions.assertEquals(MYSQL_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2),
+            MARIADB_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2));
+        Assertions.assertEquals("insert into " + GLOBAL_TABLE + "(xid, transaction_id, branch_id, resource_id, "
+            + "table_name, pk, row_key, gmt_create, gmt_modified,status) values " + values + " on conflict do nothing",
+            POSTGRESQL_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2));
+        String sql = ORACLE_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2);
+        Assertions.assertTrue(sql.startsWith("merge into " + GLOBAL_TABLE + " t using (select ? xid"));
+        Assertions.assertEquals(2, sql.split("from dual").length - 1);
+        Assertions.assertEquals(16, sql.chars().filter(c -> c == '?').count());
+        Assertions.assertNotNull(OCEANBASE_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2));
+        Assertions.assertNull(H2_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2));
+        Assertions.assertNull(DM_LOCK_STORE.getBatchInsertLockSql(GLOBAL_TABLE, 2));
+    }
 }
@@ -25,6 +25,12 @@ public interface IdConstants {
 
     String SEATA_EXCEPTION = "seata.exception";
 
+    String SEATA_SESSION_TICK = "seata.session.tick";
+
+    String SEATA_SESSION_DUE = "seata.session.due";
+
+    String SEATA_REQUEST_EXECUTOR = "seata.request.executor";
+
     String APP_ID_KEY = "applicationId";
     
     String GROUP_KEY = "group";
@@ -232,6 +232,22 @@ public abstract class AbstractPreparedStatementProxy extends StatementProxy<Prep
         targetStatement.addBatch();
     }
 
+    @Override
+    public void clearBatch() throws SQLException {
+        initParameterHolder();
+        targetStatement.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        try {
+            return super.executeBatch();
+        } finally {
+            // the params of the executed batch must not be taken as the rows of the next one
+            initParameterHolder();
+        }
+    }
+
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
         setParamByIndex(parameterIndex, reader);
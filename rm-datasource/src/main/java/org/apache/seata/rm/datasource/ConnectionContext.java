@@ -21,6 +21,7 @@ import java.sql.Savepoint;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -30,16 +31,21 @@ import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.seata.common.ConfigurationKeys;
+import org.apache.seata.common.DefaultValues;
 import org.apache.seata.common.LockStrategyMode;
 import org.apache.seata.common.exception.ShouldNeverHappenException;
 import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.common.util.StringUtils;
+import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.context.GlobalLockConfigHolder;
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.GlobalLockConfig;
 import org.apache.seata.rm.datasource.undo.SQLUndoLog;
 
 import static org.apache.seata.common.Constants.AUTO_COMMIT;
+import static org.apache.seata.common.Constants.LOCK_WAIT_TIMEOUT;
 import static org.apache.seata.common.Constants.SKIP_CHECK_LOCK;
 
 /**
@@ -61,6 +67,9 @@ public class ConnectionContext {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final int CLIENT_LOCK_WAIT_TIMEOUT = ConfigurationFactory.getInstance().getInt(
+        ConfigurationKeys.CLIENT_LOCK_WAIT_TIMEOUT, DefaultValues.DEFAULT_CLIENT_LOCK_WAIT_TIMEOUT);
+
     private String xid;
     private Long branchId;
     private boolean isGlobalLockRequire;
@@ -77,6 +86,11 @@ public class ConnectionContext {
      */
     private final Map<Savepoint, List<SQLUndoLog>> sqlUndoItemsBuffer = new LinkedHashMap<>();
 
+    /**
+     * the contents of the undo items encoded when they are appended
+     */
+    private final Map<SQLUndoLog, byte[]> undoItemContents = new IdentityHashMap<>();
+
     private final List<Savepoint> savepoints = new ArrayList<>(8);
 
     /**
@@ -115,6 +129,19 @@ public class ConnectionContext {
         sqlUndoItemsBuffer.computeIfAbsent(currentSavepoint, k -> new ArrayList<>()).add(sqlUndoLog);
     }
 
+    /**
+     * Append undo item with its encoded content.
+     *
+     * @param sqlUndoLog the sql undo log
+     * @param content    the encoded content, null if it is not encoded
+     */
+    void appendUndoItem(SQLUndoLog sqlUndoLog, byte[] content) {
+        appendUndoItem(sqlUndoLog);
+        if (content != null) {
+            undoItemContents.put(sqlUndoLog, content);
+        }
+    }
+
     /**
      * Append savepoint
      *
@@ -131,10 +158,14 @@ public class ConnectionContext {
         if (null == savepoint) {
             sqlUndoItemsBuffer.clear();
             lockKeysBuffer.clear();
+            undoItemContents.clear();
         } else {
 
             for (Savepoint sp : afterSavepoints) {
-                sqlUndoItemsBuffer.remove(sp);
+                List<SQLUndoLog> savepointSQLUndoLogs = sqlUndoItemsBuffer.remove(sp);
+                if (CollectionUtils.isNotEmpty(savepointSQLUndoLogs)) {
+                    savepointSQLUndoLogs.forEach(undoItemContents::remove);
+                }
                 lockKeysBuffer.remove(sp);
             }
         }
@@ -297,6 +328,11 @@ public class ConnectionContext {
             this.applicationData.put(AUTO_COMMIT, autoCommit);
         }
 
+        // let the TC park the registration on a lock conflict instead of answering at once, ignored by older TCs
+        if (CLIENT_LOCK_WAIT_TIMEOUT > 0) {
+            this.applicationData.put(LOCK_WAIT_TIMEOUT, CLIENT_LOCK_WAIT_TIMEOUT);
+        }
+
         if (!this.applicationData.isEmpty()) {
             try {
                 return MAPPER.writeValueAsString(this.applicationData);
@@ -327,6 +363,7 @@ public class ConnectionContext {
         savepoints.clear();
         lockKeysBuffer.clear();
         sqlUndoItemsBuffer.clear();
+        undoItemContents.clear();
         this.autoCommitChanged = false;
         applicationData.clear();
     }
@@ -337,14 +374,7 @@ public class ConnectionContext {
      * @return the string
      */
     public String buildLockKeys() {
-        if (lockKeysBuffer.isEmpty()) {
-            return null;
-        }
-        Set<String> lockKeysBufferSet = new HashSet<>();
-        for (Set<String> lockKeys : lockKeysBuffer.values()) {
-            lockKeysBufferSet.addAll(lockKeys);
-        }
-
+        Set<String> lockKeysBufferSet = collectLockKeys();
         if (lockKeysBufferSet.isEmpty()) {
             return null;
         }
@@ -360,6 +390,47 @@ public class ConnectionContext {
         return appender.toString();
     }
 
+    /**
+     * Build the row lock keys from the lock keys of the statements, each being the table name and its pks, without
+     * joining them into a lock key string first.
+     *
+     * @return the row lock keys, null if there is no lock key
+     */
+    public RowLockKeys buildRowLockKeys() {
+        Set<String> lockKeysBufferSet = collectLockKeys();
+        if (lockKeysBufferSet.isEmpty()) {
+            return null;
+        }
+        RowLockKeys rowLockKeys = new RowLockKeys();
+        for (String lockKey : lockKeysBufferSet) {
+            int idx = lockKey.indexOf(':');
+            if (idx < 0) {
+                continue;
+            }
+            String tableName = lockKey.substring(0, idx);
+            int start = idx + 1;
+            while (start < lockKey.length()) {
+                int end = lockKey.indexOf(',', start);
+                if (end < 0) {
+                    end = lockKey.length();
+                }
+                if (end > start) {
+                    rowLockKeys.add(tableName, lockKey.substring(start, end));
+                }
+                start = end + 1;
+            }
+        }
+        return rowLockKeys.getRowCount() == 0 ? null : rowLockKeys;
+    }
+
+    private Set<String> collectLockKeys() {
+        Set<String> lockKeysBufferSet = new HashSet<>();
+        for (Set<String> lockKeys : lockKeysBuffer.values()) {
+            lockKeysBufferSet.addAll(lockKeys);
+        }
+        return lockKeysBufferSet;
+    }
+
     /**
      * Gets undo items.
      *
@@ -373,6 +444,25 @@ public class ConnectionContext {
         return undoItems;
     }
 
+    /**
+     * Gets the encoded contents of the undo items.
+     *
+     * @return the contents in the order of the undo items, null if any undo item is not encoded
+     */
+    public List<byte[]> getUndoItemContents() {
+        List<byte[]> contents = new ArrayList<>();
+        for (List<SQLUndoLog> items : sqlUndoItemsBuffer.values()) {
+            for (SQLUndoLog item : items) {
+                byte[] content = undoItemContents.get(item);
+                if (content == null) {
+                    return null;
+                }
+                contents.add(content);
+            }
+        }
+        return contents;
+    }
+
 
     /**
      * Get the savepoints after target savepoint(include the param savepoint)
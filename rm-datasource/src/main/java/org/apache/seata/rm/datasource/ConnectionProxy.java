@@ -30,11 +30,15 @@ import org.apache.seata.core.model.BranchType;
 import org.apache.seata.rm.DefaultResourceManager;
 import org.apache.seata.rm.datasource.exec.LockConflictException;
 import org.apache.seata.rm.datasource.exec.LockRetryController;
+import org.apache.seata.rm.datasource.undo.IncrementalUndoLogParser;
 import org.apache.seata.rm.datasource.undo.SQLUndoLog;
 import org.apache.seata.rm.datasource.undo.UndoLogManagerFactory;
+import org.apache.seata.rm.datasource.undo.UndoLogParser;
+import org.apache.seata.rm.datasource.undo.UndoLogParserFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_BINARY_LOCK_KEY;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_RETRY_POLICY_BRANCH_ROLLBACK_ON_CONFLICT;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_REPORT_RETRY_COUNT;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_REPORT_SUCCESS_ENABLE;
@@ -57,6 +61,9 @@ public class ConnectionProxy extends AbstractConnectionProxy {
     public static final boolean IS_REPORT_SUCCESS_ENABLE = ConfigurationFactory.getInstance().getBoolean(
         ConfigurationKeys.CLIENT_REPORT_SUCCESS_ENABLE, DEFAULT_CLIENT_REPORT_SUCCESS_ENABLE);
 
+    private static final boolean BINARY_LOCK_KEY = ConfigurationFactory.getInstance().getBoolean(
+        ConfigurationKeys.CLIENT_LOCK_BINARY_LOCK_KEY, DEFAULT_CLIENT_LOCK_BINARY_LOCK_KEY);
+
     /**
      * Instantiates a new Connection proxy.
      *
@@ -169,7 +176,13 @@ public class ConnectionProxy extends AbstractConnectionProxy {
      * @param sqlUndoLog the sql undo log
      */
     public void appendUndoLog(SQLUndoLog sqlUndoLog) {
-        context.appendUndoItem(sqlUndoLog);
+        UndoLogParser parser = UndoLogParserFactory.getInstance();
+        if (context.inGlobalTransaction() && parser instanceof IncrementalUndoLogParser) {
+            // encode it with the statement, so the commit only assembles the encoded undo logs
+            context.appendUndoItem(sqlUndoLog, ((IncrementalUndoLogParser) parser).encode(sqlUndoLog));
+        } else {
+            context.appendUndoItem(sqlUndoLog);
+        }
     }
 
     /**
@@ -246,14 +259,22 @@ public class ConnectionProxy extends AbstractConnectionProxy {
     }
 
     private void processGlobalTransactionCommit() throws SQLException {
+        long registerStart = System.nanoTime();
         try {
             register();
         } catch (TransactionException e) {
             recognizeLockKeyConflictException(e, context.buildLockKeys());
         }
         try {
+            long flushStart = System.nanoTime();
             UndoLogManagerFactory.getUndoLogManager(this.getDbType()).flushUndoLogs(this);
+            long commitStart = System.nanoTime();
             targetConnection.commit();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("xid: {}, branchId: {}, register cost: {}us, flush undo log cost: {}us, commit cost: {}us",
+                    context.getXid(), context.getBranchId(), (flushStart - registerStart) / 1000,
+                    (commitStart - flushStart) / 1000, (System.nanoTime() - commitStart) / 1000);
+            }
         } catch (Throwable ex) {
             LOGGER.error("process connectionProxy commit error: {}", ex.getMessage(), ex);
             report(false);
@@ -272,7 +293,7 @@ public class ConnectionProxy extends AbstractConnectionProxy {
 
         Long branchId = DefaultResourceManager.get().branchRegister(BranchType.AT, getDataSourceProxy().getResourceId(),
             null, context.getXid(), context.getApplicationData(),
-            context.buildLockKeys());
+            context.buildLockKeys(), BINARY_LOCK_KEY ? context.buildRowLockKeys() : null);
         context.setBranchId(branchId);
     }
 
@@ -18,6 +18,7 @@ package org.apache.seata.rm.datasource;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +56,26 @@ public class SqlGenerateUtils {
      */
     public static String buildWhereConditionByPKs(List<String> pkNameList, int rowSize, String dbType, int maxInSize)
         throws SQLException {
+        List<String> columnsInSQL = new ArrayList<>(pkNameList.size());
+        for (String pkName : pkNameList) {
+            columnsInSQL.add(ColumnUtils.addEscape(pkName, dbType));
+        }
+        return buildWhereConditionByColumns(columnsInSQL, rowSize, maxInSize);
+    }
+
+    /**
+     * the same as {@link #buildWhereConditionByPKs(List, int, String)}, but the columns are used as they are in sql,
+     * such as "t.id" with the table alias.
+     *
+     * @param columnsInSQL the column names in sql
+     * @param rowSize      the row size of records
+     * @return return where condition sql string.the sql can search all related records not just one.
+     */
+    public static String buildWhereConditionByColumns(List<String> columnsInSQL, int rowSize) {
+        return buildWhereConditionByColumns(columnsInSQL, rowSize, MAX_IN_SIZE);
+    }
+
+    private static String buildWhereConditionByColumns(List<String> columnsInSQL, int rowSize, int maxInSize) {
         StringBuilder whereStr = new StringBuilder();
         //we must consider the situation of composite primary key
         int batchSize = rowSize % maxInSize == 0 ? rowSize / maxInSize : (rowSize / maxInSize) + 1;
@@ -63,11 +84,11 @@ public class SqlGenerateUtils {
                 whereStr.append(" or ");
             }
             whereStr.append("(");
-            for (int i = 0; i < pkNameList.size(); i++) {
+            for (int i = 0; i < columnsInSQL.size(); i++) {
                 if (i > 0) {
                     whereStr.append(",");
                 }
-                whereStr.append(ColumnUtils.addEscape(pkNameList.get(i), dbType));
+                whereStr.append(columnsInSQL.get(i));
             }
             whereStr.append(") in ( ");
 
@@ -79,7 +100,7 @@ public class SqlGenerateUtils {
                     whereStr.append(",");
                 }
                 whereStr.append("(");
-                for (int x = 0; x < pkNameList.size(); x++) {
+                for (int x = 0; x < columnsInSQL.size(); x++) {
                     if (x > 0) {
                         whereStr.append(",");
                     }
@@ -21,6 +21,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -151,6 +152,10 @@ public abstract class BaseTransactionalExecutor<T, S extends Statement> implemen
         } else {
             whereCondition = recognizer.getWhereCondition();
         }
+        return joinBatchWhereCondition(whereCondition, paramAppenderList);
+    }
+
+    private String joinBatchWhereCondition(String whereCondition, ArrayList<List<Object>> paramAppenderList) {
         //process batch operation
         if (StringUtils.isNotBlank(whereCondition) && CollectionUtils.isNotEmpty(paramAppenderList) && paramAppenderList.size() > 1) {
             StringBuilder whereConditionSb = new StringBuilder();
@@ -163,6 +168,81 @@ public abstract class BaseTransactionalExecutor<T, S extends Statement> implemen
         return whereCondition;
     }
 
+    /**
+     * build the where condition of a batch, the where condition that only matches the primary keys by equality is
+     * merged into one condition like "(id,userCode) in ((?,?),(?,?))", others are the same as
+     * {@link #buildWhereCondition(WhereRecognizer, ArrayList)}.
+     *
+     * @param recognizer        the recognizer
+     * @param paramAppenderList the param paramAppender list
+     * @return the string
+     */
+    protected String buildBatchWhereCondition(WhereRecognizer recognizer, ArrayList<List<Object>> paramAppenderList) {
+        if (!(statementProxy instanceof ParametersHolder)) {
+            return buildWhereCondition(recognizer, paramAppenderList);
+        }
+        String whereCondition = recognizer.getWhereCondition((ParametersHolder) statementProxy, paramAppenderList);
+        if (StringUtils.isNotBlank(whereCondition) && paramAppenderList.size() > 1
+            && StringUtils.isBlank(recognizer.getOrderByCondition()) && StringUtils.isBlank(recognizer.getLimitCondition())) {
+            String pkWhereCondition = buildPkWhereCondition(recognizer.getWhereEqualityColumns(), paramAppenderList);
+            if (pkWhereCondition != null) {
+                return pkWhereCondition;
+            }
+        }
+        return joinBatchWhereCondition(whereCondition, paramAppenderList);
+    }
+
+    /**
+     * build the where condition by the primary keys, the params of each row are reordered as the primary keys.
+     *
+     * @param equalityColumns   the columns the where condition matches by equality, see
+     *                          {@link WhereRecognizer#getWhereEqualityColumns()}
+     * @param paramAppenderList the param paramAppender list
+     * @return the where condition, null if the where condition not only matches the primary keys by equality
+     */
+    private String buildPkWhereCondition(List<String> equalityColumns, ArrayList<List<Object>> paramAppenderList) {
+        List<String> pkNameList = getTableMeta().getPrimaryKeyOnlyName();
+        if (equalityColumns == null || equalityColumns.size() != pkNameList.size()) {
+            return null;
+        }
+        String[] pkColumnsInSQL = new String[equalityColumns.size()];
+        int[] paramIndexes = new int[equalityColumns.size()];
+        for (int i = 0; i < equalityColumns.size(); i++) {
+            String columnInSQL = equalityColumns.get(i);
+            int dotIndex = columnInSQL.lastIndexOf('.');
+            if (dotIndex > 0 && !isTableInSQL(columnInSQL.substring(0, dotIndex))) {
+                return null;
+            }
+            String pkName = getStandardPkColumnName(columnInSQL.substring(dotIndex + 1));
+            int pkIndex = pkName == null ? -1 : pkNameList.indexOf(pkName);
+            if (pkIndex < 0 || pkColumnsInSQL[pkIndex] != null) {
+                return null;
+            }
+            pkColumnsInSQL[pkIndex] = columnInSQL;
+            paramIndexes[pkIndex] = i;
+        }
+        for (List<Object> paramAppender : paramAppenderList) {
+            if (paramAppender.size() != equalityColumns.size()) {
+                return null;
+            }
+        }
+        for (int i = 0; i < paramAppenderList.size(); i++) {
+            List<Object> paramAppender = paramAppenderList.get(i);
+            List<Object> pkParams = new ArrayList<>(paramIndexes.length);
+            for (int paramIndex : paramIndexes) {
+                pkParams.add(paramAppender.get(paramIndex));
+            }
+            paramAppenderList.set(i, pkParams);
+        }
+        return SqlGenerateUtils.buildWhereConditionByColumns(Arrays.asList(pkColumnsInSQL), paramAppenderList.size());
+    }
+
+    private boolean isTableInSQL(String tableInSQL) {
+        String table = ColumnUtils.delEscape(tableInSQL, getDbType());
+        return table.equalsIgnoreCase(sqlRecognizer.getTableAlias())
+            || table.equalsIgnoreCase(ColumnUtils.delEscape(sqlRecognizer.getTableName(), getDbType()));
+    }
+
     /**
      * build buildOrderCondition
      * @param recognizer
@@ -61,7 +61,7 @@ public class DeleteExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
     }
 
     protected String buildBeforeImageSQL(SQLDeleteRecognizer visitor, TableMeta tableMeta, ArrayList<List<Object>> paramAppenderList) {
-        String whereCondition = buildWhereCondition(visitor, paramAppenderList);
+        String whereCondition = buildBatchWhereCondition(visitor, paramAppenderList);
         String orderByCondition = buildOrderCondition(visitor, paramAppenderList);
         String limitCondition = buildLimitCondition(visitor, paramAppenderList);
         StringBuilder suffix = new StringBuilder(" FROM ").append(getFromTableInSQL());
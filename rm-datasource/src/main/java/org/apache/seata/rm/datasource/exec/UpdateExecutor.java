@@ -20,9 +20,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.TreeMap;
 
 import org.apache.seata.common.util.IOUtil;
 import org.apache.seata.common.util.StringUtils;
@@ -32,6 +35,11 @@ import org.apache.seata.core.constants.ConfigurationKeys;
 import org.apache.seata.common.DefaultValues;
 import org.apache.seata.rm.datasource.SqlGenerateUtils;
 import org.apache.seata.rm.datasource.StatementProxy;
+import org.apache.seata.rm.datasource.sql.struct.Field;
+import org.apache.seata.rm.datasource.sql.struct.Row;
+import org.apache.seata.sqlparser.ParametersHolder;
+import org.apache.seata.sqlparser.SQLType;
+import org.apache.seata.sqlparser.struct.ColumnMeta;
 import org.apache.seata.sqlparser.struct.TableMeta;
 import org.apache.seata.rm.datasource.sql.struct.TableRecords;
 import org.apache.seata.sqlparser.SQLRecognizer;
@@ -50,6 +58,9 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
     private static final boolean ONLY_CARE_UPDATE_COLUMNS = CONFIG.getBoolean(
         ConfigurationKeys.TRANSACTION_UNDO_ONLY_CARE_UPDATE_COLUMNS, DefaultValues.DEFAULT_ONLY_CARE_UPDATE_COLUMNS);
 
+    private static final boolean DERIVE_AFTER_IMAGE = CONFIG.getBoolean(
+        ConfigurationKeys.TRANSACTION_UNDO_DERIVE_AFTER_IMAGE, DefaultValues.DEFAULT_DERIVE_AFTER_IMAGE);
+
     /**
      * Instantiates a new Update executor.
      *
@@ -74,7 +85,7 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
         SQLUpdateRecognizer recognizer = (SQLUpdateRecognizer) sqlRecognizer;
         StringBuilder prefix = new StringBuilder("SELECT ");
         StringBuilder suffix = new StringBuilder(" FROM ").append(getFromTableInSQL());
-        String whereCondition = buildWhereCondition(recognizer, paramAppenderList);
+        String whereCondition = buildBatchWhereCondition(recognizer, paramAppenderList);
         String orderByCondition = buildOrderCondition(recognizer, paramAppenderList);
         String limitCondition = buildLimitCondition(recognizer, paramAppenderList);
         if (StringUtils.isNotBlank(whereCondition)) {
@@ -99,6 +110,12 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
         if (beforeImage == null || beforeImage.size() == 0) {
             return TableRecords.empty(getTableMeta());
         }
+        if (DERIVE_AFTER_IMAGE) {
+            TableRecords afterImage = deriveAfterImage(tmeta, beforeImage);
+            if (afterImage != null) {
+                return afterImage;
+            }
+        }
         String selectSQL = buildAfterImageSQL(tmeta, beforeImage);
         PreparedStatement pst = null;
         ResultSet rs = null;
@@ -112,6 +129,90 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
         }
     }
 
+    /**
+     * Derive the after image from the before image and the update values instead of querying it again. It is only
+     * done if the images hold no other columns than the primary keys and the updated ones, every update value is a
+     * literal or a param of the same java type as the jdbc driver reads the column, and no column is updated by the
+     * database itself. The triggers are not known by the table meta, so the mode must not be enabled for the tables
+     * whose triggers change the updated columns.
+     *
+     * @param tableMeta   the table meta
+     * @param beforeImage the before image
+     * @return the after image, null if it can not be derived
+     */
+    protected TableRecords deriveAfterImage(TableMeta tableMeta, TableRecords beforeImage) {
+        SQLUpdateRecognizer recognizer = (SQLUpdateRecognizer) sqlRecognizer;
+        if (!ONLY_CARE_UPDATE_COLUMNS || recognizer.getSQLType() != SQLType.UPDATE
+            || StringUtils.isNotBlank(recognizer.getLimitCondition())) {
+            return null;
+        }
+        List<Object> updateValues = recognizer.getUpdateValues(
+            statementProxy instanceof ParametersHolder ? (ParametersHolder) statementProxy : null);
+        if (updateValues == null) {
+            return null;
+        }
+        List<String> updateColumns = recognizer.getUpdateColumnsUnEscape();
+        Map<String, Object> updateValueMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < updateColumns.size(); i++) {
+            String updateColumn = updateColumns.get(i);
+            ColumnMeta columnMeta = tableMeta.getColumnMeta(updateColumn.substring(updateColumn.lastIndexOf('.') + 1));
+            if (columnMeta == null || updateValueMap.containsKey(columnMeta.getColumnName())
+                || containPK(columnMeta.getColumnName()) || !isDerivable(columnMeta, updateValues.get(i))) {
+                return null;
+            }
+            updateValueMap.put(columnMeta.getColumnName(), updateValues.get(i));
+        }
+        for (String onUpdateColumn : tableMeta.getOnUpdateColumnsOnlyName()) {
+            if (!updateValueMap.containsKey(onUpdateColumn)) {
+                return null;
+            }
+        }
+        TableRecords afterImage = new TableRecords(tableMeta);
+        for (Row row : beforeImage.getRows()) {
+            Row afterRow = new Row();
+            for (Field field : row.getFields()) {
+                Object value = updateValueMap.containsKey(field.getName()) ? updateValueMap.get(field.getName()) : field.getValue();
+                Field afterField = new Field(field.getName(), field.getType(), value);
+                afterField.setKeyType(field.getKeyType());
+                afterRow.add(afterField);
+            }
+            afterImage.add(afterRow);
+        }
+        return afterImage;
+    }
+
+    /**
+     * Whether the column reads the same value as the update value, the conversions and the truncations of the
+     * database are never guessed.
+     *
+     * @param columnMeta the column meta
+     * @param value      the update value
+     * @return true if derivable
+     */
+    private boolean isDerivable(ColumnMeta columnMeta, Object value) {
+        if (value == null) {
+            return true;
+        }
+        String dataTypeName = StringUtils.isBlank(columnMeta.getDataTypeName()) ? "" : columnMeta.getDataTypeName().toUpperCase();
+        switch (columnMeta.getDataType()) {
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                // an empty string is null in oracle, and json is normalized by mysql
+                return value instanceof String && !((String) value).isEmpty()
+                    && ((String) value).length() <= columnMeta.getColumnSize() && !dataTypeName.contains("JSON");
+            case Types.INTEGER:
+                // mysql reports a mediumint as an integer, and clamps the values out of its narrower range
+                return value instanceof Integer && !dataTypeName.contains("UNSIGNED")
+                    && !dataTypeName.contains("MEDIUMINT");
+            case Types.BIGINT:
+                return value instanceof Long && !dataTypeName.contains("UNSIGNED");
+            default:
+                return false;
+        }
+    }
+
     private String buildAfterImageSQL(TableMeta tableMeta, TableRecords beforeImage) throws SQLException {
         String prefix = "SELECT ";
         String whereSql = SqlGenerateUtils.buildWhereConditionByPKs(tableMeta.getPrimaryKeyOnlyName(), beforeImage.pkRows().size(), getDbType());
@@ -16,15 +16,22 @@
  */
 package org.apache.seata.rm.datasource.sql;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.apache.seata.common.DefaultValues;
 import org.apache.seata.common.loader.EnhancedServiceLoader;
+import org.apache.seata.config.Configuration;
 import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.constants.ConfigurationKeys;
 import org.apache.seata.sqlparser.SQLRecognizer;
 import org.apache.seata.sqlparser.SQLRecognizerFactory;
 import org.apache.seata.sqlparser.SqlParserType;
 
-import java.util.List;
-
 
 public class SQLVisitorFactory {
     /**
@@ -32,9 +39,25 @@ public class SQLVisitorFactory {
      */
     private final static SQLRecognizerFactory SQL_RECOGNIZER_FACTORY;
 
+    /**
+     * The recognizers by db type and sql, weighed by the sql length. The recognizers only read their parsed
+     * statements after they are built, so they are shared by the connections.
+     */
+    private final static Cache<CacheKey, List<SQLRecognizer>> RECOGNIZER_CACHE;
+
+    /**
+     * Cached for the sql without recognizers, such as a plain select.
+     */
+    private final static List<SQLRecognizer> NO_RECOGNIZERS = Collections.emptyList();
+
     static {
-        String sqlParserType = ConfigurationFactory.getInstance().getConfig(ConfigurationKeys.SQL_PARSER_TYPE, SqlParserType.SQL_PARSER_TYPE_DRUID);
+        Configuration configuration = ConfigurationFactory.getInstance();
+        String sqlParserType = configuration.getConfig(ConfigurationKeys.SQL_PARSER_TYPE, SqlParserType.SQL_PARSER_TYPE_DRUID);
         SQL_RECOGNIZER_FACTORY = EnhancedServiceLoader.load(SQLRecognizerFactory.class, sqlParserType);
+        long cacheSize = configuration.getLong(ConfigurationKeys.SQL_RECOGNIZER_CACHE_SIZE,
+            DefaultValues.DEFAULT_SQL_RECOGNIZER_CACHE_SIZE);
+        RECOGNIZER_CACHE = cacheSize > 0 ? Caffeine.newBuilder().maximumWeight(cacheSize)
+            .<CacheKey, List<SQLRecognizer>>weigher((key, value) -> key.sql.length()).recordStats().build() : null;
     }
 
     /**
@@ -45,8 +68,63 @@ public class SQLVisitorFactory {
      * @return the sql recognizer
      */
     public static List<SQLRecognizer> get(String sql, String dbType) {
-        return SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+        if (RECOGNIZER_CACHE == null || sql == null || dbType == null) {
+            return SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+        }
+        List<SQLRecognizer> recognizers = RECOGNIZER_CACHE.get(new CacheKey(dbType, sql), key -> {
+            List<SQLRecognizer> created = SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+            return created == null ? NO_RECOGNIZERS : Collections.unmodifiableList(created);
+        });
+        return recognizers == NO_RECOGNIZERS ? null : recognizers;
     }
 
+    /**
+     * Gets the hit, miss and eviction counts of the recognizer cache.
+     *
+     * @return the stats, empty if the cache is disabled
+     */
+    public static CacheStats getCacheStats() {
+        return RECOGNIZER_CACHE != null ? RECOGNIZER_CACHE.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Remove all the cached recognizers.
+     */
+    public static void invalidateCache() {
+        if (RECOGNIZER_CACHE != null) {
+            RECOGNIZER_CACHE.invalidateAll();
+        }
+    }
+
+    private static final class CacheKey {
 
+        private final String dbType;
+
+        private final String sql;
+
+        private final int hash;
+
+        CacheKey(String dbType, String sql) {
+            this.dbType = dbType;
+            this.sql = sql;
+            this.hash = 31 * dbType.hashCode() + sql.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey cacheKey = (CacheKey) o;
+            return hash == cacheKey.hash && Objects.equals(sql, cacheKey.sql) && Objects.equals(dbType, cacheKey.dbType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
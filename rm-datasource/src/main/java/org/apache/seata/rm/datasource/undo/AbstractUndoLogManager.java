@@ -263,13 +263,8 @@ public abstract class AbstractUndoLogManager implements UndoLogManager {
         String xid = connectionContext.getXid();
         long branchId = connectionContext.getBranchId();
 
-        BranchUndoLog branchUndoLog = new BranchUndoLog();
-        branchUndoLog.setXid(xid);
-        branchUndoLog.setBranchId(branchId);
-        branchUndoLog.setSqlUndoLogs(connectionContext.getUndoItems());
-
         UndoLogParser parser = UndoLogParserFactory.getInstance();
-        byte[] undoLogContent = parser.encode(branchUndoLog);
+        byte[] undoLogContent = encodeUndoLogs(parser, connectionContext, xid, branchId);
 
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Flushing UNDO LOG: {}", new String(undoLogContent, Constants.DEFAULT_CHARSET));
@@ -291,6 +286,20 @@ public abstract class AbstractUndoLogManager implements UndoLogManager {
         insertUndoLogWithNormal(xid, branchId, rollbackCtx, undoLogContent, cp.getTargetConnection());
     }
 
+    private byte[] encodeUndoLogs(UndoLogParser parser, ConnectionContext connectionContext, String xid, long branchId) {
+        if (parser instanceof IncrementalUndoLogParser) {
+            List<byte[]> contents = connectionContext.getUndoItemContents();
+            if (contents != null) {
+                return ((IncrementalUndoLogParser) parser).encode(xid, branchId, contents);
+            }
+        }
+        BranchUndoLog branchUndoLog = new BranchUndoLog();
+        branchUndoLog.setXid(xid);
+        branchUndoLog.setBranchId(branchId);
+        branchUndoLog.setSqlUndoLogs(connectionContext.getUndoItems());
+        return parser.encode(branchUndoLog);
+    }
+
     /**
      * Undo.
      *
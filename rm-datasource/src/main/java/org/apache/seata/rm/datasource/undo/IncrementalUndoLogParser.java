@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.rm.datasource.undo;
+
+import java.util.List;
+
+/**
+ * The undo log parser which encodes the sql undo logs one by one, so the undo log of each statement is encoded when
+ * it is appended to the connection, and the branch undo log is only assembled from the encoded contents at commit.
+ *
+ */
+public interface IncrementalUndoLogParser extends UndoLogParser {
+
+    /**
+     * Encode a sql undo log to byte array.
+     *
+     * @param sqlUndoLog the sql undo log
+     * @return the byte array, or null if the sql undo log can only be encoded with the whole branch undo log
+     */
+    byte[] encode(SQLUndoLog sqlUndoLog);
+
+    /**
+     * Encode branch undo log from the encoded sql undo logs.
+     *
+     * @param xid                the xid
+     * @param branchId           the branch id
+     * @param sqlUndoLogContents the contents of the sql undo logs in order
+     * @return the byte array
+     */
+    byte[] encode(String xid, long branchId, List<byte[]> sqlUndoLogContents);
+}
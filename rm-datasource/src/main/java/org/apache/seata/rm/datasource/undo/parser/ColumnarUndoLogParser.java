@@ -0,0 +1,707 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.rm.datasource.undo.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.apache.seata.common.loader.LoadLevel;
+import org.apache.seata.rm.datasource.sql.struct.Field;
+import org.apache.seata.rm.datasource.sql.struct.KeyType;
+import org.apache.seata.rm.datasource.sql.struct.Row;
+import org.apache.seata.rm.datasource.sql.struct.TableRecords;
+import org.apache.seata.rm.datasource.undo.BranchUndoLog;
+import org.apache.seata.rm.datasource.undo.IncrementalUndoLogParser;
+import org.apache.seata.rm.datasource.undo.SQLUndoLog;
+import org.apache.seata.rm.datasource.undo.UndoLogParser;
+import org.apache.seata.rm.datasource.undo.UndoLogParserFactory;
+import org.apache.seata.sqlparser.SQLType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The columnar undo log parser. Each table image is written column by column: the column names, jdbc types and key
+ * types once, then a null bitmap and a value vector of each column. The rows of the images are decoded when they are
+ * read first. The undo log with the values no column codec knows is written by the jackson parser inside. The sql undo
+ * logs are written one after another, so they can be encoded when each statement is executed.
+ */
+@LoadLevel(name = ColumnarUndoLogParser.NAME)
+public class ColumnarUndoLogParser implements IncrementalUndoLogParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarUndoLogParser.class);
+
+    public static final String NAME = "columnar";
+
+    private static final byte FORMAT_COLUMNAR = 1;
+
+    private static final byte FORMAT_JACKSON = 2;
+
+    private static final byte IMAGE_NULL = 0;
+
+    private static final byte IMAGE_EMPTY = 1;
+
+    private static final byte IMAGE_COLUMNAR = 2;
+
+    private static final byte CODEC_NULL = 0;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] getDefaultContent() {
+        return encode(new BranchUndoLog());
+    }
+
+    @Override
+    public byte[] encode(BranchUndoLog branchUndoLog) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            List<SQLUndoLog> sqlUndoLogs = branchUndoLog.getSqlUndoLogs();
+            writeHeader(out, branchUndoLog.getXid(), branchUndoLog.getBranchId(),
+                sqlUndoLogs == null ? -1 : sqlUndoLogs.size());
+            if (sqlUndoLogs != null) {
+                for (SQLUndoLog sqlUndoLog : sqlUndoLogs) {
+                    writeSqlUndoLog(out, sqlUndoLog);
+                }
+            }
+            return bytes.toByteArray();
+        } catch (UnsupportedColumnException e) {
+            LOGGER.debug("encode the undo log by jackson, {}", e.getMessage());
+            byte[] json = getJacksonParser().encode(branchUndoLog);
+            byte[] bytes = new byte[json.length + 1];
+            bytes[0] = FORMAT_JACKSON;
+            System.arraycopy(json, 0, bytes, 1, json.length);
+            return bytes;
+        } catch (IOException | SQLException e) {
+            LOGGER.error("columnar encode exception, {}", e.getMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public byte[] encode(SQLUndoLog sqlUndoLog) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeSqlUndoLog(new DataOutputStream(bytes), sqlUndoLog);
+            return bytes.toByteArray();
+        } catch (UnsupportedColumnException e) {
+            LOGGER.debug("encode the undo log with the branch undo log, {}", e.getMessage());
+            return null;
+        } catch (IOException | SQLException e) {
+            LOGGER.error("columnar encode exception, {}", e.getMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public byte[] encode(String xid, long branchId, List<byte[]> sqlUndoLogContents) {
+        try {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            writeHeader(new DataOutputStream(header), xid, branchId, sqlUndoLogContents.size());
+            int offset = header.size();
+            int length = offset;
+            for (byte[] sqlUndoLogContent : sqlUndoLogContents) {
+                length += sqlUndoLogContent.length;
+            }
+            // the contents are copied once, into an array of the exact length
+            byte[] bytes = Arrays.copyOf(header.toByteArray(), length);
+            for (byte[] sqlUndoLogContent : sqlUndoLogContents) {
+                System.arraycopy(sqlUndoLogContent, 0, bytes, offset, sqlUndoLogContent.length);
+                offset += sqlUndoLogContent.length;
+            }
+            return bytes;
+        } catch (IOException e) {
+            LOGGER.error("columnar encode exception, {}", e.getMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public BranchUndoLog decode(byte[] bytes) {
+        if (bytes[0] == FORMAT_JACKSON) {
+            return getJacksonParser().decode(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        if (bytes[0] != FORMAT_COLUMNAR) {
+            throw new IllegalArgumentException("unknown columnar undo log format: " + bytes[0]);
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        BranchUndoLog branchUndoLog = new BranchUndoLog();
+        branchUndoLog.setXid(readString(in));
+        branchUndoLog.setBranchId(in.getLong());
+        int size = in.getInt();
+        if (size >= 0) {
+            List<SQLUndoLog> sqlUndoLogs = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                SQLUndoLog sqlUndoLog = new SQLUndoLog();
+                String sqlType = readString(in);
+                sqlUndoLog.setSqlType(sqlType == null ? null : SQLType.valueOf(sqlType));
+                sqlUndoLog.setTableName(readString(in));
+                sqlUndoLog.setBeforeImage(readImage(in));
+                sqlUndoLog.setAfterImage(readImage(in));
+                sqlUndoLogs.add(sqlUndoLog);
+            }
+            branchUndoLog.setSqlUndoLogs(sqlUndoLogs);
+        }
+        return branchUndoLog;
+    }
+
+    private UndoLogParser getJacksonParser() {
+        return UndoLogParserFactory.getInstance(JacksonUndoLogParser.NAME);
+    }
+
+    private void writeHeader(DataOutputStream out, String xid, long branchId, int size) throws IOException {
+        out.writeByte(FORMAT_COLUMNAR);
+        writeString(out, xid);
+        out.writeLong(branchId);
+        out.writeInt(size);
+    }
+
+    private void writeSqlUndoLog(DataOutputStream out, SQLUndoLog sqlUndoLog) throws IOException, SQLException {
+        writeString(out, sqlUndoLog.getSqlType() == null ? null : sqlUndoLog.getSqlType().name());
+        writeString(out, sqlUndoLog.getTableName());
+        writeImage(out, sqlUndoLog.getBeforeImage());
+        writeImage(out, sqlUndoLog.getAfterImage());
+    }
+
+    private void writeImage(DataOutputStream out, TableRecords image) throws IOException, SQLException {
+        if (image == null) {
+            out.writeByte(IMAGE_NULL);
+            return;
+        }
+        if (image instanceof TableRecords.EmptyTableRecords) {
+            out.writeByte(IMAGE_EMPTY);
+            writeString(out, image.getTableName());
+            return;
+        }
+        out.writeByte(IMAGE_COLUMNAR);
+        writeString(out, image.getTableName());
+        List<Row> rows = image.getRows();
+        List<Field> columns = rows.isEmpty() ? new ArrayList<>() : rows.get(0).getFields();
+        out.writeInt(columns.size());
+        for (Field column : columns) {
+            writeString(out, column.getName());
+            out.writeInt(column.getType());
+            out.writeByte(column.getKeyType().ordinal());
+        }
+        out.writeInt(rows.size());
+        for (Row row : rows) {
+            if (row.getFields().size() != columns.size()) {
+                throw new UnsupportedColumnException("the rows of " + image.getTableName() + " have different columns");
+            }
+        }
+        // the column vectors are prefixed by the length, so they are skipped until the rows are read
+        ByteArrayOutputStream vectorBytes = new ByteArrayOutputStream();
+        DataOutputStream vectorOut = new DataOutputStream(vectorBytes);
+        for (int i = 0; i < columns.size(); i++) {
+            writeColumn(vectorOut, columns.get(i), rows, i);
+        }
+        out.writeInt(vectorBytes.size());
+        vectorBytes.writeTo(out);
+    }
+
+    private void writeColumn(DataOutputStream out, Field column, List<Row> rows, int index)
+        throws IOException, SQLException {
+        byte[] nullBitmap = new byte[(rows.size() + 7) / 8];
+        ColumnCodec codec = null;
+        for (int r = 0; r < rows.size(); r++) {
+            Field field = rows.get(r).getFields().get(index);
+            if (!column.getName().equals(field.getName()) || column.getType() != field.getType()
+                || column.getKeyType() != field.getKeyType()) {
+                throw new UnsupportedColumnException("the rows have different columns at " + column.getName());
+            }
+            Object value = field.getValue();
+            if (value == null) {
+                nullBitmap[r >>> 3] |= (byte) (1 << (r & 7));
+                continue;
+            }
+            ColumnCodec valueCodec = ColumnCodec.of(value);
+            if (valueCodec == null || (codec != null && codec != valueCodec)) {
+                throw new UnsupportedColumnException("no codec of " + value.getClass().getName() + " at " + column.getName());
+            }
+            codec = valueCodec;
+        }
+        out.writeByte(codec == null ? CODEC_NULL : codec.ordinal() + 1);
+        out.write(nullBitmap);
+        if (codec != null) {
+            for (Row row : rows) {
+                Object value = row.getFields().get(index).getValue();
+                if (value != null) {
+                    codec.write(out, value);
+                }
+            }
+        }
+    }
+
+    private TableRecords readImage(ByteBuffer in) {
+        byte image = in.get();
+        if (image == IMAGE_NULL) {
+            return null;
+        }
+        if (image == IMAGE_EMPTY) {
+            TableRecords records = new TableRecords.EmptyTableRecords();
+            records.setTableName(readString(in));
+            return records;
+        }
+        String tableName = readString(in);
+        int columnSize = in.getInt();
+        Field[] columns = new Field[columnSize];
+        for (int i = 0; i < columnSize; i++) {
+            Field column = new Field();
+            column.setName(readString(in));
+            column.setType(in.getInt());
+            column.setKeyType(KeyType.values()[in.get()]);
+            columns[i] = column;
+        }
+        int rowSize = in.getInt();
+        int vectorSize = in.getInt();
+        ByteBuffer vectors = in.slice();
+        vectors.limit(vectorSize);
+        in.position(in.position() + vectorSize);
+        ColumnarTableRecords records = new ColumnarTableRecords(columns, rowSize, vectors);
+        records.setTableName(tableName);
+        return records;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] value = new byte[in.getInt()];
+        in.get(value);
+        return value;
+    }
+
+    /**
+     * The table records whose rows are decoded from the column vectors when they are read first.
+     */
+    static class ColumnarTableRecords extends TableRecords {
+
+        private final Field[] columns;
+
+        private final int rowSize;
+
+        private transient ByteBuffer vectors;
+
+        ColumnarTableRecords(Field[] columns, int rowSize, ByteBuffer vectors) {
+            this.columns = columns;
+            this.rowSize = rowSize;
+            this.vectors = vectors;
+        }
+
+        boolean isDecoded() {
+            return vectors == null;
+        }
+
+        @Override
+        public List<Row> getRows() {
+            decodeRows();
+            return super.getRows();
+        }
+
+        @Override
+        public void setRows(List<Row> rows) {
+            vectors = null;
+            super.setRows(rows);
+        }
+
+        @Override
+        public int size() {
+            return vectors != null ? rowSize : super.size();
+        }
+
+        @Override
+        public void add(Row row) {
+            decodeRows();
+            super.add(row);
+        }
+
+        @Override
+        public List<Map<String, Field>> pkRows() {
+            decodeRows();
+            return super.pkRows();
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            decodeRows();
+            out.defaultWriteObject();
+        }
+
+        private void decodeRows() {
+            if (vectors == null) {
+                return;
+            }
+            ByteBuffer in = vectors;
+            Object[][] values = new Object[columns.length][];
+            boolean[][] nulls = new boolean[columns.length][];
+            for (int c = 0; c < columns.length; c++) {
+                int codecIndex = in.get();
+                byte[] nullBitmap = new byte[(rowSize + 7) / 8];
+                in.get(nullBitmap);
+                values[c] = new Object[rowSize];
+                nulls[c] = new boolean[rowSize];
+                ColumnCodec codec = codecIndex == CODEC_NULL ? null : ColumnCodec.values()[codecIndex - 1];
+                for (int r = 0; r < rowSize; r++) {
+                    if (codec == null || (nullBitmap[r >>> 3] & (1 << (r & 7))) != 0) {
+                        continue;
+                    }
+                    values[c][r] = codec.read(in);
+                }
+            }
+            List<Row> rows = new ArrayList<>(rowSize);
+            for (int r = 0; r < rowSize; r++) {
+                List<Field> fields = new ArrayList<>(columns.length);
+                for (int c = 0; c < columns.length; c++) {
+                    Field field = new Field(columns[c].getName(), columns[c].getType(), values[c][r]);
+                    field.setKeyType(columns[c].getKeyType());
+                    fields.add(field);
+                }
+                Row row = new Row();
+                row.setFields(fields);
+                rows.add(row);
+            }
+            setRows(rows);
+        }
+    }
+
+    /**
+     * The codecs of the column values, the ordinal is written as the codec of the column, so new codecs must be
+     * appended.
+     */
+    private enum ColumnCodec {
+
+        STRING(String.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                writeString(out, (String) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return readString(in);
+            }
+        },
+
+        INTEGER(Integer.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeInt((Integer) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.getInt();
+            }
+        },
+
+        LONG(Long.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeLong((Long) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.getLong();
+            }
+        },
+
+        SHORT(Short.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeShort((Short) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.getShort();
+            }
+        },
+
+        BYTE(Byte.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeByte((Byte) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.get();
+            }
+        },
+
+        BOOLEAN(Boolean.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeBoolean((Boolean) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.get() != 0;
+            }
+        },
+
+        FLOAT(Float.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeFloat((Float) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.getFloat();
+            }
+        },
+
+        DOUBLE(Double.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeDouble((Double) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return in.getDouble();
+            }
+        },
+
+        BIG_DECIMAL(BigDecimal.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeInt(decimal.scale());
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                int scale = in.getInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+        },
+
+        BIG_INTEGER(BigInteger.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                writeBytes(out, ((BigInteger) value).toByteArray());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return new BigInteger(readBytes(in));
+            }
+        },
+
+        TIMESTAMP(Timestamp.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                Timestamp timestamp = (Timestamp) value;
+                out.writeLong(timestamp.getTime());
+                out.writeInt(timestamp.getNanos());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                Timestamp timestamp = new Timestamp(in.getLong());
+                timestamp.setNanos(in.getInt());
+                return timestamp;
+            }
+        },
+
+        DATE(Date.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeLong(((Date) value).getTime());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return new Date(in.getLong());
+            }
+        },
+
+        TIME(Time.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeLong(((Time) value).getTime());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return new Time(in.getLong());
+            }
+        },
+
+        LOCAL_DATE_TIME(LocalDateTime.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                out.writeLong(dateTime.toLocalDate().toEpochDay());
+                out.writeLong(dateTime.toLocalTime().toNanoOfDay());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return LocalDateTime.of(LocalDate.ofEpochDay(in.getLong()), LocalTime.ofNanoOfDay(in.getLong()));
+            }
+        },
+
+        LOCAL_DATE(LocalDate.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeLong(((LocalDate) value).toEpochDay());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return LocalDate.ofEpochDay(in.getLong());
+            }
+        },
+
+        LOCAL_TIME(LocalTime.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeLong(((LocalTime) value).toNanoOfDay());
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return LocalTime.ofNanoOfDay(in.getLong());
+            }
+        },
+
+        BYTES(byte[].class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                writeBytes(out, (byte[]) value);
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                return readBytes(in);
+            }
+        },
+
+        BLOB(SerialBlob.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException, SQLException {
+                SerialBlob blob = (SerialBlob) value;
+                writeBytes(out, blob.getBytes(1, (int) blob.length()));
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                try {
+                    return new SerialBlob(readBytes(in));
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        },
+
+        CLOB(SerialClob.class) {
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException, SQLException {
+                SerialClob clob = (SerialClob) value;
+                writeString(out, clob.getSubString(1, (int) clob.length()));
+            }
+
+            @Override
+            Object read(ByteBuffer in) {
+                try {
+                    return new SerialClob(readString(in).toCharArray());
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+
+        private static final Map<Class<?>, ColumnCodec> CODECS = new HashMap<>();
+
+        static {
+            for (ColumnCodec codec : values()) {
+                CODECS.put(codec.type, codec);
+            }
+        }
+
+        private final Class<?> type;
+
+        ColumnCodec(Class<?> type) {
+            this.type = type;
+        }
+
+        static ColumnCodec of(Object value) {
+            return CODECS.get(value.getClass());
+        }
+
+        abstract void write(DataOutputStream out, Object value) throws IOException, SQLException;
+
+        abstract Object read(ByteBuffer in);
+    }
+
+    private static class UnsupportedColumnException extends RuntimeException {
+
+        UnsupportedColumnException(String message) {
+            super(message);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.seata.rm.datasource;
 
 import com.alibaba.druid.mock.MockSavepoint;
 
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.rm.datasource.ConnectionContext;
 import org.apache.seata.rm.datasource.undo.SQLUndoLog;
 import org.junit.jupiter.api.AfterEach;
@@ -27,6 +28,8 @@ import org.junit.jupiter.api.Test;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.Savepoint;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -45,6 +48,20 @@ public class ConnectionContextProxyTest {
         Assertions.assertEquals(connectionContext.buildLockKeys(), "bcd;abc");
     }
 
+    @Test
+    public void testBuildRowLockKeys() {
+        Assertions.assertNull(connectionContext.buildRowLockKeys());
+        connectionContext.appendLockKey("t_user:1,2");
+        connectionContext.appendLockKey("t_order:1_a");
+
+        RowLockKeys rowLockKeys = connectionContext.buildRowLockKeys();
+        Assertions.assertEquals(3, rowLockKeys.getRowCount());
+        Assertions.assertEquals(Arrays.asList("1", "2"), rowLockKeys.getPksByTable().get("t_user"));
+        Assertions.assertEquals(Collections.singletonList("1_a"), rowLockKeys.getPksByTable().get("t_order"));
+        Assertions.assertEquals(RowLockKeys.parse(connectionContext.buildLockKeys()).getPksByTable(),
+            rowLockKeys.getPksByTable());
+    }
+
     @Test
     public void testAppendUndoItem() {
         SQLUndoLog sqlUndoLog = new SQLUndoLog();
@@ -58,6 +75,26 @@ public class ConnectionContextProxyTest {
         Assertions.assertSame(connectionContext.getUndoItems().get(1), sqlUndoLog1);
     }
 
+    @Test
+    public void testGetUndoItemContents() {
+        SQLUndoLog sqlUndoLog = new SQLUndoLog();
+        byte[] content = new byte[] {1};
+        connectionContext.appendUndoItem(sqlUndoLog, content);
+        Savepoint sp = new MockSavepoint();
+        connectionContext.appendSavepoint(sp);
+        connectionContext.appendUndoItem(new SQLUndoLog());
+
+        Assertions.assertNull(connectionContext.getUndoItemContents());
+
+        connectionContext.removeSavepoint(sp);
+        List<byte[]> contents = connectionContext.getUndoItemContents();
+        Assertions.assertEquals(1, contents.size());
+        Assertions.assertSame(content, contents.get(0));
+
+        connectionContext.reset();
+        Assertions.assertTrue(connectionContext.getUndoItemContents().isEmpty());
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testGetAfterSavepoints() throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
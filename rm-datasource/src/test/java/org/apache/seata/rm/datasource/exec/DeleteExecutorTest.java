@@ -17,8 +17,12 @@
 package org.apache.seata.rm.datasource.exec;
 
 import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.druid.mock.MockStatement;
@@ -31,8 +35,10 @@ import com.google.common.collect.Lists;
 import org.apache.seata.rm.datasource.ConnectionProxy;
 import org.apache.seata.rm.datasource.DataSourceProxy;
 import org.apache.seata.rm.datasource.DataSourceProxyTest;
+import org.apache.seata.rm.datasource.PreparedStatementProxy;
 import org.apache.seata.rm.datasource.StatementProxy;
 import org.apache.seata.rm.datasource.exec.DeleteExecutor;
+import org.apache.seata.rm.datasource.mock.MockConnection;
 import org.apache.seata.rm.datasource.mock.MockDriver;
 import org.apache.seata.rm.datasource.sql.struct.TableRecords;
 import org.apache.seata.sqlparser.druid.mysql.MySQLDeleteRecognizer;
@@ -47,6 +53,8 @@ public class DeleteExecutorTest {
 
     private static StatementProxy statementProxy;
 
+    private static MockDriver mockDriver;
+
     @BeforeAll
     public static void init() {
         List<String> returnValueColumnLabels = Lists.newArrayList("id", "name");
@@ -62,7 +70,7 @@ public class DeleteExecutorTest {
             new Object[] {"PRIMARY", "id", false, "", 3, 1, "A", 34},
         };
 
-        MockDriver mockDriver = new MockDriver(returnValueColumnLabels, returnValue, columnMetas, indexMetas);
+        mockDriver = new MockDriver(returnValueColumnLabels, returnValue, columnMetas, indexMetas);
         DruidDataSource dataSource = new DruidDataSource();
         dataSource.setUrl("jdbc:mock:xxx");
         dataSource.setDriver(mockDriver);
@@ -229,4 +237,54 @@ public class DeleteExecutorTest {
         Assertions.assertNotNull(afterImage);
     }
 
+    @Test
+    public void testBuildBeforeImageSQLOfBatch() throws SQLException {
+        String sql = "delete from table_delete_executor_test where id = ?";
+        PreparedStatementProxy preparedStatementProxy = createBatch(sql, 1, 2);
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLDeleteRecognizer recognizer = new MySQLDeleteRecognizer(sql, asts.get(0));
+        DeleteExecutor executor = new DeleteExecutor(preparedStatementProxy, (statement, args) -> null, recognizer);
+
+        ArrayList<List<Object>> paramAppenderList = new ArrayList<>();
+        String selectSQL = executor.buildBeforeImageSQL(recognizer, executor.getTableMeta(), paramAppenderList);
+        Assertions.assertTrue(selectSQL.contains(" WHERE (id) in ( (?),(?) ) FOR UPDATE"));
+        Assertions.assertEquals(Arrays.asList(Collections.singletonList(1), Collections.singletonList(2)), paramAppenderList);
+
+        // the column qualified by the table is still a primary key
+        sql = "delete from table_delete_executor_test t where t.id = ?";
+        preparedStatementProxy = createBatch(sql, 1, 2);
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        recognizer = new MySQLDeleteRecognizer(sql, asts.get(0));
+        executor = new DeleteExecutor(preparedStatementProxy, (statement, args) -> null, recognizer);
+
+        paramAppenderList = new ArrayList<>();
+        selectSQL = executor.buildBeforeImageSQL(recognizer, executor.getTableMeta(), paramAppenderList);
+        Assertions.assertTrue(selectSQL.contains(" WHERE (t.id) in ( (?),(?) ) FOR UPDATE"));
+        Assertions.assertEquals(2, paramAppenderList.size());
+
+        // the where condition not only of the primary keys is joined for each row
+        sql = "delete from table_delete_executor_test where id = ? or name = 'Tom'";
+        preparedStatementProxy = createBatch(sql, 1, 2);
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        recognizer = new MySQLDeleteRecognizer(sql, asts.get(0));
+        executor = new DeleteExecutor(preparedStatementProxy, (statement, args) -> null, recognizer);
+
+        paramAppenderList = new ArrayList<>();
+        selectSQL = executor.buildBeforeImageSQL(recognizer, executor.getTableMeta(), paramAppenderList);
+        Assertions.assertFalse(selectSQL.contains(" in ( "));
+        Assertions.assertTrue(selectSQL.contains(" or ( "));
+        Assertions.assertEquals(2, paramAppenderList.size());
+    }
+
+    private PreparedStatementProxy createBatch(String sql, int... ids) throws SQLException {
+        ConnectionProxy connectionProxy = statementProxy.getConnectionProxy();
+        PreparedStatement preparedStatement = mockDriver.createSeataMockPreparedStatement(
+            (MockConnection) connectionProxy.getTargetConnection(), sql);
+        PreparedStatementProxy preparedStatementProxy = new PreparedStatementProxy(connectionProxy, preparedStatement, sql);
+        for (int id : ids) {
+            preparedStatementProxy.setInt(1, id);
+            preparedStatementProxy.addBatch();
+        }
+        return preparedStatementProxy;
+    }
 }
@@ -17,8 +17,12 @@
 package org.apache.seata.rm.datasource.exec;
 
 import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.druid.mock.MockStatement;
@@ -32,10 +36,15 @@ import com.google.common.collect.Lists;
 import org.apache.seata.rm.datasource.ConnectionProxy;
 import org.apache.seata.rm.datasource.DataSourceProxy;
 import org.apache.seata.rm.datasource.DataSourceProxyTest;
+import org.apache.seata.rm.datasource.PreparedStatementProxy;
+import org.apache.seata.common.util.ReflectionUtil;
 import org.apache.seata.rm.datasource.StatementProxy;
 import org.apache.seata.rm.datasource.exec.UpdateExecutor;
+import org.apache.seata.rm.datasource.mock.MockConnection;
 import org.apache.seata.rm.datasource.mock.MockDriver;
+import org.apache.seata.rm.datasource.sql.struct.Row;
 import org.apache.seata.rm.datasource.sql.struct.TableRecords;
+import org.apache.seata.sqlparser.struct.ColumnMeta;
 import org.apache.seata.sqlparser.druid.mysql.MySQLUpdateRecognizer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -48,6 +57,8 @@ public class UpdateExecutorTest {
 
     private static StatementProxy statementProxy;
 
+    private static MockDriver mockDriver;
+
     @BeforeAll
     public static void init() {
         List<String> returnValueColumnLabels = Lists.newArrayList("id", "name", "all", "updated");
@@ -68,7 +79,7 @@ public class UpdateExecutorTest {
             new Object[]{0, "updated", Types.INTEGER, "INTEGER", 64, 10, 0, 0}
         };
 
-        MockDriver mockDriver = new MockDriver(returnValueColumnLabels, returnValue, columnMetas, indexMetas, null, onUpdateColumnsReturnValue, new Object[][]{});
+        mockDriver = new MockDriver(returnValueColumnLabels, returnValue, columnMetas, indexMetas, null, onUpdateColumnsReturnValue, new Object[][]{});
         DruidDataSource dataSource = new DruidDataSource();
         dataSource.setUrl("jdbc:mock:xxx");
         dataSource.setDriver(mockDriver);
@@ -265,4 +276,97 @@ public class UpdateExecutorTest {
         Assertions.assertNotNull(beforeImage);
         Assertions.assertNotNull(afterImage);
     }
+
+    @Test
+    public void testBuildBeforeImageSQLOfBatch() throws SQLException {
+        String sql = "update table_update_executor_test set name = ? where id = ?";
+        PreparedStatementProxy preparedStatementProxy = createBatch(sql);
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLUpdateRecognizer recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        UpdateExecutor executor = new UpdateExecutor(preparedStatementProxy, (statement, args) -> null, recognizer);
+
+        ArrayList<List<Object>> paramAppenderList = new ArrayList<>();
+        String selectSQL = executor.buildBeforeImageSQL(executor.getTableMeta(), paramAppenderList);
+        Assertions.assertTrue(selectSQL.contains(" WHERE (id) in ( (?),(?) ) FOR UPDATE"));
+        Assertions.assertEquals(Arrays.asList(Collections.singletonList(1), Collections.singletonList(2)), paramAppenderList);
+
+        // the where condition not only of the primary keys is joined for each row
+        sql = "update table_update_executor_test set name = ? where updated = ?";
+        preparedStatementProxy = createBatch(sql);
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        executor = new UpdateExecutor(preparedStatementProxy, (statement, args) -> null, recognizer);
+
+        paramAppenderList = new ArrayList<>();
+        selectSQL = executor.buildBeforeImageSQL(executor.getTableMeta(), paramAppenderList);
+        Assertions.assertTrue(selectSQL.contains(" ( updated = ? )  or ( updated = ? ) "));
+        Assertions.assertEquals(2, paramAppenderList.size());
+    }
+
+    private PreparedStatementProxy createBatch(String sql) throws SQLException {
+        ConnectionProxy connectionProxy = statementProxy.getConnectionProxy();
+        PreparedStatement preparedStatement = mockDriver.createSeataMockPreparedStatement(
+            (MockConnection) connectionProxy.getTargetConnection(), sql);
+        PreparedStatementProxy preparedStatementProxy = new PreparedStatementProxy(connectionProxy, preparedStatement, sql);
+        preparedStatementProxy.setString(1, "Tom");
+        preparedStatementProxy.setInt(2, 1);
+        preparedStatementProxy.addBatch();
+        preparedStatementProxy.setString(1, "Jack");
+        preparedStatementProxy.setInt(2, 2);
+        preparedStatementProxy.addBatch();
+        return preparedStatementProxy;
+    }
+
+    @Test
+    public void testDeriveAfterImage() throws Exception {
+        String sql = "update table_update_executor_test set name = 'WILL', updated = 1 where id = 1";
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLUpdateRecognizer recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        UpdateExecutor executor = new UpdateExecutor(statementProxy, (statement, args) -> null, recognizer);
+
+        TableRecords beforeImage = executor.beforeImage();
+        TableRecords afterImage = executor.deriveAfterImage(executor.getTableMeta(), beforeImage);
+        Assertions.assertNotNull(afterImage);
+        Assertions.assertEquals(beforeImage.size(), afterImage.size());
+        for (int i = 0; i < afterImage.size(); i++) {
+            Row beforeRow = beforeImage.getRows().get(i);
+            Row afterRow = afterImage.getRows().get(i);
+            Assertions.assertEquals(beforeRow.primaryKeys().get(0).getValue(), afterRow.primaryKeys().get(0).getValue());
+            for (org.apache.seata.rm.datasource.sql.struct.Field field : afterRow.getFields()) {
+                if ("name".equalsIgnoreCase(field.getName())) {
+                    Assertions.assertEquals("WILL", field.getValue());
+                } else if ("updated".equalsIgnoreCase(field.getName())) {
+                    Assertions.assertEquals(1, field.getValue());
+                }
+            }
+        }
+
+        // the on update column is updated by the database
+        sql = "update table_update_executor_test set name = 'WILL' where id = 1";
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        executor = new UpdateExecutor(statementProxy, (statement, args) -> null, new MySQLUpdateRecognizer(sql, asts.get(0)));
+        Assertions.assertNull(executor.deriveAfterImage(executor.getTableMeta(), executor.beforeImage()));
+
+        // the expression is evaluated by the database
+        sql = "update table_update_executor_test set name = concat(name, 'x'), updated = 1 where id = 1";
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        executor = new UpdateExecutor(statementProxy, (statement, args) -> null, new MySQLUpdateRecognizer(sql, asts.get(0)));
+        Assertions.assertNull(executor.deriveAfterImage(executor.getTableMeta(), executor.beforeImage()));
+
+        // the string is not read back as an integer
+        sql = "update table_update_executor_test set name = 'WILL', updated = '1' where id = 1";
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        executor = new UpdateExecutor(statementProxy, (statement, args) -> null, new MySQLUpdateRecognizer(sql, asts.get(0)));
+        Assertions.assertNull(executor.deriveAfterImage(executor.getTableMeta(), executor.beforeImage()));
+        // a mediumint is reported as an integer, but the database clamps the values out of its range
+        Class<?>[] parameterTypes = new Class<?>[] {ColumnMeta.class, Object.class};
+        ColumnMeta columnMeta = new ColumnMeta();
+        columnMeta.setDataType(Types.INTEGER);
+        columnMeta.setDataTypeName("INT");
+        Assertions.assertEquals(true, ReflectionUtil.invokeMethod(executor, "isDerivable", parameterTypes,
+            columnMeta, 16777216));
+        columnMeta.setDataTypeName("MEDIUMINT");
+        Assertions.assertEquals(false, ReflectionUtil.invokeMethod(executor, "isDerivable", parameterTypes,
+            columnMeta, 16777216));
+    }
 }
@@ -45,6 +45,8 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
 /**
  * The type Sql visitor factory test.
  */
@@ -318,4 +320,26 @@ public class SQLVisitorFactoryTest {
         Assertions.assertEquals(SQLType.UPDATE, recognizer.getSQLType());
         Assertions.assertEquals("t1", recognizer.getTableName());
     }
+
+    @Test
+    public void testRecognizerCache() {
+        SQLVisitorFactory.invalidateCache();
+        CacheStats before = SQLVisitorFactory.getCacheStats();
+        String sql = "update t2 set name = ? where id = ?";
+        List<SQLRecognizer> recognizers = SQLVisitorFactory.get(sql, JdbcConstants.MYSQL);
+        Assertions.assertSame(recognizers, SQLVisitorFactory.get(sql, JdbcConstants.MYSQL));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> recognizers.add(recognizers.get(0)));
+
+        // keyed by the db type as well
+        List<SQLRecognizer> oracleRecognizers = SQLVisitorFactory.get(sql, JdbcConstants.ORACLE);
+        Assertions.assertEquals(OracleUpdateRecognizer.class, oracleRecognizers.get(0).getClass());
+
+        // the sql without recognizers is cached too
+        Assertions.assertNull(SQLVisitorFactory.get("select * from t2", JdbcConstants.MYSQL));
+        Assertions.assertNull(SQLVisitorFactory.get("select * from t2", JdbcConstants.MYSQL));
+
+        CacheStats stats = SQLVisitorFactory.getCacheStats().minus(before);
+        Assertions.assertEquals(2, stats.hitCount());
+        Assertions.assertEquals(3, stats.missCount());
+    }
 }
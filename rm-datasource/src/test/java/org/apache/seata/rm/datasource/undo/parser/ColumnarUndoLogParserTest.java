@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.rm.datasource.undo.parser;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.seata.common.loader.EnhancedServiceLoader;
+import org.apache.seata.rm.datasource.sql.struct.Field;
+import org.apache.seata.rm.datasource.sql.struct.KeyType;
+import org.apache.seata.rm.datasource.sql.struct.Row;
+import org.apache.seata.rm.datasource.sql.struct.TableRecords;
+import org.apache.seata.rm.datasource.undo.BaseUndoLogParserTest;
+import org.apache.seata.rm.datasource.undo.BranchUndoLog;
+import org.apache.seata.rm.datasource.undo.SQLUndoLog;
+import org.apache.seata.rm.datasource.undo.UndoLogParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class ColumnarUndoLogParserTest extends BaseUndoLogParserTest {
+
+    ColumnarUndoLogParser parser = (ColumnarUndoLogParser) EnhancedServiceLoader.load(UndoLogParser.class, ColumnarUndoLogParser.NAME);
+
+    @Override
+    public UndoLogParser getParser() {
+        return parser;
+    }
+
+    @Test
+    public void testDecodeRowsLazily() {
+        List<Row> rows = new ArrayList<>();
+        rows.add(buildRow(1L, "aaa", new BigDecimal("1.10")));
+        rows.add(buildRow(2L, null, new BigDecimal("-22222222222222222222.22")));
+        BranchUndoLog branchUndoLog = buildBranchUndoLog(rows);
+
+        BranchUndoLog decoded = parser.decode(parser.encode(branchUndoLog));
+        ColumnarUndoLogParser.ColumnarTableRecords image =
+            (ColumnarUndoLogParser.ColumnarTableRecords) decoded.getSqlUndoLogs().get(0).getAfterImage();
+        Assertions.assertEquals("test", image.getTableName());
+        Assertions.assertEquals(2, image.size());
+        Assertions.assertFalse(image.isDecoded());
+
+        List<Row> decodedRows = image.getRows();
+        Assertions.assertTrue(image.isDecoded());
+        Assertions.assertEquals(2, decodedRows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<Field> fields = rows.get(i).getFields();
+            List<Field> decodedFields = decodedRows.get(i).getFields();
+            for (int j = 0; j < fields.size(); j++) {
+                Assertions.assertEquals(fields.get(j).getName(), decodedFields.get(j).getName());
+                Assertions.assertEquals(fields.get(j).getType(), decodedFields.get(j).getType());
+                Assertions.assertEquals(fields.get(j).getKeyType(), decodedFields.get(j).getKeyType());
+                Assertions.assertEquals(fields.get(j).getValue(), decodedFields.get(j).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeMixedValuesByJackson() {
+        List<Row> rows = new ArrayList<>();
+        rows.add(buildRow(1L, "aaa", BigDecimal.ONE));
+        Row row = buildRow(2L, "bbb", BigDecimal.ONE);
+        row.getFields().get(0).setValue(2);
+        rows.add(row);
+        BranchUndoLog branchUndoLog = buildBranchUndoLog(rows);
+
+        BranchUndoLog decoded = parser.decode(parser.encode(branchUndoLog));
+        TableRecords image = decoded.getSqlUndoLogs().get(0).getAfterImage();
+        Assertions.assertFalse(image instanceof ColumnarUndoLogParser.ColumnarTableRecords);
+        Assertions.assertEquals(2, image.size());
+        Assertions.assertEquals("bbb", image.getRows().get(1).getFields().get(1).getValue());
+    }
+
+    @Test
+    public void testEncodeIncrementally() {
+        List<Row> rows = new ArrayList<>();
+        rows.add(buildRow(1L, "aaa", BigDecimal.ONE));
+        BranchUndoLog branchUndoLog = buildBranchUndoLog(rows);
+
+        List<byte[]> contents = new ArrayList<>();
+        for (SQLUndoLog sqlUndoLog : branchUndoLog.getSqlUndoLogs()) {
+            contents.add(parser.encode(sqlUndoLog));
+        }
+        byte[] bytes = parser.encode(branchUndoLog.getXid(), branchUndoLog.getBranchId(), contents);
+        Assertions.assertArrayEquals(parser.encode(branchUndoLog), bytes);
+
+        BranchUndoLog decoded = parser.decode(bytes);
+        Assertions.assertEquals(branchUndoLog.getXid(), decoded.getXid());
+        Assertions.assertEquals("aaa", decoded.getSqlUndoLogs().get(0).getAfterImage().getRows().get(0).getFields().get(1).getValue());
+
+        rows.add(buildRow(2L, "bbb", BigDecimal.ONE));
+        rows.get(1).getFields().get(0).setValue(2);
+        Assertions.assertNull(parser.encode(buildBranchUndoLog(rows).getSqlUndoLogs().get(0)));
+    }
+
+    private Row buildRow(long id, String name, BigDecimal amount) {
+        Row row = new Row();
+        Field idField = new Field("id", JDBCType.BIGINT.getVendorTypeNumber(), id);
+        idField.setKeyType(KeyType.PRIMARY_KEY);
+        row.add(idField);
+        row.add(new Field("name", JDBCType.VARCHAR.getVendorTypeNumber(), name));
+        row.add(new Field("amount", JDBCType.DECIMAL.getVendorTypeNumber(), amount));
+        return row;
+    }
+
+    private BranchUndoLog buildBranchUndoLog(List<Row> rows) {
+        TableRecords afterImage = new TableRecords();
+        afterImage.setTableName("test");
+        afterImage.setRows(new ArrayList<>(rows));
+        SQLUndoLog sqlUndoLog = new SQLUndoLog();
+        sqlUndoLog.setTableName("test");
+        sqlUndoLog.setBeforeImage(new TableRecords.EmptyTableRecords());
+        sqlUndoLog.setAfterImage(afterImage);
+        BranchUndoLog branchUndoLog = new BranchUndoLog();
+        branchUndoLog.setXid("192.168.0.1:8091:123456");
+        branchUndoLog.setBranchId(123457);
+        branchUndoLog.setSqlUndoLogs(Collections.singletonList(sqlUndoLog));
+        return branchUndoLog;
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.exception.RmTransactionException;
 import org.apache.seata.core.exception.TransactionException;
 import org.apache.seata.core.exception.TransactionExceptionCode;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchStatus;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.model.GlobalStatus;
@@ -56,6 +57,9 @@ public abstract class AbstractResourceManager implements ResourceManager {
             DefaultValues.DEFAULT_APPLICATION_DATA_SIZE_LIMIT);
 
     private static boolean throwDataSizeExp = CONFIG.getBoolean(ConfigurationKeys.RM_APPLICATION_DATA_SIZE_CHECK, false);
+
+    private static boolean binaryLockKey = CONFIG.getBoolean(ConfigurationKeys.CLIENT_LOCK_BINARY_LOCK_KEY,
+            DefaultValues.DEFAULT_CLIENT_LOCK_BINARY_LOCK_KEY);
     /**
      * registry branch record
      *
@@ -69,12 +73,35 @@ public abstract class AbstractResourceManager implements ResourceManager {
      */
     @Override
     public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid, String applicationData, String lockKeys) throws TransactionException {
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData, lockKeys, null);
+    }
+
+    /**
+     * registry branch record, sending the row lock keys in their binary form when it is enabled and all the servers
+     * decode it
+     *
+     * @param branchType      the branch type
+     * @param resourceId      the resource id
+     * @param clientId        the client id
+     * @param xid             the xid
+     * @param applicationData the application data
+     * @param lockKeys        the lock keys
+     * @param rowLockKeys     the row lock keys the lock keys were built from, may be null
+     * @return branchId
+     * @throws TransactionException TransactionException
+     */
+    public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                               String applicationData, String lockKeys, RowLockKeys rowLockKeys)
+        throws TransactionException {
         try {
             StringUtils.checkDataSize(applicationData, "applicationData", appDataErrSize, throwDataSizeExp);
 
             BranchRegisterRequest request = new BranchRegisterRequest();
             request.setXid(xid);
             request.setLockKey(lockKeys);
+            if (rowLockKeys != null && binaryLockKey && RmNettyRemotingClient.getInstance().isBinaryLockKeySupported()) {
+                request.setRowLockKeys(rowLockKeys);
+            }
             request.setResourceId(resourceId);
             request.setBranchType(branchType);
             request.setApplicationData(applicationData);
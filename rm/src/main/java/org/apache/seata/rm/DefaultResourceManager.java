@@ -25,6 +25,7 @@ import org.apache.seata.common.exception.FrameworkException;
 import org.apache.seata.common.loader.EnhancedServiceLoader;
 import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchStatus;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.model.GlobalStatus;
@@ -98,6 +99,30 @@ public class DefaultResourceManager implements ResourceManager {
             lockKeys);
     }
 
+    /**
+     * Branch register, with the row lock keys the lock keys were built from.
+     *
+     * @param branchType      the branch type
+     * @param resourceId      the resource id
+     * @param clientId        the client id
+     * @param xid             the xid
+     * @param applicationData the application data
+     * @param lockKeys        the lock keys
+     * @param rowLockKeys     the row lock keys
+     * @return the branch id
+     * @throws TransactionException the transaction exception
+     */
+    public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                               String applicationData, String lockKeys, RowLockKeys rowLockKeys)
+        throws TransactionException {
+        ResourceManager resourceManager = getResourceManager(branchType);
+        if (resourceManager instanceof AbstractResourceManager) {
+            return ((AbstractResourceManager) resourceManager).branchRegister(branchType, resourceId, clientId, xid,
+                applicationData, lockKeys, rowLockKeys);
+        }
+        return resourceManager.branchRegister(branchType, resourceId, clientId, xid, applicationData, lockKeys);
+    }
+
     @Override
     public void branchReport(BranchType branchType, String xid, long branchId, BranchStatus status,
                              String applicationData) throws TransactionException {
@@ -19,9 +19,11 @@ package org.apache.seata.spring.boot.autoconfigure.properties.client;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_BINARY_LOCK_KEY;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_RETRY_INTERVAL;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_RETRY_POLICY_BRANCH_ROLLBACK_ON_CONFLICT;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_RETRY_TIMES;
+import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_LOCK_WAIT_TIMEOUT;
 import static org.apache.seata.spring.boot.autoconfigure.StarterConstants.LOCK_PREFIX;
 
 
@@ -31,6 +33,8 @@ public class LockProperties {
     private int retryInterval = DEFAULT_CLIENT_LOCK_RETRY_INTERVAL;
     private int retryTimes = DEFAULT_CLIENT_LOCK_RETRY_TIMES;
     private boolean retryPolicyBranchRollbackOnConflict = DEFAULT_CLIENT_LOCK_RETRY_POLICY_BRANCH_ROLLBACK_ON_CONFLICT;
+    private int waitTimeout = DEFAULT_CLIENT_LOCK_WAIT_TIMEOUT;
+    private boolean binaryLockKey = DEFAULT_CLIENT_LOCK_BINARY_LOCK_KEY;
 
     public int getRetryInterval() {
         return retryInterval;
@@ -58,4 +62,22 @@ public class LockProperties {
         this.retryPolicyBranchRollbackOnConflict = retryPolicyBranchRollbackOnConflict;
         return this;
     }
+
+    public int getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public LockProperties setWaitTimeout(int waitTimeout) {
+        this.waitTimeout = waitTimeout;
+        return this;
+    }
+
+    public boolean isBinaryLockKey() {
+        return binaryLockKey;
+    }
+
+    public LockProperties setBinaryLockKey(boolean binaryLockKey) {
+        this.binaryLockKey = binaryLockKey;
+        return this;
+    }
 }
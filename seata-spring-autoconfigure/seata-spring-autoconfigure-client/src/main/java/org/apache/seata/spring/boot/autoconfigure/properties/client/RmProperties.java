@@ -28,6 +28,7 @@ import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_SAGA_COMPENSA
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_SAGA_RETRY_PERSIST_MODE_UPDATE;
 import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_TABLE_META_CHECK_ENABLE;
 import static org.apache.seata.common.DefaultValues.DEFAULT_SAGA_JSON_PARSER;
+import static org.apache.seata.common.DefaultValues.DEFAULT_SQL_RECOGNIZER_CACHE_SIZE;
 import static org.apache.seata.common.DefaultValues.DEFAULT_TABLE_META_CHECKER_INTERVAL;
 import static org.apache.seata.common.DefaultValues.TCC_ACTION_INTERCEPTOR_ORDER;
 import static org.apache.seata.common.DefaultValues.DEFAULT_XA_BRANCH_EXECUTION_TIMEOUT;
@@ -52,6 +53,7 @@ public class RmProperties {
     private int branchExecutionTimeoutXA = DEFAULT_XA_BRANCH_EXECUTION_TIMEOUT;
     private int connectionTwoPhaseHoldTimeoutXA = DEFAULT_XA_CONNECTION_TWO_PHASE_HOLD_TIMEOUT;
     private String sqlParserType = SqlParserType.SQL_PARSER_TYPE_DRUID;
+    private long sqlRecognizerCacheSize = DEFAULT_SQL_RECOGNIZER_CACHE_SIZE;
 
     private Boolean applicationDataLimitCheck = false;
     private Integer applicationDataLimit = DEFAULT_APPLICATION_DATA_SIZE_LIMIT;
@@ -151,6 +153,15 @@ public class RmProperties {
         return this;
     }
 
+    public long getSqlRecognizerCacheSize() {
+        return sqlRecognizerCacheSize;
+    }
+
+    public RmProperties setSqlRecognizerCacheSize(long sqlRecognizerCacheSize) {
+        this.sqlRecognizerCacheSize = sqlRecognizerCacheSize;
+        return this;
+    }
+
     public int getBranchExecutionTimeoutXA() {
         return branchExecutionTimeoutXA;
     }
@@ -32,5 +32,11 @@ public class LockPropertiesTest {
 
         lockProperties.setRetryPolicyBranchRollbackOnConflict(true);
         Assertions.assertEquals(true, lockProperties.isRetryPolicyBranchRollbackOnConflict());
+
+        lockProperties.setWaitTimeout(1000);
+        Assertions.assertEquals(1000, lockProperties.getWaitTimeout());
+
+        lockProperties.setBinaryLockKey(true);
+        Assertions.assertTrue(lockProperties.isBinaryLockKey());
     }
 }
@@ -57,6 +57,9 @@ public class RmPropertiesTest {
         rmProperties.setSqlParserType("type");
         Assertions.assertEquals("type", rmProperties.getSqlParserType());
 
+        rmProperties.setSqlRecognizerCacheSize(1024L);
+        Assertions.assertEquals(1024L, rmProperties.getSqlRecognizerCacheSize());
+
         rmProperties.setBranchExecutionTimeoutXA(1);
         Assertions.assertEquals(1, rmProperties.getBranchExecutionTimeoutXA());
 
@@ -35,5 +35,8 @@ public class UndoPropertiesTest {
 
         undoProperties.setOnlyCareUpdateColumns(true);
         Assertions.assertTrue(undoProperties.isOnlyCareUpdateColumns());
+
+        undoProperties.setDeriveAfterImage(true);
+        Assertions.assertTrue(undoProperties.isDeriveAfterImage());
     }
 }
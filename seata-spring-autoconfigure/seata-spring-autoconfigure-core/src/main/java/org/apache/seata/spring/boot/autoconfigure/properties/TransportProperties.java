@@ -19,7 +19,11 @@ package org.apache.seata.spring.boot.autoconfigure.properties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import static org.apache.seata.common.DefaultValues.DEFAULT_CLIENT_CONNECTIONS_PER_SERVER;
+import static org.apache.seata.common.DefaultValues.DEFAULT_COMPRESSOR_MIN_BYTES;
+import static org.apache.seata.common.DefaultValues.DEFAULT_COMPRESSOR_ZSTD_LEVEL;
 import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST;
+import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_HEAD_MAP_DICTIONARY;
 import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_RM_CLIENT_BATCH_SEND_REQUEST;
 import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_TC_SERVER_BATCH_SEND_RESPONSE;
 import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_TM_CLIENT_BATCH_SEND_REQUEST;
@@ -54,6 +58,26 @@ public class TransportProperties {
      */
     private String compressor = "none";
 
+    /**
+     * the size from which the bodies are compressed
+     */
+    private int compressorMinBytes = DEFAULT_COMPRESSOR_MIN_BYTES;
+
+    /**
+     * the compressors of message types, e.g. 11:zstd,1:none
+     */
+    private String compressorMessageTypes;
+
+    /**
+     * the path of a trained zstd dictionary
+     */
+    private String compressorZstdDictionary;
+
+    /**
+     * the compression level of zstd
+     */
+    private int compressorZstdLevel = DEFAULT_COMPRESSOR_ZSTD_LEVEL;
+
     /**
      * enable client batch send request
      */
@@ -69,11 +93,21 @@ public class TransportProperties {
      */
     private boolean enableRmClientBatchSendRequest = DEFAULT_ENABLE_RM_CLIENT_BATCH_SEND_REQUEST;
 
+    /**
+     * the number of connections a client keeps to each server
+     */
+    private int connectionsPerServer = DEFAULT_CLIENT_CONNECTIONS_PER_SERVER;
+
     /**
      * enable TC server batch send response
      */
     private boolean enableTcServerBatchSendResponse = DEFAULT_ENABLE_TC_SERVER_BATCH_SEND_RESPONSE;
 
+    /**
+     * send the repeated headers by id once the peer supports it
+     */
+    private boolean enableHeadMapDictionary = DEFAULT_ENABLE_HEAD_MAP_DICTIONARY;
+
     /**
      * rpcRmRequestTimeout
      */
@@ -135,6 +169,42 @@ public class TransportProperties {
         return this;
     }
 
+    public int getCompressorMinBytes() {
+        return compressorMinBytes;
+    }
+
+    public TransportProperties setCompressorMinBytes(int compressorMinBytes) {
+        this.compressorMinBytes = compressorMinBytes;
+        return this;
+    }
+
+    public String getCompressorMessageTypes() {
+        return compressorMessageTypes;
+    }
+
+    public TransportProperties setCompressorMessageTypes(String compressorMessageTypes) {
+        this.compressorMessageTypes = compressorMessageTypes;
+        return this;
+    }
+
+    public String getCompressorZstdDictionary() {
+        return compressorZstdDictionary;
+    }
+
+    public TransportProperties setCompressorZstdDictionary(String compressorZstdDictionary) {
+        this.compressorZstdDictionary = compressorZstdDictionary;
+        return this;
+    }
+
+    public int getCompressorZstdLevel() {
+        return compressorZstdLevel;
+    }
+
+    public TransportProperties setCompressorZstdLevel(int compressorZstdLevel) {
+        this.compressorZstdLevel = compressorZstdLevel;
+        return this;
+    }
+
     public boolean isEnableClientBatchSendRequest() {
         return enableClientBatchSendRequest;
     }
@@ -162,6 +232,15 @@ public class TransportProperties {
         return this;
     }
 
+    public int getConnectionsPerServer() {
+        return connectionsPerServer;
+    }
+
+    public TransportProperties setConnectionsPerServer(int connectionsPerServer) {
+        this.connectionsPerServer = connectionsPerServer;
+        return this;
+    }
+
     public boolean isEnableTcServerBatchSendResponse() {
         return enableTcServerBatchSendResponse;
     }
@@ -170,6 +249,15 @@ public class TransportProperties {
         this.enableTcServerBatchSendResponse = enableTcServerBatchSendResponse;
     }
 
+    public boolean isEnableHeadMapDictionary() {
+        return enableHeadMapDictionary;
+    }
+
+    public TransportProperties setEnableHeadMapDictionary(boolean enableHeadMapDictionary) {
+        this.enableHeadMapDictionary = enableHeadMapDictionary;
+        return this;
+    }
+
     public long getRpcRmRequestTimeout() {
         return rpcRmRequestTimeout;
     }
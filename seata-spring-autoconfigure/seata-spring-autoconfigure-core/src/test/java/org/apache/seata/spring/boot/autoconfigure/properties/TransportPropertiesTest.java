@@ -28,11 +28,17 @@ public class TransportPropertiesTest {
         transportProperties.setType("type");
         transportProperties.setSerialization("serialization");
         transportProperties.setCompressor("compressor");
+        transportProperties.setCompressorMinBytes(1024);
+        transportProperties.setCompressorMessageTypes("11:zstd");
+        transportProperties.setCompressorZstdDictionary("/tmp/seata.dict");
+        transportProperties.setCompressorZstdLevel(6);
         transportProperties.setHeartbeat(true);
         transportProperties.setEnableClientBatchSendRequest(true);
         transportProperties.setEnableRmClientBatchSendRequest(true);
         transportProperties.setEnableTmClientBatchSendRequest(true);
         transportProperties.setEnableTcServerBatchSendResponse(true);
+        transportProperties.setEnableHeadMapDictionary(false);
+        transportProperties.setConnectionsPerServer(4);
         transportProperties.setRpcRmRequestTimeout(1);
         transportProperties.setRpcTmRequestTimeout(1);
         transportProperties.setRpcTcRequestTimeout(1);
@@ -41,11 +47,17 @@ public class TransportPropertiesTest {
         Assertions.assertEquals("type", transportProperties.getType());
         Assertions.assertEquals("serialization", transportProperties.getSerialization());
         Assertions.assertEquals("compressor", transportProperties.getCompressor());
+        Assertions.assertEquals(1024, transportProperties.getCompressorMinBytes());
+        Assertions.assertEquals("11:zstd", transportProperties.getCompressorMessageTypes());
+        Assertions.assertEquals("/tmp/seata.dict", transportProperties.getCompressorZstdDictionary());
+        Assertions.assertEquals(6, transportProperties.getCompressorZstdLevel());
         Assertions.assertTrue(transportProperties.isHeartbeat());
         Assertions.assertTrue(transportProperties.isEnableClientBatchSendRequest());
         Assertions.assertTrue(transportProperties.isEnableRmClientBatchSendRequest());
         Assertions.assertTrue(transportProperties.isEnableTmClientBatchSendRequest());
         Assertions.assertTrue(transportProperties.isEnableTcServerBatchSendResponse());
+        Assertions.assertFalse(transportProperties.isEnableHeadMapDictionary());
+        Assertions.assertEquals(4, transportProperties.getConnectionsPerServer());
         Assertions.assertEquals(1, transportProperties.getRpcRmRequestTimeout());
         Assertions.assertEquals(1, transportProperties.getRpcTmRequestTimeout());
         Assertions.assertEquals(1, transportProperties.getRpcTcRequestTimeout());
@@ -30,7 +30,12 @@ public class ServerProperties {
     private Boolean rollbackRetryTimeoutUnlockEnable = false;
     private Boolean enableCheckAuth = true;
     private Boolean enableParallelRequestHandle = true;
+    private Integer parallelRequestHandleThreads = 16;
+    private Integer parallelRequestHandleQueueSize = 1024;
     private Boolean enableParallelHandleBranch = false;
+    private Integer parallelHandleBranchMaxInFlight = 16;
+    private Boolean enableBatchPhaseTwo = false;
+    private Integer batchPhaseTwoMaxSize = 200;
     private Integer retryDeadThreshold = 130000;
     private Integer servicePort;
     private Integer xaerNotaRetryTimeout = 60000;
@@ -38,6 +43,12 @@ public class ServerProperties {
     private Boolean applicationDataLimitCheck = false;
     private Integer applicationDataLimit = 64000;
 
+    private Boolean enableLockWait = false;
+    private long maxLockWaitTimeout = 5000L;
+
+    private Boolean enableVirtualThreads = false;
+    private Integer maxVirtualThreads = 10000;
+
     public long getMaxCommitRetryTimeout() {
         return maxCommitRetryTimeout;
     }
@@ -108,6 +119,22 @@ public class ServerProperties {
         this.enableParallelRequestHandle = enableParallelRequestHandle;
     }
 
+    public Integer getParallelRequestHandleThreads() {
+        return parallelRequestHandleThreads;
+    }
+
+    public void setParallelRequestHandleThreads(Integer parallelRequestHandleThreads) {
+        this.parallelRequestHandleThreads = parallelRequestHandleThreads;
+    }
+
+    public Integer getParallelRequestHandleQueueSize() {
+        return parallelRequestHandleQueueSize;
+    }
+
+    public void setParallelRequestHandleQueueSize(Integer parallelRequestHandleQueueSize) {
+        this.parallelRequestHandleQueueSize = parallelRequestHandleQueueSize;
+    }
+
     public Boolean getEnableParallelHandleBranch() {
         return enableParallelHandleBranch;
     }
@@ -116,6 +143,30 @@ public class ServerProperties {
         this.enableParallelHandleBranch = enableParallelHandleBranch;
     }
 
+    public Integer getParallelHandleBranchMaxInFlight() {
+        return parallelHandleBranchMaxInFlight;
+    }
+
+    public void setParallelHandleBranchMaxInFlight(Integer parallelHandleBranchMaxInFlight) {
+        this.parallelHandleBranchMaxInFlight = parallelHandleBranchMaxInFlight;
+    }
+
+    public Boolean getEnableBatchPhaseTwo() {
+        return enableBatchPhaseTwo;
+    }
+
+    public void setEnableBatchPhaseTwo(Boolean enableBatchPhaseTwo) {
+        this.enableBatchPhaseTwo = enableBatchPhaseTwo;
+    }
+
+    public Integer getBatchPhaseTwoMaxSize() {
+        return batchPhaseTwoMaxSize;
+    }
+
+    public void setBatchPhaseTwoMaxSize(Integer batchPhaseTwoMaxSize) {
+        this.batchPhaseTwoMaxSize = batchPhaseTwoMaxSize;
+    }
+
     public Boolean getApplicationDataLimitCheck() {
         return applicationDataLimitCheck;
     }
@@ -131,4 +182,40 @@ public class ServerProperties {
     public void setApplicationDataLimit(Integer applicationDataLimit) {
         this.applicationDataLimit = applicationDataLimit;
     }
+
+    public Boolean getEnableLockWait() {
+        return enableLockWait;
+    }
+
+    public ServerProperties setEnableLockWait(Boolean enableLockWait) {
+        this.enableLockWait = enableLockWait;
+        return this;
+    }
+
+    public long getMaxLockWaitTimeout() {
+        return maxLockWaitTimeout;
+    }
+
+    public ServerProperties setMaxLockWaitTimeout(long maxLockWaitTimeout) {
+        this.maxLockWaitTimeout = maxLockWaitTimeout;
+        return this;
+    }
+
+    public Boolean getEnableVirtualThreads() {
+        return enableVirtualThreads;
+    }
+
+    public ServerProperties setEnableVirtualThreads(Boolean enableVirtualThreads) {
+        this.enableVirtualThreads = enableVirtualThreads;
+        return this;
+    }
+
+    public Integer getMaxVirtualThreads() {
+        return maxVirtualThreads;
+    }
+
+    public ServerProperties setMaxVirtualThreads(Integer maxVirtualThreads) {
+        this.maxVirtualThreads = maxVirtualThreads;
+        return this;
+    }
 }
@@ -21,6 +21,8 @@ import org.springframework.stereotype.Component;
 
 import static org.apache.seata.common.DefaultValues.DEFAULT_ASYNC_COMMITTING_RETRY_PERIOD;
 import static org.apache.seata.common.DefaultValues.DEFAULT_COMMITING_RETRY_PERIOD;
+import static org.apache.seata.common.DefaultValues.DEFAULT_RECOVERY_TIMING_WHEEL_ENABLE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_RECOVERY_TIMING_WHEEL_TICK_DURATION;
 import static org.apache.seata.common.DefaultValues.DEFAULT_ROLLBACKING_RETRY_PERIOD;
 import static org.apache.seata.common.DefaultValues.DEFAULT_TIMEOUT_RETRY_PERIOD;
 import static org.apache.seata.spring.boot.autoconfigure.StarterConstants.SERVER_RECOVERY_PREFIX;
@@ -34,6 +36,8 @@ public class ServerRecoveryProperties {
     private long asyncCommittingRetryPeriod = DEFAULT_ASYNC_COMMITTING_RETRY_PERIOD;
     private long rollbackingRetryPeriod = DEFAULT_ROLLBACKING_RETRY_PERIOD;
     private long timeoutRetryPeriod = DEFAULT_TIMEOUT_RETRY_PERIOD;
+    private boolean timingWheelEnable = DEFAULT_RECOVERY_TIMING_WHEEL_ENABLE;
+    private long timingWheelTickDuration = DEFAULT_RECOVERY_TIMING_WHEEL_TICK_DURATION;
 
     public long getCommittingRetryPeriod() {
         return committingRetryPeriod;
@@ -70,4 +74,22 @@ public class ServerRecoveryProperties {
         this.timeoutRetryPeriod = timeoutRetryPeriod;
         return this;
     }
+
+    public boolean isTimingWheelEnable() {
+        return timingWheelEnable;
+    }
+
+    public ServerRecoveryProperties setTimingWheelEnable(boolean timingWheelEnable) {
+        this.timingWheelEnable = timingWheelEnable;
+        return this;
+    }
+
+    public long getTimingWheelTickDuration() {
+        return timingWheelTickDuration;
+    }
+
+    public ServerRecoveryProperties setTimingWheelTickDuration(long timingWheelTickDuration) {
+        this.timingWheelTickDuration = timingWheelTickDuration;
+        return this;
+    }
 }
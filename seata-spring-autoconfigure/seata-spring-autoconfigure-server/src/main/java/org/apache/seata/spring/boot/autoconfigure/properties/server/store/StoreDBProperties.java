@@ -22,6 +22,10 @@ import org.springframework.stereotype.Component;
 import static org.apache.seata.common.DefaultValues.DEFAULT_DB_MAX_CONN;
 import static org.apache.seata.common.DefaultValues.DEFAULT_DB_MIN_CONN;
 import static org.apache.seata.common.DefaultValues.DEFAULT_QUERY_LIMIT;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_BATCH_SIZE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_BATCH_WINDOW;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_CACHE_ENABLED;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_CACHE_TTL;
 import static org.apache.seata.spring.boot.autoconfigure.StarterConstants.STORE_DB_PREFIX;
 
 
@@ -43,6 +47,10 @@ public class StoreDBProperties {
     private String vgroupTable = "vgroup_table";
     private Integer queryLimit = DEFAULT_QUERY_LIMIT;
     private Long maxWait = 5000L;
+    private Integer lockBatchWindow = DEFAULT_STORE_DB_LOCK_BATCH_WINDOW;
+    private Integer lockBatchSize = DEFAULT_STORE_DB_LOCK_BATCH_SIZE;
+    private Boolean lockCacheEnabled = DEFAULT_STORE_DB_LOCK_CACHE_ENABLED;
+    private Long lockCacheTtl = DEFAULT_STORE_DB_LOCK_CACHE_TTL;
 
     public String getDatasource() {
         return datasource;
@@ -169,6 +177,42 @@ public class StoreDBProperties {
         return this;
     }
 
+    public Integer getLockBatchWindow() {
+        return lockBatchWindow;
+    }
+
+    public StoreDBProperties setLockBatchWindow(Integer lockBatchWindow) {
+        this.lockBatchWindow = lockBatchWindow;
+        return this;
+    }
+
+    public Integer getLockBatchSize() {
+        return lockBatchSize;
+    }
+
+    public StoreDBProperties setLockBatchSize(Integer lockBatchSize) {
+        this.lockBatchSize = lockBatchSize;
+        return this;
+    }
+
+    public Boolean getLockCacheEnabled() {
+        return lockCacheEnabled;
+    }
+
+    public StoreDBProperties setLockCacheEnabled(Boolean lockCacheEnabled) {
+        this.lockCacheEnabled = lockCacheEnabled;
+        return this;
+    }
+
+    public Long getLockCacheTtl() {
+        return lockCacheTtl;
+    }
+
+    public StoreDBProperties setLockCacheTtl(Long lockCacheTtl) {
+        this.lockCacheTtl = lockCacheTtl;
+        return this;
+    }
+
     public String getVgroupTable() {
         return vgroupTable;
     }
@@ -20,6 +20,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import static org.apache.seata.common.DefaultValues.DEFAULT_SERVICE_SESSION_RELOAD_READ_SIZE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_FILE_CHECKPOINT_PERIOD;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_FILE_LOCK_TABLE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_FILE_SEGMENT_SIZE;
 import static org.apache.seata.spring.boot.autoconfigure.StarterConstants.STORE_FILE_PREFIX;
 
 
@@ -32,6 +35,9 @@ public class StoreFileProperties {
     private Integer fileWriteBufferCacheSize = 16384;
     private Integer sessionReloadReadSize = DEFAULT_SERVICE_SESSION_RELOAD_READ_SIZE;
     private String flushDiskMode = "async";
+    private String lockTable = DEFAULT_STORE_FILE_LOCK_TABLE;
+    private Integer segmentSize = DEFAULT_STORE_FILE_SEGMENT_SIZE;
+    private Long checkpointPeriod = DEFAULT_STORE_FILE_CHECKPOINT_PERIOD;
 
     public String getDir() {
         return dir;
@@ -86,4 +92,31 @@ public class StoreFileProperties {
         this.flushDiskMode = flushDiskMode;
         return this;
     }
+
+    public String getLockTable() {
+        return lockTable;
+    }
+
+    public StoreFileProperties setLockTable(String lockTable) {
+        this.lockTable = lockTable;
+        return this;
+    }
+
+    public Integer getSegmentSize() {
+        return segmentSize;
+    }
+
+    public StoreFileProperties setSegmentSize(Integer segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public Long getCheckpointPeriod() {
+        return checkpointPeriod;
+    }
+
+    public StoreFileProperties setCheckpointPeriod(Long checkpointPeriod) {
+        this.checkpointPeriod = checkpointPeriod;
+        return this;
+    }
 }
@@ -48,6 +48,9 @@ public class ServerPropertiesTest {
     @Test
     public void testServerProperties() {
         assertFalse(context.getBean(ServerProperties.class).getRollbackRetryTimeoutUnlockEnable());
+        assertEquals(context.getBean(ServerProperties.class).getParallelHandleBranchMaxInFlight(), 16);
+        assertFalse(context.getBean(ServerProperties.class).getEnableBatchPhaseTwo());
+        assertEquals(context.getBean(ServerProperties.class).getBatchPhaseTwoMaxSize(), 200);
     }
 
     @Test
@@ -56,6 +59,8 @@ public class ServerPropertiesTest {
         assertEquals(context.getBean(ServerRecoveryProperties.class).getCommittingRetryPeriod(), 1000);
         assertEquals(context.getBean(ServerRecoveryProperties.class).getRollbackingRetryPeriod(), 1000);
         assertEquals(context.getBean(ServerRecoveryProperties.class).getTimeoutRetryPeriod(), 1000);
+        assertFalse(context.getBean(ServerRecoveryProperties.class).isTimingWheelEnable());
+        assertEquals(context.getBean(ServerRecoveryProperties.class).getTimingWheelTickDuration(), 100);
     }
 
     @Test
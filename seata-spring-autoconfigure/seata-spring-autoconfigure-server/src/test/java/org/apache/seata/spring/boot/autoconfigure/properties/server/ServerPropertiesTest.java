@@ -31,10 +31,16 @@ public class ServerPropertiesTest {
         serverProperties.setEnableCheckAuth(true);
         serverProperties.setApplicationDataLimitCheck(true);
         serverProperties.setEnableParallelHandleBranch(true);
+        serverProperties.setEnableBatchPhaseTwo(true);
+        serverProperties.setBatchPhaseTwoMaxSize(1);
         serverProperties.setEnableParallelRequestHandle(true);
+        serverProperties.setParallelRequestHandleThreads(1);
+        serverProperties.setParallelRequestHandleQueueSize(1);
         serverProperties.setRollbackRetryTimeoutUnlockEnable(true);
         serverProperties.setMaxCommitRetryTimeout(1L);
         serverProperties.setMaxRollbackRetryTimeout(1L);
+        serverProperties.setEnableVirtualThreads(true);
+        serverProperties.setMaxVirtualThreads(1);
 
         Assertions.assertEquals(1, serverProperties.getXaerNotaRetryTimeout());
         Assertions.assertEquals(1, serverProperties.getRetryDeadThreshold());
@@ -43,9 +49,15 @@ public class ServerPropertiesTest {
         Assertions.assertTrue(serverProperties.getEnableCheckAuth());
         Assertions.assertTrue(serverProperties.getApplicationDataLimitCheck());
         Assertions.assertTrue(serverProperties.getEnableParallelHandleBranch());
+        Assertions.assertTrue(serverProperties.getEnableBatchPhaseTwo());
+        Assertions.assertEquals(1, serverProperties.getBatchPhaseTwoMaxSize());
         Assertions.assertTrue(serverProperties.getEnableParallelRequestHandle());
+        Assertions.assertEquals(1, serverProperties.getParallelRequestHandleThreads());
+        Assertions.assertEquals(1, serverProperties.getParallelRequestHandleQueueSize());
         Assertions.assertTrue(serverProperties.getRollbackRetryTimeoutUnlockEnable());
         Assertions.assertEquals(1L, serverProperties.getMaxCommitRetryTimeout());
         Assertions.assertEquals(1L, serverProperties.getMaxRollbackRetryTimeout());
+        Assertions.assertTrue(serverProperties.getEnableVirtualThreads());
+        Assertions.assertEquals(1, serverProperties.getMaxVirtualThreads());
     }
 }
@@ -38,6 +38,10 @@ public class StoreDBPropertiesTest {
         storeDBProperties.setMaxConn(1);
         storeDBProperties.setQueryLimit(1);
         storeDBProperties.setMaxWait(1L);
+        storeDBProperties.setLockBatchWindow(2);
+        storeDBProperties.setLockBatchSize(64);
+        storeDBProperties.setLockCacheEnabled(true);
+        storeDBProperties.setLockCacheTtl(500L);
 
         Assertions.assertEquals("url", storeDBProperties.getUrl());
         Assertions.assertEquals("user", storeDBProperties.getUser());
@@ -53,5 +57,9 @@ public class StoreDBPropertiesTest {
         Assertions.assertEquals(1, storeDBProperties.getMaxConn());
         Assertions.assertEquals(1, storeDBProperties.getQueryLimit());
         Assertions.assertEquals(1L, storeDBProperties.getMaxWait());
+        Assertions.assertEquals(2, storeDBProperties.getLockBatchWindow());
+        Assertions.assertEquals(64, storeDBProperties.getLockBatchSize());
+        Assertions.assertTrue(storeDBProperties.getLockCacheEnabled());
+        Assertions.assertEquals(500L, storeDBProperties.getLockCacheTtl());
     }
 }
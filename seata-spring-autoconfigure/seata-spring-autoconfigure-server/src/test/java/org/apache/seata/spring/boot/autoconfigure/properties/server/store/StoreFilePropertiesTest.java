@@ -30,6 +30,9 @@ public class StoreFilePropertiesTest {
         storeFileProperties.setMaxBranchSessionSize(1);
         storeFileProperties.setMaxGlobalSessionSize(1);
         storeFileProperties.setSessionReloadReadSize(1);
+        storeFileProperties.setLockTable("compact");
+        storeFileProperties.setSegmentSize(1);
+        storeFileProperties.setCheckpointPeriod(1L);
 
         Assertions.assertEquals("dir", storeFileProperties.getDir());
         Assertions.assertEquals("disk", storeFileProperties.getFlushDiskMode());
@@ -37,5 +40,8 @@ public class StoreFilePropertiesTest {
         Assertions.assertEquals(1, storeFileProperties.getMaxGlobalSessionSize());
         Assertions.assertEquals(1, storeFileProperties.getMaxBranchSessionSize());
         Assertions.assertEquals(1, storeFileProperties.getSessionReloadReadSize());
+        Assertions.assertEquals("compact", storeFileProperties.getLockTable());
+        Assertions.assertEquals(1, storeFileProperties.getSegmentSize());
+        Assertions.assertEquals(1L, storeFileProperties.getCheckpointPeriod());
     }
 }
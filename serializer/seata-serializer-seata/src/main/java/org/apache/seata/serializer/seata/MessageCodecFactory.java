@@ -19,6 +19,7 @@ package org.apache.seata.serializer.seata;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
+import org.apache.seata.serializer.seata.protocol.BatchPhaseTwoMessageCodec;
 import org.apache.seata.serializer.seata.protocol.BatchResultMessageCodec;
 import org.apache.seata.serializer.seata.protocol.MergeResultMessageCodec;
 import org.apache.seata.serializer.seata.protocol.MergedWarpMessageCodec;
@@ -48,6 +49,7 @@ import org.apache.seata.serializer.seata.protocol.transaction.GlobalStatusReques
 import org.apache.seata.serializer.seata.protocol.transaction.GlobalStatusResponseCodec;
 import org.apache.seata.serializer.seata.protocol.transaction.UndoLogDeleteRequestCodec;
 import org.apache.seata.core.protocol.AbstractMessage;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
 import org.apache.seata.core.protocol.BatchResultMessage;
 import org.apache.seata.core.protocol.MergeResultMessage;
 import org.apache.seata.core.protocol.MergedWarpMessage;
@@ -137,6 +139,9 @@ public class MessageCodecFactory {
             case MessageType.TYPE_BATCH_RESULT_MSG:
                 msgCodec = new BatchResultMessageCodec(version);
                 break;
+            case MessageType.TYPE_BATCH_PHASE_TWO_MSG:
+                msgCodec = new BatchPhaseTwoMessageCodec(version);
+                break;
             case MessageType.TYPE_GLOBAL_BEGIN:
                 msgCodec = new GlobalBeginRequestCodec();
                 break;
@@ -247,6 +252,9 @@ public class MessageCodecFactory {
             case MessageType.TYPE_BATCH_RESULT_MSG:
                 abstractMessage = new BatchResultMessage();
                 break;
+            case MessageType.TYPE_BATCH_PHASE_TWO_MSG:
+                abstractMessage = new BatchPhaseTwoMessage();
+                break;
             case MessageType.TYPE_GLOBAL_BEGIN:
                 abstractMessage = new GlobalBeginRequest();
                 break;
@@ -55,6 +55,20 @@ public class SeataSerializer implements Serializer {
         return versionSeataSerializer.deserialize(bytes);
     }
 
+    @Override
+    public boolean isByteBufSupported() {
+        return versionSeataSerializer.isByteBufSupported();
+    }
+
+    @Override
+    public <T> void serialize(T t, ByteBuf out) {
+        versionSeataSerializer.serialize(t, out);
+    }
+
+    @Override
+    public <T> T deserialize(ByteBuf in) {
+        return versionSeataSerializer.deserialize(in);
+    }
 
     static class SeataSerializerV1 implements Serializer {
 
@@ -76,6 +90,25 @@ public class SeataSerializer implements Serializer {
 
         @Override
         public <T> byte[] serialize(T t) {
+            ByteBuf out = Unpooled.buffer(1024);
+            serialize(t, out);
+            byte[] content = new byte[out.readableBytes()];
+            out.readBytes(content);
+            return content;
+        }
+
+        @Override
+        public <T> T deserialize(byte[] bytes) {
+            return deserializeByVersion(bytes, ProtocolConstants.VERSION_1);
+        }
+
+        @Override
+        public boolean isByteBufSupported() {
+            return true;
+        }
+
+        @Override
+        public <T> void serialize(T t, ByteBuf out) {
             if (!(t instanceof AbstractMessage)) {
                 throw new IllegalArgumentException("AbstractMessage isn't available.");
             }
@@ -84,29 +117,25 @@ public class SeataSerializer implements Serializer {
             short typecode = abstractMessage.getTypeCode();
             //msg codec
             MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typecode, ProtocolConstants.VERSION_1);
-            //get empty ByteBuffer
-            ByteBuf out = Unpooled.buffer(1024);
-            //msg encode
-            messageCodec.encode(t, out);
-            byte[] body = new byte[out.readableBytes()];
-            out.readBytes(body);
-
-            ByteBuffer byteBuffer;
-
             //typecode + body
-            byteBuffer = ByteBuffer.allocate(2 + body.length);
-            byteBuffer.putShort(typecode);
-            byteBuffer.put(body);
-
-            BufferUtils.flip(byteBuffer);
-            byte[] content = new byte[byteBuffer.limit()];
-            byteBuffer.get(content);
-            return content;
+            out.writeShort(typecode);
+            messageCodec.encode(t, out);
         }
 
         @Override
-        public <T> T deserialize(byte[] bytes) {
-            return deserializeByVersion(bytes, ProtocolConstants.VERSION_1);
+        public <T> T deserialize(ByteBuf in) {
+            if (in.readableBytes() < 2) {
+                throw new IllegalArgumentException("The ByteBuf isn't available for decode.");
+            }
+            //typecode
+            short typecode = in.readShort();
+            //a view of the body, without copying it
+            ByteBuffer body = in.nioBuffer();
+            AbstractMessage abstractMessage = MessageCodecFactory.getMessage(typecode);
+            MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typecode, ProtocolConstants.VERSION_1);
+            messageCodec.decode(abstractMessage, body);
+            in.skipBytes(in.readableBytes());
+            return (T) abstractMessage;
         }
     }
     static class SeataSerializerV0 implements Serializer {
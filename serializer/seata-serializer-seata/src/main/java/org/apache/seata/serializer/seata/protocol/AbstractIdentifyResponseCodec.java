@@ -48,6 +48,17 @@ public abstract class AbstractIdentifyResponseCodec extends AbstractResultMessag
         } else {
             out.writeShort((short)0);
         }
+
+        String extraData = abstractIdentifyResponse.getExtraData();
+        if (extraData != null) {
+            byte[] bs = extraData.getBytes(UTF8);
+            out.writeShort((short)bs.length);
+            if (bs.length > 0) {
+                out.writeBytes(bs);
+            }
+        } else {
+            out.writeShort((short)0);
+        }
     }
 
     @Override
@@ -56,15 +67,25 @@ public abstract class AbstractIdentifyResponseCodec extends AbstractResultMessag
 
         abstractIdentifyResponse.setIdentified(in.get() == 1);
         short len = in.getShort();
-        if (len <= 0) {
+        if (in.remaining() < len) {
             return;
         }
-        if (in.remaining() < len) {
+        if (len > 0) {
+            byte[] bs = new byte[len];
+            in.get(bs);
+            abstractIdentifyResponse.setVersion(new String(bs, UTF8));
+        }
+
+        //ExtraData, absent in the responses of servers before it was sent
+        if (in.remaining() < 2) {
             return;
         }
-        byte[] bs = new byte[len];
-        in.get(bs);
-        abstractIdentifyResponse.setVersion(new String(bs, UTF8));
+        len = in.getShort();
+        if (len > 0 && in.remaining() >= len) {
+            byte[] bs = new byte[len];
+            in.get(bs);
+            abstractIdentifyResponse.setExtraData(new String(bs, UTF8));
+        }
     }
 
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.serializer.seata.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.seata.common.util.BufferUtils;
+import org.apache.seata.core.protocol.AbstractMessage;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndRequest;
+import org.apache.seata.serializer.seata.MessageCodecFactory;
+import org.apache.seata.serializer.seata.MessageSeataCodec;
+
+/**
+ * the type batch phase two message codec
+ *
+ * @since 2.3.0
+ */
+public class BatchPhaseTwoMessageCodec extends AbstractMessageCodec {
+
+    private byte version;
+
+    public BatchPhaseTwoMessageCodec(byte version) {
+        this.version = version;
+    }
+
+    @Override
+    public Class<?> getMessageClassType() {
+        return BatchPhaseTwoMessage.class;
+    }
+
+    @Override
+    public <T> void encode(T t, ByteBuf out) {
+        BatchPhaseTwoMessage batchPhaseTwoMessage = (BatchPhaseTwoMessage) t;
+        List<AbstractBranchEndRequest> msgs = batchPhaseTwoMessage.getBranchRequests();
+        List<Integer> msgIds = batchPhaseTwoMessage.getMsgIds();
+
+        int writeIndex = out.writerIndex();
+        out.writeInt(0); // write placeholder for content length
+
+        out.writeShort((short) msgs.size());
+        for (final AbstractMessage msg : msgs) {
+            short typeCode = msg.getTypeCode();
+            MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typeCode, version);
+            out.writeShort(typeCode);
+            messageCodec.encode(msg, out);
+        }
+
+        for (final Integer msgId : msgIds) {
+            out.writeInt(msgId);
+        }
+
+        final int length = out.writerIndex() - writeIndex - 4; // minus the placeholder length itself
+        out.setInt(writeIndex, length);
+
+        if (msgs.size() > 20) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("msg in one packet:" + msgs.size() + ",buffer size:" + length);
+            }
+        }
+    }
+
+    @Override
+    public <T> void decode(T t, ByteBuffer in) {
+        BatchPhaseTwoMessage batchPhaseTwoMessage = (BatchPhaseTwoMessage) t;
+
+        if (in.remaining() < 4) {
+            return;
+        }
+        int length = in.getInt();
+        if (in.remaining() < length) {
+            return;
+        }
+        // a view of the content, without copying it
+        ByteBuffer byteBuffer = in.slice();
+        BufferUtils.limit(byteBuffer, length);
+        BufferUtils.position(in, in.position() + length);
+        decode(batchPhaseTwoMessage, byteBuffer);
+    }
+
+    /**
+     * Decode.
+     *
+     * @param batchPhaseTwoMessage the batch phase two message
+     * @param byteBuffer           the byte buffer
+     */
+    protected void decode(BatchPhaseTwoMessage batchPhaseTwoMessage, ByteBuffer byteBuffer) {
+        short msgNum = byteBuffer.getShort();
+        List<AbstractBranchEndRequest> msgs = new ArrayList<>(msgNum);
+        List<Integer> msgIds = new ArrayList<>(msgNum);
+        for (int idx = 0; idx < msgNum; idx++) {
+            short typeCode = byteBuffer.getShort();
+            AbstractMessage abstractMessage = MessageCodecFactory.getMessage(typeCode);
+            MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typeCode, version);
+            messageCodec.decode(abstractMessage, byteBuffer);
+            msgs.add((AbstractBranchEndRequest) abstractMessage);
+        }
+
+        for (int idx = 0; idx < msgNum; idx++) {
+            msgIds.add(byteBuffer.getInt());
+        }
+
+        batchPhaseTwoMessage.setBranchRequests(msgs);
+        batchPhaseTwoMessage.setMsgIds(msgIds);
+    }
+}
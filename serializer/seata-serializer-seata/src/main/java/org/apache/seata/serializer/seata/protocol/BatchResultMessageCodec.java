@@ -21,7 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import org.apache.seata.common.util.BufferUtils;
 import org.apache.seata.core.protocol.AbstractMessage;
 import org.apache.seata.core.protocol.AbstractResultMessage;
 import org.apache.seata.core.protocol.BatchResultMessage;
@@ -51,34 +51,29 @@ public class BatchResultMessageCodec extends AbstractMessageCodec {
         List<AbstractResultMessage> msgs = batchResultMessage.getResultMessages();
         List<Integer> msgIds = batchResultMessage.getMsgIds();
 
-        final ByteBuf buffer = Unpooled.buffer(1024);
-        buffer.writeInt(0); // write placeholder for content length
+        int writeIndex = out.writerIndex();
+        out.writeInt(0); // write placeholder for content length
 
-        buffer.writeShort((short) msgs.size());
+        out.writeShort((short) msgs.size());
         for (final AbstractMessage msg : msgs) {
-            final ByteBuf subBuffer = Unpooled.buffer(1024);
             short typeCode = msg.getTypeCode();
             MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typeCode, version);
-            messageCodec.encode(msg, subBuffer);
-            buffer.writeShort(msg.getTypeCode());
-            buffer.writeBytes(subBuffer);
+            out.writeShort(typeCode);
+            messageCodec.encode(msg, out);
         }
 
         for (final Integer msgId : msgIds) {
-            buffer.writeInt(msgId);
+            out.writeInt(msgId);
         }
 
-        final int length = buffer.readableBytes();
-        final byte[] content = new byte[length];
-        buffer.setInt(0, length - 4);  // minus the placeholder length itself
-        buffer.readBytes(content);
+        final int length = out.writerIndex() - writeIndex - 4; // minus the placeholder length itself
+        out.setInt(writeIndex, length);
 
         if (msgs.size() > 20) {
             if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("msg in one packet:" + msgs.size() + ",buffer size:" + content.length);
+                LOGGER.debug("msg in one packet:" + msgs.size() + ",buffer size:" + length);
             }
         }
-        out.writeBytes(content);
 
     }
 
@@ -93,9 +88,10 @@ public class BatchResultMessageCodec extends AbstractMessageCodec {
         if (in.remaining() < length) {
             return;
         }
-        byte[] buffer = new byte[length];
-        in.get(buffer);
-        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        // a view of the content, without copying it
+        ByteBuffer byteBuffer = in.slice();
+        BufferUtils.limit(byteBuffer, length);
+        BufferUtils.position(in, in.position() + length);
         decode(batchResultMessage, byteBuffer);
     }
 
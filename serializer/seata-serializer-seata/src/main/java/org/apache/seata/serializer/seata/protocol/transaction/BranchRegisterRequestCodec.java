@@ -19,6 +19,7 @@ package org.apache.seata.serializer.seata.protocol.transaction;
 import java.nio.ByteBuffer;
 
 import io.netty.buffer.ByteBuf;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.protocol.transaction.BranchRegisterRequest;
 
@@ -28,6 +29,12 @@ import org.apache.seata.core.protocol.transaction.BranchRegisterRequest;
  */
 public class BranchRegisterRequestCodec extends AbstractTransactionRequestToTCCodec {
 
+    /**
+     * Written in place of the length of the lock key when the row lock keys follow in binary form, a length is never
+     * negative so the servers tell both forms apart.
+     */
+    private static final int BINARY_LOCK_KEY = -1;
+
     @Override
     public Class<?> getMessageClassType() {
         return BranchRegisterRequest.class;
@@ -40,7 +47,8 @@ public class BranchRegisterRequestCodec extends AbstractTransactionRequestToTCCo
         String xid = branchRegisterRequest.getXid();
         BranchType branchType = branchRegisterRequest.getBranchType();
         String resourceId = branchRegisterRequest.getResourceId();
-        String lockKey = branchRegisterRequest.getLockKey();
+        RowLockKeys rowLockKeys = branchRegisterRequest.getRowLockKeys();
+        String lockKey = rowLockKeys == null ? branchRegisterRequest.getLockKey() : null;
         String applicationData = branchRegisterRequest.getApplicationData();
 
         // 1. xid
@@ -68,7 +76,10 @@ public class BranchRegisterRequestCodec extends AbstractTransactionRequestToTCCo
         }
 
         // 4. Lock Key
-        if (lockKey != null) {
+        if (rowLockKeys != null) {
+            out.writeInt(BINARY_LOCK_KEY);
+            rowLockKeys.encode(out);
+        } else if (lockKey != null) {
             byte[] lockKeyBytes = lockKey.getBytes(UTF8);
             out.writeInt(lockKeyBytes.length);
             if (lockKeyBytes.length > 0) {
@@ -109,7 +120,9 @@ public class BranchRegisterRequestCodec extends AbstractTransactionRequestToTCCo
         }
 
         int iLen = in.getInt();
-        if (iLen > 0) {
+        if (iLen == BINARY_LOCK_KEY) {
+            branchRegisterRequest.setRowLockKeys(RowLockKeys.decode(in));
+        } else if (iLen > 0) {
             byte[] bs = new byte[iLen];
             in.get(bs);
             branchRegisterRequest.setLockKey(new String(bs, UTF8));
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.serializer.seata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.apache.seata.core.compressor.CompressorType;
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.core.protocol.AbstractMessage;
+import org.apache.seata.core.protocol.HeartbeatMessage;
+import org.apache.seata.core.protocol.MergedWarpMessage;
+import org.apache.seata.core.protocol.ProtocolConstants;
+import org.apache.seata.core.protocol.RpcMessage;
+import org.apache.seata.core.protocol.transaction.BranchCommitRequest;
+import org.apache.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.apache.seata.core.rpc.netty.v1.HeadMapDictionary;
+import org.apache.seata.core.rpc.netty.v1.ProtocolDecoderV1;
+import org.apache.seata.core.rpc.netty.v1.ProtocolEncoderV1;
+import org.apache.seata.core.serializer.SerializerType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Seata serializer test.
+ */
+public class SeataSerializerTest {
+
+    private final SeataSerializer seataSerializer = new SeataSerializer(ProtocolConstants.VERSION_1);
+
+    @Test
+    public void testByteBufSameAsBytes() {
+        MergedWarpMessage mergedWarpMessage = buildMergedWarpMessage();
+        byte[] bytes = seataSerializer.serialize(mergedWarpMessage);
+
+        ByteBuf out = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            // written after other data, as the encoder does
+            out.writeInt(0);
+            seataSerializer.serialize(mergedWarpMessage, out);
+            out.skipBytes(4);
+            byte[] written = new byte[out.readableBytes()];
+            out.getBytes(out.readerIndex(), written);
+            Assertions.assertArrayEquals(bytes, written);
+
+            MergedWarpMessage decoded = seataSerializer.deserialize(out);
+            Assertions.assertEquals(0, out.readableBytes());
+            Assertions.assertEquals(mergedWarpMessage.msgIds, decoded.msgIds);
+            Assertions.assertEquals("x2", ((GlobalBeginRequest)decoded.msgs.get(1)).getTransactionName());
+        } finally {
+            out.release();
+        }
+    }
+
+    @Test
+    public void testProtocolV1EncodeAndDecode() {
+        BranchCommitRequest body = new BranchCommitRequest();
+        body.setBranchId(12345L);
+        body.setApplicationData("application");
+        body.setBranchType(BranchType.AT);
+        body.setResourceId("resource-1234");
+        body.setXid("xid-1234");
+
+        RpcMessage message = new RpcMessage();
+        message.setId(7);
+        message.setMessageType(ProtocolConstants.MSGTYPE_RESQUEST_SYNC);
+        message.setCodec(SerializerType.SEATA.getCode());
+        message.setCompressor(CompressorType.NONE.getCode());
+        message.getHeadMap().put("tracerId", "xxadadadada");
+        message.setBody(body);
+
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            new ProtocolEncoderV1().encode(message, frame);
+            Assertions.assertEquals(frame.readableBytes(), frame.getInt(3));
+
+            RpcMessage decoded = new ProtocolDecoderV1().decodeFrame(frame);
+            Assertions.assertEquals(0, frame.readableBytes());
+            Assertions.assertEquals(7, decoded.getId());
+            Assertions.assertEquals("xxadadadada", decoded.getHeadMap().get("tracerId"));
+            BranchCommitRequest decodedBody = (BranchCommitRequest)decoded.getBody();
+            Assertions.assertEquals(12345L, decodedBody.getBranchId());
+            Assertions.assertEquals("application", decodedBody.getApplicationData());
+            Assertions.assertEquals("resource-1234", decodedBody.getResourceId());
+            Assertions.assertEquals("xid-1234", decodedBody.getXid());
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testProtocolV1HeadMapDictionary() {
+        HeadMapDictionary clientDictionary = new HeadMapDictionary();
+        HeadMapDictionary serverDictionary = new HeadMapDictionary();
+        ProtocolEncoderV1 clientEncoder = new ProtocolEncoderV1(clientDictionary);
+        ProtocolDecoderV1 clientDecoder = new ProtocolDecoderV1(clientDictionary);
+        ProtocolEncoderV1 serverEncoder = new ProtocolEncoderV1(serverDictionary);
+        ProtocolDecoderV1 serverDecoder = new ProtocolDecoderV1(serverDictionary);
+
+        RpcMessage request = new RpcMessage();
+        request.setId(1);
+        request.setMessageType(ProtocolConstants.MSGTYPE_HEARTBEAT_REQUEST);
+        request.setCodec(SerializerType.SEATA.getCode());
+        request.setCompressor(CompressorType.NONE.getCode());
+        request.getHeadMap().put("tracerId", "xxadadadada");
+        request.setBody(HeartbeatMessage.PING);
+        RpcMessage response = new RpcMessage();
+        response.setId(1);
+        response.setMessageType(ProtocolConstants.MSGTYPE_HEARTBEAT_RESPONSE);
+        response.setCodec(SerializerType.SEATA.getCode());
+        response.setCompressor(CompressorType.NONE.getCode());
+        response.setBody(HeartbeatMessage.PONG);
+
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            for (int i = 0; i < 4; i++) {
+                clientEncoder.encode(request, frame);
+                RpcMessage decoded = serverDecoder.decodeFrame(frame);
+                Assertions.assertEquals(Collections.singletonMap("tracerId", "xxadadadada"), decoded.getHeadMap());
+                serverEncoder.encode(response, frame);
+                decoded = clientDecoder.decodeFrame(frame);
+                Assertions.assertTrue(decoded.getHeadMap().isEmpty());
+            }
+            Assertions.assertTrue(clientDictionary.isPeerSupported());
+            Assertions.assertTrue(serverDictionary.isPeerSupported());
+
+            // the header is sent as a reference to the entry defined before
+            clientEncoder.encode(request, frame);
+            Assertions.assertEquals(ProtocolConstants.V1_HEAD_LENGTH + 3, frame.readableBytes());
+            Assertions.assertEquals("xxadadadada", serverDecoder.decodeFrame(frame).getHeadMap().get("tracerId"));
+        } finally {
+            frame.release();
+        }
+    }
+
+    private static MergedWarpMessage buildMergedWarpMessage() {
+        List<AbstractMessage> msgs = new ArrayList<>();
+        List<Integer> msgIds = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            GlobalBeginRequest request = new GlobalBeginRequest();
+            request.setTransactionName("x" + i);
+            request.setTimeout(3000);
+            msgs.add(request);
+            msgIds.add(i);
+        }
+        MergedWarpMessage mergedWarpMessage = new MergedWarpMessage();
+        mergedWarpMessage.msgs = msgs;
+        mergedWarpMessage.msgIds = msgIds;
+        return mergedWarpMessage;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.serializer.seata.protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
+import org.apache.seata.core.protocol.ProtocolConstants;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndRequest;
+import org.apache.seata.core.protocol.transaction.BranchCommitRequest;
+import org.apache.seata.core.protocol.transaction.BranchRollbackRequest;
+import org.apache.seata.serializer.seata.SeataSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The type batch phase two message codec test.
+ *
+ * @since 2.3.0
+ */
+public class BatchPhaseTwoMessageSerializerTest {
+
+    /**
+     * The Seata codec.
+     */
+    SeataSerializer seataSerializer = new SeataSerializer(ProtocolConstants.VERSION);
+
+    @Test
+    public void testCodec() {
+        BatchPhaseTwoMessage batchPhaseTwoMessage = new BatchPhaseTwoMessage();
+        final List<AbstractBranchEndRequest> msgs = new ArrayList<>();
+        final List<Integer> msgIds = new ArrayList<>();
+
+        BranchCommitRequest branchCommitRequest = new BranchCommitRequest();
+        branchCommitRequest.setXid("x1");
+        branchCommitRequest.setBranchId(12345678L);
+        branchCommitRequest.setResourceId("jdbc:mysql://127.0.0.1:3306/order");
+        branchCommitRequest.setBranchType(BranchType.AT);
+        msgs.add(branchCommitRequest);
+        msgIds.add(1);
+        BranchRollbackRequest branchRollbackRequest = new BranchRollbackRequest();
+        branchRollbackRequest.setXid("x2");
+        branchRollbackRequest.setBranchId(87654321L);
+        branchRollbackRequest.setResourceId("orderTccAction");
+        branchRollbackRequest.setBranchType(BranchType.TCC);
+        branchRollbackRequest.setApplicationData("{\"actionContext\":{}}");
+        msgs.add(branchRollbackRequest);
+        msgIds.add(2);
+        batchPhaseTwoMessage.setBranchRequests(msgs);
+        batchPhaseTwoMessage.setMsgIds(msgIds);
+
+        byte[] body = seataSerializer.serialize(batchPhaseTwoMessage);
+        BatchPhaseTwoMessage batchPhaseTwoMessage2 = seataSerializer.deserialize(body);
+
+        assertThat(batchPhaseTwoMessage2.getMsgIds()).containsExactly(1, 2);
+        assertThat(batchPhaseTwoMessage2.getBranchRequests()).hasSize(2);
+        BranchCommitRequest branchCommitRequest2 = (BranchCommitRequest) batchPhaseTwoMessage2.getBranchRequests().get(0);
+        assertThat(branchCommitRequest2.getXid()).isEqualTo("x1");
+        assertThat(branchCommitRequest2.getBranchId()).isEqualTo(12345678L);
+        assertThat(branchCommitRequest2.getResourceId()).isEqualTo("jdbc:mysql://127.0.0.1:3306/order");
+        assertThat(branchCommitRequest2.getBranchType()).isEqualTo(BranchType.AT);
+        BranchRollbackRequest branchRollbackRequest2 =
+            (BranchRollbackRequest) batchPhaseTwoMessage2.getBranchRequests().get(1);
+        assertThat(branchRollbackRequest2.getXid()).isEqualTo("x2");
+        assertThat(branchRollbackRequest2.getBranchId()).isEqualTo(87654321L);
+        assertThat(branchRollbackRequest2.getBranchType()).isEqualTo(BranchType.TCC);
+        assertThat(branchRollbackRequest2.getApplicationData()).isEqualTo("{\"actionContext\":{}}");
+    }
+}
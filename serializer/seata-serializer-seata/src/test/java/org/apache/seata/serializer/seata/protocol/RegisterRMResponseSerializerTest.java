@@ -53,9 +53,23 @@ public class RegisterRMResponseSerializerTest {
 
         assertThat(registerRMRespons2.isIdentified()).isEqualTo(registerRMResponse.isIdentified());
         assertThat(registerRMRespons2.getVersion()).isEqualTo(registerRMResponse.getVersion());
+        assertThat(registerRMRespons2.getExtraData()).isEqualTo(registerRMResponse.getExtraData());
 
-//        Assert.assertEquals(registerRMRespons2.getExtraData(), registerRMResponse.getExtraData());
 //        Assert.assertEquals(registerRMRespons2.getMsg(), registerRMResponse.getMsg());
 //        Assert.assertEquals(registerRMRespons2.getByCode(), registerRMResponse.getByCode());
     }
+
+    @Test
+    public void test_binaryLockKeySupported() {
+        RegisterRMResponse registerRMResponse = new RegisterRMResponse();
+        registerRMResponse.setBinaryLockKeySupported(true);
+
+        RegisterRMResponse registerRMResponse2 = seataSerializer.deserialize(seataSerializer.serialize(registerRMResponse));
+        assertThat(registerRMResponse2.isBinaryLockKeySupported()).isTrue();
+
+        RegisterRMResponse withoutExtraData = new RegisterRMResponse();
+        RegisterRMResponse withoutExtraData2 = seataSerializer.deserialize(seataSerializer.serialize(withoutExtraData));
+        assertThat(withoutExtraData2.getExtraData()).isNull();
+        assertThat(withoutExtraData2.isBinaryLockKeySupported()).isFalse();
+    }
 }
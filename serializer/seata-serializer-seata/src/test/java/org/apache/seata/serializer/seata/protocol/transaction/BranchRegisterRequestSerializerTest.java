@@ -18,6 +18,7 @@ package org.apache.seata.serializer.seata.protocol.transaction;
 
 import org.apache.seata.core.protocol.ProtocolConstants;
 import org.apache.seata.serializer.seata.SeataSerializer;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.protocol.transaction.BranchRegisterRequest;
 import org.junit.jupiter.api.Test;
@@ -59,4 +60,28 @@ public class BranchRegisterRequestSerializerTest {
 
     }
 
+    /**
+     * Test codec of the lock keys in binary form.
+     */
+    @Test
+    public void test_codecBinaryLockKey() {
+        BranchRegisterRequest branchRegisterRequest = new BranchRegisterRequest();
+        branchRegisterRequest.setBranchType(BranchType.AT);
+        branchRegisterRequest.setApplicationData("abc");
+        branchRegisterRequest.setLockKey("t_order:1,2;t_user:1_tom");
+        branchRegisterRequest.setRowLockKeys(RowLockKeys.parse(branchRegisterRequest.getLockKey()));
+        branchRegisterRequest.setResourceId("124");
+        branchRegisterRequest.setXid("abc134");
+
+        byte[] bytes = seataSerializer.serialize(branchRegisterRequest);
+
+        BranchRegisterRequest branchRegisterRequest2 = seataSerializer.deserialize(bytes);
+
+        assertThat(branchRegisterRequest2.getRowLockKeys()).isNotNull();
+        assertThat(branchRegisterRequest2.getRowLockKeys().getRowCount()).isEqualTo(3);
+        assertThat(branchRegisterRequest2.getLockKey()).isEqualTo(branchRegisterRequest.getLockKey());
+        assertThat(branchRegisterRequest2.getApplicationData()).isEqualTo(branchRegisterRequest.getApplicationData());
+        assertThat(branchRegisterRequest2.getResourceId()).isEqualTo(branchRegisterRequest.getResourceId());
+    }
+
 }
@@ -38,6 +38,7 @@ public class UpdateGlobalSessionExecute extends AbstractRaftMsgExecute {
         GlobalSession globalSession = raftSessionManager.findGlobalSession(globalTransactionDTO.getXid());
         if (globalSession != null) {
             globalSession.setStatus(GlobalStatus.get(globalTransactionDTO.getStatus()));
+            raftSessionManager.index(globalSession, globalSession.getStatus());
             if (GlobalStatus.RollbackRetrying.equals(globalSession.getStatus())
                 || GlobalStatus.Rollbacking.equals(globalSession.getStatus())
                 || GlobalStatus.TimeoutRollbacking.equals(globalSession.getStatus())) {
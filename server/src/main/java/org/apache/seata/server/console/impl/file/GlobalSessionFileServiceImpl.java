@@ -22,11 +22,13 @@ import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.apache.seata.core.model.GlobalStatus;
 import org.apache.seata.server.console.param.GlobalSessionParam;
 import org.apache.seata.common.result.PageResult;
 import org.apache.seata.server.console.vo.GlobalSessionVO;
 import org.apache.seata.server.console.service.GlobalSessionService;
 import org.apache.seata.server.session.GlobalSession;
+import org.apache.seata.server.session.SessionCondition;
 import org.apache.seata.server.session.SessionHolder;
 import org.apache.seata.server.storage.SessionConverter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -50,9 +52,13 @@ public class GlobalSessionFileServiceImpl implements GlobalSessionService {
             throw new IllegalArgumentException("wrong pageSize or pageNum");
         }
 
-        final Collection<GlobalSession> allSessions = SessionHolder.getRootSessionManager().allSessions();
+        // the session manager indexes sessions by status, the other conditions are matched one by one
+        final Collection<GlobalSession> candidateSessions = isNull(param.getStatus())
+                ? SessionHolder.getRootSessionManager().allSessions()
+                : SessionHolder.getRootSessionManager().findGlobalSessions(
+                        new SessionCondition(GlobalStatus.get(param.getStatus())));
 
-        final List<GlobalSession> filteredSessions = allSessions
+        final List<GlobalSession> filteredSessions = candidateSessions
                 .parallelStream()
                 .filter(obtainPredicate(param))
                 .collect(Collectors.toList());
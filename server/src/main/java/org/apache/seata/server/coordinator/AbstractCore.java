@@ -29,6 +29,7 @@ import org.apache.seata.core.exception.BranchTransactionException;
 import org.apache.seata.core.exception.GlobalTransactionException;
 import org.apache.seata.core.exception.TransactionException;
 import org.apache.seata.core.exception.TransactionExceptionCode;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchStatus;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.model.GlobalStatus;
@@ -86,6 +87,19 @@ public abstract class AbstractCore implements Core {
     @Override
     public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
                                String applicationData, String lockKeys) throws TransactionException {
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData, lockKeys, null);
+    }
+
+    @Override
+    public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                               String applicationData, RowLockKeys rowLockKeys) throws TransactionException {
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData,
+            rowLockKeys == null ? null : rowLockKeys.toLockKey(), rowLockKeys);
+    }
+
+    private Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                                String applicationData, String lockKeys, RowLockKeys rowLockKeys)
+        throws TransactionException {
         GlobalSession globalSession = assertGlobalSessionNotNull(xid, false);
         try {
             StringUtils.checkDataSize(applicationData, "applicationData", appDataErrSize, throwDataSizeExp);
@@ -98,6 +112,7 @@ public abstract class AbstractCore implements Core {
             globalSessionStatusCheck(globalSession);
             BranchSession branchSession = SessionHelper.newBranchByGlobal(globalSession, branchType, resourceId,
                     applicationData, lockKeys, clientId);
+            branchSession.setRowLockKeys(rowLockKeys);
             MDC.put(RootContext.MDC_KEY_BRANCH_ID, String.valueOf(branchSession.getBranchId()));
             branchSessionLock(globalSession, branchSession);
             try {
@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import io.netty.channel.Channel;
+import org.apache.seata.config.ConfigurationFactory;
+import org.apache.seata.core.model.BranchStatus;
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.core.protocol.AbstractResultMessage;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
+import org.apache.seata.core.protocol.BatchResultMessage;
+import org.apache.seata.core.protocol.ProtocolConstants;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndRequest;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndResponse;
+import org.apache.seata.core.protocol.transaction.BranchCommitRequest;
+import org.apache.seata.core.protocol.transaction.BranchRollbackRequest;
+import org.apache.seata.core.rpc.RemotingServer;
+import org.apache.seata.core.rpc.RpcContext;
+import org.apache.seata.core.rpc.netty.ChannelManager;
+import org.apache.seata.core.serializer.SerializerType;
+import org.apache.seata.server.session.BranchSession;
+import org.apache.seata.server.session.GlobalSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.seata.common.ConfigurationKeys.BATCH_PHASE_TWO_MAX_SIZE_KEY;
+import static org.apache.seata.common.ConfigurationKeys.ENABLE_BATCH_PHASE_TWO_KEY;
+import static org.apache.seata.common.DefaultValues.DEFAULT_BATCH_PHASE_TWO_MAX_SIZE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_ENABLE_BATCH_PHASE_TWO;
+
+/**
+ * Sends the phase two requests of the branches of many global transactions in batches, before the coordinator walks
+ * the global transactions one by one.
+ * <p>
+ * The requests for one RM channel are sent in {@link BatchPhaseTwoMessage}s of at most
+ * {@code server.batchPhaseTwoMaxSize} requests, one batch after the other, and the RM answers each batch with one
+ * {@link org.apache.seata.core.protocol.BatchResultMessage}. The channels are served concurrently. Only the RMs
+ * which said they handle batches when they registered get batches, and only when the TC encodes with the seata
+ * serializer. Once a batch of a channel fails, the channel gets no more batches, and the branches of the failed batch
+ * and of the later ones are left without outcome.
+ * <p>
+ * Like {@link BranchPhaseTwoDispatcher}, the batcher only collects the outcomes, which the coordinator then takes
+ * branch by branch. A branch without an outcome, e.g. its RM is too old or is not connected, is sent on its own by
+ * the coordinator as before. Every branch of a global transaction to commit is batched, while only the first branch
+ * of each resource is batched for a rollback, so the branches of one resource are still rolled back in order.
+ */
+public class BranchPhaseTwoBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BranchPhaseTwoBatcher.class);
+
+    private static final String THREAD_PREFIX = "batchPhaseTwo";
+
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final int QUEUE_SIZE = 5000;
+
+    /**
+     * the message codec writes the number of requests as a short
+     */
+    private static final int MAX_BATCH_SIZE = Short.MAX_VALUE;
+
+    private final RemotingServer remotingServer;
+
+    private final boolean enabled;
+
+    private final int maxBatchSize;
+
+    private final Set<Channel> unbatchedChannels = ConcurrentHashMap.newKeySet();
+
+    private volatile ExecutorService executor;
+
+    /**
+     * Instantiates a new Branch phase two batcher.
+     *
+     * @param remotingServer the remoting server
+     */
+    public BranchPhaseTwoBatcher(RemotingServer remotingServer) {
+        this(remotingServer,
+            ConfigurationFactory.getInstance().getBoolean(ENABLE_BATCH_PHASE_TWO_KEY, DEFAULT_ENABLE_BATCH_PHASE_TWO)
+                && ProtocolConstants.CONFIGURED_CODEC == SerializerType.SEATA.getCode(),
+            ConfigurationFactory.getInstance().getInt(BATCH_PHASE_TWO_MAX_SIZE_KEY, DEFAULT_BATCH_PHASE_TWO_MAX_SIZE));
+    }
+
+    BranchPhaseTwoBatcher(RemotingServer remotingServer, boolean enabled, int maxBatchSize) {
+        this.remotingServer = remotingServer;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.min(Math.max(1, maxBatchSize), MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Whether the phase two requests are sent in batches.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Send the commit requests of the branches of the global transactions in batches.
+     *
+     * @param globalSessions the global sessions
+     * @param retrying       whether the commits are retried, the branches which can be committed async are only
+     *                       sent when retrying
+     * @param filter         the global sessions to send
+     * @return the outcomes by xid, a global session without outcomes is handled as before
+     */
+    public Map<String, BranchPhaseTwoDispatcher.Outcomes> commit(Collection<GlobalSession> globalSessions,
+        boolean retrying, Predicate<GlobalSession> filter) {
+        return send(globalSessions, filter, true, branchSession -> DefaultCore.needCommitRequest(branchSession,
+            retrying));
+    }
+
+    /**
+     * Send the rollback requests of the branches of the global transactions in batches.
+     *
+     * @param globalSessions the global sessions
+     * @param filter         the global sessions to send
+     * @return the outcomes by xid, a global session without outcomes is handled as before
+     */
+    public Map<String, BranchPhaseTwoDispatcher.Outcomes> rollback(Collection<GlobalSession> globalSessions,
+        Predicate<GlobalSession> filter) {
+        return send(globalSessions, filter, false,
+            branchSession -> branchSession.getStatus() != BranchStatus.PhaseOne_Failed);
+    }
+
+    private Map<String, BranchPhaseTwoDispatcher.Outcomes> send(Collection<GlobalSession> globalSessions,
+        Predicate<GlobalSession> filter, boolean commit, Predicate<BranchSession> branchFilter) {
+        if (!enabled || globalSessions == null || globalSessions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> outcomesByXid = new HashMap<>();
+        Map<Channel, List<Pending>> pendingByChannel = new LinkedHashMap<>();
+        for (GlobalSession globalSession : globalSessions) {
+            if (globalSession.isSaga() || !filter.test(globalSession)) {
+                continue;
+            }
+            BranchPhaseTwoDispatcher.Outcomes outcomes = null;
+            Set<String> resources = commit ? null : new HashSet<>();
+            List<BranchSession> branchSessions =
+                commit ? globalSession.getSortedBranches() : globalSession.getReverseSortedBranches();
+            for (BranchSession branchSession : branchSessions) {
+                if (branchSession.getBranchType() == BranchType.SAGA || !branchFilter.test(branchSession)) {
+                    continue;
+                }
+                if (resources != null && !resources.add(branchSession.getResourceId())) {
+                    // the later branches of the resource wait for the first one
+                    continue;
+                }
+                Channel channel = getChannel(branchSession);
+                if (channel == null || unbatchedChannels.contains(channel)) {
+                    continue;
+                }
+                if (outcomes == null) {
+                    outcomes = new BranchPhaseTwoDispatcher.Outcomes();
+                    outcomesByXid.put(globalSession.getXid(), outcomes);
+                }
+                pendingByChannel.computeIfAbsent(channel, k -> new ArrayList<>())
+                    .add(new Pending(branchSession, buildRequest(branchSession, commit), outcomes));
+            }
+        }
+        if (pendingByChannel.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        ensureExecutor();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(pendingByChannel.size());
+        for (Map.Entry<Channel, List<Pending>> entry : pendingByChannel.entrySet()) {
+            futures.add(CompletableFuture.runAsync(() -> sendChannel(entry.getKey(), entry.getValue()), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("batch phase two failed: {}", e.getCause().getMessage(), e.getCause());
+        }
+        return outcomesByXid;
+    }
+
+    private void sendChannel(Channel channel, List<Pending> pendings) {
+        for (int from = 0; from < pendings.size(); from += maxBatchSize) {
+            List<Pending> batch = pendings.subList(from, Math.min(from + maxBatchSize, pendings.size()));
+            BatchPhaseTwoMessage batchMessage = new BatchPhaseTwoMessage();
+            List<AbstractBranchEndRequest> requests = new ArrayList<>(batch.size());
+            List<Integer> msgIds = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                requests.add(batch.get(i).request);
+                msgIds.add(i);
+            }
+            batchMessage.setBranchRequests(requests);
+            batchMessage.setMsgIds(msgIds);
+            try {
+                BatchResultMessage resultMessage = sendBatch(channel, batchMessage);
+                for (int i = 0; i < resultMessage.getMsgIds().size(); i++) {
+                    Pending pending = batch.get(resultMessage.getMsgIds().get(i));
+                    AbstractResultMessage result = resultMessage.getResultMessages().get(i);
+                    pending.outcomes.put(pending.branchSession.getBranchId(), new BranchPhaseTwoDispatcher.Outcome(
+                        ((AbstractBranchEndResponse) result).getBranchStatus(), null));
+                }
+            } catch (Exception e) {
+                // the coordinator sends the branches left without outcome on their own
+                LOGGER.warn("send batch phase two failed, the branches of the channel are sent one by one from now on, "
+                    + "channel: {}, size: {}, cause: {}", channel, pendings.size() - from, e.getMessage());
+                stopBatching(channel);
+                return;
+            }
+        }
+    }
+
+    private void stopBatching(Channel channel) {
+        if (unbatchedChannels.add(channel)) {
+            channel.closeFuture().addListener(future -> unbatchedChannels.remove(channel));
+        }
+    }
+
+    /**
+     * Gets the channel of the RM of a branch, if the RM handles batches.
+     *
+     * @param branchSession the branch session
+     * @return the channel, or null if the branch is sent on its own
+     */
+    Channel getChannel(BranchSession branchSession) {
+        Channel channel = ChannelManager.getChannel(branchSession.getResourceId(), branchSession.getClientId(),
+            branchSession.isAT());
+        if (channel == null) {
+            return null;
+        }
+        RpcContext rpcContext = ChannelManager.getContextFromIdentified(channel);
+        if (rpcContext == null || !rpcContext.isBatchPhaseTwoSupported()) {
+            return null;
+        }
+        return channel;
+    }
+
+    /**
+     * Send a batch and wait for its result.
+     *
+     * @param channel      the channel
+     * @param batchMessage the batch
+     * @return the batch result
+     * @throws Exception the exception
+     */
+    BatchResultMessage sendBatch(Channel channel, BatchPhaseTwoMessage batchMessage) throws Exception {
+        return (BatchResultMessage) remotingServer.sendSyncRequest(channel, batchMessage);
+    }
+
+    private static AbstractBranchEndRequest buildRequest(BranchSession branchSession, boolean commit) {
+        AbstractBranchEndRequest request = commit ? new BranchCommitRequest() : new BranchRollbackRequest();
+        request.setXid(branchSession.getXid());
+        request.setBranchId(branchSession.getBranchId());
+        request.setResourceId(branchSession.getResourceId());
+        request.setApplicationData(branchSession.getApplicationData());
+        request.setBranchType(branchSession.getBranchType());
+        return request;
+    }
+
+    private void ensureExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, Integer.MAX_VALUE, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(QUEUE_SIZE), CoordinatorThreads.newThreadFactory(THREAD_PREFIX, POOL_SIZE),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+    }
+
+    private static class Pending {
+
+        private final BranchSession branchSession;
+
+        private final AbstractBranchEndRequest request;
+
+        private final BranchPhaseTwoDispatcher.Outcomes outcomes;
+
+        Pending(BranchSession branchSession, AbstractBranchEndRequest request,
+            BranchPhaseTwoDispatcher.Outcomes outcomes) {
+            this.branchSession = branchSession;
+            this.request = request;
+            this.outcomes = outcomes;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.apache.seata.config.ConfigurationFactory;
+import org.apache.seata.core.context.RootContext;
+import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.model.BranchStatus;
+import org.apache.seata.server.session.BranchSession;
+import org.apache.seata.server.session.GlobalSession;
+import org.apache.seata.server.session.SessionHelper;
+import org.slf4j.MDC;
+
+import static org.apache.seata.common.ConfigurationKeys.PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT_KEY;
+import static org.apache.seata.common.DefaultValues.DEFAULT_PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT;
+
+/**
+ * Sends the phase two requests of the branches of a global transaction concurrently, before the coordinator walks
+ * the branches in order.
+ * <p>
+ * Branches are grouped by resource. The groups run concurrently, while the branches of a group run one after the
+ * other in the given order and a group stops at the first branch which does not reach the expected status, so the
+ * branches of one resource are never finished out of order. At most
+ * {@code server.parallelHandleBranchMaxInFlight} requests are in flight to one RM client at a time.
+ * <p>
+ * The dispatcher only collects the outcomes, the coordinator still applies them branch by branch in order, so retry
+ * queuing and unretryable failures are decided exactly as when the branches are handled sequentially.
+ */
+public class BranchPhaseTwoDispatcher {
+
+    private static final String THREAD_PREFIX = "branchPhaseTwo";
+
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final int QUEUE_SIZE = 5000;
+
+    private static final BranchPhaseTwoDispatcher INSTANCE = new BranchPhaseTwoDispatcher();
+
+    private final int maxInFlight;
+
+    private final Map<String/* clientId */, ChannelLimiter> limiters = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService executor;
+
+    BranchPhaseTwoDispatcher() {
+        this(ConfigurationFactory.getInstance().getInt(PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT_KEY,
+            DEFAULT_PARALLEL_HANDLE_BRANCH_MAX_IN_FLIGHT));
+    }
+
+    BranchPhaseTwoDispatcher(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Gets the branch phase two dispatcher.
+     *
+     * @return the branch phase two dispatcher
+     */
+    public static BranchPhaseTwoDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Send the phase two requests of the branches and wait for every one of them.
+     *
+     * @param branchSessions the branches, in the order the coordinator handles them
+     * @param filter         the branches which need a request
+     * @param doneStatus     the status of a finished branch
+     * @param call           sends the request of one branch
+     * @return the outcomes, empty if the branches are on a single resource and are better sent by the caller
+     * @throws TransactionException if waiting for the requests failed
+     */
+    public Outcomes dispatch(List<BranchSession> branchSessions, Predicate<BranchSession> filter,
+        BranchStatus doneStatus, BranchCall call) throws TransactionException {
+        Map<String, List<BranchSession>> groups = new LinkedHashMap<>(4);
+        for (BranchSession branchSession : branchSessions) {
+            if (filter.test(branchSession)) {
+                groups.computeIfAbsent(branchSession.getResourceId(), k -> new ArrayList<>()).add(branchSession);
+            }
+        }
+        if (groups.size() < 2) {
+            return Outcomes.EMPTY;
+        }
+        ensureExecutor();
+        Outcomes outcomes = new Outcomes();
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        List<List<BranchSession>> groupList = new ArrayList<>(groups.values());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(groupList.size() - 1);
+        for (int i = 1; i < groupList.size(); i++) {
+            List<BranchSession> group = groupList.get(i);
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (mdcContext != null) {
+                    MDC.setContextMap(mdcContext);
+                }
+                try {
+                    runGroup(group, doneStatus, call, outcomes);
+                } finally {
+                    MDC.clear();
+                }
+            }, executor));
+        }
+        // the caller handles the first group itself
+        runGroup(groupList.get(0), doneStatus, call, outcomes);
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionException(e);
+        } catch (ExecutionException e) {
+            throw new TransactionException(e.getCause());
+        }
+        return outcomes;
+    }
+
+    private void runGroup(List<BranchSession> group, BranchStatus doneStatus, BranchCall call, Outcomes outcomes) {
+        for (BranchSession branchSession : group) {
+            Outcome outcome;
+            ChannelLimiter limiter = acquire(branchSession.getClientId());
+            try {
+                MDC.put(RootContext.MDC_KEY_BRANCH_ID, String.valueOf(branchSession.getBranchId()));
+                outcome = new Outcome(call.call(branchSession), null);
+            } catch (Exception e) {
+                outcome = new Outcome(null, e);
+            } finally {
+                MDC.remove(RootContext.MDC_KEY_BRANCH_ID);
+                release(branchSession.getClientId(), limiter);
+            }
+            outcomes.put(branchSession.getBranchId(), outcome);
+            if (outcome.status != doneStatus) {
+                // the later branches of the resource wait for this one
+                return;
+            }
+        }
+    }
+
+    private ChannelLimiter acquire(String clientId) {
+        ChannelLimiter limiter = limiters.compute(clientId, (k, v) -> {
+            ChannelLimiter channelLimiter = v != null ? v : new ChannelLimiter(maxInFlight);
+            channelLimiter.users++;
+            return channelLimiter;
+        });
+        limiter.semaphore.acquireUninterruptibly();
+        return limiter;
+    }
+
+    private void release(String clientId, ChannelLimiter limiter) {
+        limiter.semaphore.release();
+        limiters.computeIfPresent(clientId, (k, v) -> --v.users == 0 ? null : v);
+    }
+
+    private void ensureExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, Integer.MAX_VALUE, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(QUEUE_SIZE), CoordinatorThreads.newThreadFactory(THREAD_PREFIX, POOL_SIZE),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the phase two request of one branch.
+     */
+    @FunctionalInterface
+    public interface BranchCall {
+
+        /**
+         * Send the request.
+         *
+         * @param branchSession the branch session
+         * @return the branch status reported by the RM
+         * @throws Exception the exception
+         */
+        BranchStatus call(BranchSession branchSession) throws Exception;
+    }
+
+    /**
+     * The outcomes of the dispatched requests, taken one by one as the coordinator walks the branches.
+     */
+    public static class Outcomes {
+
+        /**
+         * No request was dispatched, every branch is sent by the caller.
+         */
+        public static final Outcomes EMPTY = new Outcomes(Collections.emptyMap());
+
+        private final Map<Long/* branchId */, Outcome> outcomes;
+
+        Outcomes() {
+            this(new ConcurrentHashMap<>());
+        }
+
+        private Outcomes(Map<Long, Outcome> outcomes) {
+            this.outcomes = outcomes;
+        }
+
+        void put(long branchId, Outcome outcome) {
+            outcomes.put(branchId, outcome);
+        }
+
+        /**
+         * Take the outcome of a branch, or send its request now if it was not dispatched.
+         *
+         * @param branchSession the branch session
+         * @param call          sends the request of the branch
+         * @return the branch status
+         * @throws Exception the exception of the request
+         */
+        public BranchStatus take(BranchSession branchSession, BranchCall call) throws Exception {
+            Outcome outcome = outcomes.isEmpty() ? null : outcomes.remove(branchSession.getBranchId());
+            if (outcome == null) {
+                return call.call(branchSession);
+            }
+            if (outcome.exception != null) {
+                throw outcome.exception;
+            }
+            return outcome.status;
+        }
+
+        /**
+         * Remove the branches which were finished by a dispatched request but not taken, because the coordinator
+         * stopped at an earlier branch of another resource. They are not sent again when the global session is
+         * retried.
+         *
+         * @param globalSession the global session
+         * @param doneStatus    the status of a finished branch
+         * @param isAsync       remove the branches asynchronously
+         * @throws TransactionException the transaction exception
+         */
+        public void removeFinished(GlobalSession globalSession, BranchStatus doneStatus, boolean isAsync)
+            throws TransactionException {
+            for (Map.Entry<Long, Outcome> entry : outcomes.entrySet()) {
+                if (entry.getValue().status != doneStatus) {
+                    continue;
+                }
+                BranchSession branchSession = globalSession.getBranch(entry.getKey());
+                if (branchSession != null) {
+                    SessionHelper.removeBranch(globalSession, branchSession, isAsync);
+                }
+            }
+            outcomes.clear();
+        }
+    }
+
+    static class Outcome {
+
+        private final BranchStatus status;
+
+        private final Exception exception;
+
+        Outcome(BranchStatus status, Exception exception) {
+            this.status = status;
+            this.exception = exception;
+        }
+    }
+
+    private static class ChannelLimiter {
+
+        private final Semaphore semaphore;
+
+        /**
+         * guarded by the compute of the limiter map
+         */
+        private int users;
+
+        ChannelLimiter(int permits) {
+            this.semaphore = new Semaphore(permits);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.coordinator;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.seata.common.thread.VirtualThreads;
+import org.apache.seata.config.ConfigurationFactory;
+
+import static org.apache.seata.common.ConfigurationKeys.SERVER_ENABLE_VIRTUAL_THREADS;
+import static org.apache.seata.common.DefaultValues.DEFAULT_SERVER_ENABLE_VIRTUAL_THREADS;
+
+/**
+ * The threads of the coordinator, virtual ones when server.enableVirtualThreads is on.
+ */
+final class CoordinatorThreads {
+
+    private static final boolean ENABLE_VIRTUAL_THREADS = ConfigurationFactory.getInstance()
+        .getBoolean(SERVER_ENABLE_VIRTUAL_THREADS, DEFAULT_SERVER_ENABLE_VIRTUAL_THREADS);
+
+    private CoordinatorThreads() {
+    }
+
+    /**
+     * Create a factory of the threads of the coordinator.
+     *
+     * @param prefix    the thread name prefix
+     * @param totalSize the max number of platform threads
+     * @return the thread factory
+     */
+    static ThreadFactory newThreadFactory(String prefix, int totalSize) {
+        return VirtualThreads.newThreadFactory(prefix, totalSize, ENABLE_VIRTUAL_THREADS);
+    }
+}
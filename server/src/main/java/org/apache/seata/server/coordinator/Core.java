@@ -17,6 +17,8 @@
 package org.apache.seata.server.coordinator;
 
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLockKeys;
+import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.model.GlobalStatus;
 import org.apache.seata.server.session.GlobalSession;
 
@@ -26,6 +28,25 @@ import org.apache.seata.server.session.GlobalSession;
  */
 public interface Core extends TransactionCoordinatorInbound, TransactionCoordinatorOutbound {
 
+    /**
+     * Branch register with the lock keys received in binary form, the row locks are taken from them without parsing
+     * the lock key.
+     *
+     * @param branchType      the branch type
+     * @param resourceId      the resource id
+     * @param clientId        the client id
+     * @param xid             the xid
+     * @param applicationData the application data
+     * @param rowLockKeys     the row lock keys
+     * @return the branch id
+     * @throws TransactionException the transaction exception
+     */
+    default Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                                String applicationData, RowLockKeys rowLockKeys) throws TransactionException {
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData,
+            rowLockKeys == null ? null : rowLockKeys.toLockKey());
+    }
+
     /**
      * Do global commit.
      *
@@ -19,6 +19,7 @@ package org.apache.seata.server.coordinator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -26,6 +27,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import io.netty.channel.Channel;
 import org.apache.seata.common.DefaultValues;
@@ -34,7 +36,9 @@ import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.constants.ConfigurationKeys;
 import org.apache.seata.core.context.RootContext;
+import org.apache.seata.core.exception.BranchTransactionException;
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.exception.TransactionExceptionCode;
 import org.apache.seata.core.model.GlobalStatus;
 import org.apache.seata.core.protocol.AbstractMessage;
 import org.apache.seata.core.protocol.AbstractResultMessage;
@@ -57,6 +61,7 @@ import org.apache.seata.core.protocol.transaction.GlobalRollbackResponse;
 import org.apache.seata.core.protocol.transaction.GlobalStatusRequest;
 import org.apache.seata.core.protocol.transaction.GlobalStatusResponse;
 import org.apache.seata.core.protocol.transaction.UndoLogDeleteRequest;
+import org.apache.seata.core.rpc.DeferredResponse;
 import org.apache.seata.core.rpc.Disposable;
 import org.apache.seata.core.rpc.RemotingServer;
 import org.apache.seata.core.rpc.RpcContext;
@@ -64,12 +69,16 @@ import org.apache.seata.core.rpc.TransactionMessageHandler;
 import org.apache.seata.core.rpc.netty.ChannelManager;
 import org.apache.seata.core.rpc.netty.NettyRemotingServer;
 import org.apache.seata.server.AbstractTCInboundHandler;
+import org.apache.seata.server.lock.LockWaitManager;
 import org.apache.seata.server.metrics.MetricsPublisher;
 import org.apache.seata.server.session.BranchSession;
 import org.apache.seata.server.session.GlobalSession;
 import org.apache.seata.server.session.SessionCondition;
+import org.apache.seata.server.session.SessionDeadlineIndex;
+import org.apache.seata.server.session.SessionDeadlineIndex.DueKind;
 import org.apache.seata.server.session.SessionHelper;
 import org.apache.seata.server.session.SessionHolder;
+import org.apache.seata.server.session.SessionManager;
 import org.apache.seata.server.store.StoreConfig;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.slf4j.Logger;
@@ -165,22 +174,22 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         .getInt(org.apache.seata.common.ConfigurationKeys.RETRY_DEAD_THRESHOLD, DefaultValues.DEFAULT_RETRY_DEAD_THRESHOLD);
 
     private final ScheduledThreadPoolExecutor retryRollbacking =
-        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(RETRY_ROLLBACKING, 1));
+        new ScheduledThreadPoolExecutor(1, CoordinatorThreads.newThreadFactory(RETRY_ROLLBACKING, 1));
 
     private final ScheduledThreadPoolExecutor retryCommitting =
-        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(RETRY_COMMITTING, 1));
+        new ScheduledThreadPoolExecutor(1, CoordinatorThreads.newThreadFactory(RETRY_COMMITTING, 1));
 
     private final ScheduledThreadPoolExecutor asyncCommitting =
-        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(ASYNC_COMMITTING, 1));
+        new ScheduledThreadPoolExecutor(1, CoordinatorThreads.newThreadFactory(ASYNC_COMMITTING, 1));
 
     private final ScheduledThreadPoolExecutor timeoutCheck =
-        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(TX_TIMEOUT_CHECK, 1));
+        new ScheduledThreadPoolExecutor(1, CoordinatorThreads.newThreadFactory(TX_TIMEOUT_CHECK, 1));
 
     private final ScheduledThreadPoolExecutor undoLogDelete =
         new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(UNDOLOG_DELETE, 1));
 
     private final ScheduledThreadPoolExecutor syncProcessing =
-        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(SYNC_PROCESSING, 1));
+        new ScheduledThreadPoolExecutor(1, CoordinatorThreads.newThreadFactory(SYNC_PROCESSING, 1));
 
     private final GlobalStatus[] retryRollbackingStatuses = new GlobalStatus[] {
         GlobalStatus.TimeoutRollbacking,
@@ -193,10 +202,14 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
 
     private final ThreadPoolExecutor branchRemoveExecutor;
 
+    private final Map<DueKind, ReentrantLock> dueTaskLocks = new EnumMap<>(DueKind.class);
+
     private RemotingServer remotingServer;
 
     private final DefaultCore core;
 
+    private final BranchPhaseTwoBatcher phaseTwoBatcher;
+
     private static volatile DefaultCoordinator instance;
 
     /**
@@ -210,6 +223,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         }
         this.remotingServer = remotingServer;
         this.core = new DefaultCore(remotingServer);
+        this.phaseTwoBatcher = new BranchPhaseTwoBatcher(remotingServer);
         boolean enableBranchAsyncRemove = CONFIG.getBoolean(
                 ConfigurationKeys.ENABLE_BRANCH_ASYNC_REMOVE, DEFAULT_ENABLE_BRANCH_ASYNC_REMOVE);
         // create branchRemoveExecutor
@@ -223,6 +237,9 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         } else {
             branchRemoveExecutor = null;
         }
+        for (DueKind dueKind : DueKind.values()) {
+            dueTaskLocks.put(dueKind, new ReentrantLock());
+        }
     }
 
     public static DefaultCoordinator getInstance(RemotingServer remotingServer) {
@@ -313,9 +330,72 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
     protected void doBranchRegister(BranchRegisterRequest request, BranchRegisterResponse response,
                                     RpcContext rpcContext) throws TransactionException {
         MDC.put(RootContext.MDC_KEY_XID, request.getXid());
-        response.setBranchId(
-                core.branchRegister(request.getBranchType(), request.getResourceId(), rpcContext.getClientId(),
+        try {
+            if (request.getRowLockKeys() != null) {
+                response.setBranchId(
+                    core.branchRegister(request.getBranchType(), request.getResourceId(), rpcContext.getClientId(),
+                        request.getXid(), request.getApplicationData(), request.getRowLockKeys()));
+            } else {
+                response.setBranchId(
+                    core.branchRegister(request.getBranchType(), request.getResourceId(), rpcContext.getClientId(),
                         request.getXid(), request.getApplicationData(), request.getLockKey()));
+            }
+        } catch (BranchTransactionException e) {
+            if (e.getCode() != TransactionExceptionCode.LockKeyConflict || !awaitLock(request, rpcContext)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Park a branch registration which hit a lock conflict, it is handled again once the rows are released or the
+     * wait deadline expires, and answered asynchronously.
+     *
+     * @param request    the branch register request
+     * @param rpcContext the rpc context
+     * @return true if the request was parked and its response deferred
+     */
+    private boolean awaitLock(BranchRegisterRequest request, RpcContext rpcContext) {
+        DeferredResponse deferredResponse = DeferredResponse.current();
+        LockWaitManager lockWaitManager = LockWaitManager.getInstance();
+        if (deferredResponse == null || !lockWaitManager.isEnabled()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long deadline = deferredResponse.getDeadline();
+        if (deadline == 0L) {
+            long waitTimeout = lockWaitManager.getWaitTimeout(request.getApplicationData());
+            if (waitTimeout <= 0L) {
+                return false;
+            }
+            deadline = now + waitTimeout;
+        }
+        if (now >= deadline) {
+            return false;
+        }
+        long finalDeadline = deadline;
+        // a registration parked again keeps the place it got when it waited first
+        long waitSequence = deferredResponse.getWaitSequence() > 0L ? deferredResponse.getWaitSequence()
+            : lockWaitManager.nextSequence();
+        Runnable resume = () -> {
+            DeferredResponse resumed = new DeferredResponse(deferredResponse.getResponder());
+            resumed.setDeadline(finalDeadline);
+            resumed.setWaitSequence(waitSequence);
+            DeferredResponse.bind(resumed);
+            try {
+                AbstractResultMessage result = onRequest(request, rpcContext);
+                if (!resumed.isDeferred()) {
+                    resumed.respond(result);
+                }
+            } finally {
+                DeferredResponse.unbind();
+                MDC.clear();
+            }
+        };
+        deferredResponse.defer();
+        lockWaitManager.await(request.getXid(), request.getResourceId(), request.getLockKey(), deadline, waitSequence,
+            resume);
+        return true;
     }
 
     @Override
@@ -339,10 +419,23 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      * Timeout check.
      */
     protected void timeoutCheck() {
+        ReentrantLock dueTaskLock = dueTaskLocks.get(DueKind.TIMEOUT);
+        if (!dueTaskLock.tryLock()) {
+            // another run of the task is not done yet and has polled the due sessions
+            return;
+        }
+        try {
+            doTimeoutCheck();
+        } finally {
+            dueTaskLock.unlock();
+        }
+    }
+
+    private void doTimeoutCheck() {
         SessionCondition sessionCondition = new SessionCondition(GlobalStatus.Begin);
         sessionCondition.setLazyLoadBranch(true);
         Collection<GlobalSession> beginGlobalsessions =
-            SessionHolder.getRootSessionManager().findGlobalSessions(sessionCondition);
+            findDueGlobalSessions(TX_TIMEOUT_CHECK, DueKind.TIMEOUT, sessionCondition, TIMEOUT_RETRY_PERIOD);
         if (CollectionUtils.isEmpty(beginGlobalsessions)) {
             return;
         }
@@ -375,7 +468,6 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         if (!beginGlobalsessions.isEmpty() && LOGGER.isDebugEnabled()) {
             LOGGER.debug("Global transaction timeout check end. ");
         }
-
     }
 
 
@@ -383,14 +475,29 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      * Handle retry rollbacking.
      */
     protected void handleRetryRollbacking() {
+        ReentrantLock dueTaskLock = dueTaskLocks.get(DueKind.RETRY_ROLLBACKING);
+        if (!dueTaskLock.tryLock()) {
+            // another run of the task is not done yet and has polled the due sessions
+            return;
+        }
+        try {
+            doHandleRetryRollbacking();
+        } finally {
+            dueTaskLock.unlock();
+        }
+    }
+
+    private void doHandleRetryRollbacking() {
         SessionCondition sessionCondition = new SessionCondition(retryRollbackingStatuses);
         sessionCondition.setLazyLoadBranch(true);
         Collection<GlobalSession> rollbackingSessions =
-            SessionHolder.getRootSessionManager().findGlobalSessions(sessionCondition);
+            findDueGlobalSessions(RETRY_ROLLBACKING, DueKind.RETRY_ROLLBACKING, sessionCondition, ROLLBACKING_RETRY_PERIOD);
         if (CollectionUtils.isEmpty(rollbackingSessions)) {
             return;
         }
         long now = System.currentTimeMillis();
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> prefetched = phaseTwoBatcher.rollback(rollbackingSessions,
+            rollbackingSession -> !isRetryTimeout(now, MAX_ROLLBACK_RETRY_TIMEOUT, rollbackingSession.getBeginTime()));
         SessionHelper.forEach(rollbackingSessions, rollbackingSession -> {
             try {
                 if (isRetryTimeout(now, MAX_ROLLBACK_RETRY_TIMEOUT, rollbackingSession.getBeginTime())) {
@@ -403,7 +510,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
                     //The function of this 'return' is 'continue'.
                     return;
                 }
-                core.doGlobalRollback(rollbackingSession, true);
+                core.doGlobalRollback(rollbackingSession, true, prefetched.get(rollbackingSession.getXid()));
             } catch (TransactionException ex) {
                 LOGGER.error("Failed to retry rollbacking [{}] {} {}", rollbackingSession.getXid(), ex.getCode(), ex.getMessage());
             }
@@ -414,14 +521,30 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      * Handle retry committing.
      */
     protected void handleRetryCommitting() {
+        ReentrantLock dueTaskLock = dueTaskLocks.get(DueKind.RETRY_COMMITTING);
+        if (!dueTaskLock.tryLock()) {
+            // another run of the task is not done yet and has polled the due sessions
+            return;
+        }
+        try {
+            doHandleRetryCommitting();
+        } finally {
+            dueTaskLock.unlock();
+        }
+    }
+
+    private void doHandleRetryCommitting() {
         SessionCondition retryCommittingSessionCondition = new SessionCondition(retryCommittingStatuses);
         retryCommittingSessionCondition.setLazyLoadBranch(true);
         Collection<GlobalSession> committingSessions =
-            SessionHolder.getRootSessionManager().findGlobalSessions(retryCommittingSessionCondition);
+            findDueGlobalSessions(RETRY_COMMITTING, DueKind.RETRY_COMMITTING, retryCommittingSessionCondition,
+                COMMITTING_RETRY_PERIOD);
         if (CollectionUtils.isEmpty(committingSessions)) {
             return;
         }
         long now = System.currentTimeMillis();
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> prefetched = phaseTwoBatcher.commit(committingSessions, true,
+            committingSession -> !isRetryTimeout(now, MAX_COMMIT_RETRY_TIMEOUT, committingSession.getBeginTime()));
         SessionHelper.forEach(committingSessions, committingSession -> {
             try {
                 if (isRetryTimeout(now, MAX_COMMIT_RETRY_TIMEOUT, committingSession.getBeginTime())) {
@@ -436,7 +559,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
                     && committingSession.getBranchSessions().isEmpty()) {
                     SessionHelper.endCommitted(committingSession,true);
                 }
-                core.doGlobalCommit(committingSession, true);
+                core.doGlobalCommit(committingSession, true, prefetched.get(committingSession.getXid()));
             } catch (TransactionException ex) {
                 LOGGER.error("Failed to retry committing [{}] {} {}", committingSession.getXid(), ex.getCode(), ex.getMessage());
             }
@@ -447,21 +570,73 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      * Handle async committing.
      */
     protected void handleAsyncCommitting() {
+        ReentrantLock dueTaskLock = dueTaskLocks.get(DueKind.ASYNC_COMMITTING);
+        if (!dueTaskLock.tryLock()) {
+            // another run of the task is not done yet and has polled the due sessions
+            return;
+        }
+        try {
+            doHandleAsyncCommitting();
+        } finally {
+            dueTaskLock.unlock();
+        }
+    }
+
+    private void doHandleAsyncCommitting() {
         SessionCondition sessionCondition = new SessionCondition(GlobalStatus.AsyncCommitting);
         Collection<GlobalSession> asyncCommittingSessions =
-                SessionHolder.getRootSessionManager().findGlobalSessions(sessionCondition);
+                findDueGlobalSessions(ASYNC_COMMITTING, DueKind.ASYNC_COMMITTING, sessionCondition, ASYNC_COMMITTING_RETRY_PERIOD);
         if (CollectionUtils.isEmpty(asyncCommittingSessions)) {
             return;
         }
+        // the commits of the whole backlog go out in a few batches per RM
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> prefetched =
+            phaseTwoBatcher.commit(asyncCommittingSessions, true, asyncCommittingSession -> true);
         SessionHelper.forEach(asyncCommittingSessions, asyncCommittingSession -> {
             try {
-                core.doGlobalCommit(asyncCommittingSession, true);
+                core.doGlobalCommit(asyncCommittingSession, true, prefetched.get(asyncCommittingSession.getXid()));
             } catch (TransactionException ex) {
                 LOGGER.error("Failed to async committing [{}] {} {}", asyncCommittingSession.getXid(), ex.getCode(), ex.getMessage(), ex);
             }
         });
     }
 
+    /**
+     * Find the sessions due for a scheduled task, through the deadline index of the root session manager if it has
+     * one, otherwise by scanning it.
+     *
+     * @param task        the task name
+     * @param dueKind     the due kind
+     * @param condition   the condition of the scan
+     * @param retryPeriod the period of the task
+     * @return the due sessions
+     */
+    private Collection<GlobalSession> findDueGlobalSessions(String task, DueKind dueKind, SessionCondition condition,
+                                                            long retryPeriod) {
+        SessionManager rootSessionManager = SessionHolder.getRootSessionManager();
+        SessionDeadlineIndex deadlineIndex = rootSessionManager.getDeadlineIndex();
+        Collection<GlobalSession> dueSessions = deadlineIndex != null
+            ? deadlineIndex.pollDue(dueKind, System.currentTimeMillis(), retryPeriod)
+            : rootSessionManager.findGlobalSessions(condition);
+        MetricsPublisher.recordDueSessions(task, dueSessions == null ? 0 : dueSessions.size());
+        return dueSessions;
+    }
+
+    /**
+     * Run a scheduled session task and record how long it took.
+     *
+     * @param task    the task name
+     * @param handler the task
+     */
+    private void timedTick(String task, Runnable handler) {
+        long start = System.nanoTime();
+        try {
+            handler.run();
+        } finally {
+            MetricsPublisher.recordSessionTick(task, System.nanoTime() - start);
+        }
+    }
+
     /**
      * Undo log delete.
      */
@@ -607,19 +782,23 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      */
     public void init() {
         retryRollbacking.scheduleAtFixedRate(
-            () -> SessionHolder.distributedLockAndExecute(RETRY_ROLLBACKING, this::handleRetryRollbacking), 0,
+            () -> SessionHolder.distributedLockAndExecute(RETRY_ROLLBACKING,
+                () -> timedTick(RETRY_ROLLBACKING, this::handleRetryRollbacking)), 0,
             ROLLBACKING_RETRY_PERIOD, TimeUnit.MILLISECONDS);
 
         retryCommitting.scheduleAtFixedRate(
-            () -> SessionHolder.distributedLockAndExecute(RETRY_COMMITTING, this::handleRetryCommitting), 0,
+            () -> SessionHolder.distributedLockAndExecute(RETRY_COMMITTING,
+                () -> timedTick(RETRY_COMMITTING, this::handleRetryCommitting)), 0,
             COMMITTING_RETRY_PERIOD, TimeUnit.MILLISECONDS);
 
         asyncCommitting.scheduleAtFixedRate(
-            () -> SessionHolder.distributedLockAndExecute(ASYNC_COMMITTING, this::handleAsyncCommitting), 0,
+            () -> SessionHolder.distributedLockAndExecute(ASYNC_COMMITTING,
+                () -> timedTick(ASYNC_COMMITTING, this::handleAsyncCommitting)), 0,
             ASYNC_COMMITTING_RETRY_PERIOD, TimeUnit.MILLISECONDS);
 
         timeoutCheck.scheduleAtFixedRate(
-            () -> SessionHolder.distributedLockAndExecute(TX_TIMEOUT_CHECK, this::timeoutCheck), 0,
+            () -> SessionHolder.distributedLockAndExecute(TX_TIMEOUT_CHECK,
+                () -> timedTick(TX_TIMEOUT_CHECK, this::timeoutCheck)), 0,
             TIMEOUT_RETRY_PERIOD, TimeUnit.MILLISECONDS);
 
         undoLogDelete.scheduleAtFixedRate(
@@ -673,6 +852,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         } catch (InterruptedException ignore) {
 
         }
+        LockWaitManager.getInstance().destroy();
         // 2. second close netty flow
         if (remotingServer instanceof NettyRemotingServer) {
             ((NettyRemotingServer) remotingServer).destroy();
@@ -27,6 +27,7 @@ import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.context.RootContext;
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.logger.StackTraceLogger;
 import org.apache.seata.core.model.BranchStatus;
 import org.apache.seata.core.model.BranchType;
@@ -108,6 +109,13 @@ public class DefaultCore implements Core {
             applicationData, lockKeys);
     }
 
+    @Override
+    public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                               String applicationData, RowLockKeys rowLockKeys) throws TransactionException {
+        return getCore(branchType).branchRegister(branchType, resourceId, clientId, xid,
+            applicationData, rowLockKeys);
+    }
+
     @Override
     public void branchReport(BranchType branchType, String xid, long branchId, BranchStatus status,
                              String applicationData) throws TransactionException {
@@ -193,6 +201,20 @@ public class DefaultCore implements Core {
 
     @Override
     public boolean doGlobalCommit(GlobalSession globalSession, boolean retrying) throws TransactionException {
+        return doGlobalCommit(globalSession, retrying, null);
+    }
+
+    /**
+     * Do global commit, taking the outcomes of the requests already sent by {@link BranchPhaseTwoBatcher}.
+     *
+     * @param globalSession the global session
+     * @param retrying      the retrying
+     * @param prefetched    the outcomes of the batched requests, null if none were sent
+     * @return is global commit
+     * @throws TransactionException the transaction exception
+     */
+    public boolean doGlobalCommit(GlobalSession globalSession, boolean retrying,
+        BranchPhaseTwoDispatcher.Outcomes prefetched) throws TransactionException {
         boolean success = true;
         // start committing event
         MetricsPublisher.postSessionDoingEvent(globalSession, retrying);
@@ -201,6 +223,12 @@ public class DefaultCore implements Core {
             success = getCore(BranchType.SAGA).doGlobalCommit(globalSession, retrying);
         } else {
             List<BranchSession> branchSessions = globalSession.getSortedBranches();
+            BranchPhaseTwoDispatcher.Outcomes outcomes = prefetched != null ? prefetched
+                : PARALLEL_HANDLE_BRANCH && branchSessions.size() >= 2
+                ? BranchPhaseTwoDispatcher.getInstance().dispatch(branchSessions,
+                    branchSession -> needCommitRequest(branchSession, retrying), BranchStatus.PhaseTwo_Committed,
+                    branchSession -> getCore(branchSession.getBranchType()).branchCommit(globalSession, branchSession))
+                : BranchPhaseTwoDispatcher.Outcomes.EMPTY;
             Boolean result = SessionHelper.forEach(branchSessions, branchSession -> {
                 // if not retrying, skip the canBeCommittedAsync branches
                 if (!retrying && branchSession.canBeCommittedAsync()) {
@@ -221,7 +249,8 @@ public class DefaultCore implements Core {
                     return CONTINUE;
                 }
                 try {
-                    BranchStatus branchStatus = getCore(branchSession.getBranchType()).branchCommit(globalSession, branchSession);
+                    BranchStatus branchStatus = outcomes.take(branchSession,
+                        branch -> getCore(branch.getBranchType()).branchCommit(globalSession, branch));
                     if (isXaerNotaTimeout(globalSession,branchStatus)) {
                         LOGGER.info("Commit branch XAER_NOTA retry timeout, xid = {} branchId = {}", globalSession.getXid(), branchSession.getBranchId());
                         branchStatus = BranchStatus.PhaseTwo_Committed;
@@ -262,9 +291,12 @@ public class DefaultCore implements Core {
                     }
                 }
                 return CONTINUE;
-            }, PARALLEL_HANDLE_BRANCH && branchSessions.size() >= 2);
+            });
             // Return if the result is not null
             if (result != null) {
+                if (globalSession.getStatus() == GlobalStatus.CommitRetrying) {
+                    outcomes.removeFinished(globalSession, BranchStatus.PhaseTwo_Committed, !retrying);
+                }
                 return result;
             }
             //If has branch and not all remaining branches can be committed asynchronously,
@@ -308,6 +340,20 @@ public class DefaultCore implements Core {
 
     @Override
     public boolean doGlobalRollback(GlobalSession globalSession, boolean retrying) throws TransactionException {
+        return doGlobalRollback(globalSession, retrying, null);
+    }
+
+    /**
+     * Do global rollback, taking the outcomes of the requests already sent by {@link BranchPhaseTwoBatcher}.
+     *
+     * @param globalSession the global session
+     * @param retrying      the retrying
+     * @param prefetched    the outcomes of the batched requests, null if none were sent
+     * @return is global rollback
+     * @throws TransactionException the transaction exception
+     */
+    public boolean doGlobalRollback(GlobalSession globalSession, boolean retrying,
+        BranchPhaseTwoDispatcher.Outcomes prefetched) throws TransactionException {
         boolean success = true;
         // start rollback event
         MetricsPublisher.postSessionDoingEvent(globalSession, retrying);
@@ -316,6 +362,12 @@ public class DefaultCore implements Core {
             success = getCore(BranchType.SAGA).doGlobalRollback(globalSession, retrying);
         } else {
             List<BranchSession> branchSessions = globalSession.getReverseSortedBranches();
+            BranchPhaseTwoDispatcher.Outcomes outcomes = prefetched != null ? prefetched
+                : PARALLEL_HANDLE_BRANCH && branchSessions.size() >= 2
+                ? BranchPhaseTwoDispatcher.getInstance().dispatch(branchSessions,
+                    branchSession -> branchSession.getStatus() != BranchStatus.PhaseOne_Failed,
+                    BranchStatus.PhaseTwo_Rollbacked, branchSession -> branchRollback(globalSession, branchSession))
+                : BranchPhaseTwoDispatcher.Outcomes.EMPTY;
             Boolean result = SessionHelper.forEach(branchSessions, branchSession -> {
                 BranchStatus currentBranchStatus = branchSession.getStatus();
                 if (currentBranchStatus == BranchStatus.PhaseOne_Failed) {
@@ -323,7 +375,8 @@ public class DefaultCore implements Core {
                     return CONTINUE;
                 }
                 try {
-                    BranchStatus branchStatus = branchRollback(globalSession, branchSession);
+                    BranchStatus branchStatus = outcomes.take(branchSession,
+                        branch -> branchRollback(globalSession, branch));
                     if (isXaerNotaTimeout(globalSession, branchStatus)) {
                         LOGGER.info("Rollback branch XAER_NOTA retry timeout, xid = {} branchId = {}", globalSession.getXid(), branchSession.getBranchId());
                         branchStatus = BranchStatus.PhaseTwo_Rollbacked;
@@ -353,9 +406,13 @@ public class DefaultCore implements Core {
                     }
                     throw new TransactionException(ex);
                 }
-            }, PARALLEL_HANDLE_BRANCH && branchSessions.size() >= 2);
+            });
             // Return if the result is not null
             if (result != null) {
+                if (globalSession.getStatus() == GlobalStatus.RollbackRetrying
+                    || globalSession.getStatus() == GlobalStatus.TimeoutRollbackRetrying) {
+                    outcomes.removeFinished(globalSession, BranchStatus.PhaseTwo_Rollbacked, !retrying);
+                }
                 return result;
             }
         }
@@ -396,6 +453,18 @@ public class DefaultCore implements Core {
         }
     }
 
+    /**
+     * Whether the commit of a branch sends a request to its RM, the other branches are skipped or removed as is.
+     */
+    static boolean needCommitRequest(BranchSession branchSession, boolean retrying) {
+        if (!retrying && branchSession.canBeCommittedAsync()) {
+            return false;
+        }
+        BranchStatus currentStatus = branchSession.getStatus();
+        return currentStatus != BranchStatus.PhaseOne_Failed
+            && !(currentStatus == BranchStatus.PhaseOne_RDONLY && branchSession.getBranchType() == BranchType.XA);
+    }
+
     private boolean isXaerNotaTimeout(GlobalSession globalSession, BranchStatus branchStatus) {
         if (BranchStatus.PhaseTwo_CommitFailed_XAER_NOTA_Retryable.equals(branchStatus) ||
                 BranchStatus.PhaseTwo_RollbackFailed_XAER_NOTA_Retryable.equals(branchStatus)) {
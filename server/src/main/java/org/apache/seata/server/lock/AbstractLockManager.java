@@ -25,6 +25,7 @@ import org.apache.seata.common.util.StringUtils;
 import org.apache.seata.core.exception.TransactionException;
 import org.apache.seata.core.lock.Locker;
 import org.apache.seata.core.lock.RowLock;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.LockStatus;
 import org.apache.seata.server.session.BranchSession;
 import org.slf4j.Logger;
@@ -129,6 +130,11 @@ public abstract class AbstractLockManager implements LockManager {
         long transactionId = branchSession.getTransactionId();
         long branchId = branchSession.getBranchId();
 
+        RowLockKeys rowLockKeys = branchSession.getRowLockKeys();
+        if (rowLockKeys != null) {
+            // received in binary form, no need to parse the lock key
+            return rowLockKeys.toRowLocks(xid, transactionId, branchId, resourceId);
+        }
         return collectRowLocks(lockKey, resourceId, xid, transactionId, branchId);
     }
 
@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.lock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.seata.common.ConfigurationKeys;
+import org.apache.seata.common.DefaultValues;
+import org.apache.seata.common.thread.NamedThreadFactory;
+import org.apache.seata.common.util.CollectionUtils;
+import org.apache.seata.common.util.StringUtils;
+import org.apache.seata.config.ConfigurationFactory;
+import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLock;
+import org.apache.seata.server.session.BranchSession;
+import org.apache.seata.server.session.GlobalSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.seata.common.Constants.LOCK_WAIT_TIMEOUT;
+
+/**
+ * Parks branch registrations that hit a lock conflict in FIFO queues per row, and resumes them when the row is
+ * released or when their wait deadline expires. A registration keeps its place in the queues when it is parked again
+ * after being resumed.
+ * <p>
+ * Nothing here blocks a thread: a parked registration is only a {@link Runnable} which is handed to the resume
+ * executor once it is woken up, the caller is expected to answer the client from that runnable.
+ */
+public class LockWaitManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockWaitManager.class);
+
+    private static final String TIMEOUT_THREAD_PREFIX = "lockWaitTimeout";
+
+    private static final String RESUME_THREAD_PREFIX = "lockWaitResume";
+
+    private static final String ROW_KEY_SPLIT_CHAR = "^^^";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Comparator<LockWaiter> WAIT_ORDER = Comparator.comparingLong(waiter -> waiter.sequence);
+
+    private static final LockWaitManager INSTANCE = new LockWaitManager();
+
+    private final boolean enabled;
+
+    private final long maxWaitTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String/* rowKey */, Queue<LockWaiter>> waitQueues = new HashMap<>();
+
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile ScheduledThreadPoolExecutor timeoutScheduler;
+
+    private volatile ExecutorService resumeExecutor;
+
+    LockWaitManager() {
+        this.enabled = ConfigurationFactory.getInstance().getBoolean(ConfigurationKeys.SERVER_ENABLE_LOCK_WAIT,
+            DefaultValues.DEFAULT_SERVER_ENABLE_LOCK_WAIT);
+        this.maxWaitTimeout = ConfigurationFactory.getInstance().getLong(ConfigurationKeys.SERVER_MAX_LOCK_WAIT_TIMEOUT,
+            DefaultValues.DEFAULT_SERVER_MAX_LOCK_WAIT_TIMEOUT);
+    }
+
+    /**
+     * Gets the lock wait manager.
+     *
+     * @return the lock wait manager
+     */
+    public static LockWaitManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Is lock wait enabled on this server.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets how long a registration may wait, as asked by the client and capped by the server.
+     *
+     * @param applicationData the application data of the branch register request
+     * @return the wait timeout in millis, 0 if the registration must not wait
+     */
+    public long getWaitTimeout(String applicationData) {
+        if (StringUtils.isBlank(applicationData)) {
+            return 0L;
+        }
+        try {
+            Map<?, ?> data = OBJECT_MAPPER.readValue(applicationData, HashMap.class);
+            Object waitTimeout = data.get(LOCK_WAIT_TIMEOUT);
+            if (waitTimeout instanceof Number) {
+                return Math.max(0L, Math.min(((Number)waitTimeout).longValue(), maxWaitTimeout));
+            }
+        } catch (IOException e) {
+            LOGGER.error("failed to get application data: {}", e.getMessage(), e);
+        }
+        return 0L;
+    }
+
+    /**
+     * Whether any registration is parked.
+     *
+     * @return the boolean
+     */
+    public boolean hasWaiters() {
+        return waiterCount.get() > 0;
+    }
+
+    /**
+     * Gets a new wait sequence, the registrations waiting on a row are resumed in the order of their sequences.
+     *
+     * @return the wait sequence
+     */
+    public long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Park a registration on the rows of its lock key until one of them is released or the deadline expires.
+     *
+     * @param xid        the xid
+     * @param resourceId the resource id
+     * @param lockKey    the lock key
+     * @param deadline   the deadline in epoch millis
+     * @param resume     run once the registration may try again
+     */
+    public void await(String xid, String resourceId, String lockKey, long deadline, Runnable resume) {
+        await(xid, resourceId, lockKey, deadline, nextSequence(), resume);
+    }
+
+    /**
+     * Park a registration on the rows of its lock key until one of them is released or the deadline expires. A
+     * registration which was resumed and hit a conflict again is parked with the sequence it got first, so it keeps
+     * its place ahead of the registrations which came later.
+     *
+     * @param xid          the xid
+     * @param resourceId   the resource id
+     * @param lockKey      the lock key
+     * @param deadline     the deadline in epoch millis
+     * @param waitSequence the wait sequence of the registration
+     * @param resume       run once the registration may try again
+     */
+    public void await(String xid, String resourceId, String lockKey, long deadline, long waitSequence,
+                      Runnable resume) {
+        ensureExecutors();
+        LockWaiter waiter = new LockWaiter(waitSequence, xid, resourceId, rows(resourceId, lockKey), resume);
+        lock.lock();
+        try {
+            for (String rowKey : waiter.rows.keySet()) {
+                waitQueues.computeIfAbsent(rowKey, key -> new PriorityQueue<>(WAIT_ORDER)).add(waiter);
+            }
+            waiterCount.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        waiter.timeout = timeoutScheduler.schedule(() -> resume(waiter),
+            Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        // the holder may have released the rows before the waiter was queued
+        if (isLockable(xid, resourceId, lockKey)) {
+            resume(waiter);
+        }
+    }
+
+    /**
+     * Wake up the first registration waiting on the rows of the branch which are free now.
+     *
+     * @param branchSession the branch session which released its locks
+     */
+    public void wakeUp(BranchSession branchSession) {
+        if (!hasWaiters() || !branchSession.isAT()) {
+            return;
+        }
+        wakeUp(rows(branchSession.getResourceId(), branchSession.getLockKey()), 0L);
+    }
+
+    /**
+     * Wake up the first registration waiting on the rows of the global session which are free now.
+     *
+     * @param globalSession the global session which released its locks
+     */
+    public void wakeUp(GlobalSession globalSession) {
+        if (!hasWaiters()) {
+            return;
+        }
+        Map<String, String> rows = new LinkedHashMap<>();
+        for (BranchSession branchSession : globalSession.getBranchSessions()) {
+            if (branchSession.isAT()) {
+                rows.putAll(rows(branchSession.getResourceId(), branchSession.getLockKey()));
+            }
+        }
+        wakeUp(rows, 0L);
+    }
+
+    /**
+     * Wake up the head of the queue of each row. A branch may ask to release rows it never got (e.g. after losing
+     * an acquire), so the head is only resumed when those rows are free for it, and otherwise stays at the head.
+     *
+     * @param rows             the released rows, row key to the lock key of the row
+     * @param skipWaitSequence the wait sequence of a registration which must not be woken up
+     */
+    private void wakeUp(Map<String, String> rows, long skipWaitSequence) {
+        if (CollectionUtils.isEmpty(rows)) {
+            return;
+        }
+        Map<LockWaiter, List<String>> heads = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Map.Entry<String, String> row : rows.entrySet()) {
+                Queue<LockWaiter> queue = waitQueues.get(row.getKey());
+                LockWaiter head = queue == null ? null : queue.peek();
+                if (head != null && head.sequence != skipWaitSequence) {
+                    heads.computeIfAbsent(head, key -> new ArrayList<>()).add(row.getValue());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        heads.forEach((waiter, rowLockKeys) -> resumeExecutor.execute(() -> {
+            if (!waiter.done.get() && isLockable(waiter.xid, waiter.resourceId, String.join(";", rowLockKeys))) {
+                resume(waiter);
+            }
+        }));
+    }
+
+    private void resume(LockWaiter waiter) {
+        if (!waiter.done.compareAndSet(false, true)) {
+            return;
+        }
+        waiterCount.decrementAndGet();
+        if (waiter.timeout != null) {
+            waiter.timeout.cancel(false);
+        }
+        Map<String, String> headRows = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Map.Entry<String, String> row : waiter.rows.entrySet()) {
+                Queue<LockWaiter> queue = waitQueues.get(row.getKey());
+                if (queue == null) {
+                    continue;
+                }
+                if (queue.peek() == waiter) {
+                    headRows.put(row.getKey(), row.getValue());
+                }
+                if (queue.remove(waiter) && queue.isEmpty()) {
+                    waitQueues.remove(row.getKey());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        resumeExecutor.execute(() -> {
+            try {
+                waiter.resume.run();
+            } catch (Throwable e) {
+                LOGGER.error("resume lock waiter failed: {}", e.getMessage(), e);
+            }
+            // hand the rows over to the next registrations if the resumed one did not take them,
+            // unless it was parked again and so is still the head
+            wakeUp(headRows, waiter.sequence);
+        });
+    }
+
+    private boolean isLockable(String xid, String resourceId, String lockKey) {
+        try {
+            return LockerManagerFactory.getLockManager().isLockable(xid, resourceId, lockKey);
+        } catch (TransactionException e) {
+            return true;
+        }
+    }
+
+    private Map<String, String> rows(String resourceId, String lockKey) {
+        Map<String, String> rows = new LinkedHashMap<>();
+        if (StringUtils.isBlank(lockKey)) {
+            return rows;
+        }
+        BranchSession branchSession = new BranchSession();
+        branchSession.setResourceId(resourceId);
+        branchSession.setLockKey(lockKey);
+        List<RowLock> rowLocks = LockerManagerFactory.getLockManager().collectRowLocks(branchSession);
+        for (RowLock rowLock : rowLocks) {
+            rows.put(resourceId + ROW_KEY_SPLIT_CHAR + rowLock.getTableName() + ROW_KEY_SPLIT_CHAR + rowLock.getPk(),
+                rowLock.getTableName() + ":" + rowLock.getPk());
+        }
+        return rows;
+    }
+
+    private void ensureExecutors() {
+        if (resumeExecutor == null) {
+            synchronized (this) {
+                if (resumeExecutor == null) {
+                    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                        new NamedThreadFactory(TIMEOUT_THREAD_PREFIX, 1, true));
+                    scheduler.setRemoveOnCancelPolicy(true);
+                    timeoutScheduler = scheduler;
+                    int threads = Runtime.getRuntime().availableProcessors();
+                    resumeExecutor = new ThreadPoolExecutor(threads, threads, Integer.MAX_VALUE,
+                        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                        new NamedThreadFactory(RESUME_THREAD_PREFIX, threads, true));
+                }
+            }
+        }
+    }
+
+    /**
+     * Shutdown the executors, parked registrations are dropped and left to the client request timeout.
+     */
+    public synchronized void destroy() {
+        if (resumeExecutor != null) {
+            timeoutScheduler.shutdownNow();
+            resumeExecutor.shutdown();
+            timeoutScheduler = null;
+            resumeExecutor = null;
+        }
+        lock.lock();
+        try {
+            waitQueues.clear();
+            waiterCount.set(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class LockWaiter {
+
+        private final long sequence;
+
+        private final String xid;
+
+        private final String resourceId;
+
+        /**
+         * row key to the lock key of the row
+         */
+        private final Map<String, String> rows;
+
+        private final Runnable resume;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private volatile ScheduledFuture<?> timeout;
+
+        LockWaiter(long sequence, String xid, String resourceId, Map<String, String> rows, Runnable resume) {
+            this.sequence = sequence;
+            this.xid = xid;
+            this.resourceId = resourceId;
+            this.rows = rows;
+            this.resume = resume;
+        }
+    }
+}
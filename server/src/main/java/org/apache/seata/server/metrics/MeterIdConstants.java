@@ -106,6 +106,18 @@ public interface MeterIdConstants {
         .withTag(IdConstants.STATUS_KEY, IdConstants.STATUS_VALUE_AFTER_COMMITTED_KEY);
 
 
+    Id TIMER_SESSION_TICK = new Id(IdConstants.SEATA_SESSION_TICK)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_TIMER);
+
+    Id SUMMARY_SESSION_DUE = new Id(IdConstants.SEATA_SESSION_DUE)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_SUMMARY);
+
+    Id GAUGE_REQUEST_EXECUTOR = new Id(IdConstants.SEATA_REQUEST_EXECUTOR)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_GAUGE);
+
     Id SUMMARY_EXP =  new Id(IdConstants.SEATA_EXCEPTION)
             .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
             .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_SUMMARY);
@@ -16,9 +16,15 @@
  */
 package org.apache.seata.server.metrics;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.seata.common.thread.PartitionedExecutor;
 import org.apache.seata.core.event.EventBus;
 import org.apache.seata.core.event.GlobalTransactionEvent;
 import org.apache.seata.core.model.GlobalStatus;
+import org.apache.seata.metrics.Id;
+import org.apache.seata.metrics.IdConstants;
+import org.apache.seata.metrics.registry.Registry;
 import org.apache.seata.server.event.EventBusManager;
 import org.apache.seata.server.session.GlobalSession;
 
@@ -94,4 +100,53 @@ public class MetricsPublisher {
             globalSession.getTransactionName(), globalSession.getApplicationId(),
             globalSession.getTransactionServiceGroup(), globalSession.getBeginTime(), null, status, retryGlobal, retryBranch));
     }
+
+    /**
+     * Record how long one run of a scheduled session task took.
+     *
+     * @param task         the task name
+     * @param elapsedNanos the duration of the run
+     */
+    public static void recordSessionTick(String task, long elapsedNanos) {
+        Registry registry = MetricsManager.get().getRegistry();
+        if (registry != null) {
+            registry.getTimer(new Id(MeterIdConstants.TIMER_SESSION_TICK.getName())
+                .withTag(MeterIdConstants.TIMER_SESSION_TICK.getTags()).withTag(IdConstants.NAME_KEY, task))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Record the number of sessions one run of a scheduled session task found due.
+     *
+     * @param task     the task name
+     * @param dueCount the number of due sessions
+     */
+    public static void recordDueSessions(String task, int dueCount) {
+        Registry registry = MetricsManager.get().getRegistry();
+        if (registry != null) {
+            registry.getSummary(new Id(MeterIdConstants.SUMMARY_SESSION_DUE.getName())
+                .withTag(MeterIdConstants.SUMMARY_SESSION_DUE.getTags()).withTag(IdConstants.NAME_KEY, task))
+                .increase(dueCount);
+        }
+    }
+
+    /**
+     * Register the gauges of the executor of the sub requests of merged messages.
+     *
+     * @param executor the executor, nothing is registered if null
+     */
+    public static void registerRequestExecutor(PartitionedExecutor executor) {
+        Registry registry = MetricsManager.get().getRegistry();
+        if (registry != null && executor != null) {
+            registry.getGauge(requestExecutorId("queueDepth"), executor::getQueueDepth);
+            registry.getGauge(requestExecutorId("active"), executor::getActiveCount);
+            registry.getGauge(requestExecutorId("rejected"), executor::getRejectedCount);
+        }
+    }
+
+    private static Id requestExecutorId(String name) {
+        return new Id(MeterIdConstants.GAUGE_REQUEST_EXECUTOR.getName())
+            .withTag(MeterIdConstants.GAUGE_REQUEST_EXECUTOR.getTags()).withTag(IdConstants.NAME_KEY, name);
+    }
 }
@@ -17,20 +17,24 @@
 package org.apache.seata.server.session;
 
 import java.io.IOException;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.seata.common.util.BufferUtils;
+import org.apache.seata.common.Constants;
 import org.apache.seata.common.util.CompressUtil;
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchStatus;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.core.model.LockStatus;
 import org.apache.seata.server.lock.LockManager;
+import org.apache.seata.server.lock.LockWaitManager;
 import org.apache.seata.server.lock.LockerManagerFactory;
+import org.apache.seata.server.storage.file.lock.CompactLockHolder;
 import org.apache.seata.server.storage.file.lock.FileLocker;
 import org.apache.seata.server.store.SessionStorable;
 import org.apache.seata.server.store.StoreConfig;
@@ -49,9 +53,6 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     private static final int MAX_BRANCH_SESSION_SIZE = StoreConfig.getMaxBranchSessionSize();
 
-    private static ThreadLocal<ByteBuffer> byteBufferThreadLocal = ThreadLocal.withInitial(() -> ByteBuffer.allocate(
-        MAX_BRANCH_SESSION_SIZE));
-
     private String xid;
 
     private long transactionId;
@@ -64,6 +65,11 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     private String lockKey;
 
+    /**
+     * The lock keys received in binary form, only kept in memory, the lock key is what is stored.
+     */
+    private transient RowLockKeys rowLockKeys;
+
     private BranchType branchType;
 
     private BranchStatus status = BranchStatus.Unknown;
@@ -76,6 +82,8 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     private final Map<FileLocker.BucketLockMap, Set<String>> lockHolder;
 
+    private volatile CompactLockHolder compactLockHolder;
+
     private final LockManager lockManager = LockerManagerFactory.getLockManager();
 
     public BranchSession() {
@@ -175,6 +183,25 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
      */
     public void setLockKey(String lockKey) {
         this.lockKey = lockKey;
+        this.rowLockKeys = null;
+    }
+
+    /**
+     * Gets row lock keys.
+     *
+     * @return the row lock keys, null if the lock key was not received in binary form
+     */
+    public RowLockKeys getRowLockKeys() {
+        return rowLockKeys;
+    }
+
+    /**
+     * Sets row lock keys, which must match the lock key.
+     *
+     * @param rowLockKeys the row lock keys
+     */
+    public void setRowLockKeys(RowLockKeys rowLockKeys) {
+        this.rowLockKeys = rowLockKeys;
     }
 
     /**
@@ -290,6 +317,44 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
         return lockHolder;
     }
 
+    /**
+     * Gets the lock holder used by the compact lock table.
+     *
+     * @return the compact lock holder, null if the branch never locked a row in the compact lock table
+     */
+    public CompactLockHolder getCompactLockHolder() {
+        return compactLockHolder;
+    }
+
+    /**
+     * Gets the lock holder used by the compact lock table, it is only allocated when the compact lock table is used.
+     *
+     * @return the compact lock holder
+     */
+    public CompactLockHolder getOrCreateCompactLockHolder() {
+        CompactLockHolder holder = compactLockHolder;
+        if (holder == null) {
+            synchronized (this) {
+                holder = compactLockHolder;
+                if (holder == null) {
+                    holder = new CompactLockHolder();
+                    compactLockHolder = holder;
+                }
+            }
+        }
+        return holder;
+    }
+
+    /**
+     * Whether the branch holds any row lock in the file/raft lock store.
+     *
+     * @return true if no row lock is held
+     */
+    public boolean isLockHolderEmpty() {
+        CompactLockHolder holder = compactLockHolder;
+        return lockHolder.isEmpty() && (holder == null || holder.isEmpty());
+    }
+
     @Override
     public boolean lock() throws TransactionException {
         return this.lock(true, false);
@@ -305,7 +370,9 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
     @Override
     public boolean unlock() throws TransactionException {
         if (this.branchType == BranchType.AT) {
-            return lockManager.releaseLock(this);
+            boolean released = lockManager.releaseLock(this);
+            LockWaitManager.getInstance().wakeUp(this);
+            return released;
         }
         return true;
     }
@@ -324,16 +391,25 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     @Override
     public byte[] encode() {
+        return encodeTo(null).array();
+    }
+
+    @Override
+    public void encode(ByteBuffer byteBuffer) {
+        encodeTo(byteBuffer);
+    }
+
+    private ByteBuffer encodeTo(ByteBuffer target) {
 
-        byte[] resourceIdBytes = resourceId != null ? resourceId.getBytes() : null;
+        byte[] resourceIdBytes = SessionCodec.cachedUtf8(resourceId);
 
-        byte[] lockKeyBytes = lockKey != null ? lockKey.getBytes() : null;
+        byte[] lockKeyBytes = SessionCodec.utf8(lockKey);
 
-        byte[] clientIdBytes = clientId != null ? clientId.getBytes() : null;
+        byte[] clientIdBytes = SessionCodec.utf8(clientId);
 
-        byte[] applicationDataBytes = applicationData != null ? applicationData.getBytes() : null;
+        byte[] applicationDataBytes = SessionCodec.utf8(applicationData);
 
-        byte[] xidBytes = xid != null ? xid.getBytes() : null;
+        byte[] xidBytes = SessionCodec.utf8(xid);
 
         byte branchTypeByte = branchType != null ? (byte) branchType.ordinal() : -1;
 
@@ -361,56 +437,22 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
             }
         }
 
-        ByteBuffer byteBuffer = byteBufferThreadLocal.get();
-        //recycle
-        byteBuffer.clear();
+        if (target != null && target.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        ByteBuffer byteBuffer = target != null ? target : ByteBuffer.allocate(size);
 
         byteBuffer.putLong(transactionId);
         byteBuffer.putLong(branchId);
-
-        if (resourceIdBytes != null) {
-            byteBuffer.putInt(resourceIdBytes.length);
-            byteBuffer.put(resourceIdBytes);
-        } else {
-            byteBuffer.putInt(0);
-        }
-
-        if (lockKeyBytes != null) {
-            byteBuffer.putInt(lockKeyBytes.length);
-            byteBuffer.put(lockKeyBytes);
-        } else {
-            byteBuffer.putInt(0);
-        }
-
-        if (clientIdBytes != null) {
-            byteBuffer.putShort((short)clientIdBytes.length);
-            byteBuffer.put(clientIdBytes);
-        } else {
-            byteBuffer.putShort((short)0);
-        }
-
-        if (applicationDataBytes != null) {
-            byteBuffer.putInt(applicationDataBytes.length);
-            byteBuffer.put(applicationDataBytes);
-        } else {
-            byteBuffer.putInt(0);
-        }
-
-        if (xidBytes != null) {
-            byteBuffer.putInt(xidBytes.length);
-            byteBuffer.put(xidBytes);
-        } else {
-            byteBuffer.putInt(0);
-        }
-
+        SessionCodec.putIntBytes(byteBuffer, resourceIdBytes);
+        SessionCodec.putIntBytes(byteBuffer, lockKeyBytes);
+        SessionCodec.putShortBytes(byteBuffer, clientIdBytes);
+        SessionCodec.putIntBytes(byteBuffer, applicationDataBytes);
+        SessionCodec.putIntBytes(byteBuffer, xidBytes);
         byteBuffer.put(branchTypeByte);
-
         byteBuffer.put((byte)status.getCode());
         byteBuffer.put((byte)lockStatus.getCode());
-        BufferUtils.flip(byteBuffer);
-        byte[] result = new byte[byteBuffer.limit()];
-        byteBuffer.get(result);
-        return result;
+        return byteBuffer;
     }
 
     private int calBranchSessionSize(byte[] resourceIdBytes, byte[] lockKeyBytes, byte[] clientIdBytes,
@@ -423,59 +465,47 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
             + 4 // applicationDataBytes.length
             + 4 // xidBytes.size
             + 1 // statusCode
-            + (resourceIdBytes == null ? 0 : resourceIdBytes.length)
-            + (lockKeyBytes == null ? 0 : lockKeyBytes.length)
-            + (clientIdBytes == null ? 0 : clientIdBytes.length)
-            + (applicationDataBytes == null ? 0 : applicationDataBytes.length)
-            + (xidBytes == null ? 0 : xidBytes.length)
+            + 1 // lockStatus
+            + SessionCodec.sizeOf(resourceIdBytes)
+            + SessionCodec.sizeOf(lockKeyBytes)
+            + SessionCodec.sizeOf(clientIdBytes)
+            + SessionCodec.sizeOf(applicationDataBytes)
+            + SessionCodec.sizeOf(xidBytes)
             + 1; //branchType
         return size;
     }
 
     @Override
     public void decode(byte[] a) {
-        ByteBuffer byteBuffer = ByteBuffer.wrap(a);
+        decode(ByteBuffer.wrap(a));
+    }
+
+    /**
+     * Decode from the position of the buffer.
+     *
+     * @param byteBuffer the byte buffer
+     */
+    public void decode(ByteBuffer byteBuffer) {
         this.transactionId = byteBuffer.getLong();
         this.branchId = byteBuffer.getLong();
-        int resourceLen = byteBuffer.getInt();
-        if (resourceLen > 0) {
-            byte[] byResource = new byte[resourceLen];
-            byteBuffer.get(byResource);
-            this.resourceId = new String(byResource);
-        }
+        this.resourceId = SessionCodec.getString(byteBuffer, byteBuffer.getInt());
         int lockKeyLen = byteBuffer.getInt();
         if (lockKeyLen > 0) {
-            byte[] byLockKey = new byte[lockKeyLen];
-            byteBuffer.get(byLockKey);
+            byte[] byLockKey = SessionCodec.getBytes(byteBuffer, lockKeyLen);
             if (CompressUtil.isCompressData(byLockKey)) {
                 try {
-                    this.lockKey = new String(CompressUtil.uncompress(byLockKey));
+                    this.lockKey = new String(CompressUtil.uncompress(byLockKey), Constants.DEFAULT_CHARSET);
                 } catch (IOException e) {
                     throw new RuntimeException("decompress lockKey error", e);
                 }
             } else {
-                this.lockKey = new String(byLockKey);
+                this.lockKey = new String(byLockKey, Constants.DEFAULT_CHARSET);
             }
 
         }
-        short clientIdLen = byteBuffer.getShort();
-        if (clientIdLen > 0) {
-            byte[] byClientId = new byte[clientIdLen];
-            byteBuffer.get(byClientId);
-            this.clientId = new String(byClientId);
-        }
-        int applicationDataLen = byteBuffer.getInt();
-        if (applicationDataLen > 0) {
-            byte[] byApplicationData = new byte[applicationDataLen];
-            byteBuffer.get(byApplicationData);
-            this.applicationData = new String(byApplicationData);
-        }
-        int xidLen = byteBuffer.getInt();
-        if (xidLen > 0) {
-            byte[] xidBytes = new byte[xidLen];
-            byteBuffer.get(xidBytes);
-            this.xid = new String(xidBytes);
-        }
+        this.clientId = SessionCodec.getString(byteBuffer, byteBuffer.getShort());
+        this.applicationData = SessionCodec.getString(byteBuffer, byteBuffer.getInt());
+        this.xid = SessionCodec.getString(byteBuffer, byteBuffer.getInt());
         int branchTypeId = byteBuffer.get();
         if (branchTypeId >= 0) {
             this.branchType = BranchType.values()[branchTypeId];
@@ -16,6 +16,7 @@
  */
 package org.apache.seata.server.session;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,7 +32,6 @@ import org.apache.seata.common.ConfigurationKeys;
 import org.apache.seata.common.Constants;
 import org.apache.seata.common.DefaultValues;
 import org.apache.seata.common.XID;
-import org.apache.seata.common.util.BufferUtils;
 import org.apache.seata.common.util.StringUtils;
 import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.exception.GlobalTransactionException;
@@ -43,6 +43,7 @@ import org.apache.seata.core.model.GlobalStatus;
 import org.apache.seata.core.model.LockStatus;
 import org.apache.seata.common.util.UUIDGenerator;
 import org.apache.seata.server.cluster.raft.RaftServerManager;
+import org.apache.seata.server.lock.LockWaitManager;
 import org.apache.seata.server.lock.LockerManagerFactory;
 import org.apache.seata.server.store.SessionStorable;
 import org.apache.seata.server.store.StoreConfig;
@@ -63,9 +64,6 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     private static final int MAX_GLOBAL_SESSION_SIZE = StoreConfig.getMaxGlobalSessionSize();
 
-    private static ThreadLocal<ByteBuffer> byteBufferThreadLocal = ThreadLocal.withInitial(() -> ByteBuffer.allocate(
-        MAX_GLOBAL_SESSION_SIZE));
-
     /**
      * ThreadLocal should be optimize.
      * It is tied to the current threading model. threadlocal's public set method does nothing to protect it from abuse.
@@ -105,6 +103,12 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     private GlobalSessionLock globalSessionLock = new GlobalSessionLock();
 
+    /**
+     * guards the branch sessions, a lock rather than a monitor so a virtual thread loading them from the store does not
+     * pin its carrier thread
+     */
+    private final Lock branchSessionsLock = new ReentrantLock();
+
     private Set<SessionLifecycleListener> lifecycleListeners = new HashSet<>(2);
 
     /**
@@ -129,8 +133,11 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the boolean
      */
     public boolean remove(BranchSession branchSession) {
-        synchronized (this) {
+        branchSessionsLock.lock();
+        try {
             return branchSessions.remove(branchSession);
+        } finally {
+            branchSessionsLock.unlock();
         }
     }
 
@@ -283,6 +290,7 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
         if (!LockerManagerFactory.getLockManager().releaseGlobalSessionLock(this)) {
             throw new TransactionException("UnLock globalSession error, xid = " + this.xid);
         }
+        LockWaitManager.getInstance().wakeUp(this);
     }
 
     /**
@@ -317,23 +325,51 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public void addBranch(BranchSession branchSession) throws TransactionException {
-        SessionHolder.getRootSessionManager().onAddBranch(this, branchSession);
-        for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
-            lifecycleListener.onAddBranch(this, branchSession);
+        if (RaftServerManager.isRaftMode()) {
+            SessionHolder.getRootSessionManager().onAddBranch(this, branchSession);
+            for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
+                lifecycleListener.onAddBranch(this, branchSession);
+            }
+            return;
         }
-        if (!RaftServerManager.isRaftMode()) {
+        // the branch is written and added as one step, so a snapshot of the session sees both or neither
+        branchSessionsLock.lock();
+        try {
+            SessionHolder.getRootSessionManager().onAddBranch(this, branchSession);
+            for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
+                lifecycleListener.onAddBranch(this, branchSession);
+            }
             add(branchSession);
+        } finally {
+            branchSessionsLock.unlock();
         }
     }
 
+    /**
+     * Lock the branch sessions, the branches are neither added nor removed until they are unlocked.
+     */
+    public void lockBranchSessions() {
+        branchSessionsLock.lock();
+    }
+
+    /**
+     * Unlock the branch sessions.
+     */
+    public void unlockBranchSessions() {
+        branchSessionsLock.unlock();
+    }
+
     public void loadBranchs() {
         if (branchSessions == null && isLazyLoadBranch()) {
-            synchronized (this) {
+            branchSessionsLock.lock();
+            try {
                 if (branchSessions == null && isLazyLoadBranch()) {
                     branchSessions = new ArrayList<>();
                     Optional.ofNullable(SessionHolder.getRootSessionManager().findGlobalSession(xid, true))
                         .ifPresent(globalSession -> branchSessions.addAll(globalSession.getBranchSessions()));
                 }
+            } finally {
+                branchSessionsLock.unlock();
             }
         }
     }
@@ -352,15 +388,23 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public void removeBranch(BranchSession branchSession) throws TransactionException {
-        SessionHolder.getRootSessionManager().onRemoveBranch(this, branchSession);
-        for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
-            lifecycleListener.onRemoveBranch(this, branchSession);
+        if (RaftServerManager.isRaftMode()) {
+            SessionHolder.getRootSessionManager().onRemoveBranch(this, branchSession);
+            for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
+                lifecycleListener.onRemoveBranch(this, branchSession);
+            }
+            return;
         }
-
-        if (!RaftServerManager.isRaftMode()) {
+        branchSessionsLock.lock();
+        try {
+            SessionHolder.getRootSessionManager().onRemoveBranch(this, branchSession);
+            for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
+                lifecycleListener.onRemoveBranch(this, branchSession);
+            }
             this.remove(branchSession);
+        } finally {
+            branchSessionsLock.unlock();
         }
-
     }
 
     @Override
@@ -376,7 +420,8 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the branch
      */
     public BranchSession getBranch(long branchId) {
-        synchronized (this) {
+        branchSessionsLock.lock();
+        try {
             List<BranchSession> branchSessions = getBranchSessions();
             for (BranchSession branchSession : branchSessions) {
                 if (branchSession.getBranchId() == branchId) {
@@ -385,6 +430,8 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
             }
 
             return null;
+        } finally {
+            branchSessionsLock.unlock();
         }
     }
 
@@ -606,15 +653,24 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public byte[] encode() {
-        byte[] byApplicationIdBytes = applicationId != null ? applicationId.getBytes() : null;
+        return encodeTo(null).array();
+    }
 
-        byte[] byServiceGroupBytes = transactionServiceGroup != null ? transactionServiceGroup.getBytes() : null;
+    @Override
+    public void encode(ByteBuffer byteBuffer) {
+        encodeTo(byteBuffer);
+    }
+
+    private ByteBuffer encodeTo(ByteBuffer target) {
+        byte[] byApplicationIdBytes = SessionCodec.cachedUtf8(applicationId);
+
+        byte[] byServiceGroupBytes = SessionCodec.cachedUtf8(transactionServiceGroup);
 
-        byte[] byTxNameBytes = transactionName != null ? transactionName.getBytes() : null;
+        byte[] byTxNameBytes = SessionCodec.utf8(transactionName);
 
-        byte[] xidBytes = xid != null ? xid.getBytes() : null;
+        byte[] xidBytes = SessionCodec.utf8(xid);
 
-        byte[] applicationDataBytes = applicationData != null ? applicationData.getBytes() : null;
+        byte[] applicationDataBytes = SessionCodec.utf8(applicationData);
 
         int size = calGlobalSessionSize(byApplicationIdBytes, byServiceGroupBytes, byTxNameBytes, xidBytes,
             applicationDataBytes);
@@ -623,48 +679,21 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
             throw new RuntimeException("global session size exceeded, size : " + size + " byte, maxGlobalSessionSize : " +
                 MAX_GLOBAL_SESSION_SIZE + " byte");
         }
-        ByteBuffer byteBuffer = byteBufferThreadLocal.get();
-        //recycle
-        byteBuffer.clear();
+        if (target != null && target.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        ByteBuffer byteBuffer = target != null ? target : ByteBuffer.allocate(size);
 
         byteBuffer.putLong(transactionId);
         byteBuffer.putInt(timeout);
-        if (byApplicationIdBytes != null) {
-            byteBuffer.putShort((short)byApplicationIdBytes.length);
-            byteBuffer.put(byApplicationIdBytes);
-        } else {
-            byteBuffer.putShort((short)0);
-        }
-        if (byServiceGroupBytes != null) {
-            byteBuffer.putShort((short)byServiceGroupBytes.length);
-            byteBuffer.put(byServiceGroupBytes);
-        } else {
-            byteBuffer.putShort((short)0);
-        }
-        if (byTxNameBytes != null) {
-            byteBuffer.putShort((short)byTxNameBytes.length);
-            byteBuffer.put(byTxNameBytes);
-        } else {
-            byteBuffer.putShort((short)0);
-        }
-        if (xidBytes != null) {
-            byteBuffer.putInt(xidBytes.length);
-            byteBuffer.put(xidBytes);
-        } else {
-            byteBuffer.putInt(0);
-        }
-        if (applicationDataBytes != null) {
-            byteBuffer.putInt(applicationDataBytes.length);
-            byteBuffer.put(applicationDataBytes);
-        } else {
-            byteBuffer.putInt(0);
-        }
+        SessionCodec.putShortBytes(byteBuffer, byApplicationIdBytes);
+        SessionCodec.putShortBytes(byteBuffer, byServiceGroupBytes);
+        SessionCodec.putShortBytes(byteBuffer, byTxNameBytes);
+        SessionCodec.putIntBytes(byteBuffer, xidBytes);
+        SessionCodec.putIntBytes(byteBuffer, applicationDataBytes);
         byteBuffer.putLong(beginTime);
         byteBuffer.put((byte)status.getCode());
-        BufferUtils.flip(byteBuffer);
-        byte[] result = new byte[byteBuffer.limit()];
-        byteBuffer.get(result);
-        return result;
+        return byteBuffer;
     }
 
     private int calGlobalSessionSize(byte[] byApplicationIdBytes, byte[] byServiceGroupBytes, byte[] byTxNameBytes,
@@ -678,50 +707,32 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
             + 4 // applicationDataBytes.length
             + 8 // beginTime
             + 1 // statusCode
-            + (byApplicationIdBytes == null ? 0 : byApplicationIdBytes.length)
-            + (byServiceGroupBytes == null ? 0 : byServiceGroupBytes.length)
-            + (byTxNameBytes == null ? 0 : byTxNameBytes.length)
-            + (xidBytes == null ? 0 : xidBytes.length)
-            + (applicationDataBytes == null ? 0 : applicationDataBytes.length);
+            + SessionCodec.sizeOf(byApplicationIdBytes)
+            + SessionCodec.sizeOf(byServiceGroupBytes)
+            + SessionCodec.sizeOf(byTxNameBytes)
+            + SessionCodec.sizeOf(xidBytes)
+            + SessionCodec.sizeOf(applicationDataBytes);
     }
 
     @Override
     public void decode(byte[] a) {
+        decode(ByteBuffer.wrap(a));
+    }
+
+    /**
+     * Decode from the position of the buffer.
+     *
+     * @param byteBuffer the byte buffer
+     */
+    public void decode(ByteBuffer byteBuffer) {
         this.branchSessions = new ArrayList<>();
-        ByteBuffer byteBuffer = ByteBuffer.wrap(a);
         this.transactionId = byteBuffer.getLong();
         this.timeout = byteBuffer.getInt();
-        short applicationIdLen = byteBuffer.getShort();
-        if (applicationIdLen > 0) {
-            byte[] byApplicationId = new byte[applicationIdLen];
-            byteBuffer.get(byApplicationId);
-            this.applicationId = new String(byApplicationId);
-        }
-        short serviceGroupLen = byteBuffer.getShort();
-        if (serviceGroupLen > 0) {
-            byte[] byServiceGroup = new byte[serviceGroupLen];
-            byteBuffer.get(byServiceGroup);
-            this.transactionServiceGroup = new String(byServiceGroup);
-        }
-        short txNameLen = byteBuffer.getShort();
-        if (txNameLen > 0) {
-            byte[] byTxName = new byte[txNameLen];
-            byteBuffer.get(byTxName);
-            this.transactionName = new String(byTxName);
-        }
-        int xidLen = byteBuffer.getInt();
-        if (xidLen > 0) {
-            byte[] xidBytes = new byte[xidLen];
-            byteBuffer.get(xidBytes);
-            this.xid = new String(xidBytes);
-        }
-        int applicationDataLen = byteBuffer.getInt();
-        if (applicationDataLen > 0) {
-            byte[] applicationDataLenBytes = new byte[applicationDataLen];
-            byteBuffer.get(applicationDataLenBytes);
-            this.applicationData = new String(applicationDataLenBytes);
-        }
-
+        this.applicationId = SessionCodec.getString(byteBuffer, byteBuffer.getShort());
+        this.transactionServiceGroup = SessionCodec.getString(byteBuffer, byteBuffer.getShort());
+        this.transactionName = SessionCodec.getString(byteBuffer, byteBuffer.getShort());
+        this.xid = SessionCodec.getString(byteBuffer, byteBuffer.getInt());
+        this.applicationData = SessionCodec.getString(byteBuffer, byteBuffer.getInt());
         this.beginTime = byteBuffer.getLong();
         this.status = GlobalStatus.get(byteBuffer.get());
     }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.session;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.seata.common.Constants;
+
+/**
+ * Helpers of the binary layout of {@link GlobalSession} and {@link BranchSession}, used by the file store and the raft
+ * session snapshot.
+ * <p>
+ * Strings are written as UTF-8 after their length. The UTF-8 form of the few strings most sessions share, the
+ * application id, the transaction service group and the resource id, is cached; per client or per transaction values
+ * such as the client id or the transaction name are not. The cache is filled up to a fixed number of strings and never
+ * evicts, so it stays bounded whatever values it is given. Strings are decoded straight from the
+ * array of the buffer, and the xid of an encoded session can be read without decoding the rest of it.
+ * <p>
+ * The layout has no version mark: it is the layout older servers wrote, so their data files and snapshots stay
+ * readable.
+ */
+public final class SessionCodec {
+
+    private static final int MAX_CACHED_STRINGS = 1024;
+
+    private static final int MAX_CACHED_STRING_LENGTH = 256;
+
+    private static final Map<String, byte[]> UTF8_CACHE = new ConcurrentHashMap<>();
+
+    private SessionCodec() {
+    }
+
+    /**
+     * Gets the UTF-8 form of a low cardinality string shared by many sessions, the returned array must not be
+     * modified.
+     *
+     * @param value the string
+     * @return the bytes, or null if the string is null
+     */
+    static byte[] cachedUtf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = UTF8_CACHE.get(value);
+        if (bytes == null) {
+            bytes = utf8(value);
+            if (value.length() <= MAX_CACHED_STRING_LENGTH && UTF8_CACHE.size() < MAX_CACHED_STRINGS) {
+                UTF8_CACHE.put(value, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the UTF-8 form of a string.
+     *
+     * @param value the string
+     * @return the bytes, or null if the string is null
+     */
+    static byte[] utf8(String value) {
+        return value != null ? value.getBytes(Constants.DEFAULT_CHARSET) : null;
+    }
+
+    /**
+     * Gets the length of bytes which may be null.
+     *
+     * @param bytes the bytes
+     * @return the length
+     */
+    static int sizeOf(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    /**
+     * Put bytes after their length as a short.
+     *
+     * @param byteBuffer the byte buffer
+     * @param bytes      the bytes, null is written as an empty value
+     */
+    static void putShortBytes(ByteBuffer byteBuffer, byte[] bytes) {
+        if (bytes != null) {
+            byteBuffer.putShort((short)bytes.length);
+            byteBuffer.put(bytes);
+        } else {
+            byteBuffer.putShort((short)0);
+        }
+    }
+
+    /**
+     * Put bytes after their length as an int.
+     *
+     * @param byteBuffer the byte buffer
+     * @param bytes      the bytes, null is written as an empty value
+     */
+    static void putIntBytes(ByteBuffer byteBuffer, byte[] bytes) {
+        if (bytes != null) {
+            byteBuffer.putInt(bytes.length);
+            byteBuffer.put(bytes);
+        } else {
+            byteBuffer.putInt(0);
+        }
+    }
+
+    /**
+     * Get a string of the given length.
+     *
+     * @param byteBuffer the byte buffer
+     * @param length     the length, an empty value is read as null
+     * @return the string
+     */
+    static String getString(ByteBuffer byteBuffer, int length) {
+        if (length <= 0) {
+            return null;
+        }
+        if (!byteBuffer.hasArray()) {
+            return new String(getBytes(byteBuffer, length), Constants.DEFAULT_CHARSET);
+        }
+        if (length > byteBuffer.remaining()) {
+            throw new IllegalArgumentException("string length " + length + " exceeds " + byteBuffer.remaining());
+        }
+        String value = new String(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), length,
+            Constants.DEFAULT_CHARSET);
+        byteBuffer.position(byteBuffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Get bytes of the given length.
+     *
+     * @param byteBuffer the byte buffer
+     * @param length     the length
+     * @return the bytes
+     */
+    static byte[] getBytes(ByteBuffer byteBuffer, int length) {
+        byte[] bytes = new byte[length];
+        byteBuffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read the xid of an encoded global session, the position of the buffer is not moved.
+     *
+     * @param byteBuffer the encoded global session
+     * @return the xid
+     */
+    public static String peekGlobalXid(ByteBuffer byteBuffer) {
+        ByteBuffer view = byteBuffer.duplicate();
+        // transactionId, timeout
+        skip(view, 8 + 4);
+        // applicationId, transactionServiceGroup, transactionName
+        for (int i = 0; i < 3; i++) {
+            skip(view, view.getShort());
+        }
+        return getString(view, view.getInt());
+    }
+
+    /**
+     * Read the xid of an encoded branch session, the position of the buffer is not moved.
+     *
+     * @param byteBuffer the encoded branch session
+     * @return the xid
+     */
+    public static String peekBranchXid(ByteBuffer byteBuffer) {
+        ByteBuffer view = byteBuffer.duplicate();
+        // transactionId, branchId
+        skip(view, 8 + 8);
+        // resourceId, lockKey
+        skip(view, view.getInt());
+        skip(view, view.getInt());
+        // clientId
+        skip(view, view.getShort());
+        // applicationData
+        skip(view, view.getInt());
+        return getString(view, view.getInt());
+    }
+
+    private static void skip(ByteBuffer byteBuffer, int length) {
+        if (length > 0) {
+            byteBuffer.position(byteBuffer.position() + length);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.seata.core.model.GlobalStatus;
+
+/**
+ * Indexes the global sessions of a session manager by the time the coordinator has to look at them again: the
+ * transaction deadline for sessions in {@link GlobalStatus#Begin}, and the next retry time for sessions waiting to be
+ * committed or rolled back. Each kind of scheduled task polls its own {@link SessionTimingWheel}.
+ * <p>
+ * The index only returns candidates, the caller still checks the status and timeout of each session under its lock.
+ */
+public class SessionDeadlineIndex {
+
+    /**
+     * The scheduled task a session is due for.
+     */
+    public enum DueKind {
+        /**
+         * transaction timeout check
+         */
+        TIMEOUT,
+        /**
+         * retry rollbacking
+         */
+        RETRY_ROLLBACKING,
+        /**
+         * retry committing
+         */
+        RETRY_COMMITTING,
+        /**
+         * async committing
+         */
+        ASYNC_COMMITTING
+    }
+
+    private final Map<DueKind, SessionTimingWheel> wheels = new EnumMap<>(DueKind.class);
+
+    /**
+     * Instantiates a new session deadline index.
+     *
+     * @param tickMills the tick duration of the timing wheels
+     */
+    public SessionDeadlineIndex(long tickMills) {
+        long now = System.currentTimeMillis();
+        for (DueKind kind : DueKind.values()) {
+            wheels.put(kind, new SessionTimingWheel(tickMills, now));
+        }
+    }
+
+    /**
+     * Gets the kind of task a session in the status is due for.
+     *
+     * @param status the global status
+     * @return the due kind, or null if no scheduled task looks at the status
+     */
+    public static DueKind dueKindOf(GlobalStatus status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status) {
+            case Begin:
+                return DueKind.TIMEOUT;
+            case TimeoutRollbacking:
+            case TimeoutRollbackRetrying:
+            case RollbackRetrying:
+                return DueKind.RETRY_ROLLBACKING;
+            case CommitRetrying:
+            case Committed:
+                return DueKind.RETRY_COMMITTING;
+            case AsyncCommitting:
+                return DueKind.ASYNC_COMMITTING;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Index a session added to the manager or whose status changed.
+     *
+     * @param session the global session
+     * @param status  the new status of the session
+     */
+    public void index(GlobalSession session, GlobalStatus status) {
+        DueKind dueKind = dueKindOf(status);
+        for (Map.Entry<DueKind, SessionTimingWheel> entry : wheels.entrySet()) {
+            if (entry.getKey() != dueKind) {
+                entry.getValue().cancel(session.getXid());
+            }
+        }
+        if (dueKind == DueKind.TIMEOUT) {
+            wheels.get(dueKind).schedule(session, timeoutDeadline(session));
+        } else if (dueKind != null) {
+            // already overdue, picked up by the next run of the task as a scan would do
+            wheels.get(dueKind).schedule(session, 0L);
+        }
+    }
+
+    /**
+     * Remove a session from the index.
+     *
+     * @param session the global session
+     */
+    public void remove(GlobalSession session) {
+        for (SessionTimingWheel wheel : wheels.values()) {
+            wheel.cancel(session.getXid());
+        }
+    }
+
+    /**
+     * Drop every session and index the given ones.
+     *
+     * @param sessions the sessions of the manager
+     */
+    public void rebuild(Collection<GlobalSession> sessions) {
+        for (SessionTimingWheel wheel : wheels.values()) {
+            wheel.clear();
+        }
+        for (GlobalSession session : sessions) {
+            index(session, session.getStatus());
+        }
+    }
+
+    /**
+     * Poll the sessions due for a task. Every returned session is scheduled again one retry period later, so a
+     * session the task could not move forward is returned again, until its status changes or it is removed.
+     *
+     * @param dueKind     the due kind
+     * @param now         the current time in millis
+     * @param retryPeriod the period of the task in millis
+     * @return the due sessions
+     */
+    public List<GlobalSession> pollDue(DueKind dueKind, long now, long retryPeriod) {
+        SessionTimingWheel wheel = wheels.get(dueKind);
+        List<GlobalSession> polled = wheel.poll(now);
+        List<GlobalSession> due = new ArrayList<>(polled.size());
+        for (GlobalSession session : polled) {
+            if (dueKindOf(session.getStatus()) != dueKind) {
+                // moved on without the index being told, the new status is indexed by whoever changed it
+                continue;
+            }
+            if (dueKind == DueKind.TIMEOUT && !session.isTimeout()) {
+                wheel.schedule(session, timeoutDeadline(session));
+                continue;
+            }
+            wheel.schedule(session, now + retryPeriod);
+            due.add(session);
+        }
+        return due;
+    }
+
+    /**
+     * Gets the number of sessions waiting for a task.
+     *
+     * @param dueKind the due kind
+     * @return the size
+     */
+    public int size(DueKind dueKind) {
+        return wheels.get(dueKind).size();
+    }
+
+    private static long timeoutDeadline(GlobalSession session) {
+        // GlobalSession#isTimeout is strict
+        return session.getBeginTime() + session.getTimeout() + 1;
+    }
+}
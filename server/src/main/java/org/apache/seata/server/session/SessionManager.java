@@ -113,6 +113,15 @@ public interface SessionManager extends Disposable {
      */
     List<GlobalSession> findGlobalSessions(SessionCondition condition);
 
+    /**
+     * Gets the index of the sessions by the time the coordinator has to look at them again.
+     *
+     * @return the deadline index, or null if the due sessions have to be found by {@link #findGlobalSessions}
+     */
+    default SessionDeadlineIndex getDeadlineIndex() {
+        return null;
+    }
+
     /**
      * lock and execute
      *
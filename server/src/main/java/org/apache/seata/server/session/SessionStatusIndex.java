@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.seata.core.model.GlobalStatus;
+
+/**
+ * Indexes the global sessions of a session manager by their {@link GlobalStatus}, so that looking up the sessions
+ * in a few statuses costs as much as the sessions returned rather than a walk over the whole session map.
+ * <p>
+ * A session is moved between the status sets as the manager is told about its status changes. A reader may see a
+ * session a little before or after the move, so the caller still checks the status of what it gets.
+ */
+public class SessionStatusIndex {
+
+    private final Map<GlobalStatus, Map<String/* xid */, GlobalSession>> statusSessions =
+        new EnumMap<>(GlobalStatus.class);
+
+    private final Map<String/* xid */, GlobalStatus> indexedStatuses = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new session status index.
+     */
+    public SessionStatusIndex() {
+        for (GlobalStatus status : GlobalStatus.values()) {
+            statusSessions.put(status, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Index a session added to the manager or whose status changed.
+     *
+     * @param session the global session
+     * @param status  the new status of the session
+     */
+    public void index(GlobalSession session, GlobalStatus status) {
+        if (status == null) {
+            remove(session);
+            return;
+        }
+        // computed per xid, two changes of the same session do not interleave
+        indexedStatuses.compute(session.getXid(), (xid, indexed) -> {
+            if (indexed != null && indexed != status) {
+                statusSessions.get(indexed).remove(xid);
+            }
+            statusSessions.get(status).put(xid, session);
+            return status;
+        });
+    }
+
+    /**
+     * Remove a session from the index.
+     *
+     * @param session the global session
+     */
+    public void remove(GlobalSession session) {
+        indexedStatuses.computeIfPresent(session.getXid(), (xid, indexed) -> {
+            statusSessions.get(indexed).remove(xid);
+            return null;
+        });
+    }
+
+    /**
+     * Drop every session and index the given ones.
+     *
+     * @param sessions the sessions of the manager
+     */
+    public void rebuild(Collection<GlobalSession> sessions) {
+        indexedStatuses.clear();
+        for (Map<String, GlobalSession> sessionMap : statusSessions.values()) {
+            sessionMap.clear();
+        }
+        for (GlobalSession session : sessions) {
+            index(session, session.getStatus());
+        }
+    }
+
+    /**
+     * Gets the sessions indexed under any of the statuses.
+     *
+     * @param statuses the statuses
+     * @return the sessions
+     */
+    public List<GlobalSession> find(GlobalStatus... statuses) {
+        Set<GlobalStatus> distinctStatuses = EnumSet.noneOf(GlobalStatus.class);
+        int size = 0;
+        for (GlobalStatus status : statuses) {
+            if (status != null && distinctStatuses.add(status)) {
+                size += statusSessions.get(status).size();
+            }
+        }
+        List<GlobalSession> sessions = new ArrayList<>(size);
+        for (GlobalStatus status : distinctStatuses) {
+            sessions.addAll(statusSessions.get(status).values());
+        }
+        return sessions;
+    }
+
+    /**
+     * Gets the number of sessions indexed under the status.
+     *
+     * @param status the status
+     * @return the size
+     */
+    public int size(GlobalStatus status) {
+        return statusSessions.get(status).size();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hierarchical timing wheel of global sessions keyed by a deadline.
+ * <p>
+ * Level 0 has one bucket per tick, every upper level has buckets {@link #WHEEL_SIZE} times wider than the level
+ * below it, and its bucket is spread into the lower levels when the clock reaches it. Advancing the clock only
+ * touches the buckets of the elapsed ticks, so the cost of a poll depends on the number of due sessions and not on
+ * the number of scheduled ones. A session has at most one deadline in a wheel, scheduling it again moves it.
+ * <p>
+ * Deadlines are kept at tick precision, a session is returned by the first poll of the tick its deadline falls in.
+ */
+public class SessionTimingWheel {
+
+    private static final int WHEEL_BITS = 9;
+
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickMills;
+
+    private final List<Bucket[]> levels = new ArrayList<>();
+
+    private final Map<String/* xid */, Entry> entries = new HashMap<>();
+
+    /**
+     * sessions scheduled before the current tick, returned by the next poll
+     */
+    private final Bucket overdue = new Bucket();
+
+    /**
+     * every tick before it has been expired
+     */
+    private long currentTick;
+
+    /**
+     * Instantiates a new session timing wheel.
+     *
+     * @param tickMills the tick duration in millis
+     * @param now       the current time in millis
+     */
+    public SessionTimingWheel(long tickMills, long now) {
+        if (tickMills <= 0) {
+            throw new IllegalArgumentException("tickMills must be positive: " + tickMills);
+        }
+        this.tickMills = tickMills;
+        this.currentTick = now / tickMills;
+        this.levels.add(newLevel());
+    }
+
+    /**
+     * Schedule a session, a session already in the wheel is moved to the new deadline.
+     *
+     * @param session  the global session
+     * @param deadline the deadline in millis, the session may be due up to one tick before it
+     */
+    public synchronized void schedule(GlobalSession session, long deadline) {
+        Entry entry = entries.get(session.getXid());
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(session.getXid(), entry);
+        } else {
+            entry.unlink();
+        }
+        entry.session = session;
+        // round down, so that a session is never returned later than a scan would find it
+        entry.deadlineTick = deadline / tickMills;
+        place(entry);
+    }
+
+    /**
+     * Remove a session from the wheel.
+     *
+     * @param xid the xid
+     * @return true if the session was scheduled
+     */
+    public synchronized boolean cancel(String xid) {
+        Entry entry = entries.remove(xid);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    /**
+     * Advance the clock and remove every session whose deadline has been reached.
+     *
+     * @param now the current time in millis
+     * @return the due sessions
+     */
+    public synchronized List<GlobalSession> poll(long now) {
+        long nowTick = now / tickMills;
+        List<GlobalSession> due = new ArrayList<>();
+        drain(overdue, due);
+        if (entries.isEmpty()) {
+            currentTick = Math.max(currentTick, nowTick + 1);
+            return due;
+        }
+        while (currentTick <= nowTick) {
+            int top = 0;
+            for (int level = 1; level < levels.size(); level++) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                top = level;
+            }
+            // spread the upper buckets starting at this tick, from the widest one down
+            for (int level = top; level > 0; level--) {
+                Bucket bucket = levels.get(level)[(int)((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+                for (Entry entry = bucket.poll(); entry != null; entry = bucket.poll()) {
+                    place(entry);
+                }
+            }
+            drain(levels.get(0)[(int)(currentTick & WHEEL_MASK)], due);
+            currentTick++;
+        }
+        return due;
+    }
+
+    /**
+     * Gets the number of scheduled sessions.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove every session.
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.unlink();
+        }
+        entries.clear();
+    }
+
+    private void place(Entry entry) {
+        long deadlineTick = entry.deadlineTick;
+        if (deadlineTick < currentTick) {
+            overdue.add(entry);
+            return;
+        }
+        for (int level = 0; ; level++) {
+            int shift = WHEEL_BITS * level;
+            if ((deadlineTick >>> shift) - (currentTick >>> shift) < WHEEL_SIZE) {
+                while (levels.size() <= level) {
+                    levels.add(newLevel());
+                }
+                levels.get(level)[(int)((deadlineTick >>> shift) & WHEEL_MASK)].add(entry);
+                return;
+            }
+        }
+    }
+
+    private void drain(Bucket bucket, List<GlobalSession> due) {
+        for (Entry entry = bucket.poll(); entry != null; entry = bucket.poll()) {
+            entries.remove(entry.session.getXid());
+            due.add(entry.session);
+        }
+    }
+
+    private static Bucket[] newLevel() {
+        Bucket[] buckets = new Bucket[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new Bucket();
+        }
+        return buckets;
+    }
+
+    private static final class Entry {
+
+        private GlobalSession session;
+
+        private long deadlineTick;
+
+        private Entry prev;
+
+        private Entry next;
+
+        private Bucket bucket;
+
+        void unlink() {
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+        }
+    }
+
+    /**
+     * A doubly linked list of entries, unlinking an entry does not need to find it first.
+     */
+    private static final class Bucket {
+
+        private Entry head;
+
+        private Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.next = null;
+            entry.prev = tail;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        void remove(Entry entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        Entry poll() {
+            Entry entry = head;
+            if (entry != null) {
+                remove(entry);
+            }
+            return entry;
+        }
+    }
+}
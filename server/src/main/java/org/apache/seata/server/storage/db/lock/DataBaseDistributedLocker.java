@@ -21,8 +21,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import javax.sql.DataSource;
 
@@ -69,6 +72,16 @@ public class DataBaseDistributedLocker implements DistributedLocker {
 
     private static final Set<String> IGNORE_MYSQL_MESSAGE = new HashSet<>();
 
+    /**
+     * the listener told of a distributed lock taken over by another server, with the lock key and the holder
+     */
+    private volatile BiConsumer<String, String> foreignHolderListener;
+
+    /**
+     * the holders of the distributed locks last seen held by another server
+     */
+    private final Map<String/* lockKey */, String> foreignHolders = new ConcurrentHashMap<>();
+
     static {
         IGNORE_MYSQL_CODE.add(LOCK_WAIT_TIMEOUT_MYSQL_CODE);
         IGNORE_MYSQL_MESSAGE.add(LOCK_WAIT_TIMEOUT_MYSQL_MESSAGE);
@@ -128,9 +141,16 @@ public class DataBaseDistributedLocker implements DistributedLocker {
             connection.setAutoCommit(false);
 
             DistributedLockDO lockFromDB = getDistributedLockDO(connection, distributedLockDO.getLockKey());
+            if (lockFromDB != null && StringUtils.isNotBlank(lockFromDB.getLockValue())
+                && !Objects.equals(lockFromDB.getLockValue(), distributedLockDO.getLockValue())) {
+                notifyForeignHolder(distributedLockDO.getLockKey(), lockFromDB.getLockValue());
+            }
             if (null == lockFromDB) {
                 boolean ret = insertDistribute(connection, distributedLockDO);
                 connection.commit();
+                if (ret) {
+                    foreignHolders.remove(distributedLockDO.getLockKey());
+                }
                 return ret;
             }
 
@@ -143,7 +163,10 @@ public class DataBaseDistributedLocker implements DistributedLocker {
 
             boolean ret = updateDistributedLock(connection, distributedLockDO);
             connection.commit();
-
+            if (ret) {
+                // a later take over by another server is told again
+                foreignHolders.remove(distributedLockDO.getLockKey());
+            }
             return ret;
         } catch (SQLException ex) {
             // ignore "Lock wait timeout exceeded; try restarting transaction"
@@ -226,6 +249,27 @@ public class DataBaseDistributedLocker implements DistributedLocker {
         }
     }
 
+    /**
+     * Set the listener told of a distributed lock taken over by another server, once per holder.
+     *
+     * @param listener the listener of the lock key and the holder
+     */
+    public void setForeignHolderListener(BiConsumer<String, String> listener) {
+        this.foreignHolderListener = listener;
+    }
+
+    private void notifyForeignHolder(String lockKey, String holder) {
+        BiConsumer<String, String> listener = foreignHolderListener;
+        if (listener == null || Objects.equals(foreignHolders.put(lockKey, holder), holder)) {
+            return;
+        }
+        try {
+            listener.accept(lockKey, holder);
+        } catch (Exception e) {
+            LOGGER.warn("notify the holder of distribute lock {} failure: {}", lockKey, e.getMessage(), e);
+        }
+    }
+
     protected DistributedLockDO getDistributedLockDO(Connection connection, String key) throws SQLException {
         try (PreparedStatement pst = connection.prepareStatement(DistributedLockSqlFactory.getDistributedLogStoreSql(dbType)
                 .getSelectDistributeForUpdateSql(distributedLockTable))) {
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.db.lock;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.seata.common.XID;
+import org.apache.seata.common.util.StringUtils;
+import org.apache.seata.core.store.LockDO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.seata.common.Constants.IP_PORT_SPLIT_CHAR;
+
+/**
+ * An in-memory index of the row locks this server acquired for the global transactions it began, keyed by
+ * {@link LockDO#getRowKey()}, in front of the lock table.
+ * <p>
+ * The index is written through after the lock table: a lock is added once this server inserted it in the table, and
+ * removed once this server released its branch or global transaction. It only answers that locks are held by the
+ * asking global transaction, a lock held by another one is always checked in the lock table. Since another server may
+ * still release the locks of a transaction begun here, an indexed lock expires after a bounded time, and the index is
+ * cleared whenever a {@link DataBaseDistributedLocker} sees a distributed lock taken over by another server.
+ */
+class DataBaseLockCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataBaseLockCache.class);
+
+    private final long ttlMills;
+
+    private final Map<String/* rowKey */, CachedLock> locks = new ConcurrentHashMap<>();
+
+    private final Map<Long/* branchId */, Set<String>> rowKeysByBranch = new ConcurrentHashMap<>();
+
+    private final Map<String/* xid */, Set<Long>> branchIdsByXid = new ConcurrentHashMap<>();
+
+    private long nextPurgeTime;
+
+    /**
+     * Instantiates a new lock cache.
+     *
+     * @param ttlMills the time in millis an indexed lock is trusted
+     */
+    DataBaseLockCache(long ttlMills) {
+        this.ttlMills = ttlMills;
+    }
+
+    /**
+     * Whether the locks are all held by their own global transaction.
+     *
+     * @param lockDOs the locks of a global transaction
+     * @return true if every lock is indexed with the same xid and not expired
+     */
+    boolean isHeld(List<LockDO> lockDOs) {
+        String xid = lockDOs.get(0).getXid();
+        if (!isOwned(xid)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (LockDO lockDO : lockDOs) {
+            CachedLock cachedLock = locks.get(lockDO.getRowKey());
+            if (cachedLock == null || cachedLock.isExpired(now)
+                || !StringUtils.equals(cachedLock.lockDO.getXid(), xid)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the locks can be acquired with what the index knows.
+     *
+     * @param lockDOs the locks of a global transaction
+     * @return true if every lock is held by the same global transaction, null if the lock table has to be checked
+     */
+    Boolean isLockable(List<LockDO> lockDOs) {
+        return isHeld(lockDOs) ? Boolean.TRUE : null;
+    }
+
+    /**
+     * Index the locks this server acquired in the lock table, they replace the locks indexed for the same rows.
+     *
+     * @param lockDOs the locks of a branch
+     */
+    synchronized void put(List<LockDO> lockDOs) {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+        for (LockDO lockDO : lockDOs) {
+            if (!isOwned(lockDO.getXid())) {
+                continue;
+            }
+            CachedLock former = locks.put(lockDO.getRowKey(), new CachedLock(lockDO, now + ttlMills));
+            if (former != null && !Objects.equals(former.lockDO.getBranchId(), lockDO.getBranchId())) {
+                unindex(former.lockDO);
+            }
+            rowKeysByBranch.computeIfAbsent(lockDO.getBranchId(), k -> new HashSet<>()).add(lockDO.getRowKey());
+            branchIdsByXid.computeIfAbsent(lockDO.getXid(), k -> new HashSet<>()).add(lockDO.getBranchId());
+        }
+    }
+
+    /**
+     * Remove the locks released from the lock table.
+     *
+     * @param lockDOs the locks
+     */
+    synchronized void remove(List<LockDO> lockDOs) {
+        for (LockDO lockDO : lockDOs) {
+            CachedLock cachedLock = locks.get(lockDO.getRowKey());
+            if (cachedLock != null && StringUtils.equals(cachedLock.lockDO.getXid(), lockDO.getXid())) {
+                locks.remove(lockDO.getRowKey());
+                unindex(cachedLock.lockDO);
+            }
+        }
+    }
+
+    /**
+     * Remove the locks of a branch released from the lock table.
+     *
+     * @param xid      the xid
+     * @param branchId the branch id
+     */
+    synchronized void removeBranch(String xid, Long branchId) {
+        Set<String> rowKeys = rowKeysByBranch.remove(branchId);
+        if (rowKeys != null) {
+            for (String rowKey : rowKeys) {
+                locks.remove(rowKey);
+            }
+        }
+        Set<Long> branchIds = branchIdsByXid.get(xid);
+        if (branchIds != null && branchIds.remove(branchId) && branchIds.isEmpty()) {
+            branchIdsByXid.remove(xid);
+        }
+    }
+
+    /**
+     * Remove the locks of a global transaction released from the lock table.
+     *
+     * @param xid the xid
+     */
+    synchronized void removeGlobal(String xid) {
+        Set<Long> branchIds = branchIdsByXid.remove(xid);
+        if (branchIds != null) {
+            for (Long branchId : branchIds) {
+                Set<String> rowKeys = rowKeysByBranch.remove(branchId);
+                if (rowKeys != null) {
+                    for (String rowKey : rowKeys) {
+                        locks.remove(rowKey);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the index, since the server which took over a distributed lock may release some of the indexed locks.
+     *
+     * @param lockKey the key of the distributed lock
+     * @param holder  the server holding it
+     */
+    synchronized void reconcile(String lockKey, String holder) {
+        if (!locks.isEmpty()) {
+            LOGGER.debug("The distributed lock {} is taken over by {}, clear the lock cache of {} rows", lockKey,
+                holder, locks.size());
+        }
+        locks.clear();
+        rowKeysByBranch.clear();
+        branchIdsByXid.clear();
+    }
+
+    /**
+     * Gets the number of indexed locks.
+     *
+     * @return the size
+     */
+    int size() {
+        return locks.size();
+    }
+
+    private void unindex(LockDO lockDO) {
+        Set<String> rowKeys = rowKeysByBranch.get(lockDO.getBranchId());
+        if (rowKeys != null && rowKeys.remove(lockDO.getRowKey()) && rowKeys.isEmpty()) {
+            rowKeysByBranch.remove(lockDO.getBranchId());
+            Set<Long> branchIds = branchIdsByXid.get(lockDO.getXid());
+            if (branchIds != null && branchIds.remove(lockDO.getBranchId()) && branchIds.isEmpty()) {
+                branchIdsByXid.remove(lockDO.getXid());
+            }
+        }
+    }
+
+    /**
+     * Remove the expired locks, at most once per time to live, the locks released by another server are never
+     * removed otherwise.
+     */
+    private void purgeExpired(long now) {
+        if (now < nextPurgeTime) {
+            return;
+        }
+        nextPurgeTime = now + ttlMills;
+        Iterator<CachedLock> iterator = locks.values().iterator();
+        while (iterator.hasNext()) {
+            CachedLock cachedLock = iterator.next();
+            if (cachedLock.isExpired(now)) {
+                iterator.remove();
+                unindex(cachedLock.lockDO);
+            }
+        }
+    }
+
+    private static boolean isOwned(String xid) {
+        return xid != null && xid.startsWith(XID.getIpAddressAndPort() + IP_PORT_SPLIT_CHAR);
+    }
+
+    /**
+     * An indexed lock and the time it expires at.
+     */
+    private static class CachedLock {
+
+        private final LockDO lockDO;
+
+        private final long expireTime;
+
+        CachedLock(LockDO lockDO, long expireTime) {
+            this.lockDO = lockDO;
+            this.expireTime = expireTime;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expireTime;
+        }
+    }
+}
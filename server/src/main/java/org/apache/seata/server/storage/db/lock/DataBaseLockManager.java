@@ -24,10 +24,17 @@ import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.constants.ConfigurationKeys;
 import org.apache.seata.core.exception.TransactionException;
 import org.apache.seata.core.lock.Locker;
+import org.apache.seata.core.store.DistributedLocker;
 import org.apache.seata.core.store.db.DataSourceProvider;
+import org.apache.seata.server.ServerRunner;
 import org.apache.seata.server.lock.AbstractLockManager;
+import org.apache.seata.server.lock.distributed.DistributedLockerFactory;
 import org.apache.seata.server.session.BranchSession;
 import org.apache.seata.server.session.GlobalSession;
+import org.apache.seata.server.store.StoreConfig;
+
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_CACHE_ENABLED;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_CACHE_TTL;
 
 /**
  * The type db lock manager.
@@ -39,14 +46,26 @@ public class DataBaseLockManager extends AbstractLockManager implements Initiali
     /**
      * The locker.
      */
-    private Locker locker;
+    private DataBaseLocker locker;
 
     @Override
     public void init() {
         // init dataSource
         String datasourceType = ConfigurationFactory.getInstance().getConfig(ConfigurationKeys.STORE_DB_DATASOURCE_TYPE);
         DataSource lockStoreDataSource = EnhancedServiceLoader.load(DataSourceProvider.class, datasourceType).provide();
-        locker = new DataBaseLocker(lockStoreDataSource);
+        DataBaseLockCache lockCache = null;
+        if (ConfigurationFactory.getInstance().getBoolean(ConfigurationKeys.STORE_DB_LOCK_CACHE_ENABLED,
+            DEFAULT_STORE_DB_LOCK_CACHE_ENABLED)) {
+            lockCache = new DataBaseLockCache(ConfigurationFactory.getInstance().getLong(
+                ConfigurationKeys.STORE_DB_LOCK_CACHE_TTL, DEFAULT_STORE_DB_LOCK_CACHE_TTL));
+            DistributedLocker distributedLocker = DistributedLockerFactory.getDistributedLocker(
+                StoreConfig.getSessionMode().getName());
+            if (distributedLocker instanceof DataBaseDistributedLocker) {
+                ((DataBaseDistributedLocker)distributedLocker).setForeignHolderListener(lockCache::reconcile);
+            }
+        }
+        locker = new DataBaseLocker(lockStoreDataSource, lockCache);
+        ServerRunner.addDisposable(locker::destroy);
     }
 
     @Override
@@ -24,6 +24,7 @@ import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.core.lock.AbstractLocker;
 import org.apache.seata.core.lock.RowLock;
 import org.apache.seata.core.model.LockStatus;
+import org.apache.seata.core.store.LockDO;
 import org.apache.seata.core.store.LockStore;
 
 /**
@@ -34,6 +35,11 @@ public class DataBaseLocker extends AbstractLocker {
 
     private LockStore lockStore;
 
+    /**
+     * The index of the locks in front of the lock store, null if the locks are not cached.
+     */
+    private DataBaseLockCache lockCache;
+
     /**
      * Instantiates a new Data base locker.
      */
@@ -49,6 +55,17 @@ public class DataBaseLocker extends AbstractLocker {
         lockStore = new LockStoreDataBaseDAO(logStoreDataSource);
     }
 
+    /**
+     * Instantiates a new Data base locker with a lock cache.
+     *
+     * @param logStoreDataSource the log store data source
+     * @param lockCache          the lock cache, null if the locks are not cached
+     */
+    DataBaseLocker(DataSource logStoreDataSource, DataBaseLockCache lockCache) {
+        this(logStoreDataSource);
+        this.lockCache = lockCache;
+    }
+
     @Override
     public boolean acquireLock(List<RowLock> locks) {
         return acquireLock(locks, true, false);
@@ -61,7 +78,15 @@ public class DataBaseLocker extends AbstractLocker {
             return true;
         }
         try {
-            return lockStore.acquireLock(convertToLockDO(locks), autoCommit, skipCheckLock);
+            List<LockDO> lockDOs = convertToLockDO(locks);
+            if (lockCache != null && lockCache.isHeld(lockDOs)) {
+                return true;
+            }
+            boolean acquired = lockStore.acquireLock(lockDOs, autoCommit, skipCheckLock);
+            if (acquired && lockCache != null) {
+                lockCache.put(lockDOs);
+            }
+            return acquired;
         } catch (StoreException e) {
             throw e;
         } catch (Exception t) {
@@ -77,7 +102,12 @@ public class DataBaseLocker extends AbstractLocker {
             return true;
         }
         try {
-            return lockStore.unLock(convertToLockDO(locks));
+            List<LockDO> lockDOs = convertToLockDO(locks);
+            boolean released = lockStore.unLock(lockDOs);
+            if (lockCache != null) {
+                lockCache.remove(lockDOs);
+            }
+            return released;
         } catch (StoreException e) {
             throw e;
         } catch (Exception t) {
@@ -89,7 +119,11 @@ public class DataBaseLocker extends AbstractLocker {
     @Override
     public boolean releaseLock(String xid, Long branchId) {
         try {
-            return lockStore.unLock(branchId);
+            boolean released = lockStore.unLock(branchId);
+            if (lockCache != null) {
+                lockCache.removeBranch(xid, branchId);
+            }
+            return released;
         } catch (StoreException e) {
             throw e;
         } catch (Exception t) {
@@ -101,7 +135,11 @@ public class DataBaseLocker extends AbstractLocker {
     @Override
     public boolean releaseLock(String xid) {
         try {
-            return lockStore.unLock(xid);
+            boolean released = lockStore.unLock(xid);
+            if (lockCache != null) {
+                lockCache.removeGlobal(xid);
+            }
+            return released;
         } catch (StoreException e) {
             throw e;
         } catch (Exception t) {
@@ -117,7 +155,14 @@ public class DataBaseLocker extends AbstractLocker {
             return true;
         }
         try {
-            return lockStore.isLockable(convertToLockDO(locks));
+            List<LockDO> lockDOs = convertToLockDO(locks);
+            if (lockCache != null) {
+                Boolean lockable = lockCache.isLockable(lockDOs);
+                if (lockable != null) {
+                    return lockable;
+                }
+            }
+            return lockStore.isLockable(lockDOs);
         } catch (DataAccessException e) {
             throw e;
         } catch (Exception t) {
@@ -140,4 +185,22 @@ public class DataBaseLocker extends AbstractLocker {
         this.lockStore = lockStore;
     }
 
+    /**
+     * Release the resources of the lock store.
+     */
+    void destroy() {
+        if (lockStore instanceof LockStoreDataBaseDAO) {
+            ((LockStoreDataBaseDAO)lockStore).destroy();
+        }
+    }
+
+    /**
+     * Sets lock cache.
+     *
+     * @param lockCache the lock cache
+     */
+    void setLockCache(DataBaseLockCache lockCache) {
+        this.lockCache = lockCache;
+    }
+
 }
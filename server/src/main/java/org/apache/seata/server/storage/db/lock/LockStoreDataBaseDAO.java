@@ -48,11 +48,15 @@ import org.slf4j.LoggerFactory;
 
 
 import static org.apache.seata.common.DefaultValues.DEFAULT_LOCK_DB_TABLE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_BATCH_SIZE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_DB_LOCK_BATCH_WINDOW;
 import static org.apache.seata.core.exception.TransactionExceptionCode.LockKeyConflictFailFast;
 
 /**
  * The type Data base lock store.
- *
+ * <p>
+ * When {@code store.db.lockBatchWindow} is positive, the acquires and releases of concurrent branches are written in
+ * batches by a {@link LockWriteCoalescer}.
  */
 public class LockStoreDataBaseDAO implements LockStore {
 
@@ -78,6 +82,11 @@ public class LockStoreDataBaseDAO implements LockStore {
      */
     protected String dbType;
 
+    /**
+     * The coalescer of lock writes, null if the lock writes are not batched.
+     */
+    private final LockWriteCoalescer lockWriteCoalescer;
+
     /**
      * Instantiates a new Data base lock store dao.
      *
@@ -93,6 +102,19 @@ public class LockStoreDataBaseDAO implements LockStore {
         if (lockStoreDataSource == null) {
             throw new StoreException("there must be lockStoreDataSource.");
         }
+        int lockBatchWindow = CONFIG.getInt(ConfigurationKeys.STORE_DB_LOCK_BATCH_WINDOW,
+            DEFAULT_STORE_DB_LOCK_BATCH_WINDOW);
+        lockWriteCoalescer = lockBatchWindow > 0 ? new LockWriteCoalescer(this, lockBatchWindow,
+            CONFIG.getInt(ConfigurationKeys.STORE_DB_LOCK_BATCH_SIZE, DEFAULT_STORE_DB_LOCK_BATCH_SIZE)) : null;
+    }
+
+    /**
+     * Stop the batching of the lock writes, if they are batched.
+     */
+    public void destroy() {
+        if (lockWriteCoalescer != null) {
+            lockWriteCoalescer.shutdown();
+        }
     }
 
     @Override
@@ -107,14 +129,29 @@ public class LockStoreDataBaseDAO implements LockStore {
 
     @Override
     public boolean acquireLock(List<LockDO> lockDOs, boolean autoCommit, boolean skipCheckLock) {
+        if (lockDOs.size() > 1) {
+            lockDOs = lockDOs.stream().filter(LambdaUtils.distinctByKey(LockDO::getRowKey)).collect(Collectors.toList());
+        }
+        if (lockWriteCoalescer != null && !skipCheckLock) {
+            return lockWriteCoalescer.acquireLock(lockDOs, autoCommit);
+        }
+        return doAcquireLock(lockDOs, autoCommit, skipCheckLock);
+    }
+
+    /**
+     * Acquire the locks in a transaction of their own.
+     *
+     * @param lockDOs       the lock do list, without duplicated row keys
+     * @param autoCommit    the auto commit
+     * @param skipCheckLock whether skip check lock or not
+     * @return the boolean
+     */
+    protected boolean doAcquireLock(List<LockDO> lockDOs, boolean autoCommit, boolean skipCheckLock) {
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
         Set<String> dbExistedRowKeys = new HashSet<>();
         boolean originalAutoCommit = true;
-        if (lockDOs.size() > 1) {
-            lockDOs = lockDOs.stream().filter(LambdaUtils.distinctByKey(LockDO::getRowKey)).collect(Collectors.toList());
-        }
         try {
             conn = lockStoreDataSource.getConnection();
             originalAutoCommit = conn.getAutoCommit();
@@ -244,6 +281,19 @@ public class LockStoreDataBaseDAO implements LockStore {
 
     @Override
     public boolean unLock(String xid) {
+        if (lockWriteCoalescer != null) {
+            return lockWriteCoalescer.unLock(xid);
+        }
+        return doUnLock(xid);
+    }
+
+    /**
+     * Release the locks of a global transaction in a transaction of their own.
+     *
+     * @param xid the xid
+     * @return the boolean
+     */
+    protected boolean doUnLock(String xid) {
         Connection conn = null;
         PreparedStatement ps = null;
         try {
@@ -264,6 +314,19 @@ public class LockStoreDataBaseDAO implements LockStore {
 
     @Override
     public boolean unLock(Long branchId) {
+        if (lockWriteCoalescer != null) {
+            return lockWriteCoalescer.unLock(branchId);
+        }
+        return doUnLock(branchId);
+    }
+
+    /**
+     * Release the locks of a branch in a transaction of their own.
+     *
+     * @param branchId the branch id
+     * @return the boolean
+     */
+    protected boolean doUnLock(Long branchId) {
         Connection conn = null;
         PreparedStatement ps = null;
         try {
@@ -0,0 +1,539 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.db.lock;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.seata.common.exception.StoreException;
+import org.apache.seata.common.thread.NamedThreadFactory;
+import org.apache.seata.common.util.IOUtil;
+import org.apache.seata.common.util.StringUtils;
+import org.apache.seata.core.constants.ServerTableColumnsName;
+import org.apache.seata.core.exception.BranchTransactionException;
+import org.apache.seata.core.model.LockStatus;
+import org.apache.seata.core.store.LockDO;
+import org.apache.seata.core.store.db.sql.lock.LockStoreSql;
+import org.apache.seata.core.store.db.sql.lock.LockStoreSqlFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.seata.core.exception.TransactionExceptionCode.LockKeyConflictFailFast;
+
+/**
+ * Coalesces the lock writes of concurrent branches of a {@link LockStoreDataBaseDAO} into one transaction.
+ * <p>
+ * The writes queued within a window are flushed together: the released branches and global transactions are deleted
+ * first, then the row keys of every acquire are checked with one query, and the conflicts are resolved for each
+ * branch in queuing order, as if the acquires had run one after another. A release queued after an acquire of the same
+ * branch or global transaction starts a new transaction of the batch, so it is never deleted before it is inserted.
+ * The rows of the branches which got their locks are inserted with the multi-row statement of the database, which
+ * skips the rows locked in the meantime by another server. If such a row is met, or the batch fails, the transaction
+ * is rolled back and the writes of the batch run one by one.
+ */
+class LockWriteCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockWriteCoalescer.class);
+
+    /**
+     * the max rows of a batch insert statement, within the bind parameter limit of every database
+     */
+    private static final int MAX_INSERT_ROWS = 200;
+
+    /**
+     * the max row keys of a check query
+     */
+    private static final int MAX_CHECK_ROWS = 1000;
+
+    /**
+     * the max time a write waits for its batch
+     */
+    private static final long MAX_WAIT_MILLS = 30000;
+
+    /**
+     * the max time the shutdown waits for the batches being flushed
+     */
+    private static final long SHUTDOWN_WAIT_MILLS = 5000;
+
+    private final LockStoreDataBaseDAO lockStore;
+
+    private final long windowNanos;
+
+    private final int batchSize;
+
+    private final BlockingQueue<LockWrite> lockWrites = new LinkedBlockingQueue<>();
+
+    private final Semaphore flushPermits;
+
+    private final ExecutorService flushExecutor;
+
+    private final Thread collector;
+
+    private volatile boolean stopped;
+
+    /**
+     * Instantiates a new lock write coalescer.
+     *
+     * @param lockStore   the lock store the batches are written with
+     * @param windowMills the window in millis in which the writes are batched
+     * @param batchSize   the max number of writes in a batch
+     */
+    LockWriteCoalescer(LockStoreDataBaseDAO lockStore, int windowMills, int batchSize) {
+        this.lockStore = lockStore;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMills);
+        this.batchSize = Math.max(1, batchSize);
+        int flushThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.flushPermits = new Semaphore(flushThreads);
+        this.flushExecutor = new ThreadPoolExecutor(flushThreads, flushThreads, Integer.MAX_VALUE,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("lockWriteFlush", flushThreads, true));
+        this.collector = new NamedThreadFactory("lockWriteCollector", 1, true).newThread(this::collect);
+        collector.start();
+    }
+
+    /**
+     * Stop the collector and flush threads, the writes not flushed yet fail.
+     */
+    void shutdown() {
+        stopped = true;
+        collector.interrupt();
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(SHUTDOWN_WAIT_MILLS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();
+    }
+
+    /**
+     * Acquire the locks of a branch.
+     *
+     * @param lockDOs    the locks of the branch, without duplicated row keys
+     * @param autoCommit whether the branch is an auto commit one
+     * @return true if the locks are acquired
+     */
+    boolean acquireLock(List<LockDO> lockDOs, boolean autoCommit) {
+        return submit(new LockWrite(lockDOs, autoCommit, null, null));
+    }
+
+    /**
+     * Release the locks of a branch.
+     *
+     * @param branchId the branch id
+     * @return the boolean
+     */
+    boolean unLock(Long branchId) {
+        return submit(new LockWrite(null, false, branchId, null));
+    }
+
+    /**
+     * Release the locks of a global transaction.
+     *
+     * @param xid the xid
+     * @return the boolean
+     */
+    boolean unLock(String xid) {
+        return submit(new LockWrite(null, false, null, xid));
+    }
+
+    private boolean submit(LockWrite lockWrite) {
+        if (stopped) {
+            throw new StoreException("the lock write coalescer is shut down");
+        }
+        lockWrites.offer(lockWrite);
+        if (stopped) {
+            failQueued();
+        }
+        try {
+            return lockWrite.result.get(MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the batch may still be written, the locks of a failed branch registration are released with its global
+            // transaction
+            StoreException timeout = new StoreException("lock write timeout after " + MAX_WAIT_MILLS + " ms");
+            lockWrite.result.completeExceptionally(timeout);
+            throw timeout;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new StoreException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StoreException(e);
+        }
+    }
+
+    private void failQueued() {
+        List<LockWrite> queued = new ArrayList<>();
+        lockWrites.drainTo(queued);
+        fail(queued, new StoreException("the lock write coalescer is shut down"));
+    }
+
+    private static void fail(List<LockWrite> batch, Throwable cause) {
+        for (LockWrite lockWrite : batch) {
+            lockWrite.result.completeExceptionally(cause);
+        }
+    }
+
+    private void collect() {
+        while (!stopped) {
+            List<LockWrite> batch = new ArrayList<>();
+            try {
+                batch.add(lockWrites.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    LockWrite next = remaining > 0 ? lockWrites.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flushPermits.acquire();
+                // writes queued while every flush thread was busy join the batch
+                lockWrites.drainTo(batch, batchSize - batch.size());
+                flushExecutor.execute(() -> {
+                    try {
+                        flush(batch);
+                    } finally {
+                        flushPermits.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new StoreException("the lock write coalescer is shut down"));
+                return;
+            } catch (Throwable t) {
+                LOGGER.error("Collect lock writes error: {}", t.getMessage(), t);
+                fail(batch, t);
+            }
+        }
+    }
+
+    private void flush(List<LockWrite> batch) {
+        for (List<LockWrite> group : splitOrdered(batch)) {
+            flushGroup(group);
+        }
+    }
+
+    /**
+     * Split a batch where a release follows an acquire of the same branch or global transaction, the deletes of a
+     * group run before its inserts.
+     *
+     * @return the groups in queuing order
+     */
+    private static List<List<LockWrite>> splitOrdered(List<LockWrite> batch) {
+        List<List<LockWrite>> groups = new ArrayList<>();
+        List<LockWrite> group = new ArrayList<>();
+        Set<Long> acquiredBranchIds = new HashSet<>();
+        Set<String> acquiredXids = new HashSet<>();
+        for (LockWrite lockWrite : batch) {
+            if (lockWrite.lockDOs != null) {
+                acquiredBranchIds.add(lockWrite.lockDOs.get(0).getBranchId());
+                acquiredXids.add(lockWrite.lockDOs.get(0).getXid());
+            } else if (lockWrite.branchId != null ? acquiredBranchIds.contains(lockWrite.branchId)
+                : acquiredXids.contains(lockWrite.xid)) {
+                groups.add(group);
+                group = new ArrayList<>();
+                acquiredBranchIds.clear();
+                acquiredXids.clear();
+            }
+            group.add(lockWrite);
+        }
+        groups.add(group);
+        return groups;
+    }
+
+    private void flushGroup(List<LockWrite> batch) {
+        List<Long> branchIds = new ArrayList<>();
+        List<String> xids = new ArrayList<>();
+        List<LockWrite> acquires = new ArrayList<>();
+        for (LockWrite lockWrite : batch) {
+            if (lockWrite.lockDOs != null) {
+                acquires.add(lockWrite);
+            } else if (lockWrite.branchId != null) {
+                branchIds.add(lockWrite.branchId);
+            } else {
+                xids.add(lockWrite.xid);
+            }
+        }
+        boolean written = false;
+        Connection conn = null;
+        boolean originalAutoCommit = true;
+        try {
+            conn = lockStore.lockStoreDataSource.getConnection();
+            originalAutoCommit = conn.getAutoCommit();
+            if (originalAutoCommit) {
+                conn.setAutoCommit(false);
+            }
+            LockStoreSql lockStoreSql = LockStoreSqlFactory.getLogStoreSql(lockStore.dbType);
+            deleteLocks(conn, lockStoreSql, branchIds, xids);
+            if (acquires.isEmpty() || insertLocks(conn, lockStoreSql, resolveConflicts(conn, lockStoreSql, acquires))) {
+                conn.commit();
+                written = true;
+            } else {
+                conn.rollback();
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Batch lock write error, write them one by one: {}", e.getMessage(), e);
+            rollback(conn);
+        } finally {
+            close(conn, originalAutoCommit);
+        }
+        if (written) {
+            for (LockWrite lockWrite : batch) {
+                lockWrite.complete();
+            }
+        } else {
+            writeOneByOne(batch);
+        }
+    }
+
+    private void deleteLocks(Connection conn, LockStoreSql lockStoreSql, List<Long> branchIds, List<String> xids)
+        throws SQLException {
+        if (!branchIds.isEmpty()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                lockStoreSql.getBatchDeleteLockSqlByBranchId(lockStore.lockTable))) {
+                for (Long branchId : branchIds) {
+                    ps.setLong(1, branchId);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        if (!xids.isEmpty()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                lockStoreSql.getBatchDeleteLockSqlByXid(lockStore.lockTable))) {
+                for (String xid : xids) {
+                    ps.setString(1, xid);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Decide which acquires get their locks, in queuing order.
+     *
+     * @return the rows to insert
+     */
+    private List<LockDO> resolveConflicts(Connection conn, LockStoreSql lockStoreSql, List<LockWrite> acquires)
+        throws SQLException {
+        Set<String> rowKeys = new LinkedHashSet<>();
+        for (LockWrite acquire : acquires) {
+            for (LockDO lockDO : acquire.lockDOs) {
+                rowKeys.add(lockDO.getRowKey());
+            }
+        }
+        Map<String/* rowKey */, LockDO> holders = queryHolders(conn, lockStoreSql, new ArrayList<>(rowKeys));
+        List<LockDO> inserts = new ArrayList<>();
+        for (LockWrite acquire : acquires) {
+            String xid = acquire.lockDOs.get(0).getXid();
+            LockDO conflict = null;
+            boolean failFast = false;
+            for (LockDO lockDO : acquire.lockDOs) {
+                LockDO holder = holders.get(lockDO.getRowKey());
+                if (holder != null && !StringUtils.equals(holder.getXid(), xid)) {
+                    conflict = conflict == null ? holder : conflict;
+                    if (!acquire.autoCommit && holder.getStatus() == LockStatus.Rollbacking.getCode()) {
+                        failFast = true;
+                    }
+                }
+            }
+            if (conflict != null) {
+                if (LOGGER.isInfoEnabled()) {
+                    LOGGER.info("Global lock on [{}:{}] is holding by xid {} branchId {}", conflict.getTableName(),
+                        conflict.getPk(), conflict.getXid(), conflict.getBranchId());
+                }
+                acquire.outcome = failFast ? new StoreException(new BranchTransactionException(LockKeyConflictFailFast))
+                    : Boolean.FALSE;
+                continue;
+            }
+            for (LockDO lockDO : acquire.lockDOs) {
+                if (holders.putIfAbsent(lockDO.getRowKey(), lockDO) == null) {
+                    inserts.add(lockDO);
+                }
+            }
+            acquire.outcome = Boolean.TRUE;
+        }
+        return inserts;
+    }
+
+    private Map<String, LockDO> queryHolders(Connection conn, LockStoreSql lockStoreSql, List<String> rowKeys)
+        throws SQLException {
+        Map<String, LockDO> holders = new HashMap<>(rowKeys.size());
+        for (int from = 0; from < rowKeys.size(); from += MAX_CHECK_ROWS) {
+            List<String> chunk = rowKeys.subList(from, Math.min(rowKeys.size(), from + MAX_CHECK_ROWS));
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+            try {
+                ps = conn.prepareStatement(lockStoreSql.getCheckLockableSql(lockStore.lockTable, chunk.size()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setString(i + 1, chunk.get(i));
+                }
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    LockDO holder = new LockDO();
+                    holder.setXid(rs.getString(ServerTableColumnsName.LOCK_TABLE_XID));
+                    holder.setBranchId(rs.getLong(ServerTableColumnsName.LOCK_TABLE_BRANCH_ID));
+                    holder.setTableName(rs.getString(ServerTableColumnsName.LOCK_TABLE_TABLE_NAME));
+                    holder.setPk(rs.getString(ServerTableColumnsName.LOCK_TABLE_PK));
+                    holder.setStatus(rs.getInt(ServerTableColumnsName.LOCK_TABLE_STATUS));
+                    holders.put(rs.getString(ServerTableColumnsName.LOCK_TABLE_ROW_KEY), holder);
+                }
+            } finally {
+                IOUtil.close(rs, ps);
+            }
+        }
+        return holders;
+    }
+
+    /**
+     * Insert the rows.
+     *
+     * @return false if a row was locked by someone else after the check
+     */
+    private boolean insertLocks(Connection conn, LockStoreSql lockStoreSql, List<LockDO> inserts) throws SQLException {
+        if (inserts.isEmpty()) {
+            return true;
+        }
+        if (lockStoreSql.getBatchInsertLockSql(lockStore.lockTable, 1) == null) {
+            return lockStore.doAcquireLocks(conn, inserts);
+        }
+        for (int from = 0; from < inserts.size(); from += MAX_INSERT_ROWS) {
+            List<LockDO> chunk = inserts.subList(from, Math.min(inserts.size(), from + MAX_INSERT_ROWS));
+            try (PreparedStatement ps = conn.prepareStatement(
+                lockStoreSql.getBatchInsertLockSql(lockStore.lockTable, chunk.size()))) {
+                int index = 0;
+                for (LockDO lockDO : chunk) {
+                    ps.setString(++index, lockDO.getXid());
+                    ps.setLong(++index, lockDO.getTransactionId());
+                    ps.setLong(++index, lockDO.getBranchId());
+                    ps.setString(++index, lockDO.getResourceId());
+                    ps.setString(++index, lockDO.getTableName());
+                    ps.setString(++index, lockDO.getPk());
+                    ps.setString(++index, lockDO.getRowKey());
+                    ps.setInt(++index, LockStatus.Locked.getCode());
+                }
+                int inserted = ps.executeUpdate();
+                if (inserted != chunk.size()) {
+                    LOGGER.info("Global lock batch insert skipped {} locked rows", chunk.size() - inserted);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void writeOneByOne(List<LockWrite> batch) {
+        for (LockWrite lockWrite : batch) {
+            try {
+                boolean result;
+                if (lockWrite.lockDOs != null) {
+                    result = lockStore.doAcquireLock(lockWrite.lockDOs, lockWrite.autoCommit, false);
+                } else if (lockWrite.branchId != null) {
+                    result = lockStore.doUnLock(lockWrite.branchId);
+                } else {
+                    result = lockStore.doUnLock(lockWrite.xid);
+                }
+                lockWrite.result.complete(result);
+            } catch (Throwable t) {
+                lockWrite.result.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                LOGGER.warn("Rollback batch lock write error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void close(Connection conn, boolean originalAutoCommit) {
+        if (conn != null) {
+            try {
+                if (originalAutoCommit) {
+                    conn.setAutoCommit(true);
+                }
+                conn.close();
+            } catch (SQLException e) {
+            }
+        }
+    }
+
+    /**
+     * A lock write waiting for its batch, either an acquire of a branch, or a release of a branch or global
+     * transaction.
+     */
+    private static class LockWrite {
+
+        private final List<LockDO> lockDOs;
+
+        private final boolean autoCommit;
+
+        private final Long branchId;
+
+        private final String xid;
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        /**
+         * the outcome of an acquire in its batch, a boolean or the exception to throw
+         */
+        private Object outcome;
+
+        LockWrite(List<LockDO> lockDOs, boolean autoCommit, Long branchId, String xid) {
+            this.lockDOs = lockDOs;
+            this.autoCommit = autoCommit;
+            this.branchId = branchId;
+            this.xid = xid;
+        }
+
+        void complete() {
+            if (outcome instanceof RuntimeException) {
+                result.completeExceptionally((RuntimeException)outcome);
+            } else {
+                result.complete(outcome == null || (Boolean)outcome);
+            }
+        }
+    }
+}
@@ -41,5 +41,10 @@ public interface ReloadableStore {
      */
     boolean hasRemaining(boolean isHistory);
 
+    /**
+     * Called once the sessions have been restored from the store.
+     */
+    default void afterReload() {
+    }
 
 }
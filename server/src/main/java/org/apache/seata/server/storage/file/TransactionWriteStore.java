@@ -21,16 +21,22 @@ import java.nio.ByteBuffer;
 import org.apache.seata.common.exception.ShouldNeverHappenException;
 import org.apache.seata.server.session.BranchSession;
 import org.apache.seata.server.session.GlobalSession;
+import org.apache.seata.server.session.SessionCodec;
 import org.apache.seata.server.store.SessionStorable;
 import org.apache.seata.server.store.TransactionStoreManager.LogOperation;
 
 /**
  * The type Transaction write store.
- *
+ * <p>
+ * A decoded store only decodes its operation, the session is decoded on first access, so that a reload can skip the
+ * frames of a finished transaction by their xid.
  */
 public class TransactionWriteStore implements SessionStorable {
     private SessionStorable sessionRequest;
     private LogOperation operate;
+    private byte[] src;
+    private int srcOffset;
+    private int srcLength;
 
     /**
      * Instantiates a new Transaction write store.
@@ -54,9 +60,42 @@ public class TransactionWriteStore implements SessionStorable {
      * @return the session request
      */
     public SessionStorable getSessionRequest() {
+        if (sessionRequest == null && src != null) {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(src, srcOffset, srcLength - 1);
+            if (isGlobalOperation(operate)) {
+                GlobalSession globalSession = new GlobalSession();
+                globalSession.decode(byteBuffer);
+                sessionRequest = globalSession;
+            } else {
+                BranchSession branchSession = new BranchSession();
+                branchSession.decode(byteBuffer);
+                sessionRequest = branchSession;
+            }
+            src = null;
+        }
         return sessionRequest;
     }
 
+    /**
+     * Gets the xid of the session, without decoding the session if it is not decoded yet.
+     *
+     * @return the xid
+     */
+    public String getXid() {
+        if (sessionRequest instanceof GlobalSession) {
+            return ((GlobalSession)sessionRequest).getXid();
+        }
+        if (sessionRequest instanceof BranchSession) {
+            return ((BranchSession)sessionRequest).getXid();
+        }
+        if (src == null) {
+            return null;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.wrap(src, srcOffset, srcLength - 1);
+        return isGlobalOperation(operate) ? SessionCodec.peekGlobalXid(byteBuffer)
+            : SessionCodec.peekBranchXid(byteBuffer);
+    }
+
     /**
      * Sets session request.
      *
@@ -64,6 +103,7 @@ public class TransactionWriteStore implements SessionStorable {
      */
     public void setSessionRequest(SessionStorable sessionRequest) {
         this.sessionRequest = sessionRequest;
+        this.src = null;
     }
 
     /**
@@ -86,7 +126,7 @@ public class TransactionWriteStore implements SessionStorable {
 
     @Override
     public byte[] encode() {
-        byte[] bySessionRequest = this.sessionRequest.encode();
+        byte[] bySessionRequest = getSessionRequest().encode();
         byte byOpCode = this.getOperate().getCode();
         int len = bySessionRequest.length + 1;
         byte[] byResult = new byte[len];
@@ -96,34 +136,45 @@ public class TransactionWriteStore implements SessionStorable {
         return byResult;
     }
 
+    @Override
+    public void encode(ByteBuffer byteBuffer) {
+        getSessionRequest().encode(byteBuffer);
+        byteBuffer.put(this.getOperate().getCode());
+    }
+
     @Override
     public void decode(byte[] src) {
-        ByteBuffer byteBuffer = ByteBuffer.wrap(src);
-        byte[] bySessionRequest = new byte[src.length - 1];
-        byteBuffer.get(bySessionRequest);
-        byte byOpCode = byteBuffer.get();
-        this.operate = LogOperation.getLogOperationByCode(byOpCode);
-        SessionStorable tmpSessionStorable = getSessionInstanceByOperation(this.operate);
-        tmpSessionStorable.decode(bySessionRequest);
-        this.sessionRequest = tmpSessionStorable;
+        decode(src, 0, src.length);
+    }
+
+    /**
+     * Decode the operation of a frame held in a part of an array, the array must not be changed until the session is
+     * decoded.
+     *
+     * @param src    the array
+     * @param offset the offset of the frame
+     * @param length the length of the frame
+     */
+    public void decode(byte[] src, int offset, int length) {
+        this.operate = LogOperation.getLogOperationByCode(src[offset + length - 1]);
+        this.sessionRequest = null;
+        this.src = src;
+        this.srcOffset = offset;
+        this.srcLength = length;
     }
 
-    private SessionStorable getSessionInstanceByOperation(LogOperation logOperation) {
-        SessionStorable sessionStorable = null;
+    private static boolean isGlobalOperation(LogOperation logOperation) {
         switch (logOperation) {
             case GLOBAL_ADD:
             case GLOBAL_UPDATE:
             case GLOBAL_REMOVE:
-                sessionStorable = new GlobalSession();
-                break;
+                return true;
             case BRANCH_ADD:
             case BRANCH_UPDATE:
             case BRANCH_REMOVE:
-                sessionStorable = new BranchSession();
-                break;
+                return false;
             default:
                 throw new ShouldNeverHappenException("incorrect logOperation");
         }
-        return sessionStorable;
     }
 }
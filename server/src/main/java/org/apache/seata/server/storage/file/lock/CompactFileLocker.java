@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.file.lock;
+
+import java.util.List;
+
+import org.apache.seata.common.exception.FrameworkException;
+import org.apache.seata.common.exception.StoreException;
+import org.apache.seata.common.util.CollectionUtils;
+import org.apache.seata.core.exception.BranchTransactionException;
+import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.AbstractLocker;
+import org.apache.seata.core.lock.RowLock;
+import org.apache.seata.core.model.LockStatus;
+import org.apache.seata.server.session.BranchSession;
+
+import static org.apache.seata.core.exception.TransactionExceptionCode.LockKeyConflictFailFast;
+
+/**
+ * The file locker backed by the {@link CompactLockTable}, same semantics as {@link FileLocker}.
+ *
+ */
+public class CompactFileLocker extends AbstractLocker {
+
+    private static final CompactLockTable LOCK_TABLE = CompactLockTable.getInstance();
+
+    /**
+     * The Branch session.
+     */
+    protected BranchSession branchSession;
+
+    /**
+     * Instantiates a new compact file locker.
+     *
+     * @param branchSession the branch session
+     */
+    public CompactFileLocker(BranchSession branchSession) {
+        this.branchSession = branchSession;
+    }
+
+    @Override
+    public boolean acquireLock(List<RowLock> rowLocks) {
+        return acquireLock(rowLocks, true, false);
+    }
+
+    @Override
+    public boolean acquireLock(List<RowLock> rowLocks, boolean autoCommit, boolean skipCheckLock) {
+        if (CollectionUtils.isEmpty(rowLocks)) {
+            // no lock
+            return true;
+        }
+        String resourceId = branchSession.getResourceId();
+        long transactionId = branchSession.getTransactionId();
+
+        CompactLockHolder lockHolder = branchSession.getOrCreateCompactLockHolder();
+        boolean failFast = false;
+        boolean canLock = true;
+        String lastTableName = null;
+        int tableId = 0;
+        for (RowLock lock : rowLocks) {
+            String tableName = lock.getTableName();
+            String pk = lock.getPk();
+            if (!tableName.equals(lastTableName)) {
+                // row locks are grouped by table, so the table id is interned once per group
+                tableId = LOCK_TABLE.internTable(resourceId, tableName);
+                lastTableName = tableName;
+            }
+            long pkHash = CompactLockTable.hash(tableId, pk);
+            BranchSession previousLockBranchSession = LOCK_TABLE.putIfAbsent(tableId, pkHash, pk, branchSession);
+            if (previousLockBranchSession == null) {
+                // No existing lock, and now locked by myself
+                lockHolder.add(tableId, pkHash);
+            } else if (previousLockBranchSession.getTransactionId() == transactionId) {
+                // Locked by me before
+            } else {
+                LOGGER.info("Global lock on [" + tableName + ":" + pk + "] is holding by " + previousLockBranchSession.getBranchId());
+                try {
+                    // Release all acquired locks.
+                    branchSession.unlock();
+                } catch (TransactionException e) {
+                    throw new FrameworkException(e);
+                }
+                if (!autoCommit && previousLockBranchSession.getLockStatus() == LockStatus.Rollbacking) {
+                    failFast = true;
+                    break;
+                }
+                if (canLock) {
+                    canLock = false;
+                    if (autoCommit) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (failFast) {
+            throw new StoreException(new BranchTransactionException(LockKeyConflictFailFast));
+        }
+        return canLock;
+    }
+
+    @Override
+    public boolean releaseLock(List<RowLock> rowLock) {
+        if (CollectionUtils.isEmpty(rowLock)) {
+            //no lock
+            return true;
+        }
+        CompactLockHolder lockHolder = branchSession.getCompactLockHolder();
+        if (lockHolder == null || lockHolder.isEmpty()) {
+            return true;
+        }
+        lockHolder.releaseAll(LOCK_TABLE, branchSession);
+        return true;
+    }
+
+    @Override
+    public boolean isLockable(List<RowLock> rowLocks) {
+        if (CollectionUtils.isEmpty(rowLocks)) {
+            //no lock
+            return true;
+        }
+        long transactionId = rowLocks.get(0).getTransactionId();
+        String resourceId = rowLocks.get(0).getResourceId();
+        for (RowLock rowLock : rowLocks) {
+            String tableName = rowLock.getTableName();
+            String pk = rowLock.getPk();
+            int tableId = LOCK_TABLE.lookupTable(resourceId, tableName);
+            if (tableId < 0) {
+                continue;
+            }
+            BranchSession lockingBranchSession = LOCK_TABLE.get(tableId, CompactLockTable.hash(tableId, pk), pk);
+            if (lockingBranchSession == null || lockingBranchSession.getTransactionId() == transactionId) {
+                // Locked by me
+                continue;
+            } else {
+                LOGGER.info("Global lock on [" + tableName + ":" + pk + "] is holding by " + lockingBranchSession.getTransactionId());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void updateLockStatus(String xid, LockStatus lockStatus) {
+    }
+
+    @Override
+    public void cleanAllLocks() {
+        LOCK_TABLE.clear();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.file.lock;
+
+import java.util.Arrays;
+
+import org.apache.seata.server.session.BranchSession;
+
+/**
+ * The rows held by one branch in the {@link CompactLockTable}, kept as parallel primitive arrays of
+ * (tableId, pkHash) references instead of a set of pk strings per bucket.
+ */
+public class CompactLockHolder {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] tableIds;
+
+    private long[] pkHashes;
+
+    private int size;
+
+    /**
+     * Record a row acquired by the branch.
+     *
+     * @param tableId the interned table id
+     * @param pkHash  the pk hash
+     */
+    public synchronized void add(int tableId, long pkHash) {
+        if (tableIds == null) {
+            tableIds = new int[INITIAL_CAPACITY];
+            pkHashes = new long[INITIAL_CAPACITY];
+        } else if (size == tableIds.length) {
+            int capacity = size + (size >> 1);
+            tableIds = Arrays.copyOf(tableIds, capacity);
+            pkHashes = Arrays.copyOf(pkHashes, capacity);
+        }
+        tableIds[size] = tableId;
+        pkHashes[size] = pkHash;
+        size++;
+    }
+
+    /**
+     * Release every recorded row from the table and forget them.
+     *
+     * @param lockTable the lock table
+     * @param owner     the branch session owning this holder
+     */
+    public synchronized void releaseAll(CompactLockTable lockTable, BranchSession owner) {
+        for (int i = 0; i < size; i++) {
+            // remove lock only if it locked by myself
+            lockTable.remove(tableIds[i], pkHashes[i], owner);
+        }
+        tableIds = null;
+        pkHashes = null;
+        size = 0;
+    }
+
+    /**
+     * Gets the number of held rows.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Is empty.
+     *
+     * @return true if the branch holds no row
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.file.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.seata.server.session.BranchSession;
+
+/**
+ * A row lock table keyed by primitives instead of nested maps.
+ * <p>
+ * Every (resourceId, tableName) pair is interned once into an int id, and every pk is reduced to a 64-bit hash.
+ * Rows are stored in open-addressed (linear probing) tables split into stripes, each stripe is guarded by its own
+ * lock and doubles its capacity when the load factor is exceeded. Entries whose 64-bit hashes collide stay on the
+ * same probe chain and are told apart by comparing the pk itself, so a collision never produces a false conflict.
+ * <p>
+ * Acquiring or releasing a lock does not allocate anything besides the occasional stripe resize.
+ */
+public final class CompactLockTable {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final CompactLockTable INSTANCE = new CompactLockTable(DEFAULT_STRIPES);
+
+    private final ConcurrentMap<String/* resourceId */, ConcurrentMap<String/* tableName */, Integer/* tableId */>>
+        tableIds = new ConcurrentHashMap<>();
+
+    private final AtomicInteger tableIdGenerator = new AtomicInteger();
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * Instantiates a new compact lock table.
+     *
+     * @param stripeCount the stripe count, rounded up to a power of two
+     */
+    CompactLockTable(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(INITIAL_STRIPE_CAPACITY);
+        }
+        this.stripeMask = size - 1;
+    }
+
+    /**
+     * Gets the shared instance used by {@link CompactFileLocker}.
+     *
+     * @return the compact lock table
+     */
+    public static CompactLockTable getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get or assign the interned id of a table.
+     *
+     * @param resourceId the resource id
+     * @param tableName  the table name
+     * @return the table id
+     */
+    public int internTable(String resourceId, String tableName) {
+        ConcurrentMap<String, Integer> tables = tableIds.get(resourceId);
+        if (tables == null) {
+            tables = tableIds.computeIfAbsent(resourceId, key -> new ConcurrentHashMap<>(8));
+        }
+        Integer tableId = tables.get(tableName);
+        if (tableId == null) {
+            tableId = tables.computeIfAbsent(tableName, key -> tableIdGenerator.incrementAndGet());
+        }
+        return tableId;
+    }
+
+    /**
+     * Get the interned id of a table without assigning a new one.
+     *
+     * @param resourceId the resource id
+     * @param tableName  the table name
+     * @return the table id, or -1 if no lock has ever been taken on the table
+     */
+    public int lookupTable(String resourceId, String tableName) {
+        ConcurrentMap<String, Integer> tables = tableIds.get(resourceId);
+        if (tables == null) {
+            return -1;
+        }
+        Integer tableId = tables.get(tableName);
+        return tableId == null ? -1 : tableId;
+    }
+
+    /**
+     * Lock a row for the owner if nobody holds it.
+     *
+     * @param tableId the interned table id
+     * @param pkHash  the pk hash, see {@link #hash(int, String)}
+     * @param pk      the pk
+     * @param owner   the branch session acquiring the lock
+     * @return null if the row was free and is now held by owner, otherwise the current holder
+     */
+    public BranchSession putIfAbsent(int tableId, long pkHash, String pk, BranchSession owner) {
+        Stripe stripe = stripeOf(pkHash);
+        stripe.lock.lock();
+        try {
+            return stripe.putIfAbsent(tableId, pkHash, pk, owner);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the holder of a row.
+     *
+     * @param tableId the interned table id
+     * @param pkHash  the pk hash
+     * @param pk      the pk
+     * @return the holder, or null if the row is not locked
+     */
+    public BranchSession get(int tableId, long pkHash, String pk) {
+        Stripe stripe = stripeOf(pkHash);
+        stripe.lock.lock();
+        try {
+            return stripe.get(tableId, pkHash, pk);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Release every row with the given table id and hash that is held by the owner.
+     *
+     * @param tableId the interned table id
+     * @param pkHash  the pk hash
+     * @param owner   the holder
+     * @return the number of released rows
+     */
+    public int remove(int tableId, long pkHash, BranchSession owner) {
+        Stripe stripe = stripeOf(pkHash);
+        stripe.lock.lock();
+        try {
+            return stripe.remove(tableId, pkHash, owner);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of locked rows.
+     *
+     * @return the size
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Release all locks.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.reset(INITIAL_STRIPE_CAPACITY);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 64-bit hash of a pk within a table, computed without allocating.
+     *
+     * @param tableId the interned table id
+     * @param pk      the pk
+     * @return the hash
+     */
+    public static long hash(int tableId, String pk) {
+        // FNV-1a over the chars, seeded with the table id, then finalized with the murmur3 fmix64
+        long h = 0xcbf29ce484222325L ^ tableId;
+        for (int i = 0, len = pk.length(); i < len; i++) {
+            h ^= pk.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private Stripe stripeOf(long pkHash) {
+        // the high bits pick the stripe, the low bits pick the slot inside it
+        return stripes[(int)(pkHash >>> 40) & stripeMask];
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private long[] hashes;
+
+        private int[] tables;
+
+        private String[] pks;
+
+        /**
+         * a null owner marks an empty slot
+         */
+        private BranchSession[] owners;
+
+        private int size;
+
+        private int threshold;
+
+        Stripe(int capacity) {
+            reset(capacity);
+        }
+
+        void reset(int capacity) {
+            hashes = new long[capacity];
+            tables = new int[capacity];
+            pks = new String[capacity];
+            owners = new BranchSession[capacity];
+            size = 0;
+            threshold = (int)(capacity * LOAD_FACTOR);
+        }
+
+        BranchSession putIfAbsent(int tableId, long pkHash, String pk, BranchSession owner) {
+            int mask = owners.length - 1;
+            int i = (int)pkHash & mask;
+            while (owners[i] != null) {
+                if (hashes[i] == pkHash && tables[i] == tableId && pks[i].equals(pk)) {
+                    return owners[i];
+                }
+                i = (i + 1) & mask;
+            }
+            hashes[i] = pkHash;
+            tables[i] = tableId;
+            pks[i] = pk;
+            owners[i] = owner;
+            if (++size > threshold) {
+                resize();
+            }
+            return null;
+        }
+
+        BranchSession get(int tableId, long pkHash, String pk) {
+            int mask = owners.length - 1;
+            int i = (int)pkHash & mask;
+            while (owners[i] != null) {
+                if (hashes[i] == pkHash && tables[i] == tableId && pks[i].equals(pk)) {
+                    return owners[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        int remove(int tableId, long pkHash, BranchSession owner) {
+            int mask = owners.length - 1;
+            int i = (int)pkHash & mask;
+            int removed = 0;
+            while (owners[i] != null) {
+                if (hashes[i] == pkHash && tables[i] == tableId && owners[i] == owner) {
+                    // the slot is refilled by the shift, so look at the same index again
+                    delete(i);
+                    removed++;
+                } else {
+                    i = (i + 1) & mask;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Backward-shift deletion, keeps probe chains intact without tombstones.
+         */
+        private void delete(int slot) {
+            int mask = owners.length - 1;
+            int hole = slot;
+            int i = (slot + 1) & mask;
+            while (owners[i] != null) {
+                int home = (int)hashes[i] & mask;
+                // move the entry into the hole unless its home lies cyclically within (hole, i]
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    hashes[hole] = hashes[i];
+                    tables[hole] = tables[i];
+                    pks[hole] = pks[i];
+                    owners[hole] = owners[i];
+                    hole = i;
+                }
+                i = (i + 1) & mask;
+            }
+            hashes[hole] = 0L;
+            tables[hole] = 0;
+            pks[hole] = null;
+            owners[hole] = null;
+            size--;
+        }
+
+        private void resize() {
+            long[] oldHashes = hashes;
+            int[] oldTables = tables;
+            String[] oldPks = pks;
+            BranchSession[] oldOwners = owners;
+            int capacity = oldOwners.length << 1;
+            hashes = new long[capacity];
+            tables = new int[capacity];
+            pks = new String[capacity];
+            owners = new BranchSession[capacity];
+            threshold = (int)(capacity * LOAD_FACTOR);
+            int mask = capacity - 1;
+            for (int j = 0; j < oldOwners.length; j++) {
+                if (oldOwners[j] == null) {
+                    continue;
+                }
+                int i = (int)oldHashes[j] & mask;
+                while (owners[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                hashes[i] = oldHashes[j];
+                tables[i] = oldTables[j];
+                pks[i] = oldPks[j];
+                owners[i] = oldOwners[j];
+            }
+        }
+    }
+}
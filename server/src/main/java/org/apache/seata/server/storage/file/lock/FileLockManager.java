@@ -25,6 +25,7 @@ import org.apache.seata.server.lock.AbstractLockManager;
 import org.apache.seata.server.session.BranchSession;
 import org.apache.seata.server.session.GlobalSession;
 import org.apache.seata.server.storage.raft.lock.RaftLockManager;
+import org.apache.seata.server.store.StoreConfig;
 import org.slf4j.MDC;
 
 import static org.apache.seata.core.context.RootContext.MDC_KEY_BRANCH_ID;
@@ -36,9 +37,11 @@ import static org.apache.seata.core.context.RootContext.MDC_KEY_BRANCH_ID;
 @LoadLevel(name = "file")
 public class FileLockManager extends AbstractLockManager {
 
+    private final boolean compactLockTable = StoreConfig.isCompactLockTable();
+
     @Override
     public Locker getLocker(BranchSession branchSession) {
-        return new FileLocker(branchSession);
+        return compactLockTable ? new CompactFileLocker(branchSession) : new FileLocker(branchSession);
     }
 
     @Override
@@ -32,7 +32,6 @@ import java.util.stream.Collectors;
 import org.apache.seata.common.exception.ShouldNeverHappenException;
 import org.apache.seata.common.loader.LoadLevel;
 import org.apache.seata.common.loader.Scope;
-import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.common.util.StringUtils;
 import org.apache.seata.config.ConfigurationFactory;
 import org.apache.seata.core.constants.ConfigurationKeys;
@@ -43,6 +42,8 @@ import org.apache.seata.server.session.BranchSession;
 import org.apache.seata.server.session.GlobalSession;
 import org.apache.seata.server.session.Reloadable;
 import org.apache.seata.server.session.SessionCondition;
+import org.apache.seata.server.session.SessionDeadlineIndex;
+import org.apache.seata.server.session.SessionStatusIndex;
 import org.apache.seata.server.storage.file.ReloadableStore;
 import org.apache.seata.server.storage.file.TransactionWriteStore;
 import org.apache.seata.server.storage.file.store.FileTransactionStoreManager;
@@ -50,6 +51,8 @@ import org.apache.seata.server.store.AbstractTransactionStoreManager;
 import org.apache.seata.server.store.SessionStorable;
 import org.apache.seata.server.store.TransactionStoreManager;
 
+import static org.apache.seata.common.DefaultValues.DEFAULT_RECOVERY_TIMING_WHEEL_ENABLE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_RECOVERY_TIMING_WHEEL_TICK_DURATION;
 import static org.apache.seata.common.DefaultValues.DEFAULT_SERVICE_SESSION_RELOAD_READ_SIZE;
 
 
@@ -63,11 +66,28 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
     private static final int READ_SIZE = ConfigurationFactory.getInstance().getInt(
         ConfigurationKeys.SERVICE_SESSION_RELOAD_READ_SIZE, DEFAULT_SERVICE_SESSION_RELOAD_READ_SIZE);
 
+    private static final boolean TIMING_WHEEL_ENABLE = ConfigurationFactory.getInstance().getBoolean(
+        ConfigurationKeys.RECOVERY_TIMING_WHEEL_ENABLE, DEFAULT_RECOVERY_TIMING_WHEEL_ENABLE);
+
+    private static final long TIMING_WHEEL_TICK_DURATION = ConfigurationFactory.getInstance().getLong(
+        ConfigurationKeys.RECOVERY_TIMING_WHEEL_TICK_DURATION, DEFAULT_RECOVERY_TIMING_WHEEL_TICK_DURATION);
+
     /**
      * The Session map.
      */
     private Map<String, GlobalSession> sessionMap = new ConcurrentHashMap<>(64);
 
+    /**
+     * The sessions indexed by status.
+     */
+    private final SessionStatusIndex statusIndex = new SessionStatusIndex();
+
+    /**
+     * The sessions indexed by the time the coordinator has to look at them again, null if disabled.
+     */
+    private final SessionDeadlineIndex deadlineIndex =
+        TIMING_WHEEL_ENABLE ? new SessionDeadlineIndex(TIMING_WHEEL_TICK_DURATION) : null;
+
 
     /**
      * Instantiates a new File based session manager.
@@ -109,18 +129,30 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
     @Override
     public void reload() {
         restoreSessions();
+        rebuildIndexes();
+        if (transactionStoreManager instanceof ReloadableStore) {
+            ((ReloadableStore)transactionStoreManager).afterReload();
+        }
     }
 
     @Override
     public void addGlobalSession(GlobalSession session) throws TransactionException {
-        CollectionUtils.computeIfAbsent(sessionMap, session.getXid(), k -> {
-            try {
-                super.addGlobalSession(session);
-            } catch (TransactionException e) {
-                LOGGER.error("addGlobalSession fail, msg: {}", e.getMessage());
-            }
-            return session;
-        });
+        // the session is visible before its frame is written, so a checkpoint never drops a session written before it
+        if (sessionMap.putIfAbsent(session.getXid(), session) != null) {
+            return;
+        }
+        try {
+            super.addGlobalSession(session);
+        } catch (TransactionException e) {
+            LOGGER.error("addGlobalSession fail, msg: {}", e.getMessage());
+        }
+        index(session, session.getStatus());
+    }
+
+    @Override
+    public void updateGlobalSessionStatus(GlobalSession session, GlobalStatus status) throws TransactionException {
+        super.updateGlobalSessionStatus(session, status);
+        index(session, status);
     }
 
     @Override
@@ -137,6 +169,10 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
     @Override
     public void removeGlobalSession(GlobalSession session) throws TransactionException {
         if (sessionMap.remove(session.getXid()) != null) {
+            statusIndex.remove(session);
+            if (deadlineIndex != null) {
+                deadlineIndex.remove(session);
+            }
             super.removeGlobalSession(session);
         }
     }
@@ -152,7 +188,14 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
         if (null != condition.getStatuses() && condition.getStatuses().length > 0) {
             globalStatuses = Arrays.asList(condition.getStatuses());
         }
-        Collection<GlobalSession> list = sessionMap.values();
+        Collection<GlobalSession> list;
+        if (globalStatuses != null && StringUtils.isEmpty(condition.getXid())
+            && (condition.getTransactionId() == null || condition.getTransactionId() <= 0)) {
+            // only the sessions in the statuses, which are checked again below
+            list = statusIndex.find(condition.getStatuses());
+        } else {
+            list = sessionMap.values();
+        }
         List<GlobalStatus> finalGlobalStatuses = globalStatuses;
         return list.parallelStream().filter(globalSession -> {
 
@@ -180,6 +223,35 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
         }).collect(Collectors.toList());
     }
 
+    @Override
+    public SessionDeadlineIndex getDeadlineIndex() {
+        return deadlineIndex;
+    }
+
+    /**
+     * Index a session whose status was set without going through {@link #updateGlobalSessionStatus}, e.g. by the
+     * raft state machine.
+     *
+     * @param session the global session
+     * @param status  the new status of the session
+     */
+    public void index(GlobalSession session, GlobalStatus status) {
+        statusIndex.index(session, status);
+        if (deadlineIndex != null) {
+            deadlineIndex.index(session, status);
+        }
+    }
+
+    /**
+     * Index every session of the session map again, after it was loaded in bulk.
+     */
+    public void rebuildIndexes() {
+        statusIndex.rebuild(sessionMap.values());
+        if (deadlineIndex != null) {
+            deadlineIndex.rebuild(sessionMap.values());
+        }
+    }
+
     @Override
     public <T> T lockAndExecute(GlobalSession globalSession, GlobalSession.LockCallable<T> lockCallable)
         throws TransactionException {
@@ -260,7 +332,17 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
         Map<String, Map<Long, BranchSession>> unhandledBranchBuffer) {
         for (TransactionWriteStore store : stores) {
             TransactionStoreManager.LogOperation logOperation = store.getOperate();
-            SessionStorable sessionStorable = store.getSessionRequest();
+            SessionStorable sessionStorable;
+            try {
+                // the frames of a removed global session are not decoded
+                if (removedGlobalBuffer.contains(store.getXid())) {
+                    continue;
+                }
+                sessionStorable = store.getSessionRequest();
+            } catch (Exception e) {
+                LOGGER.error("Restore session from file failed, decode {} error: {}", logOperation, e.getMessage(), e);
+                continue;
+            }
             switch (logOperation) {
                 case GLOBAL_ADD:
                 case GLOBAL_UPDATE: {
@@ -384,6 +466,7 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
 
     public void setSessionMap(Map<String, GlobalSession> sessionMap) {
         this.sessionMap = sessionMap;
+        rebuildIndexes();
     }
 
     @Override
@@ -16,26 +16,36 @@
  */
 package org.apache.seata.server.storage.file.store;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
 import org.apache.seata.common.exception.StoreException;
 import org.apache.seata.common.thread.NamedThreadFactory;
-import org.apache.seata.common.util.CollectionUtils;
-import org.apache.seata.common.util.BufferUtils;
 import org.apache.seata.server.session.BranchSession;
 import org.apache.seata.server.session.GlobalSession;
 import org.apache.seata.server.session.SessionCondition;
@@ -56,7 +66,15 @@ import static org.apache.seata.core.context.RootContext.MDC_KEY_BRANCH_ID;
 
 /**
  * The type File transaction store manager.
- *
+ * <p>
+ * Sessions are logged to fixed size segments mapped in memory, see {@link SessionLogSegment}. Session writes are
+ * group committed: writers queue their session, a single writer thread encodes every queued session straight into
+ * the current segment, forces it once for the whole batch in sync flush mode, and then releases all the writers of the
+ * batch together.
+ * <p>
+ * Once the sessions are reloaded, the live sessions are periodically checkpointed to a snapshot file and the segments
+ * the snapshot makes useless are deleted. A reload reads the snapshot and then only the segments written since the
+ * checkpoint. The data files of the former layout are still read as long as there is no snapshot.
  */
 public class FileTransactionStoreManager extends AbstractTransactionStoreManager
     implements TransactionStoreManager, ReloadableStore {
@@ -66,68 +84,78 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     private ExecutorService fileWriteExecutor;
 
+    private ScheduledThreadPoolExecutor checkpointExecutor;
+
     private volatile boolean stopping = false;
 
     private static final int MAX_SHUTDOWN_RETRY = 3;
 
     private static final int SHUTDOWN_CHECK_INTERVAL = 1 * 1000;
 
-    private static final int MAX_WRITE_RETRY = 5;
-
     private static final String HIS_DATA_FILENAME_POSTFIX = ".1";
 
+    private static final String SEGMENT_FILENAME_INFIX = ".seg.";
+
+    private static final String SNAPSHOT_FILENAME_POSTFIX = ".snapshot";
+
+    private static final String TMP_FILENAME_POSTFIX = ".tmp";
+
+    private static final int SNAPSHOT_MAGIC = 0x53455353;
+
     private static final AtomicLong FILE_TRX_NUM = new AtomicLong(0);
 
     private static final AtomicLong FILE_FLUSH_NUM = new AtomicLong(0);
 
-    private static final int MARK_SIZE = 4;
-
     private static final int MAX_WAIT_TIME_MILLS = 2 * 1000;
 
     private static final int MAX_FLUSH_TIME_MILLS = 2 * 1000;
 
     private static final int MAX_FLUSH_NUM = 10;
 
-    private static final int PER_FILE_BLOCK_SIZE = 65535 * 8;
+    private static final int MAX_BATCH_SIZE = 1024;
 
-    private static final long MAX_TRX_TIMEOUT_MILLS = 30 * 60 * 1000;
+    private File dataDir;
 
-    private static volatile long trxStartTimeMills = System.currentTimeMillis();
+    private String segmentFilePrefix;
 
-    private File currDataFile;
+    private String currFullFileName;
 
-    private RandomAccessFile currRaf;
+    private String hisFullFileName;
 
-    private FileChannel currFileChannel;
+    private String snapshotFullFileName;
 
-    private long recoverCurrOffset = 0;
+    private final int segmentSize;
 
-    private long recoverHisOffset = 0;
+    private final long checkpointPeriod;
 
-    private SessionManager sessionManager;
+    /**
+     * the segment appended to, only written by the writer thread
+     */
+    private volatile SessionLogSegment currSegment;
 
-    private String currFullFileName;
+    /**
+     * the position after the last appended frame, published by the writer thread before it releases the writers
+     */
+    private volatile LogPosition appendedPosition;
 
-    private String hisFullFileName;
+    private RecoveryCursor historyCursor;
+
+    private RecoveryCursor currCursor;
+
+    private SessionManager sessionManager;
 
     private WriteDataFileRunnable writeDataFileRunnable;
 
-    private ReentrantLock writeSessionLock = new ReentrantLock();
+    private final Queue<WriteRequest> writeRequests = new ConcurrentLinkedQueue<>();
 
     private volatile long lastModifiedTime;
 
-    private static final int MAX_WRITE_BUFFER_SIZE = StoreConfig.getFileWriteBufferCacheSize();
-
-    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(MAX_WRITE_BUFFER_SIZE);
+    private static final int MAX_BUFFER_SIZE = StoreConfig.getFileWriteBufferCacheSize();
 
     private static final FlushDiskMode FLUSH_DISK_MODE = StoreConfig.getFlushDiskMode();
 
     private static final int MAX_WAIT_FOR_FLUSH_TIME_MILLS = 2 * 1000;
 
-    private static final int MAX_WAIT_FOR_CLOSE_TIME_MILLS = 2 * 1000;
-
-    private static final int INT_BYTE_SIZE = 4;
-
     /**
      * Instantiates a new File transaction store manager.
      *
@@ -136,6 +164,21 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
      * @throws IOException the io exception
      */
     public FileTransactionStoreManager(String fullFileName, SessionManager sessionManager) throws IOException {
+        this(fullFileName, sessionManager, StoreConfig.getSegmentSize());
+    }
+
+    /**
+     * Instantiates a new File transaction store manager.
+     *
+     * @param fullFileName   the dir path
+     * @param sessionManager the session manager
+     * @param segmentSize    the size of a session log segment
+     * @throws IOException the io exception
+     */
+    public FileTransactionStoreManager(String fullFileName, SessionManager sessionManager, int segmentSize)
+        throws IOException {
+        this.segmentSize = segmentSize;
+        this.checkpointPeriod = StoreConfig.getCheckpointPeriod();
         initFile(fullFileName);
         fileWriteExecutor = new ThreadPoolExecutor(MAX_THREAD_WRITE, MAX_THREAD_WRITE, Integer.MAX_VALUE,
             TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
@@ -146,24 +189,22 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
     }
 
     private void initFile(String fullFileName) throws IOException {
+        File file = new File(fullFileName);
+        this.dataDir = file.getAbsoluteFile().getParentFile();
+        this.segmentFilePrefix = file.getName() + SEGMENT_FILENAME_INFIX;
         this.currFullFileName = fullFileName;
         this.hisFullFileName = fullFileName + HIS_DATA_FILENAME_POSTFIX;
+        this.snapshotFullFileName = fullFileName + SNAPSHOT_FILENAME_POSTFIX;
         try {
-            currDataFile = new File(currFullFileName);
-            if (!currDataFile.exists()) {
-                // create parent dir first
-                if (currDataFile.getParentFile() != null && !currDataFile.getParentFile().exists()) {
-                    currDataFile.getParentFile().mkdirs();
-                }
-                currDataFile.createNewFile();
-                trxStartTimeMills = System.currentTimeMillis();
-            } else {
-                trxStartTimeMills = currDataFile.lastModified();
+            if (!dataDir.exists()) {
+                dataDir.mkdirs();
             }
+            // never append to a segment of a former run, its tail may hold a torn frame
+            List<Long> sequences = listSegments();
+            long sequence = sequences.isEmpty() ? 1 : sequences.get(sequences.size() - 1) + 1;
+            currSegment = SessionLogSegment.create(segmentFile(sequence), sequence, segmentSize);
+            appendedPosition = new LogPosition(sequence, 0);
             lastModifiedTime = System.currentTimeMillis();
-            currRaf = new RandomAccessFile(currDataFile, "rw");
-            currRaf.seek(currDataFile.length());
-            currFileChannel = currRaf.getChannel();
         } catch (IOException exx) {
             LOGGER.error("init file error,{}", exx.getMessage(), exx);
             throw exx;
@@ -172,140 +213,145 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     @Override
     public boolean writeSession(LogOperation logOperation, SessionStorable session) {
-        long curFileTrxNum;
-        writeSessionLock.lock();
+        // the writer thread encodes the session into the segment while the caller waits for it
+        WriteRequest request = new WriteRequest(new TransactionWriteStore(session, logOperation));
+        writeRequests.offer(request);
+        writeDataFileRunnable.wakeup();
+        return request.waitForWrite();
+    }
+
+    private boolean writeDataFrame(TransactionWriteStore writeStore) {
         try {
-            if (!writeDataFile(new TransactionWriteStore(session, logOperation).encode())) {
-                return false;
+            if (currSegment.append(writeStore)) {
+                return true;
             }
-            lastModifiedTime = System.currentTimeMillis();
-            curFileTrxNum = FILE_TRX_NUM.incrementAndGet();
-            if (curFileTrxNum % PER_FILE_BLOCK_SIZE == 0
-                && (System.currentTimeMillis() - trxStartTimeMills) > MAX_TRX_TIMEOUT_MILLS) {
-                return saveHistory();
+            if (currSegment.getWritePosition() == 0) {
+                LOGGER.error("session data does not fit in a segment of {} bytes", segmentSize);
+                return false;
             }
+            rollSegment();
+            return currSegment.append(writeStore);
+        } catch (IOException exx) {
+            LOGGER.error("roll segment error: {}", exx.getMessage(), exx);
+            return false;
         } catch (Exception exx) {
             LOGGER.error("writeSession error, {}", exx.getMessage(), exx);
             return false;
-        } finally {
-            writeSessionLock.unlock();
         }
-        flushDisk(curFileTrxNum, currFileChannel);
-        return true;
     }
 
-    private void flushDisk(long curFileNum, FileChannel currFileChannel) {
-
-        if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
-            SyncFlushRequest syncFlushRequest = new SyncFlushRequest(curFileNum, currFileChannel);
-            writeDataFileRunnable.putRequest(syncFlushRequest);
-            syncFlushRequest.waitForFlush(MAX_WAIT_FOR_FLUSH_TIME_MILLS);
-        } else {
-            writeDataFileRunnable.putRequest(new AsyncFlushRequest(curFileNum, currFileChannel));
-        }
+    private void rollSegment() throws IOException {
+        SessionLogSegment lastSegment = currSegment;
+        long sequence = lastSegment.getSequence() + 1;
+        SessionLogSegment nextSegment = SessionLogSegment.create(segmentFile(sequence), sequence, segmentSize);
+        lastSegment.force();
+        lastSegment.close();
+        currSegment = nextSegment;
     }
 
     /**
-     * get all overTimeSessionStorables
-     * merge write file
+     * Write the live sessions to a new snapshot, then delete the segments and the data files it replaces.
      *
-     * @throws IOException
+     * @return true if a snapshot was written
+     * @throws IOException the io exception
      */
-    private boolean saveHistory() throws IOException {
-        boolean result;
-        try {
-            result = findTimeoutAndSave();
-            CloseFileRequest request = new CloseFileRequest(currFileChannel, currRaf);
-            writeDataFileRunnable.putRequest(request);
-            request.waitForClose(MAX_WAIT_FOR_CLOSE_TIME_MILLS);
-            Files.move(currDataFile.toPath(), new File(hisFullFileName).toPath(), StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException exx) {
-            LOGGER.error("save history data file error, {}", exx.getMessage(), exx);
-            result = false;
-        } finally {
-            initFile(currFullFileName);
-        }
-        return result;
-    }
-
-    private boolean writeDataFrame(byte[] data) {
-        if (data == null || data.length <= 0) {
-            return true;
-        }
-        int dataLength = data.length;
-        int bufferRemainingSize = writeBuffer.remaining();
-        if (bufferRemainingSize <= INT_BYTE_SIZE) {
-            if (!flushWriteBuffer(writeBuffer)) {
-                return false;
+    private synchronized boolean checkpoint() throws IOException {
+        // a session is applied in memory after its frame is appended: a global session is put in the session map
+        // before its frame is written, and a branch is added or removed under the branch lock of its global session,
+        // which the snapshot holds while writing the session. So every frame before this position is in the snapshot,
+        // and the frames after it are replayed on top of it.
+        LogPosition replayFrom = appendedPosition;
+        List<Long> obsoleteSequences = new ArrayList<>();
+        for (Long sequence : listSegments()) {
+            if (sequence < replayFrom.sequence) {
+                obsoleteSequences.add(sequence);
             }
         }
-        bufferRemainingSize = writeBuffer.remaining();
-        if (bufferRemainingSize <= INT_BYTE_SIZE) {
-            throw new IllegalStateException(
-                String.format("Write buffer remaining size %d was too small", bufferRemainingSize));
-        }
-        writeBuffer.putInt(dataLength);
-        bufferRemainingSize = writeBuffer.remaining();
-        int dataPos = 0;
-        while (dataPos < dataLength) {
-            int dataLengthToWrite = dataLength - dataPos;
-            dataLengthToWrite = Math.min(dataLengthToWrite, bufferRemainingSize);
-            writeBuffer.put(data, dataPos, dataLengthToWrite);
-            bufferRemainingSize = writeBuffer.remaining();
-            if (bufferRemainingSize == 0) {
-                if (!flushWriteBuffer(writeBuffer)) {
-                    return false;
+        File currFile = new File(currFullFileName);
+        File hisFile = new File(hisFullFileName);
+        if (obsoleteSequences.isEmpty() && !currFile.exists() && !hisFile.exists()) {
+            return false;
+        }
+        Collection<GlobalSession> globalSessions = sessionManager.allSessions();
+        File tmpFile = new File(snapshotFullFileName + TMP_FILENAME_POSTFIX);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tmpFile);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream, MAX_BUFFER_SIZE))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(replayFrom.sequence);
+            out.writeInt(replayFrom.offset);
+            for (GlobalSession globalSession : globalSessions) {
+                globalSession.lockBranchSessions();
+                try {
+                    writeSnapshotFrame(out, new TransactionWriteStore(globalSession, LogOperation.GLOBAL_ADD).encode());
+                    for (BranchSession branchSession : globalSession.getBranchSessions()) {
+                        try {
+                            MDC.put(MDC_KEY_BRANCH_ID, String.valueOf(branchSession.getBranchId()));
+                            writeSnapshotFrame(out,
+                                new TransactionWriteStore(branchSession, LogOperation.BRANCH_ADD).encode());
+                        } finally {
+                            MDC.remove(MDC_KEY_BRANCH_ID);
+                        }
+                    }
+                } finally {
+                    globalSession.unlockBranchSessions();
                 }
-                bufferRemainingSize = writeBuffer.remaining();
             }
-            dataPos += dataLengthToWrite;
+            out.flush();
+            fileOutputStream.getFD().sync();
+        }
+        Files.move(tmpFile.toPath(), new File(snapshotFullFileName).toPath(), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        for (Long sequence : obsoleteSequences) {
+            deleteFile(segmentFile(sequence));
+        }
+        deleteFile(hisFile);
+        deleteFile(currFile);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("checkpoint {} global sessions, replay from segment {} offset {}, {} segments deleted",
+                globalSessions.size(), replayFrom.sequence, replayFrom.offset, obsoleteSequences.size());
         }
         return true;
     }
 
-    private boolean flushWriteBuffer(ByteBuffer writeBuffer) {
-        BufferUtils.flip(writeBuffer);
-        if (!writeDataFileByBuffer(writeBuffer)) {
-            return false;
+    private void writeSnapshotFrame(DataOutputStream out, byte[] data) throws IOException {
+        if (data == null || data.length <= 0) {
+            return;
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(SessionLogSegment.FRAME_VERSION);
+        crc32.update(data);
+        out.writeInt(data.length + 1);
+        out.writeInt((int)crc32.getValue());
+        out.writeByte(SessionLogSegment.FRAME_VERSION);
+        out.write(data);
+    }
+
+    private void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOGGER.warn("delete file failed, file: {}", file.getName());
         }
-        BufferUtils.clear(writeBuffer);
-        return true;
     }
 
-    private boolean findTimeoutAndSave() throws IOException {
-        List<GlobalSession> globalSessionsOverMaxTimeout = sessionManager.findGlobalSessions(
-            new SessionCondition(MAX_TRX_TIMEOUT_MILLS));
-        if (CollectionUtils.isEmpty(globalSessionsOverMaxTimeout)) {
-            return true;
+    private File segmentFile(long sequence) {
+        return new File(dataDir, segmentFilePrefix + String.format("%019d", sequence));
+    }
+
+    private List<Long> listSegments() {
+        List<Long> sequences = new ArrayList<>();
+        String[] names = dataDir.list();
+        if (names == null) {
+            return sequences;
         }
-        for (GlobalSession globalSession : globalSessionsOverMaxTimeout) {
-            TransactionWriteStore globalWriteStore = new TransactionWriteStore(globalSession, LogOperation.GLOBAL_ADD);
-            byte[] data = globalWriteStore.encode();
-            if (!writeDataFrame(data)) {
-                return false;
-            }
-            List<BranchSession> branchSessIonsOverMaXTimeout = globalSession.getSortedBranches();
-            if (branchSessIonsOverMaXTimeout != null) {
-                for (BranchSession branchSession : branchSessIonsOverMaXTimeout) {
-                    try {
-                        MDC.put(MDC_KEY_BRANCH_ID, String.valueOf(branchSession.getBranchId()));
-                        TransactionWriteStore branchWriteStore = new TransactionWriteStore(branchSession,
-                            LogOperation.BRANCH_ADD);
-                        data = branchWriteStore.encode();
-                        if (!writeDataFrame(data)) {
-                            return false;
-                        }
-                    } finally {
-                        MDC.remove(MDC_KEY_BRANCH_ID);
-                    }
+        for (String name : names) {
+            if (name.startsWith(segmentFilePrefix)) {
+                try {
+                    sequences.add(Long.parseLong(name.substring(segmentFilePrefix.length())));
+                } catch (NumberFormatException ignore) {
                 }
             }
         }
-        if (flushWriteBuffer(writeBuffer)) {
-            currFileChannel.force(false);
-            return true;
-        }
-        return false;
+        Collections.sort(sequences);
+        return sequences;
     }
 
     @Override
@@ -320,9 +366,17 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     @Override
     public void shutdown() {
+        if (checkpointExecutor != null) {
+            checkpointExecutor.shutdown();
+            try {
+                checkpointExecutor.awaitTermination(SHUTDOWN_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ignore) {
+            }
+        }
         if (fileWriteExecutor != null) {
             fileWriteExecutor.shutdown();
             stopping = true;
+            writeDataFileRunnable.wakeup();
             int retry = 0;
             while (!fileWriteExecutor.isTerminated() && retry < MAX_SHUTDOWN_RETRY) {
                 ++retry;
@@ -335,230 +389,302 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
                 fileWriteExecutor.shutdownNow();
             }
         }
-        try {
-            if (currFileChannel.isOpen()) {
-                currFileChannel.force(true);
-            }
-        } catch (IOException e) {
-            LOGGER.error("fileChannel force error: {}", e.getMessage(), e);
+        if (fileWriteExecutor == null || fileWriteExecutor.isTerminated()) {
+            currSegment.force();
+            currSegment.close();
+        } else {
+            // the writer may still touch the mapping, leave the unmapping to the gc
+            LOGGER.warn("file writer is still running, segment {} is not unmapped", currSegment.getSequence());
         }
-        closeFile(currRaf);
+        closeRecoveryCursors();
     }
 
     @Override
     public List<TransactionWriteStore> readWriteStore(int readSize, boolean isHistory) {
-        File file = null;
-        long currentOffset = 0;
-        if (isHistory) {
-            file = new File(hisFullFileName);
-            currentOffset = recoverHisOffset;
-        } else {
-            file = new File(currFullFileName);
-            currentOffset = recoverCurrOffset;
-        }
-        if (file.exists()) {
-            return parseDataFile(file, readSize, currentOffset, isHistory);
-        }
-        return null;
+        List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(readSize);
+        recoveryCursor(isHistory).read(transactionWriteStores, readSize);
+        return transactionWriteStores;
     }
 
     @Override
     public boolean hasRemaining(boolean isHistory) {
-        File file;
-        RandomAccessFile raf = null;
-        long currentOffset;
-        if (isHistory) {
-            file = new File(hisFullFileName);
-            currentOffset = recoverHisOffset;
-        } else {
-            file = new File(currFullFileName);
-            currentOffset = recoverCurrOffset;
-        }
-        try {
-            raf = new RandomAccessFile(file, "r");
-            return currentOffset < raf.length();
+        return recoveryCursor(isHistory).hasRemaining();
+    }
 
-        } catch (IOException ignore) {
-        } finally {
-            closeFile(raf);
-        }
-        return false;
+    @Override
+    public void afterReload() {
+        closeRecoveryCursors();
+        if (sessionManager == null || checkpointPeriod <= 0 || checkpointExecutor != null) {
+            return;
+        }
+        checkpointExecutor = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("fileTransactionStoreCheckpoint", 1, true));
+        checkpointExecutor.scheduleAtFixedRate(() -> {
+            try {
+                checkpoint();
+            } catch (Throwable th) {
+                LOGGER.error("checkpoint error: {}", th.getMessage(), th);
+            }
+        }, checkpointPeriod, checkpointPeriod, TimeUnit.MILLISECONDS);
     }
 
-    private List<TransactionWriteStore> parseDataFile(File file, int readSize, long currentOffset, boolean isHistory) {
-        List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(readSize);
-        RandomAccessFile raf = null;
-        FileChannel fileChannel = null;
-        try {
-            raf = new RandomAccessFile(file, "r");
-            raf.seek(currentOffset);
-            fileChannel = raf.getChannel();
-            fileChannel.position(currentOffset);
-            long size = raf.length();
-            ByteBuffer buffSize = ByteBuffer.allocate(MARK_SIZE);
-            while (fileChannel.position() < size) {
-                try {
-                    BufferUtils.clear(buffSize);
-                    int avilReadSize = fileChannel.read(buffSize);
-                    if (avilReadSize != MARK_SIZE) {
-                        break;
-                    }
-                    BufferUtils.flip(buffSize);
-                    int bodySize = buffSize.getInt();
-                    byte[] byBody = new byte[bodySize];
-                    ByteBuffer buffBody = ByteBuffer.wrap(byBody);
-                    avilReadSize = fileChannel.read(buffBody);
-                    if (avilReadSize != bodySize) {
-                        break;
-                    }
-                    TransactionWriteStore writeStore = new TransactionWriteStore();
-                    writeStore.decode(byBody);
-                    transactionWriteStores.add(writeStore);
-                    if (transactionWriteStores.size() == readSize) {
-                        break;
+    private RecoveryCursor recoveryCursor(boolean isHistory) {
+        if (historyCursor == null) {
+            Deque<File> historyFiles = new ArrayDeque<>();
+            LogPosition replayFrom = new LogPosition(0, 0);
+            File snapshotFile = new File(snapshotFullFileName);
+            LogPosition snapshotReplayFrom = readSnapshotReplayFrom(snapshotFile);
+            if (snapshotReplayFrom != null) {
+                historyFiles.add(snapshotFile);
+                replayFrom = snapshotReplayFrom;
+            } else {
+                for (String fileName : new String[] {hisFullFileName, currFullFileName}) {
+                    File file = new File(fileName);
+                    if (file.exists()) {
+                        historyFiles.add(file);
                     }
-                } catch (Exception ex) {
-                    LOGGER.error("decode data file error:{}", ex.getMessage(), ex);
-                    break;
                 }
             }
-            return transactionWriteStores;
-        } catch (IOException exx) {
-            LOGGER.error("parse data file error:{},file:{}", exx.getMessage(), file.getName(), exx);
-            return null;
-        } finally {
-            try {
-                if (fileChannel != null) {
-                    if (isHistory) {
-                        recoverHisOffset = fileChannel.position();
-                    } else {
-                        recoverCurrOffset = fileChannel.position();
-                    }
+            Deque<File> segmentFiles = new ArrayDeque<>();
+            for (Long sequence : listSegments()) {
+                if (sequence >= replayFrom.sequence) {
+                    segmentFiles.add(segmentFile(sequence));
                 }
-                closeFile(raf);
-            } catch (IOException exx) {
-                LOGGER.error("file close error{}", exx.getMessage(), exx);
             }
+            historyCursor = new RecoveryCursor(historyFiles, null);
+            currCursor = new RecoveryCursor(segmentFiles, replayFrom);
         }
+        return isHistory ? historyCursor : currCursor;
     }
 
-    private void closeFile(RandomAccessFile raf) {
-        try {
-            if (raf != null) {
-                raf.close();
-                raf = null;
+    private LogPosition readSnapshotReplayFrom(File snapshotFile) {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(snapshotFile))) {
+            if (in.readInt() == SNAPSHOT_MAGIC) {
+                return new LogPosition(in.readLong(), in.readInt());
             }
         } catch (IOException exx) {
-            LOGGER.error("file close error,{}", exx.getMessage(), exx);
+            LOGGER.error("read snapshot error:{}, file:{}", exx.getMessage(), snapshotFile.getName(), exx);
         }
+        LOGGER.error("invalid snapshot file: {}", snapshotFile.getName());
+        return null;
     }
 
-    private boolean writeDataFile(byte[] bs) {
-        if (bs == null || bs.length >= Integer.MAX_VALUE - 3) {
-            return false;
-        }
-        if (!writeDataFrame(bs)) {
-            return false;
+    private void closeRecoveryCursors() {
+        if (historyCursor != null) {
+            historyCursor.close();
+            currCursor.close();
+            historyCursor = null;
+            currCursor = null;
         }
-        return flushWriteBuffer(writeBuffer);
     }
 
-    private boolean writeDataFileByBuffer(ByteBuffer byteBuffer) {
-        for (int retry = 0; retry < MAX_WRITE_RETRY; retry++) {
-            try {
-                while (byteBuffer.hasRemaining()) {
-                    currFileChannel.write(byteBuffer);
-                }
-                return true;
-            } catch (Exception exx) {
-                LOGGER.error("write data file error:{}", exx.getMessage(), exx);
-            }
-        }
-        LOGGER.error("write dataFile failed,retry more than :{}", MAX_WRITE_RETRY);
-        return false;
-    }
+    /**
+     * Reads the frames of the files of one recovery pass in order, segments are read through a mapping, the snapshot
+     * and the data files of the former layout through a stream.
+     */
+    private class RecoveryCursor {
 
-    interface StoreRequest {
+        private final Deque<File> files;
 
-    }
+        private final LogPosition startPosition;
 
-    abstract static class AbstractFlushRequest implements StoreRequest {
-        private final long curFileTrxNum;
+        private final RecoveryBuffer recoveryBuffer = new RecoveryBuffer();
 
-        private final FileChannel curFileChannel;
+        private SessionLogSegment segment;
 
-        protected AbstractFlushRequest(long curFileTrxNum, FileChannel curFileChannel) {
-            this.curFileTrxNum = curFileTrxNum;
-            this.curFileChannel = curFileChannel;
-        }
+        private DataInputStream stream;
 
-        public long getCurFileTrxNum() {
-            return curFileTrxNum;
-        }
+        private String streamFileName;
+
+        private int nextLength;
+
+        /**
+         * whether the frames of the stream carry a checksum, the data files of former versions do not
+         */
+        private boolean checksummed;
+
+        private int nextChecksum;
 
-        public FileChannel getCurFileChannel() {
-            return curFileChannel;
+        RecoveryCursor(Deque<File> files, LogPosition startPosition) {
+            this.files = files;
+            this.startPosition = startPosition;
         }
-    }
 
-    class SyncFlushRequest extends AbstractFlushRequest {
+        boolean hasRemaining() {
+            while (true) {
+                if (segment != null ? segment.hasRemaining() : nextLength > 0) {
+                    return true;
+                }
+                closeCurrent();
+                File file = files.pollFirst();
+                if (file == null) {
+                    return false;
+                }
+                open(file);
+            }
+        }
 
-        private final CountDownLatch countDownLatch = new CountDownLatch(1);
+        void read(List<TransactionWriteStore> stores, int readSize) {
+            // the frames of the former read are restored already
+            recoveryBuffer.reset();
+            while (stores.size() < readSize && hasRemaining()) {
+                if (segment != null) {
+                    segment.read(stores, readSize - stores.size(), recoveryBuffer);
+                } else {
+                    readStream(stores, readSize - stores.size());
+                }
+            }
+        }
 
-        public SyncFlushRequest(long curFileTrxNum, FileChannel curFileChannel) {
-            super(curFileTrxNum, curFileChannel);
+        private void open(File file) {
+            try {
+                if (file.getName().startsWith(segmentFilePrefix)) {
+                    long sequence = Long.parseLong(file.getName().substring(segmentFilePrefix.length()));
+                    int offset = startPosition != null && startPosition.sequence == sequence ? startPosition.offset : 0;
+                    segment = SessionLogSegment.open(file, sequence, offset);
+                    return;
+                }
+                stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), MAX_BUFFER_SIZE));
+                streamFileName = file.getName();
+                checksummed = file.getName().endsWith(SNAPSHOT_FILENAME_POSTFIX);
+                if (checksummed) {
+                    // magic and replay from
+                    stream.readInt();
+                    stream.readLong();
+                    stream.readInt();
+                }
+                nextLength = readLength();
+            } catch (IOException exx) {
+                LOGGER.error("open data file error:{}, file:{}", exx.getMessage(), file.getName(), exx);
+                closeCurrent();
+            }
         }
 
-        public void wakeup() {
-            this.countDownLatch.countDown();
+        private void readStream(List<TransactionWriteStore> stores, int readSize) {
+            for (int i = 0; i < readSize && nextLength > 0; i++) {
+                int offset = recoveryBuffer.reserve(nextLength);
+                TransactionWriteStore writeStore = new TransactionWriteStore();
+                try {
+                    stream.readFully(recoveryBuffer.array(), offset, nextLength);
+                    if (checksummed
+                        && SessionLogSegment.checksum(recoveryBuffer.array(), offset, nextLength) != nextChecksum) {
+                        LOGGER.error("checksum mismatch of a frame, file:{}", streamFileName);
+                        nextLength = 0;
+                        return;
+                    }
+                    if (checksummed) {
+                        if (recoveryBuffer.array()[offset] != SessionLogSegment.FRAME_VERSION) {
+                            LOGGER.error("unknown frame version {}, file:{}", recoveryBuffer.array()[offset],
+                                streamFileName);
+                            nextLength = 0;
+                            return;
+                        }
+                        writeStore.decode(recoveryBuffer.array(), offset + 1, nextLength - 1);
+                    } else {
+                        writeStore.decode(recoveryBuffer.array(), offset, nextLength);
+                    }
+                } catch (Exception ex) {
+                    LOGGER.error("decode data file error:{}, file:{}", ex.getMessage(), streamFileName, ex);
+                    nextLength = 0;
+                    return;
+                }
+                stores.add(writeStore);
+                nextLength = readLength();
+            }
         }
 
-        public void waitForFlush(long timeout) {
+        private int readLength() {
             try {
-                this.countDownLatch.await(timeout, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                LOGGER.error("Interrupted", e);
+                int length = stream.readInt();
+                if (checksummed && length > 0) {
+                    nextChecksum = stream.readInt();
+                }
+                return Math.max(length, 0);
+            } catch (EOFException ignore) {
+                return 0;
+            } catch (IOException exx) {
+                LOGGER.error("read data file error:{}, file:{}", exx.getMessage(), streamFileName, exx);
+                return 0;
             }
         }
-    }
 
-    class AsyncFlushRequest extends AbstractFlushRequest {
+        private void closeCurrent() {
+            if (segment != null) {
+                segment.close();
+                segment = null;
+            }
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException exx) {
+                    LOGGER.error("file close error{}", exx.getMessage(), exx);
+                }
+                stream = null;
+            }
+            nextLength = 0;
+        }
 
-        public AsyncFlushRequest(long curFileTrxNum, FileChannel curFileChannel) {
-            super(curFileTrxNum, curFileChannel);
+        void close() {
+            closeCurrent();
+            files.clear();
         }
+    }
+
+    /**
+     * A position in the session log.
+     */
+    private static class LogPosition {
+
+        private final long sequence;
+
+        private final int offset;
 
+        LogPosition(long sequence, int offset) {
+            this.sequence = sequence;
+            this.offset = offset;
+        }
     }
 
-    static class CloseFileRequest implements StoreRequest {
+    /**
+     * A session waiting to be appended to the data file.
+     */
+    class WriteRequest {
+
         private final CountDownLatch countDownLatch = new CountDownLatch(1);
-        private FileChannel fileChannel;
 
-        private RandomAccessFile file;
+        private final TransactionWriteStore writeStore;
 
-        public CloseFileRequest(FileChannel fileChannel, RandomAccessFile file) {
-            this.fileChannel = fileChannel;
-            this.file = file;
-        }
+        private boolean appended;
 
-        public FileChannel getFileChannel() {
-            return fileChannel;
-        }
+        private volatile boolean written;
 
-        public RandomAccessFile getFile() {
-            return file;
+        WriteRequest(TransactionWriteStore writeStore) {
+            this.writeStore = writeStore;
         }
 
-        public void wakeup() {
+        void complete(boolean written) {
+            this.written = written;
             this.countDownLatch.countDown();
         }
 
-        public void waitForClose(long timeout) {
+        boolean waitForWrite() {
             try {
-                this.countDownLatch.await(timeout, TimeUnit.MILLISECONDS);
+                while (!this.countDownLatch.await(MAX_WAIT_FOR_FLUSH_TIME_MILLS, TimeUnit.MILLISECONDS)) {
+                    if (stopping && fileWriteExecutor.isTerminated()) {
+                        // nobody is left to write the frame
+                        return false;
+                    }
+                    LOGGER.warn("Waiting for the data file write more than {} ms", MAX_WAIT_FOR_FLUSH_TIME_MILLS);
+                }
             } catch (InterruptedException e) {
                 LOGGER.error("Interrupted", e);
+                Thread.currentThread().interrupt();
+                return false;
             }
+            return written;
         }
     }
 
@@ -567,20 +693,41 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
      */
     class WriteDataFileRunnable implements Runnable {
 
-        private LinkedBlockingQueue<StoreRequest> storeRequests = new LinkedBlockingQueue<>();
+        private final List<WriteRequest> batch = new ArrayList<>();
+
+        private volatile Thread runner;
 
-        public void putRequest(final StoreRequest request) {
-            storeRequests.add(request);
+        private volatile boolean sleeping;
+
+        /**
+         * Wake up the writer thread if it is waiting for requests.
+         */
+        public void wakeup() {
+            Thread thread = runner;
+            if (thread != null && (sleeping || stopping)) {
+                LockSupport.unpark(thread);
+            }
         }
 
         @Override
         public void run() {
+            runner = Thread.currentThread();
             while (!stopping) {
                 try {
-                    StoreRequest storeRequest = storeRequests.poll(MAX_WAIT_TIME_MILLS, TimeUnit.MILLISECONDS);
-                    handleStoreRequest(storeRequest);
+                    if (!pollBatch()) {
+                        sleeping = true;
+                        // a writer queuing after this check sees the flag and unparks
+                        if (writeRequests.isEmpty() && !stopping) {
+                            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_TIME_MILLS));
+                        }
+                        sleeping = false;
+                        flushOnCondition();
+                        continue;
+                    }
+                    handleBatch();
                 } catch (Exception exx) {
                     LOGGER.error("write file error: {}", exx.getMessage(), exx);
+                    completeBatch(false);
                 }
             }
             handleRestRequest();
@@ -590,48 +737,49 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
          * handle the rest requests when stopping is true
          */
         private void handleRestRequest() {
-            int remainNums = storeRequests.size();
-            for (int i = 0; i < remainNums; i++) {
-                handleStoreRequest(storeRequests.poll());
+            while (pollBatch()) {
+                try {
+                    handleBatch();
+                } catch (Exception exx) {
+                    LOGGER.error("write file error: {}", exx.getMessage(), exx);
+                    completeBatch(false);
+                }
             }
         }
 
-        private void handleStoreRequest(StoreRequest storeRequest) {
-            if (storeRequest == null) {
-                flushOnCondition(currFileChannel);
+        private boolean pollBatch() {
+            WriteRequest request;
+            while (batch.size() < MAX_BATCH_SIZE && (request = writeRequests.poll()) != null) {
+                batch.add(request);
             }
-            if (storeRequest instanceof SyncFlushRequest) {
-                syncFlush((SyncFlushRequest)storeRequest);
-            } else if (storeRequest instanceof AsyncFlushRequest) {
-                async((AsyncFlushRequest)storeRequest);
-            } else if (storeRequest instanceof CloseFileRequest) {
-                closeAndFlush((CloseFileRequest)storeRequest);
-            }
-        }
-
-        private void closeAndFlush(CloseFileRequest req) {
-            long diff = FILE_TRX_NUM.get() - FILE_FLUSH_NUM.get();
-            flush(req.getFileChannel());
-            FILE_FLUSH_NUM.addAndGet(diff);
-            closeFile(req.getFile());
-            req.wakeup();
+            return !batch.isEmpty();
         }
 
-        private void async(AsyncFlushRequest req) {
-            flushOnCondition(req.getCurFileChannel());
+        private void handleBatch() {
+            for (WriteRequest request : batch) {
+                request.appended = writeDataFrame(request.writeStore);
+            }
+            appendedPosition = new LogPosition(currSegment.getSequence(), currSegment.getWritePosition());
+            lastModifiedTime = System.currentTimeMillis();
+            long curFileTrxNum = FILE_TRX_NUM.addAndGet(batch.size());
+            if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
+                // one force for every frame of the batch
+                flush();
+                FILE_FLUSH_NUM.set(curFileTrxNum);
+            } else {
+                flushOnCondition();
+            }
+            completeBatch(true);
         }
 
-        private void syncFlush(SyncFlushRequest req) {
-            if (req.getCurFileTrxNum() > FILE_FLUSH_NUM.get()) {
-                long diff = FILE_TRX_NUM.get() - FILE_FLUSH_NUM.get();
-                flush(req.getCurFileChannel());
-                FILE_FLUSH_NUM.addAndGet(diff);
+        private void completeBatch(boolean written) {
+            for (WriteRequest request : batch) {
+                request.complete(written && request.appended);
             }
-            // notify
-            req.wakeup();
+            batch.clear();
         }
 
-        private void flushOnCondition(FileChannel fileChannel) {
+        private void flushOnCondition() {
             if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
                 return;
             }
@@ -639,16 +787,16 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
             if (diff == 0) {
                 return;
             }
-            if (diff % MAX_FLUSH_NUM == 0 || System.currentTimeMillis() - lastModifiedTime > MAX_FLUSH_TIME_MILLS) {
-                flush(fileChannel);
+            if (diff >= MAX_FLUSH_NUM || System.currentTimeMillis() - lastModifiedTime > MAX_FLUSH_TIME_MILLS) {
+                flush();
                 FILE_FLUSH_NUM.addAndGet(diff);
             }
         }
 
-        private void flush(FileChannel fileChannel) {
+        private void flush() {
             try {
-                fileChannel.force(false);
-            } catch (IOException exx) {
+                currSegment.force();
+            } catch (Exception exx) {
                 LOGGER.error("flush error: {}", exx.getMessage(), exx);
             }
         }
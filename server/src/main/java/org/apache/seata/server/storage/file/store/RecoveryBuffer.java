@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.file.store;
+
+/**
+ * The buffer the frames of one recovery read are copied into. The frames of a read are restored before the next read,
+ * so the next read reuses the buffer instead of allocating an array per frame.
+ */
+class RecoveryBuffer {
+
+    private static final int INITIAL_SIZE = 64 * 1024;
+
+    private byte[] bytes = new byte[INITIAL_SIZE];
+
+    private int position;
+
+    /**
+     * Start a new read, the frames of the former read are not referenced anymore.
+     */
+    void reset() {
+        position = 0;
+    }
+
+    /**
+     * Reserve the room of a frame, a frame which does not fit in the rest of the buffer gets a new buffer, the frames
+     * already reserved keep the former one.
+     *
+     * @param length the length of the frame
+     * @return the offset of the frame in {@link #array()}
+     */
+    int reserve(int length) {
+        if (bytes.length - position < length) {
+            bytes = new byte[Math.max(INITIAL_SIZE, length)];
+            position = 0;
+        }
+        int offset = position;
+        position += length;
+        return offset;
+    }
+
+    /**
+     * Gets the array of the last reserved frame.
+     *
+     * @return the array
+     */
+    byte[] array() {
+        return bytes;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.file.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import io.netty.util.internal.PlatformDependent;
+import org.apache.seata.server.storage.file.TransactionWriteStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed size file of the session log, mapped in memory.
+ * <p>
+ * A segment is created at its full size and holds frames of an int length and an int CRC32 checksum followed by the
+ * body the two cover: a byte of the frame format version and an encoded {@link TransactionWriteStore}, which is encoded
+ * in place in the mapping. The unused tail of a segment is zero filled, so a zero length ends the
+ * frames, and a frame torn by a crash fails its checksum and ends them as well. A segment is only appended to by the
+ * store which created it, a restarted server always starts a new segment.
+ */
+class SessionLogSegment {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionLogSegment.class);
+
+    /**
+     * the size of the length and the checksum of a frame
+     */
+    static final int FRAME_HEADER_SIZE = 8;
+
+    /**
+     * the format version of the frame body, the first byte of the body
+     */
+    static final byte FRAME_VERSION = 1;
+
+    private final long sequence;
+
+    private final File file;
+
+    private final MappedByteBuffer buffer;
+
+    private int flushedPosition;
+
+    private boolean corrupted;
+
+    private boolean closed;
+
+    private SessionLogSegment(long sequence, File file, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create a segment to append to.
+     *
+     * @param file     the segment file
+     * @param sequence the sequence of the segment
+     * @param size     the size of the segment
+     * @return the segment
+     * @throws IOException the io exception
+     */
+    static SessionLogSegment create(File file, long sequence, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+            // the mapping stays valid once the file is closed
+            return new SessionLogSegment(sequence, file, raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * Open a segment to read its frames from an offset.
+     *
+     * @param file     the segment file
+     * @param sequence the sequence of the segment
+     * @param offset   the offset of the first frame to read
+     * @return the segment
+     * @throws IOException the io exception
+     */
+    static SessionLogSegment open(File file, long sequence, int offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            buffer.position(Math.min(offset, buffer.limit()));
+            return new SessionLogSegment(sequence, file, buffer);
+        }
+    }
+
+    /**
+     * Append a frame, the store is encoded straight into the mapping.
+     *
+     * @param writeStore the store to append
+     * @return false if the segment has no room left for the frame
+     */
+    boolean append(TransactionWriteStore writeStore) {
+        int position = buffer.position();
+        if (buffer.remaining() <= FRAME_HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(position + FRAME_HEADER_SIZE);
+        body.put(FRAME_VERSION);
+        try {
+            writeStore.encode(body);
+        } catch (BufferOverflowException e) {
+            // the length of the frame is still zero, so the bytes written are past the end of the frames
+            return false;
+        }
+        int length = body.position() - position - FRAME_HEADER_SIZE;
+        body.flip();
+        body.position(position + FRAME_HEADER_SIZE);
+        buffer.putInt(position, length);
+        buffer.putInt(position + 4, checksum(body));
+        buffer.position(position + FRAME_HEADER_SIZE + length);
+        return true;
+    }
+
+    /**
+     * Compute the checksum of a frame.
+     *
+     * @param data   the array
+     * @param offset the offset of the frame
+     * @param length the length of the frame
+     * @return the checksum
+     */
+    static int checksum(byte[] data, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, offset, length);
+        return (int)crc32.getValue();
+    }
+
+    /**
+     * Compute the checksum of the remaining bytes of a buffer.
+     *
+     * @param body the buffer of the frame
+     * @return the checksum
+     */
+    static int checksum(ByteBuffer body) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(body);
+        return (int)crc32.getValue();
+    }
+
+    /**
+     * Force the frames appended since the last force to the disk.
+     */
+    void force() {
+        if (!closed && buffer.position() > flushedPosition) {
+            buffer.force();
+            flushedPosition = buffer.position();
+        }
+    }
+
+    /**
+     * Whether a complete frame is left to read.
+     *
+     * @return the boolean
+     */
+    boolean hasRemaining() {
+        if (corrupted || buffer.remaining() < FRAME_HEADER_SIZE) {
+            return false;
+        }
+        int length = buffer.getInt(buffer.position());
+        return length > 0 && length <= buffer.remaining() - FRAME_HEADER_SIZE;
+    }
+
+    /**
+     * Read the next frames, a frame which fails its checksum or cannot be decoded ends the segment.
+     *
+     * @param stores         the list the frames are added to
+     * @param readSize       the max number of frames to read
+     * @param recoveryBuffer the buffer the frames are copied into
+     */
+    void read(List<TransactionWriteStore> stores, int readSize, RecoveryBuffer recoveryBuffer) {
+        for (int i = 0; i < readSize && hasRemaining(); i++) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            int offset = recoveryBuffer.reserve(length);
+            buffer.get(recoveryBuffer.array(), offset, length);
+            if (checksum(recoveryBuffer.array(), offset, length) != checksum) {
+                LOGGER.error("checksum mismatch of the frame at {}, file:{}", buffer.position() - length
+                    - FRAME_HEADER_SIZE, file.getName());
+                corrupted = true;
+                return;
+            }
+            if (recoveryBuffer.array()[offset] != FRAME_VERSION) {
+                LOGGER.error("unknown frame version {} of the frame at {}, file:{}", recoveryBuffer.array()[offset],
+                    buffer.position() - length - FRAME_HEADER_SIZE, file.getName());
+                corrupted = true;
+                return;
+            }
+            TransactionWriteStore writeStore = new TransactionWriteStore();
+            try {
+                writeStore.decode(recoveryBuffer.array(), offset + 1, length - 1);
+            } catch (Exception ex) {
+                LOGGER.error("decode session log segment error:{}, file:{}", ex.getMessage(), file.getName(), ex);
+                corrupted = true;
+                return;
+            }
+            stores.add(writeStore);
+        }
+    }
+
+    /**
+     * Unmap the segment, it must not be used anymore.
+     */
+    void close() {
+        if (!closed) {
+            closed = true;
+            PlatformDependent.freeDirectBuffer(buffer);
+        }
+    }
+
+    /**
+     * Gets the position the next frame is appended at.
+     *
+     * @return the write position
+     */
+    int getWritePosition() {
+        return buffer.position();
+    }
+
+    /**
+     * Gets the sequence.
+     *
+     * @return the sequence
+     */
+    long getSequence() {
+        return sequence;
+    }
+}
@@ -99,6 +99,7 @@ public class RaftSessionManager extends FileSessionManager {
         Closure closure = closureStatus -> {
             if (closureStatus.isOk()) {
                 globalSession.setStatus(globalStatus);
+                index(globalSession, globalStatus);
                 if (GlobalStatus.RollbackRetrying.equals(globalSession.getStatus())
                     || GlobalStatus.Rollbacking.equals(globalSession.getStatus())
                     || GlobalStatus.TimeoutRollbacking.equals(globalSession.getStatus())) {
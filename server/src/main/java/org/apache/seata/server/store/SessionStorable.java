@@ -16,6 +16,8 @@
  */
 package org.apache.seata.server.store;
 
+import java.nio.ByteBuffer;
+
 /**
  * The interface Session storable.
  *
@@ -29,6 +31,16 @@ public interface SessionStorable {
      */
     byte[] encode();
 
+    /**
+     * Encode to the position of the buffer.
+     *
+     * @param byteBuffer the byte buffer
+     * @throws java.nio.BufferOverflowException if the buffer has no room left for the encoded bytes
+     */
+    default void encode(ByteBuffer byteBuffer) {
+        byteBuffer.put(encode());
+    }
+
     /**
      * Decode.
      *
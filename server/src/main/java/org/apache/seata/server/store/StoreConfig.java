@@ -23,6 +23,9 @@ import org.apache.seata.core.constants.ConfigurationKeys;
 import org.apache.seata.server.env.ContainerHelper;
 import org.apache.seata.server.storage.file.FlushDiskMode;
 
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_FILE_CHECKPOINT_PERIOD;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_FILE_LOCK_TABLE;
+import static org.apache.seata.common.DefaultValues.DEFAULT_STORE_FILE_SEGMENT_SIZE;
 import static org.apache.seata.common.DefaultValues.SERVER_DEFAULT_STORE_MODE;
 import static org.apache.seata.core.constants.ConfigurationKeys.STORE_FILE_PREFIX;
 
@@ -85,6 +88,35 @@ public class StoreConfig {
         return FlushDiskMode.findDiskMode(CONFIGURATION.getConfig(STORE_FILE_PREFIX + "flushDiskMode"));
     }
 
+    /**
+     * Gets the size of a session log segment, a session frame has to fit in one segment.
+     *
+     * @return the segment size in bytes
+     */
+    public static int getSegmentSize() {
+        return CONFIGURATION.getInt(ConfigurationKeys.STORE_FILE_SEGMENT_SIZE, DEFAULT_STORE_FILE_SEGMENT_SIZE);
+    }
+
+    /**
+     * Gets how often the live sessions are checkpointed so that older session log segments can be deleted.
+     *
+     * @return the checkpoint period in millis
+     */
+    public static long getCheckpointPeriod() {
+        return CONFIGURATION.getLong(ConfigurationKeys.STORE_FILE_CHECKPOINT_PERIOD,
+            DEFAULT_STORE_FILE_CHECKPOINT_PERIOD);
+    }
+
+    /**
+     * Whether the file and raft lock modes use the compact lock table instead of the nested lock map.
+     *
+     * @return true if the compact lock table is used
+     */
+    public static boolean isCompactLockTable() {
+        return "compact".equalsIgnoreCase(
+            CONFIGURATION.getConfig(ConfigurationKeys.STORE_FILE_LOCK_TABLE, DEFAULT_STORE_FILE_LOCK_TABLE));
+    }
+
     /**
      * only for inner call
      *
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.coordinator;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.Channel;
+import org.apache.seata.core.model.BranchStatus;
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.core.protocol.AbstractResultMessage;
+import org.apache.seata.core.protocol.BatchPhaseTwoMessage;
+import org.apache.seata.core.protocol.BatchResultMessage;
+import org.apache.seata.core.protocol.RegisterRMRequest;
+import org.apache.seata.core.protocol.transaction.AbstractBranchEndRequest;
+import org.apache.seata.core.protocol.transaction.BranchCommitRequest;
+import org.apache.seata.core.protocol.transaction.BranchCommitResponse;
+import org.apache.seata.core.protocol.transaction.BranchRollbackRequest;
+import org.apache.seata.core.protocol.transaction.BranchRollbackResponse;
+import org.apache.seata.core.rpc.netty.ChannelManager;
+import org.apache.seata.server.session.BranchSession;
+import org.apache.seata.server.session.GlobalSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * The type Branch phase two batcher test.
+ */
+@SpringBootTest
+public class BranchPhaseTwoBatcherTest {
+
+    private static final BranchPhaseTwoDispatcher.BranchCall NOT_SENT = branch -> {
+        throw new IllegalStateException("already sent in a batch");
+    };
+
+    private final Map<String, Channel> channels = new HashMap<>();
+
+    private final List<BatchPhaseTwoMessage> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    public static void setUp(ApplicationContext context) {
+
+    }
+
+    @Test
+    public void testCommitInBatchesPerChannel() throws Exception {
+        channels.put("c1", Mockito.mock(Channel.class));
+        channels.put("c2", Mockito.mock(Channel.class));
+        GlobalSession session1 = newGlobalSession(newBranchSession(1L, "r1", "c1"), newBranchSession(2L, "r2", "c2"));
+        GlobalSession session2 = newGlobalSession(newBranchSession(3L, "r1", "c1"));
+        GlobalSession session3 = newGlobalSession(newBranchSession(4L, "r1", "c1"), newBranchSession(5L, "r1", "c1"));
+
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> outcomes = newBatcher(2)
+            .commit(Arrays.asList(session1, session2, session3), true, globalSession -> true);
+
+        // 4 branches of c1 in batches of 2, 1 branch of c2
+        Assertions.assertEquals(3, batches.size());
+        for (BatchPhaseTwoMessage batch : batches) {
+            Assertions.assertTrue(batch.getBranchRequests().size() <= 2);
+            Assertions.assertTrue(batch.getBranchRequests().get(0) instanceof BranchCommitRequest);
+        }
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Committed,
+            outcomes.get(session1.getXid()).take(session1.getBranch(1L), NOT_SENT));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Committed,
+            outcomes.get(session1.getXid()).take(session1.getBranch(2L), NOT_SENT));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Committed,
+            outcomes.get(session2.getXid()).take(session2.getBranch(3L), NOT_SENT));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Committed,
+            outcomes.get(session3.getXid()).take(session3.getBranch(4L), NOT_SENT));
+        // the RM answered branch 5 as failed
+        Assertions.assertEquals(BranchStatus.PhaseTwo_CommitFailed_Retryable,
+            outcomes.get(session3.getXid()).take(session3.getBranch(5L), NOT_SENT));
+    }
+
+    @Test
+    public void testRollbackFirstBranchOfResource() throws Exception {
+        channels.put("c1", Mockito.mock(Channel.class));
+        BranchSession phaseOneFailed = newBranchSession(4L, "r3", "c1");
+        phaseOneFailed.setStatus(BranchStatus.PhaseOne_Failed);
+        GlobalSession session = newGlobalSession(newBranchSession(1L, "r1", "c1"),
+            newBranchSession(2L, "r1", "c1"), newBranchSession(3L, "r2", "c1"), phaseOneFailed);
+
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> outcomes = newBatcher(100)
+            .rollback(Collections.singletonList(session), globalSession -> true);
+
+        Assertions.assertEquals(1, batches.size());
+        List<AbstractBranchEndRequest> requests = batches.get(0).getBranchRequests();
+        Assertions.assertEquals(2, requests.size());
+        Assertions.assertTrue(requests.get(0) instanceof BranchRollbackRequest);
+        // in reverse order, branch 1 waits for branch 2 of the same resource
+        Assertions.assertEquals(3L, requests.get(0).getBranchId());
+        Assertions.assertEquals(2L, requests.get(1).getBranchId());
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Rollbacked,
+            outcomes.get(session.getXid()).take(session.getBranch(2L), NOT_SENT));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Rollbacked, outcomes.get(session.getXid())
+            .take(session.getBranch(1L), branch -> BranchStatus.PhaseTwo_Rollbacked));
+    }
+
+    @Test
+    public void testFailedBatchAndUnsupportedRm() throws Exception {
+        channels.put("c1", Mockito.mock(Channel.class, Mockito.RETURNS_DEEP_STUBS));
+        // c2 is an older RM, or not connected
+        GlobalSession session1 = newGlobalSession(newBranchSession(1L, "r1", "c1"));
+        GlobalSession session2 = newGlobalSession(newBranchSession(2L, "r2", "c2"));
+        AtomicInteger sent = new AtomicInteger();
+        BranchPhaseTwoBatcher batcher = new BranchPhaseTwoBatcher(null, true, 100) {
+            @Override
+            Channel getChannel(BranchSession branchSession) {
+                return channels.get(branchSession.getClientId());
+            }
+
+            @Override
+            BatchResultMessage sendBatch(Channel channel, BatchPhaseTwoMessage batchMessage) throws Exception {
+                sent.incrementAndGet();
+                throw new TimeoutException("rm does not answer");
+            }
+        };
+
+        Map<String, BranchPhaseTwoDispatcher.Outcomes> outcomes =
+            batcher.commit(Arrays.asList(session1, session2), true, globalSession -> true);
+
+        // the branch of the failed batch is sent on its own
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Committed, outcomes.get(session1.getXid())
+            .take(session1.getBranch(1L), branch -> BranchStatus.PhaseTwo_Committed));
+        Assertions.assertNull(outcomes.get(session2.getXid()));
+
+        // and the channel gets no more batches
+        Assertions.assertTrue(batcher.commit(Collections.singletonList(session1), true, s -> true).isEmpty());
+        Assertions.assertEquals(1, sent.get());
+    }
+
+    @Test
+    public void testGetChannelOfRegisteredRm() throws Exception {
+        Channel batchChannel = newRmChannel(35001);
+        Channel olderChannel = newRmChannel(35002);
+        RegisterRMRequest batchRequest = new RegisterRMRequest("batch-app", "default_tx_group");
+        batchRequest.setResourceIds("batch_r1");
+        batchRequest.setBatchPhaseTwoSupported(true);
+        // an RM which does not say it handles batches
+        RegisterRMRequest olderRequest = new RegisterRMRequest("batch-app", "default_tx_group");
+        olderRequest.setResourceIds("batch_r2");
+        try {
+            ChannelManager.registerRMChannel(batchRequest, batchChannel);
+            ChannelManager.registerRMChannel(olderRequest, olderChannel);
+            BranchPhaseTwoBatcher batcher = new BranchPhaseTwoBatcher(null, true, 100);
+
+            Assertions.assertSame(batchChannel,
+                batcher.getChannel(newBranchSession(1L, "batch_r1", "batch-app:127.0.0.1:35001")));
+            Assertions.assertNull(batcher.getChannel(newBranchSession(2L, "batch_r2", "batch-app:127.0.0.1:35002")));
+            Assertions.assertNull(batcher.getChannel(newBranchSession(3L, "batch_r3", "batch-app:127.0.0.1:35001")));
+        } finally {
+            ChannelManager.releaseRpcContext(batchChannel);
+            ChannelManager.releaseRpcContext(olderChannel);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        channels.put("c1", Mockito.mock(Channel.class));
+        GlobalSession session = newGlobalSession(newBranchSession(1L, "r1", "c1"));
+        BranchPhaseTwoBatcher batcher = new BranchPhaseTwoBatcher(null, false, 100);
+        Assertions.assertFalse(batcher.isEnabled());
+        Assertions.assertTrue(batcher.commit(Collections.singletonList(session), true, s -> true).isEmpty());
+    }
+
+    private BranchPhaseTwoBatcher newBatcher(int maxBatchSize) {
+        return new BranchPhaseTwoBatcher(null, true, maxBatchSize) {
+            @Override
+            Channel getChannel(BranchSession branchSession) {
+                return channels.get(branchSession.getClientId());
+            }
+
+            @Override
+            BatchResultMessage sendBatch(Channel channel, BatchPhaseTwoMessage batchMessage) {
+                batches.add(batchMessage);
+                List<AbstractResultMessage> results = new ArrayList<>();
+                List<Integer> msgIds = new ArrayList<>();
+                // answered in reverse order, matched by msgId
+                for (int i = batchMessage.getBranchRequests().size() - 1; i >= 0; i--) {
+                    AbstractBranchEndRequest request = batchMessage.getBranchRequests().get(i);
+                    if (request instanceof BranchCommitRequest) {
+                        BranchCommitResponse response = new BranchCommitResponse();
+                        response.setBranchStatus(request.getBranchId() == 5L
+                            ? BranchStatus.PhaseTwo_CommitFailed_Retryable : BranchStatus.PhaseTwo_Committed);
+                        results.add(response);
+                    } else {
+                        BranchRollbackResponse response = new BranchRollbackResponse();
+                        response.setBranchStatus(BranchStatus.PhaseTwo_Rollbacked);
+                        results.add(response);
+                    }
+                    msgIds.add(batchMessage.getMsgIds().get(i));
+                }
+                BatchResultMessage resultMessage = new BatchResultMessage();
+                resultMessage.setResultMessages(results);
+                resultMessage.setMsgIds(msgIds);
+                return resultMessage;
+            }
+        };
+    }
+
+    private static Channel newRmChannel(int port) {
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.remoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", port));
+        Mockito.when(channel.isActive()).thenReturn(true);
+        return channel;
+    }
+
+    private static GlobalSession newGlobalSession(BranchSession... branchSessions) {
+        GlobalSession globalSession = new GlobalSession("demo-app", "default_tx_group", "test", 60000);
+        for (BranchSession branchSession : branchSessions) {
+            branchSession.setXid(globalSession.getXid());
+            branchSession.setTransactionId(globalSession.getTransactionId());
+            globalSession.add(branchSession);
+        }
+        return globalSession;
+    }
+
+    private static BranchSession newBranchSession(long branchId, String resourceId, String clientId) {
+        BranchSession branchSession = new BranchSession(BranchType.AT);
+        branchSession.setBranchId(branchId);
+        branchSession.setResourceId(resourceId);
+        branchSession.setClientId(clientId);
+        branchSession.setStatus(BranchStatus.PhaseOne_Done);
+        return branchSession;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.seata.core.model.BranchStatus;
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.server.session.BranchSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * The type Branch phase two dispatcher test.
+ */
+@SpringBootTest
+public class BranchPhaseTwoDispatcherTest {
+
+    @BeforeAll
+    public static void setUp(ApplicationContext context) {
+
+    }
+
+    @Test
+    public void testResourcesRunConcurrently() throws Exception {
+        BranchPhaseTwoDispatcher dispatcher = new BranchPhaseTwoDispatcher(16);
+        List<BranchSession> branchSessions = new ArrayList<>();
+        branchSessions.add(newBranchSession(1L, "r1", "c1"));
+        branchSessions.add(newBranchSession(2L, "r2", "c2"));
+        branchSessions.add(newBranchSession(3L, "r3", "c3"));
+        // every request waits until all of them are in flight
+        CountDownLatch inFlight = new CountDownLatch(branchSessions.size());
+        BranchPhaseTwoDispatcher.Outcomes outcomes = dispatcher.dispatch(branchSessions, branchSession -> true,
+            BranchStatus.PhaseTwo_Committed, branchSession -> {
+                inFlight.countDown();
+                return inFlight.await(5, TimeUnit.SECONDS) ? BranchStatus.PhaseTwo_Committed
+                    : BranchStatus.PhaseTwo_CommitFailed_Retryable;
+            });
+        for (BranchSession branchSession : branchSessions) {
+            Assertions.assertEquals(BranchStatus.PhaseTwo_Committed, outcomes.take(branchSession, branch -> {
+                throw new IllegalStateException("already dispatched");
+            }));
+        }
+    }
+
+    @Test
+    public void testResourceOrderAndStop() throws Exception {
+        BranchPhaseTwoDispatcher dispatcher = new BranchPhaseTwoDispatcher(16);
+        List<BranchSession> branchSessions = new ArrayList<>();
+        branchSessions.add(newBranchSession(1L, "r1", "c1"));
+        branchSessions.add(newBranchSession(2L, "r2", "c2"));
+        branchSessions.add(newBranchSession(3L, "r1", "c1"));
+        branchSessions.add(newBranchSession(4L, "r1", "c1"));
+        branchSessions.add(newBranchSession(5L, "r2", "c2"));
+        List<Long> called = new CopyOnWriteArrayList<>();
+        BranchPhaseTwoDispatcher.Outcomes outcomes = dispatcher.dispatch(branchSessions,
+            branchSession -> branchSession.getBranchId() != 5L, BranchStatus.PhaseTwo_Rollbacked, branchSession -> {
+                called.add(branchSession.getBranchId());
+                return branchSession.getBranchId() == 3L ? BranchStatus.PhaseTwo_RollbackFailed_Retryable
+                    : BranchStatus.PhaseTwo_Rollbacked;
+            });
+        // branch 4 waits for branch 3 of the same resource, branch 5 is filtered out
+        Assertions.assertFalse(called.contains(4L));
+        Assertions.assertFalse(called.contains(5L));
+        Assertions.assertTrue(called.indexOf(1L) < called.indexOf(3L));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_RollbackFailed_Retryable,
+            outcomes.take(branchSessions.get(2), branch -> BranchStatus.PhaseTwo_Rollbacked));
+        // not dispatched, sent by the caller
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Rollbacked,
+            outcomes.take(branchSessions.get(3), branch -> BranchStatus.PhaseTwo_Rollbacked));
+    }
+
+    @Test
+    public void testExceptionIsTaken() throws Exception {
+        BranchPhaseTwoDispatcher dispatcher = new BranchPhaseTwoDispatcher(16);
+        List<BranchSession> branchSessions = new ArrayList<>();
+        branchSessions.add(newBranchSession(1L, "r1", "c1"));
+        branchSessions.add(newBranchSession(2L, "r2", "c2"));
+        BranchPhaseTwoDispatcher.Outcomes outcomes = dispatcher.dispatch(branchSessions, branchSession -> true,
+            BranchStatus.PhaseTwo_Committed, branchSession -> {
+                if (branchSession.getBranchId() == 2L) {
+                    throw new IllegalStateException("rm unavailable");
+                }
+                return BranchStatus.PhaseTwo_Committed;
+            });
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> outcomes.take(branchSessions.get(1), branch -> BranchStatus.PhaseTwo_Committed));
+    }
+
+    @Test
+    public void testMaxInFlightPerClient() throws Exception {
+        BranchPhaseTwoDispatcher dispatcher = new BranchPhaseTwoDispatcher(1);
+        List<BranchSession> branchSessions = new ArrayList<>();
+        for (long i = 1; i <= 4; i++) {
+            branchSessions.add(newBranchSession(i, "r" + i, "c1"));
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        dispatcher.dispatch(branchSessions, branchSession -> true, BranchStatus.PhaseTwo_Committed,
+            branchSession -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                inFlight.decrementAndGet();
+                return BranchStatus.PhaseTwo_Committed;
+            });
+        Assertions.assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    public void testSingleResourceIsNotDispatched() throws Exception {
+        BranchPhaseTwoDispatcher dispatcher = new BranchPhaseTwoDispatcher(16);
+        List<BranchSession> branchSessions = new ArrayList<>();
+        branchSessions.add(newBranchSession(1L, "r1", "c1"));
+        branchSessions.add(newBranchSession(2L, "r1", "c1"));
+        Assertions.assertSame(BranchPhaseTwoDispatcher.Outcomes.EMPTY,
+            dispatcher.dispatch(branchSessions, branchSession -> true, BranchStatus.PhaseTwo_Committed,
+                branchSession -> {
+                    throw new IllegalStateException("must not be called");
+                }));
+    }
+
+    private static BranchSession newBranchSession(long branchId, String resourceId, String clientId) {
+        BranchSession branchSession = new BranchSession(BranchType.AT);
+        branchSession.setXid("127.0.0.1:8091:1");
+        branchSession.setTransactionId(1L);
+        branchSession.setBranchId(branchId);
+        branchSession.setResourceId(resourceId);
+        branchSession.setClientId(clientId);
+        return branchSession;
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.seata.server.lock;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -29,6 +30,8 @@ import javax.annotation.Resource;
 import org.apache.seata.common.util.CollectionUtils;
 import org.apache.seata.common.result.PageResult;
 import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.lock.RowLock;
+import org.apache.seata.core.lock.RowLockKeys;
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.common.util.UUIDGenerator;
 import org.apache.seata.server.console.param.GlobalLockParam;
@@ -95,6 +98,31 @@ public class LockManagerTest {
         Assertions.assertFalse(lockManager.acquireLock(branchSession2));
     }
 
+    /**
+     * Acquire lock failed against the lock keys received in binary form.
+     *
+     * @param branchSession1 the branch session 1
+     * @param branchSession2 the branch session 2
+     * @throws Exception the exception
+     */
+    @ParameterizedTest
+    @MethodSource("branchSessionsProvider")
+    public void acquireLock_binaryLockKey(BranchSession branchSession1, BranchSession branchSession2) throws Exception {
+        LockManager lockManager = new FileLockManagerForTest();
+        List<RowLock> parsed = lockManager.collectRowLocks(branchSession1);
+        branchSession1.setRowLockKeys(RowLockKeys.parse(branchSession1.getLockKey()));
+        List<RowLock> binary = lockManager.collectRowLocks(branchSession1);
+        Assertions.assertEquals(parsed.size(), binary.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            Assertions.assertEquals(parsed.get(i).getTableName(), binary.get(i).getTableName());
+            Assertions.assertEquals(parsed.get(i).getPk(), binary.get(i).getPk());
+            Assertions.assertEquals(parsed.get(i).getBranchId(), binary.get(i).getBranchId());
+        }
+        Assertions.assertTrue(lockManager.acquireLock(branchSession1));
+        Assertions.assertFalse(lockManager.acquireLock(branchSession2));
+        Assertions.assertTrue(lockManager.releaseLock(branchSession1));
+    }
+
     /**
      * deadlock test.
      *
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.lock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.seata.common.XID;
+import org.apache.seata.common.util.UUIDGenerator;
+import org.apache.seata.core.exception.TransactionException;
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.server.session.BranchSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.apache.seata.common.DefaultValues.DEFAULT_TX_GROUP;
+
+/**
+ * The type Lock wait manager test.
+ */
+@SpringBootTest
+public class LockWaitManagerTest {
+
+    private static final String RESOURCE_ID = "jdbc:mysql://127.0.0.1:3306/seata";
+
+    @BeforeAll
+    public static void setUp(ApplicationContext context) {
+
+    }
+
+    @AfterEach
+    public void cleanUp() throws Exception {
+        LockerManagerFactory.getLockManager().cleanAllLocks();
+    }
+
+    @Test
+    public void testWakeUpInFifoOrder() throws Exception {
+        LockWaitManager lockWaitManager = LockWaitManager.getInstance();
+        BranchSession holder = newBranchSession(1L, "t:1");
+        Assertions.assertTrue(holder.lock());
+
+        List<Integer> resumed = new CopyOnWriteArrayList<>();
+        CountDownLatch firstResumed = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + 10000;
+        BranchSession next = newBranchSession(2L, "t:1");
+        lockWaitManager.await(next.getXid(), RESOURCE_ID, "t:1", deadline, () -> {
+            // the resumed registration takes the row
+            try {
+                Assertions.assertTrue(next.lock());
+            } catch (TransactionException e) {
+                throw new RuntimeException(e);
+            }
+            resumed.add(1);
+            firstResumed.countDown();
+        });
+        lockWaitManager.await(XID.generateXID(3L), RESOURCE_ID, "t:1", deadline, () -> resumed.add(2));
+        Assertions.assertTrue(lockWaitManager.hasWaiters());
+        Assertions.assertTrue(resumed.isEmpty());
+
+        // a branch losing the acquire releases nothing, the row is still held so nobody is woken up
+        BranchSession loser = newBranchSession(8L, "t:1");
+        Assertions.assertFalse(loser.lock());
+        Thread.sleep(100);
+        Assertions.assertTrue(resumed.isEmpty());
+
+        // releasing the row resumes only the head of its queue
+        holder.unlock();
+        Assertions.assertTrue(firstResumed.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assertions.assertEquals(1, resumed.size());
+        Assertions.assertEquals(1, resumed.get(0));
+        Assertions.assertTrue(lockWaitManager.hasWaiters());
+
+        // the next one is resumed when the row is released again
+        next.unlock();
+        Thread.sleep(100);
+        Assertions.assertEquals(2, resumed.size());
+        Assertions.assertEquals(2, resumed.get(1));
+        Assertions.assertFalse(lockWaitManager.hasWaiters());
+    }
+
+    @Test
+    public void testParkAgainKeepsPlace() throws Exception {
+        LockWaitManager lockWaitManager = LockWaitManager.getInstance();
+        BranchSession holder = newBranchSession(11L, "t:5");
+        BranchSession otherHolder = newBranchSession(12L, "t:6");
+        Assertions.assertTrue(holder.lock());
+        Assertions.assertTrue(otherHolder.lock());
+
+        List<Integer> resumed = new CopyOnWriteArrayList<>();
+        long deadline = System.currentTimeMillis() + 10000;
+        String firstXid = XID.generateXID(13L);
+        long firstSequence = lockWaitManager.nextSequence();
+        Runnable[] first = new Runnable[1];
+        first[0] = () -> {
+            resumed.add(1);
+            if (resumed.size() == 1) {
+                // conflicts on t:6 and waits again
+                lockWaitManager.await(firstXid, RESOURCE_ID, "t:5,6", deadline, firstSequence, first[0]);
+            }
+        };
+        lockWaitManager.await(firstXid, RESOURCE_ID, "t:5,6", deadline, firstSequence, first[0]);
+        lockWaitManager.await(XID.generateXID(14L), RESOURCE_ID, "t:5", deadline, () -> resumed.add(2));
+
+        holder.unlock();
+        Thread.sleep(200);
+        // the first one is parked again at the head of t:5, the second one keeps waiting behind it
+        Assertions.assertEquals(1, resumed.size());
+        Assertions.assertTrue(lockWaitManager.hasWaiters());
+
+        otherHolder.unlock();
+        Thread.sleep(200);
+        Assertions.assertEquals(3, resumed.size());
+        Assertions.assertEquals(1, resumed.get(1));
+        Assertions.assertEquals(2, resumed.get(2));
+        Assertions.assertFalse(lockWaitManager.hasWaiters());
+    }
+
+    @Test
+    public void testResumeOnDeadline() throws Exception {
+        LockWaitManager lockWaitManager = LockWaitManager.getInstance();
+        BranchSession holder = newBranchSession(5L, "t:2");
+        Assertions.assertTrue(holder.lock());
+
+        CountDownLatch resumed = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        lockWaitManager.await(XID.generateXID(6L), RESOURCE_ID, "t:2", start + 200, resumed::countDown);
+        Assertions.assertTrue(resumed.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(System.currentTimeMillis() - start >= 150);
+        Assertions.assertFalse(lockWaitManager.hasWaiters());
+        holder.unlock();
+    }
+
+    @Test
+    public void testResumeAtOnceWhenAlreadyReleased() throws Exception {
+        LockWaitManager lockWaitManager = LockWaitManager.getInstance();
+        CountDownLatch resumed = new CountDownLatch(1);
+        lockWaitManager.await(XID.generateXID(7L), RESOURCE_ID, "t:3", System.currentTimeMillis() + 10000,
+            resumed::countDown);
+        Assertions.assertTrue(resumed.await(1, TimeUnit.SECONDS));
+        Assertions.assertFalse(lockWaitManager.hasWaiters());
+    }
+
+    @Test
+    public void testGetWaitTimeout() {
+        LockWaitManager lockWaitManager = LockWaitManager.getInstance();
+        Assertions.assertEquals(0L, lockWaitManager.getWaitTimeout(null));
+        Assertions.assertEquals(0L, lockWaitManager.getWaitTimeout("{\"autoCommit\":false}"));
+        Assertions.assertEquals(300L, lockWaitManager.getWaitTimeout("{\"lockWaitTimeout\":300}"));
+        // capped by server.maxLockWaitTimeout
+        Assertions.assertEquals(5000L, lockWaitManager.getWaitTimeout("{\"lockWaitTimeout\":600000}"));
+    }
+
+    private static BranchSession newBranchSession(long transactionId, String lockKey) {
+        BranchSession branchSession = new BranchSession(BranchType.AT);
+        branchSession.setXid(XID.generateXID(transactionId));
+        branchSession.setTransactionId(transactionId);
+        branchSession.setBranchId(UUIDGenerator.generateUUID());
+        branchSession.setClientId("c1");
+        branchSession.setResourceGroupId(DEFAULT_TX_GROUP);
+        branchSession.setResourceId(RESOURCE_ID);
+        branchSession.setLockKey(lockKey);
+        return branchSession;
+    }
+}
@@ -22,6 +22,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.seata.common.ConfigurationKeys;
 import org.apache.seata.common.util.IOUtil;
@@ -336,6 +339,74 @@ public class DataBaseLockStoreDAOTest {
 
     }
 
+    @Test
+    public void test_batchedLockWrites() throws Exception {
+        ConfigurationFactory.getInstance().putConfig(ConfigurationKeys.STORE_DB_LOCK_BATCH_WINDOW, "5");
+        LockStoreDataBaseDAO batchedLockStoreDAO;
+        try {
+            batchedLockStoreDAO = new LockStoreDataBaseDAO(dataSource);
+        } finally {
+            ConfigurationFactory.getInstance().putConfig(ConfigurationKeys.STORE_DB_LOCK_BATCH_WINDOW, "0");
+        }
+        int branches = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(branches);
+        try {
+            // every two branches of different global transactions want the same rows
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int b = 0; b < branches; b++) {
+                List<LockDO> lockDOs = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    LockDO lock = new LockDO();
+                    lock.setResourceId("abc");
+                    lock.setXid("abc-batch:" + b);
+                    lock.setTransactionId((long) b);
+                    lock.setBranchId((long) b);
+                    lock.setRowKey("test_batchedLockWrites-" + (b / 2) + "-" + i);
+                    lock.setPk(String.valueOf(i));
+                    lock.setTableName("t");
+                    lockDOs.add(lock);
+                }
+                results.add(executor.submit(() -> batchedLockStoreDAO.acquireLock(lockDOs)));
+            }
+            for (int pair = 0; pair < branches / 2; pair++) {
+                boolean first = results.get(pair * 2).get();
+                boolean second = results.get(pair * 2 + 1).get();
+                Assertions.assertTrue(first ^ second);
+                long winner = first ? pair * 2 : pair * 2 + 1;
+                Assertions.assertEquals(2, countLocks("branch_id = " + winner));
+            }
+
+            List<Future<Boolean>> releases = new ArrayList<>();
+            for (int b = 0; b < branches; b++) {
+                long branchId = b;
+                String xid = "abc-batch:" + b;
+                boolean byBranch = b % 2 == 0;
+                releases.add(executor.submit(() -> byBranch ? batchedLockStoreDAO.unLock(branchId)
+                    : batchedLockStoreDAO.unLock(xid)));
+            }
+            for (Future<Boolean> release : releases) {
+                Assertions.assertTrue(release.get());
+            }
+            Assertions.assertEquals(0, countLocks("xid like 'abc-batch:%'"));
+        } finally {
+            executor.shutdownNow();
+            batchedLockStoreDAO.destroy();
+        }
+    }
+
+    private static int countLocks(String condition) throws SQLException {
+        Connection conn = null;
+        ResultSet rs = null;
+        try {
+            conn = dataSource.getConnection();
+            rs = conn.createStatement().executeQuery("select count(1) from lock_table where " + condition);
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            IOUtil.close(rs, conn);
+        }
+    }
+
     @AfterAll
     public static void clearStoreDB(){
         FileUtils.deleteRecursive("db_store", true);
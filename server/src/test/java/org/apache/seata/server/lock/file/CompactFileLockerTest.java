@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.lock.file;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.seata.common.XID;
+import org.apache.seata.common.util.UUIDGenerator;
+import org.apache.seata.core.lock.Locker;
+import org.apache.seata.core.model.BranchType;
+import org.apache.seata.server.lock.LockManager;
+import org.apache.seata.server.session.BranchSession;
+import org.apache.seata.server.storage.file.lock.CompactFileLocker;
+import org.apache.seata.server.storage.file.lock.CompactLockTable;
+import org.apache.seata.server.storage.file.lock.FileLockManager;
+import org.apache.seata.server.storage.file.lock.FileLocker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.apache.seata.common.DefaultValues.DEFAULT_TX_GROUP;
+
+/**
+ * The type Compact file locker test.
+ */
+@SpringBootTest
+public class CompactFileLockerTest {
+
+    private static final String RESOURCE_ID = "jdbc:mysql://127.0.0.1:3306/seata";
+
+    private final LockManager lockManager = new CompactFileLockManagerForTest();
+
+    @BeforeAll
+    public static void setUp(ApplicationContext context) {
+
+    }
+
+    @AfterEach
+    public void cleanUp() throws Exception {
+        lockManager.cleanAllLocks();
+    }
+
+    @Test
+    public void testAcquireAndRelease() throws Exception {
+        BranchSession branchSession1 = newBranchSession(UUIDGenerator.generateUUID(), 1L, "t:1,2;t2:1");
+        BranchSession branchSession2 = newBranchSession(UUIDGenerator.generateUUID(), 2L, "t:2,3");
+
+        Assertions.assertTrue(lockManager.acquireLock(branchSession1));
+        Assertions.assertEquals(3, branchSession1.getCompactLockHolder().size());
+        Assertions.assertFalse(branchSession1.isLockHolderEmpty());
+
+        // conflict on t:2, nothing stays held by the second branch
+        Assertions.assertFalse(lockManager.acquireLock(branchSession2));
+        Assertions.assertTrue(branchSession2.isLockHolderEmpty());
+        Assertions.assertFalse(lockManager.isLockable(branchSession2.getXid(), RESOURCE_ID, "t:2"));
+        Assertions.assertTrue(lockManager.isLockable(branchSession2.getXid(), RESOURCE_ID, "t:3"));
+        Assertions.assertTrue(lockManager.isLockable(branchSession1.getXid(), RESOURCE_ID, "t:2"));
+
+        // re-entry of the same global transaction
+        BranchSession sameTx = newBranchSession(branchSession1.getTransactionId(), 3L, "t:1");
+        Assertions.assertTrue(lockManager.acquireLock(sameTx));
+        Assertions.assertTrue(sameTx.isLockHolderEmpty());
+
+        Assertions.assertTrue(lockManager.releaseLock(branchSession1));
+        Assertions.assertTrue(branchSession1.isLockHolderEmpty());
+        Assertions.assertTrue(lockManager.acquireLock(branchSession2));
+        Assertions.assertEquals(2, branchSession2.getCompactLockHolder().size());
+        Assertions.assertTrue(lockManager.releaseLock(branchSession2));
+    }
+
+    /**
+     * The compact lock table and its per-branch holders retain less heap than the nested maps of the map locker and
+     * their per-branch pk sets, for the same rows.
+     */
+    @Test
+    public void testLockFootprint() throws Exception {
+        int branches = 20;
+        int rowsPerBranch = 500;
+
+        List<BranchSession> compactBranchSessions = newBranchSessions(branches, rowsPerBranch);
+        CompactLockTable lockTable = CompactLockTable.getInstance();
+        long compactEmpty = footprint(lockTable, compactBranchSessions);
+        for (BranchSession branchSession : compactBranchSessions) {
+            Assertions.assertTrue(lockManager.acquireLock(branchSession));
+            Assertions.assertTrue(branchSession.getLockHolder().isEmpty());
+            Assertions.assertEquals(rowsPerBranch, branchSession.getCompactLockHolder().size());
+        }
+        Assertions.assertEquals(branches * rowsPerBranch, lockTable.size());
+        long compactRetained = footprint(lockTable, compactBranchSessions) - compactEmpty;
+
+        LockManager mapLockManager = new FileLockManager() {
+            @Override
+            public Locker getLocker(BranchSession branchSession) {
+                return new FileLocker(branchSession);
+            }
+        };
+        Field lockMapField = FileLocker.class.getDeclaredField("LOCK_MAP");
+        lockMapField.setAccessible(true);
+        Object lockMap = lockMapField.get(null);
+        List<BranchSession> mapBranchSessions = newBranchSessions(branches, rowsPerBranch);
+        long mapEmpty = footprint(lockMap, mapBranchSessions);
+        try {
+            for (BranchSession branchSession : mapBranchSessions) {
+                Assertions.assertTrue(mapLockManager.acquireLock(branchSession));
+                Assertions.assertNull(branchSession.getCompactLockHolder());
+            }
+            long mapRetained = footprint(lockMap, mapBranchSessions) - mapEmpty;
+
+            Assertions.assertTrue(compactRetained < mapRetained, "the compact lock table retains " + compactRetained
+                + " bytes for " + branches * rowsPerBranch + " rows, the map locker " + mapRetained + " bytes");
+        } finally {
+            mapLockManager.cleanAllLocks();
+        }
+
+        for (BranchSession branchSession : compactBranchSessions) {
+            Assertions.assertTrue(lockManager.releaseLock(branchSession));
+        }
+        Assertions.assertEquals(0, lockTable.size());
+    }
+
+    /**
+     * The heap retained by a lock table and the branch sessions holding its rows.
+     */
+    private static long footprint(Object lockTable, List<BranchSession> branchSessions) {
+        List<Object> roots = new ArrayList<>(branchSessions);
+        roots.add(lockTable);
+        return GraphLayout.parseInstance(roots.toArray()).totalSize();
+    }
+
+    private static List<BranchSession> newBranchSessions(int branches, int rowsPerBranch) {
+        List<BranchSession> branchSessions = new ArrayList<>(branches);
+        for (int i = 0; i < branches; i++) {
+            StringBuilder lockKey = new StringBuilder("t_order:");
+            for (int j = 0; j < rowsPerBranch; j++) {
+                lockKey.append(j == 0 ? "" : ",").append(i * rowsPerBranch + j);
+            }
+            branchSessions.add(newBranchSession(UUIDGenerator.generateUUID(), i, lockKey.toString()));
+        }
+        return branchSessions;
+    }
+
+    private static BranchSession newBranchSession(long transactionId, long branchId, String lockKey) {
+        BranchSession branchSession = new BranchSession(BranchType.AT);
+        branchSession.setXid(XID.generateXID(transactionId));
+        branchSession.setTransactionId(transactionId);
+        branchSession.setBranchId(branchId);
+        branchSession.setClientId("c1");
+        branchSession.setResourceGroupId(DEFAULT_TX_GROUP);
+        branchSession.setResourceId(RESOURCE_ID);
+        branchSession.setLockKey(lockKey);
+        return branchSession;
+    }
+
+    private static class CompactFileLockManagerForTest extends FileLockManager {
+
+        @Override
+        public Locker getLocker(BranchSession branchSession) {
+            return new CompactFileLocker(branchSession);
+        }
+    }
+}
@@ -16,12 +16,15 @@
  */
 package org.apache.seata.server.session;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.stream.Stream;
 
 import org.apache.seata.core.model.BranchType;
 import org.apache.seata.common.util.UUIDGenerator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -61,7 +64,45 @@ public class BranchSessionTest {
         Assertions.assertEquals(branchSession.getLockKey(), expected.getLockKey());
         Assertions.assertEquals(branchSession.getClientId(), expected.getClientId());
         Assertions.assertEquals(branchSession.getApplicationData(), expected.getApplicationData());
+        Assertions.assertEquals(branchSession.getXid(), SessionCodec.peekBranchXid(ByteBuffer.wrap(result)));
+    }
+
+    @Test
+    public void codecUtf8Test() {
+        BranchSession branchSession = new BranchSession();
+        branchSession.setTransactionId(1L);
+        branchSession.setBranchId(2L);
+        branchSession.setXid("127.0.0.1:8091:1");
+        branchSession.setResourceId("tb_1");
+        branchSession.setLockKey("t_1:\u4e2d\u6587");
+        branchSession.setApplicationData("{\"data\":\"\u4e2d\u6587\"}");
+        BranchSession expected = new BranchSession();
+        expected.decode(ByteBuffer.wrap(branchSession.encode()));
+        Assertions.assertEquals(branchSession.getLockKey(), expected.getLockKey());
+        Assertions.assertEquals(branchSession.getApplicationData(), expected.getApplicationData());
+        Assertions.assertEquals(branchSession.getXid(), expected.getXid());
+    }
 
+    @Test
+    public void encodeToBufferTest() {
+        BranchSession branchSession = new BranchSession();
+        branchSession.setTransactionId(1L);
+        branchSession.setBranchId(2L);
+        branchSession.setXid("127.0.0.1:8091:1");
+        branchSession.setResourceId("tb_1");
+        branchSession.setLockKey("t_1:1");
+        byte[] expected = branchSession.encode();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(expected.length + 1);
+        byteBuffer.put((byte) 1);
+        branchSession.encode(byteBuffer);
+        Assertions.assertEquals(expected.length + 1, byteBuffer.position());
+        byte[] actual = new byte[expected.length];
+        System.arraycopy(byteBuffer.array(), 1, actual, 0, expected.length);
+        Assertions.assertArrayEquals(expected, actual);
+        // nothing is written to a buffer without room for the session
+        ByteBuffer smallBuffer = ByteBuffer.allocate(expected.length - 1);
+        Assertions.assertThrows(BufferOverflowException.class, () -> branchSession.encode(smallBuffer));
+        Assertions.assertEquals(0, smallBuffer.position());
     }
 
     /**
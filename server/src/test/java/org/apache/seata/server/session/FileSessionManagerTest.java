@@ -271,6 +271,42 @@ public class FileSessionManagerTest {
         }
     }
 
+    /**
+     * Find global sessions by status after status changes test.
+     *
+     * @param globalSessions the global sessions
+     * @throws Exception the exception
+     */
+    @ParameterizedTest
+    @MethodSource("globalSessionsProvider")
+    public void findGlobalSessionsByStatusTest(List<GlobalSession> globalSessions) throws Exception {
+        for (SessionManager sessionManager : sessionManagerList) {
+            for (GlobalSession globalSession : globalSessions) {
+                sessionManager.addGlobalSession(globalSession);
+            }
+            GlobalSession globalSession = globalSessions.get(0);
+            GlobalStatus oldStatus = globalSession.getStatus();
+            Assertions.assertTrue(sessionManager.findGlobalSessions(new SessionCondition(GlobalStatus.AsyncCommitting))
+                .isEmpty());
+
+            globalSession.setStatus(GlobalStatus.AsyncCommitting);
+            sessionManager.updateGlobalSessionStatus(globalSession, GlobalStatus.AsyncCommitting);
+            List<GlobalSession> found =
+                sessionManager.findGlobalSessions(new SessionCondition(GlobalStatus.AsyncCommitting));
+            Assertions.assertEquals(1, found.size());
+            Assertions.assertSame(globalSession, found.get(0));
+            Assertions.assertEquals(2, sessionManager.findGlobalSessions(
+                new SessionCondition(GlobalStatus.AsyncCommitting, oldStatus, globalSessions.get(1).getStatus()))
+                .size());
+
+            sessionManager.removeGlobalSession(globalSession);
+            Assertions.assertTrue(sessionManager.findGlobalSessions(new SessionCondition(GlobalStatus.AsyncCommitting))
+                .isEmpty());
+            sessionManager.removeGlobalSession(globalSessions.get(1));
+            globalSession.setStatus(oldStatus);
+        }
+    }
+
     /**
      * Find global sessions with PageResult test.
      *
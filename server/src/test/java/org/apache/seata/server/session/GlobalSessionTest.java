@@ -17,6 +17,7 @@
 package org.apache.seata.server.session;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.stream.Stream;
 
 import org.apache.seata.core.model.BranchStatus;
@@ -171,6 +172,7 @@ public class GlobalSessionTest {
         Assertions.assertEquals(expected.getTransactionServiceGroup(), globalSession.getTransactionServiceGroup());
         Assertions.assertEquals(expected.getTransactionName(), globalSession.getTransactionName());
         Assertions.assertTrue(expected.isActive());
+        Assertions.assertEquals(globalSession.getXid(), SessionCodec.peekGlobalXid(ByteBuffer.wrap(result)));
     }
 
     /**
@@ -68,9 +68,11 @@ public class SessionHolderTest {
         }
         SessionHolder.init(SessionMode.FILE);
         try {
-            final File actual = new File(pathname);
-            Assertions.assertTrue(actual.exists());
-            Assertions.assertTrue(actual.isFile());
+            // sessions are logged to segments next to the root data file
+            File[] segments = new File(pathname).getParentFile().listFiles(
+                (dir, name) -> name.startsWith(ROOT_SESSION_MANAGER_NAME + ".seg."));
+            Assertions.assertNotNull(segments);
+            Assertions.assertTrue(segments.length > 0);
         } finally {
             SessionHolder.destroy();
         }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.session;
+
+import java.util.List;
+
+import org.apache.seata.core.model.GlobalStatus;
+import org.apache.seata.server.session.SessionDeadlineIndex.DueKind;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * The type Session timing wheel test.
+ */
+@SpringBootTest
+public class SessionTimingWheelTest {
+
+    @BeforeAll
+    public static void setUp(ApplicationContext context) {
+
+    }
+
+    @Test
+    public void testDueAtDeadline() {
+        SessionTimingWheel wheel = new SessionTimingWheel(10, 1000);
+        GlobalSession session = newGlobalSession("xid-1", 60000);
+        wheel.schedule(session, 1055);
+        Assertions.assertTrue(wheel.poll(1049).isEmpty());
+        Assertions.assertEquals(1, wheel.size());
+        // due from the start of the tick of its deadline
+        List<GlobalSession> due = wheel.poll(1050);
+        Assertions.assertEquals(1, due.size());
+        Assertions.assertSame(session, due.get(0));
+        Assertions.assertEquals(0, wheel.size());
+        Assertions.assertTrue(wheel.poll(2000).isEmpty());
+    }
+
+    @Test
+    public void testCancelAndMove() {
+        SessionTimingWheel wheel = new SessionTimingWheel(10, 1000);
+        GlobalSession first = newGlobalSession("xid-1", 60000);
+        GlobalSession second = newGlobalSession("xid-2", 60000);
+        wheel.schedule(first, 1100);
+        wheel.schedule(second, 1100);
+        Assertions.assertTrue(wheel.cancel("xid-1"));
+        Assertions.assertFalse(wheel.cancel("xid-1"));
+        // scheduling again moves the session
+        wheel.schedule(second, 1500);
+        Assertions.assertEquals(1, wheel.size());
+        Assertions.assertTrue(wheel.poll(1200).isEmpty());
+        Assertions.assertEquals(1, wheel.poll(1500).size());
+    }
+
+    @Test
+    public void testOverdueAndLongDeadlines() {
+        SessionTimingWheel wheel = new SessionTimingWheel(1, 0);
+        GlobalSession near = newGlobalSession("xid-1", 60000);
+        GlobalSession far = newGlobalSession("xid-2", 60000);
+        GlobalSession farther = newGlobalSession("xid-3", 60000);
+        // beyond the first and the second level
+        wheel.schedule(near, 700);
+        wheel.schedule(far, 300000);
+        wheel.schedule(farther, 200000000L);
+        Assertions.assertEquals(1, wheel.poll(700).size());
+        Assertions.assertTrue(wheel.poll(299999).isEmpty());
+        Assertions.assertSame(far, wheel.poll(300000).get(0));
+        Assertions.assertTrue(wheel.poll(199999999L).isEmpty());
+        Assertions.assertSame(farther, wheel.poll(200000000L).get(0));
+
+        // a deadline already passed is returned by the next poll
+        wheel.schedule(near, 100);
+        Assertions.assertSame(near, wheel.poll(200000001L).get(0));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineIndex() {
+        SessionDeadlineIndex index = new SessionDeadlineIndex(10);
+        long now = System.currentTimeMillis();
+        GlobalSession begin = newGlobalSession("xid-1", 1000);
+        begin.setBeginTime(now - 1500);
+        GlobalSession running = newGlobalSession("xid-3", 60000);
+        running.setBeginTime(now);
+        running.setStatus(GlobalStatus.Begin);
+        begin.setStatus(GlobalStatus.Begin);
+        GlobalSession retrying = newGlobalSession("xid-2", 1000);
+        retrying.setBeginTime(now);
+        retrying.setStatus(GlobalStatus.CommitRetrying);
+        index.index(begin, begin.getStatus());
+        index.index(running, running.getStatus());
+        index.index(retrying, retrying.getStatus());
+        Assertions.assertEquals(2, index.size(DueKind.TIMEOUT));
+        Assertions.assertEquals(1, index.size(DueKind.RETRY_COMMITTING));
+
+        // only the timed out session is due
+        List<GlobalSession> due = index.pollDue(DueKind.TIMEOUT, now, 1000);
+        Assertions.assertEquals(1, due.size());
+        Assertions.assertSame(begin, due.get(0));
+        // returned again one period later until its status changes
+        Assertions.assertEquals(1, index.pollDue(DueKind.TIMEOUT, now + 1010, 1000).size());
+        begin.setStatus(GlobalStatus.TimeoutRollbacking);
+        Assertions.assertTrue(index.pollDue(DueKind.TIMEOUT, now + 2020, 1000).isEmpty());
+        Assertions.assertEquals(1, index.size(DueKind.TIMEOUT));
+
+        Assertions.assertEquals(1, index.pollDue(DueKind.RETRY_COMMITTING, now, 1000).size());
+        index.index(retrying, GlobalStatus.RollbackRetrying);
+        Assertions.assertEquals(0, index.size(DueKind.RETRY_COMMITTING));
+        Assertions.assertEquals(1, index.size(DueKind.RETRY_ROLLBACKING));
+        index.remove(retrying);
+        Assertions.assertEquals(0, index.size(DueKind.RETRY_ROLLBACKING));
+    }
+
+    private static GlobalSession newGlobalSession(String xid, int timeout) {
+        GlobalSession session = new GlobalSession("demo-app", "default_tx_group", "test", timeout);
+        session.setXid(xid);
+        return session;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.db.lock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.seata.common.XID;
+import org.apache.seata.core.lock.RowLock;
+import org.apache.seata.core.store.LockStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * The type Data base lock cache test.
+ */
+public class DataBaseLockCacheTest {
+
+    private LockStore lockStore;
+
+    private DataBaseLockCache lockCache;
+
+    private DataBaseLocker locker;
+
+    @BeforeEach
+    public void setUp() {
+        lockStore = Mockito.mock(LockStore.class);
+        Mockito.when(lockStore.acquireLock(anyList(), anyBoolean(), anyBoolean())).thenReturn(true);
+        Mockito.when(lockStore.isLockable(anyList())).thenReturn(true);
+        Mockito.when(lockStore.unLock(anyLong())).thenReturn(true);
+        Mockito.when(lockStore.unLock(anyString())).thenReturn(true);
+        lockCache = new DataBaseLockCache(60000);
+        locker = new DataBaseLocker();
+        locker.setLockStore(lockStore);
+        locker.setLockCache(lockCache);
+    }
+
+    @Test
+    public void testAnswerLocally() {
+        String xid = XID.generateXID(1L);
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1", "2")));
+        Assertions.assertEquals(2, lockCache.size());
+
+        // re-acquired by the same global transaction without the lock table
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 2L, "2")));
+        Mockito.verify(lockStore, Mockito.times(1)).acquireLock(anyList(), anyBoolean(), anyBoolean());
+
+        Assertions.assertTrue(locker.isLockable(rowLocks(xid, 1L, "1", "2")));
+        Mockito.verify(lockStore, Mockito.never()).isLockable(anyList());
+
+        // a row not cached yet, or held by another global transaction, is checked in the lock table
+        Assertions.assertTrue(locker.isLockable(rowLocks(xid, 1L, "1", "3")));
+        Mockito.verify(lockStore, Mockito.times(1)).isLockable(anyList());
+        Assertions.assertTrue(locker.isLockable(rowLocks(XID.generateXID(2L), 3L, "1")));
+        Mockito.verify(lockStore, Mockito.times(2)).isLockable(anyList());
+
+        Assertions.assertTrue(locker.releaseLock(xid, 1L));
+        Assertions.assertEquals(0, lockCache.size());
+    }
+
+    @Test
+    public void testReplacedByLaterAcquire() {
+        String xid = XID.generateXID(4L);
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1", "2")));
+
+        // another server released the rows, and another global transaction got one of them
+        String laterXid = XID.generateXID(5L);
+        Assertions.assertTrue(locker.acquireLock(rowLocks(laterXid, 2L, "1")));
+        Assertions.assertEquals(2, lockCache.size());
+        Assertions.assertTrue(locker.acquireLock(rowLocks(laterXid, 2L, "1")));
+        Mockito.verify(lockStore, Mockito.times(2)).acquireLock(anyList(), anyBoolean(), anyBoolean());
+
+        // releasing the former branch keeps the row of the later one
+        Assertions.assertTrue(locker.releaseLock(xid, 1L));
+        Assertions.assertEquals(1, lockCache.size());
+        Assertions.assertTrue(locker.releaseLock(laterXid));
+        Assertions.assertEquals(0, lockCache.size());
+    }
+
+    @Test
+    public void testExpired() {
+        lockCache = new DataBaseLockCache(0);
+        locker.setLockCache(lockCache);
+        String xid = XID.generateXID(6L);
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1")));
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1")));
+        Assertions.assertTrue(locker.isLockable(rowLocks(xid, 1L, "1")));
+        Mockito.verify(lockStore, Mockito.times(2)).acquireLock(anyList(), anyBoolean(), anyBoolean());
+        Mockito.verify(lockStore, Mockito.times(1)).isLockable(anyList());
+    }
+
+    @Test
+    public void testReleaseAndReconcile() {
+        String xid = XID.generateXID(3L);
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1")));
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 2L, "2")));
+        Assertions.assertTrue(locker.releaseLock(xid));
+        Assertions.assertEquals(0, lockCache.size());
+
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1")));
+        lockCache.reconcile("RetryCommitting", "10.0.0.1:8091");
+        Assertions.assertEquals(0, lockCache.size());
+    }
+
+    @Test
+    public void testForeignTransactionNotCached() {
+        String xid = "10.0.0.1:18091:1";
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1")));
+        Assertions.assertTrue(locker.acquireLock(rowLocks(xid, 1L, "1")));
+        Assertions.assertEquals(0, lockCache.size());
+        Mockito.verify(lockStore, Mockito.times(2)).acquireLock(anyList(), anyBoolean(), anyBoolean());
+    }
+
+    private static List<RowLock> rowLocks(String xid, long branchId, String... pks) {
+        List<RowLock> rowLocks = new ArrayList<>();
+        for (String pk : pks) {
+            RowLock rowLock = new RowLock();
+            rowLock.setXid(xid);
+            rowLock.setTransactionId(XID.getTransactionId(xid));
+            rowLock.setBranchId(branchId);
+            rowLock.setResourceId("jdbc:mysql://db1");
+            rowLock.setTableName("t_order");
+            rowLock.setPk(pk);
+            rowLocks.add(rowLock);
+        }
+        return rowLocks;
+    }
+}
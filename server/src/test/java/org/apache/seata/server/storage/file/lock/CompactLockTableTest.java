@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.seata.server.storage.file.lock;
+
+import org.apache.seata.server.session.BranchSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * The type Compact lock table test.
+ */
+@SpringBootTest
+public class CompactLockTableTest {
+
+    @BeforeAll
+    public static void setUp(ApplicationContext context) {
+
+    }
+
+    @Test
+    public void testInternTable() {
+        CompactLockTable lockTable = new CompactLockTable(4);
+        Assertions.assertEquals(-1, lockTable.lookupTable("jdbc:mysql://db1", "t_order"));
+        int orderId = lockTable.internTable("jdbc:mysql://db1", "t_order");
+        Assertions.assertEquals(orderId, lockTable.internTable("jdbc:mysql://db1", "t_order"));
+        Assertions.assertEquals(orderId, lockTable.lookupTable("jdbc:mysql://db1", "t_order"));
+        Assertions.assertNotEquals(orderId, lockTable.internTable("jdbc:mysql://db2", "t_order"));
+    }
+
+    @Test
+    public void testHashCollisionKeepsRowsApart() {
+        CompactLockTable lockTable = new CompactLockTable(1);
+        BranchSession owner1 = new BranchSession();
+        BranchSession owner2 = new BranchSession();
+        // force two different pks onto the same 64-bit hash
+        Assertions.assertNull(lockTable.putIfAbsent(1, 42L, "1", owner1));
+        Assertions.assertNull(lockTable.putIfAbsent(1, 42L, "2", owner2));
+        Assertions.assertSame(owner1, lockTable.putIfAbsent(1, 42L, "1", owner2));
+        Assertions.assertSame(owner1, lockTable.get(1, 42L, "1"));
+        Assertions.assertSame(owner2, lockTable.get(1, 42L, "2"));
+        Assertions.assertNull(lockTable.get(2, 42L, "1"));
+
+        Assertions.assertEquals(1, lockTable.remove(1, 42L, owner1));
+        Assertions.assertNull(lockTable.get(1, 42L, "1"));
+        Assertions.assertSame(owner2, lockTable.get(1, 42L, "2"));
+        Assertions.assertEquals(1, lockTable.size());
+    }
+
+    @Test
+    public void testGrowAndShrinkKeepsProbeChains() {
+        CompactLockTable lockTable = new CompactLockTable(2);
+        BranchSession owner1 = new BranchSession();
+        BranchSession owner2 = new BranchSession();
+        int rows = 10000;
+        for (int i = 0; i < rows; i++) {
+            String pk = String.valueOf(i);
+            BranchSession owner = (i & 1) == 0 ? owner1 : owner2;
+            Assertions.assertNull(lockTable.putIfAbsent(1, CompactLockTable.hash(1, pk), pk, owner));
+        }
+        Assertions.assertEquals(rows, lockTable.size());
+        for (int i = 0; i < rows; i += 2) {
+            String pk = String.valueOf(i);
+            Assertions.assertEquals(1, lockTable.remove(1, CompactLockTable.hash(1, pk), owner1));
+        }
+        Assertions.assertEquals(rows / 2, lockTable.size());
+        for (int i = 0; i < rows; i++) {
+            String pk = String.valueOf(i);
+            BranchSession expected = (i & 1) == 0 ? null : owner2;
+            Assertions.assertSame(expected, lockTable.get(1, CompactLockTable.hash(1, pk), pk));
+        }
+        lockTable.clear();
+        Assertions.assertEquals(0, lockTable.size());
+    }
+
+    @Test
+    public void testLockHolder() {
+        CompactLockTable lockTable = new CompactLockTable(4);
+        BranchSession owner = new BranchSession();
+        CompactLockHolder holder = new CompactLockHolder();
+        Assertions.assertTrue(holder.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            String pk = String.valueOf(i);
+            long pkHash = CompactLockTable.hash(3, pk);
+            lockTable.putIfAbsent(3, pkHash, pk, owner);
+            holder.add(3, pkHash);
+        }
+        Assertions.assertEquals(100, holder.size());
+        Assertions.assertEquals(100, lockTable.size());
+        holder.releaseAll(lockTable, owner);
+        Assertions.assertTrue(holder.isEmpty());
+        Assertions.assertEquals(0, lockTable.size());
+    }
+}
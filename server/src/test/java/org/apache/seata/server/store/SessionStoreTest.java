@@ -70,14 +70,13 @@ public class SessionStoreTest {
     public void clean() throws Exception {
         String sessionStorePath = CONFIG.getConfig(ConfigurationKeys.STORE_FILE_DIR, DEFAULT_SESSION_STORE_FILE_DIR)
             + separator + XID.getPort();
-        File rootDataFile = new File(sessionStorePath + separator + SessionHolder.ROOT_SESSION_MANAGER_NAME);
-        File rootDataFileHis = new File(sessionStorePath + separator + SessionHolder.ROOT_SESSION_MANAGER_NAME + ".1");
-
-        if (rootDataFile.exists()) {
-            rootDataFile.delete();
-        }
-        if (rootDataFileHis.exists()) {
-            rootDataFileHis.delete();
+        // the data files, the history file, the log segments and the snapshot
+        File[] rootDataFiles = new File(sessionStorePath).listFiles(
+            (dir, name) -> name.startsWith(SessionHolder.ROOT_SESSION_MANAGER_NAME));
+        if (rootDataFiles != null) {
+            for (File rootDataFile : rootDataFiles) {
+                rootDataFile.delete();
+            }
         }
         LockManager lockManager = new FileLockManagerForTest();
         lockManager.cleanAllLocks();
@@ -16,12 +16,18 @@
  */
 package org.apache.seata.server.store.file;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.seata.server.session.SessionHolder;
 import org.assertj.core.util.Files;
@@ -66,13 +72,11 @@ public class FileTransactionStoreManagerTest {
             fileTransactionStoreManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(), null);
             BranchSession branchSessionA = Mockito.mock(BranchSession.class);
             GlobalSession global = new GlobalSession();
-            Mockito.when(branchSessionA.encode())
-                    .thenReturn(createBigBranchSessionData(global, (byte) 'A'));
+            mockEncode(branchSessionA, createBigBranchSessionData(global, (byte) 'A'));
             Mockito.when(branchSessionA.getApplicationData())
                     .thenReturn(new String(createBigApplicationData((byte) 'A')));
             BranchSession branchSessionB = Mockito.mock(BranchSession.class);
-            Mockito.when(branchSessionB.encode())
-                    .thenReturn(createBigBranchSessionData(global, (byte) 'B'));
+            mockEncode(branchSessionB, createBigBranchSessionData(global, (byte) 'B'));
             Mockito.when(branchSessionB.getApplicationData())
                     .thenReturn(new String(createBigApplicationData((byte) 'B')));
             Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.BRANCH_ADD, branchSessionA));
@@ -89,62 +93,209 @@ public class FileTransactionStoreManagerTest {
                 fileTransactionStoreManager.shutdown();
             }
             Assertions.assertTrue(seataFile.delete());
+            deleteDataFiles(seataFile);
         }
     }
 
     @Test
-    public void testFindTimeoutAndSave() throws Exception {
+    public void testConcurrentWrite() throws Exception {
         File seataFile = Files.newTemporaryFile();
-        Method findTimeoutAndSaveMethod = FileTransactionStoreManager.class.getDeclaredMethod("findTimeoutAndSave");
-        findTimeoutAndSaveMethod.setAccessible(true);
+        FileTransactionStoreManager fileTransactionStoreManager = null;
+        int threadNum = 8;
+        int perThreadNum = 200;
+        try {
+            FileTransactionStoreManager storeManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(), null);
+            fileTransactionStoreManager = storeManager;
+            ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threadNum; i++) {
+                futures.add(executor.submit(() -> {
+                    boolean written = true;
+                    for (int j = 0; j < perThreadNum; j++) {
+                        GlobalSession globalSession = new GlobalSession("demo-app", "default_tx_group", "test", 6000);
+                        written &= storeManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_ADD,
+                            globalSession);
+                    }
+                    return written;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get());
+            }
+            executor.shutdown();
+            // every frame is complete and readable once the writers returned
+            int total = 0;
+            List<TransactionWriteStore> list;
+            while ((list = fileTransactionStoreManager.readWriteStore(500, false)) != null && !list.isEmpty()) {
+                total += list.size();
+            }
+            Assertions.assertEquals(threadNum * perThreadNum, total);
+        } finally {
+            if (fileTransactionStoreManager != null) {
+                fileTransactionStoreManager.shutdown();
+            }
+            Assertions.assertTrue(seataFile.delete());
+            deleteDataFiles(seataFile);
+        }
+    }
+
+    @Test
+    public void testCheckpointAndReload() throws Exception {
+        File seataDir = Files.newTemporaryFolder();
+        File seataFile = new File(seataDir, "root.data");
+        Method checkpointMethod = FileTransactionStoreManager.class.getDeclaredMethod("checkpoint");
+        checkpointMethod.setAccessible(true);
         FileSessionManager sessionManager = null;
         FileTransactionStoreManager fileTransactionStoreManager = null;
         try {
-            List<GlobalSession> timeoutSessions = new ArrayList<>();
+            List<GlobalSession> liveSessions = new ArrayList<>();
+            SessionManager sessionManagerMock = Mockito.mock(SessionManager.class);
+            Mockito.when(sessionManagerMock.allSessions()).thenReturn(liveSessions);
+            // a few big branches fill a segment
+            fileTransactionStoreManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(),
+                sessionManagerMock, 64 * 1024);
             for (int i = 0; i < 100; i++) {
                 GlobalSession globalSession = new GlobalSession("", "", "", 60000);
-                BranchSession branchSessionA = Mockito.mock(BranchSession.class);
-                Mockito.when(branchSessionA.encode())
-                        .thenReturn(createBigBranchSessionData(globalSession, (byte) 'A'));
-                Mockito.when(branchSessionA.getApplicationData())
-                        .thenReturn(new String(createBigApplicationData((byte) 'A')));
-                globalSession.addBranch(branchSessionA);
-                BranchSession branchSessionB = Mockito.mock(BranchSession.class);
-                Mockito.when(branchSessionB.encode())
-                        .thenReturn(createBigBranchSessionData(globalSession, (byte) 'B'));
-                Mockito.when(branchSessionB.getApplicationData())
-                        .thenReturn(new String(createBigApplicationData((byte) 'B')));
-                globalSession.addBranch(branchSessionB);
-                timeoutSessions.add(globalSession);
+                Assertions.assertTrue(fileTransactionStoreManager.writeSession(
+                    TransactionStoreManager.LogOperation.GLOBAL_ADD, globalSession));
+                for (byte c : new byte[] {'A', 'B'}) {
+                    BranchSession branchSession = Mockito.mock(BranchSession.class);
+                    mockEncode(branchSession, createBigBranchSessionData(globalSession, c));
+                    Mockito.when(branchSession.getApplicationData())
+                        .thenReturn(new String(createBigApplicationData(c)));
+                    globalSession.addBranch(branchSession);
+                    Assertions.assertTrue(fileTransactionStoreManager.writeSession(
+                        TransactionStoreManager.LogOperation.BRANCH_ADD, branchSession));
+                }
+                liveSessions.add(globalSession);
             }
-            SessionManager sessionManagerMock = Mockito.mock(SessionManager.class);
-            Mockito.when(sessionManagerMock.findGlobalSessions(Mockito.any()))
-                    .thenReturn(timeoutSessions);
-            fileTransactionStoreManager = new FileTransactionStoreManager(
-                seataFile.getAbsolutePath(), sessionManagerMock);
-            Assertions.assertTrue((boolean) findTimeoutAndSaveMethod.invoke(fileTransactionStoreManager));
+            Assertions.assertTrue(segmentCount(seataDir) > 2);
+
+            Assertions.assertTrue((boolean)checkpointMethod.invoke(fileTransactionStoreManager));
+            // only the snapshot and the segment the checkpoint position is in are left
+            Assertions.assertTrue(new File(seataDir, "root.data.snapshot").exists());
+            Assertions.assertEquals(1, segmentCount(seataDir));
+            Assertions.assertFalse((boolean)checkpointMethod.invoke(fileTransactionStoreManager));
+            fileTransactionStoreManager.shutdown();
+            fileTransactionStoreManager = null;
 
-            sessionManager = new FileSessionManager(seataFile.getName(), seataFile.getParent());
+            sessionManager = new FileSessionManager(seataFile.getName(), seataDir.getAbsolutePath());
             sessionManager.reload();
             Collection<GlobalSession> globalSessions = sessionManager.allSessions();
-            Assertions.assertNotNull(globalSessions);
+            Assertions.assertEquals(100, globalSessions.size());
             globalSessions.forEach(g -> {
-                Assertions.assertNotNull(g);
                 List<BranchSession> branches = g.getBranchSessions();
                 Assertions.assertEquals(2, branches.size());
                 Assertions.assertEquals(new String(createBigApplicationData((byte) 'A')), branches.get(0).getApplicationData());
                 Assertions.assertEquals(new String(createBigApplicationData((byte) 'B')), branches.get(1).getApplicationData());
             });
         } finally {
-            findTimeoutAndSaveMethod.setAccessible(false);
+            checkpointMethod.setAccessible(false);
             if (fileTransactionStoreManager != null) {
                 fileTransactionStoreManager.shutdown();
             }
             if (sessionManager != null) {
                 sessionManager.destroy();
             }
-            Assertions.assertTrue(seataFile.delete());
+            deleteDataFiles(seataFile);
+            Assertions.assertTrue(seataDir.delete());
+        }
+    }
+
+    @Test
+    public void testReloadFormerDataFile() throws Exception {
+        File seataDir = Files.newTemporaryFolder();
+        File seataFile = new File(seataDir, "root.data");
+        FileSessionManager sessionManager = null;
+        try {
+            GlobalSession globalSession = new GlobalSession("demo-app", "default_tx_group", "test", 6000);
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(seataFile))) {
+                byte[] data = new TransactionWriteStore(globalSession, TransactionStoreManager.LogOperation.GLOBAL_ADD)
+                    .encode();
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            sessionManager = new FileSessionManager(seataFile.getName(), seataDir.getAbsolutePath());
+            sessionManager.reload();
+            Assertions.assertNotNull(sessionManager.findGlobalSession(globalSession.getXid()));
+        } finally {
+            if (sessionManager != null) {
+                sessionManager.destroy();
+            }
+            deleteDataFiles(seataFile);
+            Assertions.assertTrue(seataDir.delete());
+        }
+    }
+
+    @Test
+    public void testCorruptedFrameEndsSegment() throws Exception {
+        File seataDir = Files.newTemporaryFolder();
+        File seataFile = new File(seataDir, "root.data");
+        FileSessionManager sessionManager = null;
+        FileTransactionStoreManager fileTransactionStoreManager = null;
+        try {
+            fileTransactionStoreManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(), null);
+            List<GlobalSession> globalSessions = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                GlobalSession globalSession = new GlobalSession("demo-app", "default_tx_group", "test", 6000);
+                Assertions.assertTrue(fileTransactionStoreManager.writeSession(
+                    TransactionStoreManager.LogOperation.GLOBAL_ADD, globalSession));
+                globalSessions.add(globalSession);
+            }
+            fileTransactionStoreManager.shutdown();
+            fileTransactionStoreManager = null;
+
+            // flip a byte in the body of the second frame, as a torn write would leave it
+            int firstLength = new TransactionWriteStore(globalSessions.get(0),
+                TransactionStoreManager.LogOperation.GLOBAL_ADD).encode().length;
+            File[] segments = seataDir.listFiles((dir, name) -> name.startsWith("root.data.seg."));
+            Assertions.assertNotNull(segments);
+            Assertions.assertEquals(1, segments.length);
+            try (RandomAccessFile raf = new RandomAccessFile(segments[0], "rw")) {
+                long position = 8 + 1 + firstLength + 8 + 10;
+                raf.seek(position);
+                int b = raf.read();
+                raf.seek(position);
+                raf.write(b ^ 0xFF);
+            }
+
+            sessionManager = new FileSessionManager(seataFile.getName(), seataDir.getAbsolutePath());
+            sessionManager.reload();
+            Assertions.assertNotNull(sessionManager.findGlobalSession(globalSessions.get(0).getXid()));
+            Assertions.assertNull(sessionManager.findGlobalSession(globalSessions.get(1).getXid()));
+            Assertions.assertNull(sessionManager.findGlobalSession(globalSessions.get(2).getXid()));
+        } finally {
+            if (fileTransactionStoreManager != null) {
+                fileTransactionStoreManager.shutdown();
+            }
+            if (sessionManager != null) {
+                sessionManager.destroy();
+            }
+            deleteDataFiles(seataFile);
+            Assertions.assertTrue(seataDir.delete());
+        }
+    }
+
+    private void mockEncode(BranchSession branchSession, byte[] data) {
+        Mockito.when(branchSession.encode()).thenReturn(data);
+        Mockito.doAnswer(invocation -> ((ByteBuffer) invocation.getArgument(0)).put(data))
+            .when(branchSession).encode(Mockito.any(ByteBuffer.class));
+    }
+
+    private int segmentCount(File seataDir) {
+        String[] segments = seataDir.list((dir, name) -> name.startsWith("root.data.seg."));
+        return segments == null ? 0 : segments.length;
+    }
+
+    private void deleteDataFiles(File seataFile) {
+        File[] dataFiles = seataFile.getAbsoluteFile().getParentFile().listFiles(
+            (dir, name) -> name.startsWith(seataFile.getName() + "."));
+        if (dataFiles != null) {
+            for (File dataFile : dataFiles) {
+                dataFile.delete();
+            }
         }
+        seataFile.delete();
     }
 
     private byte[] createBigBranchSessionData(GlobalSession global, byte c) {
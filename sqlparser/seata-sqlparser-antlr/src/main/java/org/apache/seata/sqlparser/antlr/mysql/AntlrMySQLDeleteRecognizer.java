@@ -35,7 +35,7 @@ import java.util.List;
  */
 public class AntlrMySQLDeleteRecognizer implements SQLDeleteRecognizer {
 
-    private MySqlContext sqlContext;
+    private final MySqlContext sqlContext;
 
     public AntlrMySQLDeleteRecognizer(String sql) {
         MySqlLexer mySqlLexer = new MySqlLexer(new ANTLRNoCaseStringStream(sql));
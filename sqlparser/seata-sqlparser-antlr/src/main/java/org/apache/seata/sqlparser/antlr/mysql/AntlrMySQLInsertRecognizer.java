@@ -37,7 +37,7 @@ import java.util.stream.Collectors;
  */
 public class AntlrMySQLInsertRecognizer implements SQLInsertRecognizer {
 
-    private MySqlContext sqlContext;
+    private final MySqlContext sqlContext;
 
     public AntlrMySQLInsertRecognizer(String sql) {
         MySqlLexer lexer = new MySqlLexer(new ANTLRNoCaseStringStream(sql));
@@ -35,7 +35,7 @@ import java.util.List;
  */
 public class AntlrMySQLSelectRecognizer implements SQLSelectRecognizer {
 
-    private MySqlContext sqlContext;
+    private final MySqlContext sqlContext;
 
     public AntlrMySQLSelectRecognizer(String sql) {
         MySqlLexer mySqlLexer = new MySqlLexer(new ANTLRNoCaseStringStream(sql));
@@ -38,7 +38,7 @@ import java.util.stream.Collectors;
  */
 public class AntlrMySQLUpdateRecognizer implements SQLUpdateRecognizer {
 
-    private MySqlContext sqlContext;
+    private final MySqlContext sqlContext;
 
     public AntlrMySQLUpdateRecognizer(String sql) {
         MySqlLexer mySqlLexer = new MySqlLexer(new ANTLRNoCaseStringStream(sql));
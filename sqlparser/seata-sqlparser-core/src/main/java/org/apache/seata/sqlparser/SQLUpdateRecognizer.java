@@ -40,6 +40,17 @@ public interface SQLUpdateRecognizer extends WhereRecognizer {
      */
     List<Object> getUpdateValues();
 
+    /**
+     * Gets update values if they are all literals or placeholders bound by one param each, like
+     * "update t set a = 1, b = ? where id = ?", the placeholders are replaced by the bound params.
+     *
+     * @param parametersHolder the parameters holder, null if the sql is not prepared
+     * @return the update values, null if any of them is only known by the database
+     */
+    default List<Object> getUpdateValues(ParametersHolder parametersHolder) {
+        return null;
+    }
+
     /**
      * Gets update join item table name
      * @param tableName the update join item table source name
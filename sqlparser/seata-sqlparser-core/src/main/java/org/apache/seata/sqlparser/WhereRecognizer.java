@@ -41,6 +41,17 @@ public interface WhereRecognizer extends SQLRecognizer {
      */
     String getWhereCondition();
 
+    /**
+     * Gets the columns of the where condition if it only matches columns by equality to placeholders, like
+     * "where id = ? and user_code = ?".
+     *
+     * @return the columns as written in the sql, in the order of their placeholders, null if the where condition is
+     * anything else
+     */
+    default List<String> getWhereEqualityColumns() {
+        return null;
+    }
+
     /**
      * Gets limit condition
      *
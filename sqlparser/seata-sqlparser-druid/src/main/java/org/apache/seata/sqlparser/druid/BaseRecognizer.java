@@ -16,25 +16,37 @@
  */
 package org.apache.seata.sqlparser.druid;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.SQLLimit;
 import com.alibaba.druid.sql.ast.SQLOrderBy;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.expr.SQLBetweenExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
 import com.alibaba.druid.sql.ast.expr.SQLExistsExpr;
 import com.alibaba.druid.sql.ast.expr.SQLInListExpr;
 import com.alibaba.druid.sql.ast.expr.SQLInSubQueryExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
 import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNullExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLValuableExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
 import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
 import com.alibaba.druid.sql.ast.statement.SQLMergeStatement;
 import com.alibaba.druid.sql.ast.statement.SQLReplaceStatement;
 import com.alibaba.druid.sql.ast.statement.SQLSubqueryTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateSetItem;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
 import com.alibaba.druid.sql.visitor.SQLASTVisitorAdapter;
 import org.apache.seata.common.exception.NotSupportYetException;
+import org.apache.seata.sqlparser.ParametersHolder;
 import org.apache.seata.sqlparser.SQLParsingException;
 import org.apache.seata.sqlparser.SQLRecognizer;
+import org.apache.seata.sqlparser.struct.Null;
 
 /**
  * The type Base recognizer.
@@ -56,7 +68,7 @@ public abstract class BaseRecognizer implements SQLRecognizer {
     /**
      * The Original sql.
      */
-    protected String originalSQL;
+    protected final String originalSQL;
 
     /**
      * Instantiates a new Base recognizer.
@@ -101,6 +113,88 @@ public abstract class BaseRecognizer implements SQLRecognizer {
         throw new SQLParsingException(errorMsg);
     }
 
+    /**
+     * Gets the update values of the set items if they are all literals or placeholders. The placeholders must be
+     * the first ones of the sql, so that the bound params of them are known.
+     *
+     * @param updateSetItems   the update set items
+     * @param parametersHolder the parameters holder
+     * @return the update values, null if any of them is not a literal or a placeholder bound by one param
+     */
+    protected List<Object> getUpdateValues(List<SQLUpdateSetItem> updateSetItems, ParametersHolder parametersHolder) {
+        List<Object> list = new ArrayList<>(updateSetItems.size());
+        int paramIndex = 0;
+        for (SQLUpdateSetItem updateSetItem : updateSetItems) {
+            SQLExpr column = updateSetItem.getColumn();
+            if (!(column instanceof SQLIdentifierExpr) && !(column instanceof SQLPropertyExpr)) {
+                return null;
+            }
+            SQLExpr expr = updateSetItem.getValue();
+            if (expr instanceof SQLNullExpr) {
+                list.add(null);
+            } else if (expr instanceof SQLValuableExpr) {
+                list.add(((SQLValuableExpr) expr).getValue());
+            } else if (expr instanceof SQLVariantRefExpr && "?".equals(((SQLVariantRefExpr) expr).getName())) {
+                if (parametersHolder == null || ((SQLVariantRefExpr) expr).getIndex() != paramIndex++) {
+                    return null;
+                }
+                List<Object> params = parametersHolder.getParameters().get(paramIndex);
+                if (params == null || params.size() != 1) {
+                    return null;
+                }
+                Object param = params.get(0);
+                list.add(param instanceof Null ? null : param);
+            } else {
+                return null;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the columns of the where condition if it is a conjunction of column equalities to placeholders.
+     *
+     * @param where the where condition
+     * @return the columns as written in the sql, in the order of their placeholders, null if the where condition is
+     * anything else
+     */
+    protected List<String> getWhereEqualityColumns(SQLExpr where) {
+        if (where == null) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        return collectEqualityColumns(where, columns) ? columns : null;
+    }
+
+    private boolean collectEqualityColumns(SQLExpr expr, List<String> columns) {
+        if (!(expr instanceof SQLBinaryOpExpr)) {
+            return false;
+        }
+        SQLBinaryOpExpr binaryOpExpr = (SQLBinaryOpExpr) expr;
+        if (binaryOpExpr.getOperator() == SQLBinaryOperator.BooleanAnd) {
+            // the left side is visited first, as the placeholders are numbered
+            return collectEqualityColumns(binaryOpExpr.getLeft(), columns)
+                && collectEqualityColumns(binaryOpExpr.getRight(), columns);
+        }
+        if (binaryOpExpr.getOperator() != SQLBinaryOperator.Equality) {
+            return false;
+        }
+        SQLExpr value = binaryOpExpr.getRight();
+        if (!(value instanceof SQLVariantRefExpr) || !"?".equals(((SQLVariantRefExpr) value).getName())) {
+            return false;
+        }
+        SQLExpr column = binaryOpExpr.getLeft();
+        if (column instanceof SQLIdentifierExpr) {
+            columns.add(((SQLIdentifierExpr) column).getName());
+        } else if (column instanceof SQLPropertyExpr
+            && ((SQLPropertyExpr) column).getOwner() instanceof SQLIdentifierExpr) {
+            columns.add(((SQLPropertyExpr) column).getOwnerName() + "." + ((SQLPropertyExpr) column).getName());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
     public void executeLimit(SQLLimit sqlLimit, SQLASTVisitor visitor) {
         visitor.visit(sqlLimit);
     }
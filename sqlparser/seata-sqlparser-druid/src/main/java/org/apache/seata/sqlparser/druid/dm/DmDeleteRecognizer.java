@@ -106,6 +106,11 @@ public class DmDeleteRecognizer extends BaseDmRecognizer implements SQLDeleteRec
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         return null;
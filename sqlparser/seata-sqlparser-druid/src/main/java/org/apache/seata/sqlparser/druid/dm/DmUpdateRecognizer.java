@@ -43,7 +43,7 @@ import java.util.List;
  */
 public class DmUpdateRecognizer extends BaseDmRecognizer implements SQLUpdateRecognizer {
 
-    private SQLUpdateStatement ast;
+    private final SQLUpdateStatement ast;
 
     /**
      * Instantiates a new My sql update recognizer.
@@ -102,6 +102,11 @@ public class DmUpdateRecognizer extends BaseDmRecognizer implements SQLUpdateRec
         return list;
     }
 
+    @Override
+    public List<Object> getUpdateValues(ParametersHolder parametersHolder) {
+        return super.getUpdateValues(ast.getItems(), parametersHolder);
+    }
+
     @Override
     public String getWhereCondition(final ParametersHolder parametersHolder,
         final ArrayList<List<Object>> paramAppenderList) {
@@ -115,6 +120,11 @@ public class DmUpdateRecognizer extends BaseDmRecognizer implements SQLUpdateRec
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getTableAlias() {
         return ast.getTableSource().getAlias();
@@ -112,6 +112,11 @@ public class MySQLDeleteRecognizer extends BaseMySQLRecognizer implements SQLDel
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         SQLLimit limit = ast.getLimit();
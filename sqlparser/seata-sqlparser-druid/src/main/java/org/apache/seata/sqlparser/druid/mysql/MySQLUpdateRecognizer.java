@@ -117,6 +117,11 @@ public class MySQLUpdateRecognizer extends BaseMySQLRecognizer implements SQLUpd
         return list;
     }
 
+    @Override
+    public List<Object> getUpdateValues(ParametersHolder parametersHolder) {
+        return super.getUpdateValues(ast.getItems(), parametersHolder);
+    }
+
     @Override
     public List<String> getUpdateColumnsUnEscape() {
         List<String> updateColumns = getUpdateColumns();
@@ -136,6 +141,11 @@ public class MySQLUpdateRecognizer extends BaseMySQLRecognizer implements SQLUpd
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getTableAlias() {
         return ast.getTableSource().getAlias();
@@ -107,6 +107,11 @@ public class OracleDeleteRecognizer extends BaseOracleRecognizer implements SQLD
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         //oracle does not support limit or rownum yet
@@ -42,7 +42,7 @@ import org.apache.seata.sqlparser.SQLUpdateRecognizer;
  */
 public class OracleUpdateRecognizer extends BaseOracleRecognizer implements SQLUpdateRecognizer {
 
-    private OracleUpdateStatement ast;
+    private final OracleUpdateStatement ast;
 
     /**
      * Instantiates a new My sql update recognizer.
@@ -101,6 +101,11 @@ public class OracleUpdateRecognizer extends BaseOracleRecognizer implements SQLU
         return list;
     }
 
+    @Override
+    public List<Object> getUpdateValues(ParametersHolder parametersHolder) {
+        return super.getUpdateValues(ast.getItems(), parametersHolder);
+    }
+
     @Override
     public List<String> getUpdateColumnsUnEscape() {
         List<String> updateColumns = getUpdateColumns();
@@ -120,6 +125,11 @@ public class OracleUpdateRecognizer extends BaseOracleRecognizer implements SQLU
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         //oracle does not support limit or rownum yet
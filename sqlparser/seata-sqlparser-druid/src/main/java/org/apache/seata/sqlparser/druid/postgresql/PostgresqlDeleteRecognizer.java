@@ -102,6 +102,11 @@ public class PostgresqlDeleteRecognizer extends BasePostgresqlRecognizer impleme
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         //postgre does not have limit condition in delete statement
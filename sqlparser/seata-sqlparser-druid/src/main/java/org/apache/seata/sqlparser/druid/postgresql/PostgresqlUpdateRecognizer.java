@@ -39,7 +39,7 @@ import org.apache.seata.sqlparser.SQLUpdateRecognizer;
 
 public class PostgresqlUpdateRecognizer extends BasePostgresqlRecognizer implements SQLUpdateRecognizer {
 
-    private PGUpdateStatement ast;
+    private final PGUpdateStatement ast;
 
     /**
      * Instantiates a new Postgresql update recognizer.
@@ -98,6 +98,11 @@ public class PostgresqlUpdateRecognizer extends BasePostgresqlRecognizer impleme
         return list;
     }
 
+    @Override
+    public List<Object> getUpdateValues(ParametersHolder parametersHolder) {
+        return super.getUpdateValues(ast.getItems(), parametersHolder);
+    }
+
     @Override
     public List<String> getUpdateColumnsUnEscape() {
         List<String> updateColumns = getUpdateColumns();
@@ -117,6 +122,11 @@ public class PostgresqlUpdateRecognizer extends BasePostgresqlRecognizer impleme
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getTableAlias() {
         return ast.getTableSource().getAlias();
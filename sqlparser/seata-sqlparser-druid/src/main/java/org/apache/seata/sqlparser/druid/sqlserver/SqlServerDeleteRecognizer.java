@@ -108,6 +108,11 @@ public class SqlServerDeleteRecognizer extends BaseSqlServerRecognizer implement
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         return null;
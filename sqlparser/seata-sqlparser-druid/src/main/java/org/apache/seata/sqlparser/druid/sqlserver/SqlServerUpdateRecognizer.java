@@ -50,7 +50,7 @@ import org.apache.seata.sqlparser.util.ColumnUtils;
  *
  */
 public class SqlServerUpdateRecognizer extends BaseSqlServerRecognizer implements SQLUpdateRecognizer {
-    private SQLServerUpdateStatement ast;
+    private final SQLServerUpdateStatement ast;
 
     /**
      * Instantiates a new sqlserver update recognizer.
@@ -181,6 +181,11 @@ public class SqlServerUpdateRecognizer extends BaseSqlServerRecognizer implement
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return super.getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimitCondition() {
         return null;
@@ -328,6 +328,22 @@ public class MySQLDeleteRecognizerTest extends AbstractRecognizerTest {
         });
     }
 
+    @Test
+    public void testGetWhereEqualityColumns() {
+        String sql = "delete from t where (id = ? and t.user_code = ?)";
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLDeleteRecognizer recognizer = new MySQLDeleteRecognizer(sql, asts.get(0));
+        Assertions.assertEquals(Arrays.asList("id", "t.user_code"), recognizer.getWhereEqualityColumns());
+
+        // not an equality to a placeholder
+        for (String s : new String[] {"delete from t where id = ? or user_code = ?", "delete from t where id = 1",
+            "delete from t where id > ?", "delete from t where id = ? and upper(user_code) = ?",
+            "delete from t"}) {
+            asts = SQLUtils.parseStatements(s, JdbcConstants.MYSQL);
+            Assertions.assertNull(new MySQLDeleteRecognizer(s, asts.get(0)).getWhereEqualityColumns(), s);
+        }
+    }
+
     @Override
     public String getDbType() {
         return JdbcConstants.MYSQL;
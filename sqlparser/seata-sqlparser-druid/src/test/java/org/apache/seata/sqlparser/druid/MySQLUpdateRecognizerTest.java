@@ -375,4 +375,31 @@ public class MySQLUpdateRecognizerTest extends AbstractRecognizerTest {
             Assertions.assertTrue(updateColumn.contains("`"));
         }
     }
+
+    @Test
+    public void testGetUpdateValuesWithParams() {
+        Map<Integer, ArrayList<Object>> parameters = new HashMap<>();
+        parameters.put(1, new ArrayList<>(Collections.singletonList("name1")));
+        parameters.put(2, new ArrayList<>(Collections.singletonList(1)));
+        ParametersHolder parametersHolder = () -> parameters;
+
+        String sql = "update t set name = ?, age = 18, address = null where id = ?";
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLUpdateRecognizer recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        Assertions.assertEquals(Arrays.asList("name1", 18, null), recognizer.getUpdateValues(parametersHolder));
+        Assertions.assertNull(recognizer.getUpdateValues(null));
+
+        // the value is evaluated by the database
+        sql = "update t set name = ?, age = age + 1 where id = ?";
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        Assertions.assertNull(recognizer.getUpdateValues(parametersHolder));
+
+        // each row of the batch binds its own value
+        parameters.get(1).add("name2");
+        sql = "update t set name = ? where id = ?";
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        Assertions.assertNull(recognizer.getUpdateValues(parametersHolder));
+    }
 }